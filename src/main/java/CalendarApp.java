@@ -5,14 +5,18 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
+import controller.CommandJournal;
 import controller.ViewController;
-import model.IModel;
-import controller.Listener;
+import model.ModelSnapshot;
 import view.CalendarView;
 import gui.IViewModel;
 import gui.ViewModel;
@@ -31,50 +35,160 @@ public class CalendarApp {
       "^\\s*--mode\\s+headless\\s+(.+\\.txt)\\s*$");
   private static final Pattern INTERACTIVE_MODE = Pattern.compile(
       "^\\s*--mode\\s+interactive\\s*$");
+  private static final Pattern JOURNAL = Pattern.compile("\\s*--journal\\s+(\\S+)");
+  private static final Pattern SNAPSHOT = Pattern.compile("\\s*--snapshot\\s+(\\S+)");
+  private static final Pattern MEMORY_BUDGET = Pattern.compile("\\s*--memory-budget\\s+(\\d{1,9})");
+  // how often the graphical mode writes a snapshot, in milliseconds
+  private static final int SNAPSHOT_INTERVAL = 5 * 60 * 1000;
   private static final String USAGE = "Usage:"
-      + "\n java CalendarApp --mode headless path-of-script file"
-      + "\n java CalendarApp --mode interactive";
+      + "\n java CalendarApp [--journal path-of-journal] [--snapshot path-of-snapshot]"
+      + " [--memory-budget megabytes] --mode headless path-of-script file"
+      + "\n java CalendarApp [--journal path-of-journal] [--snapshot path-of-snapshot]"
+      + " [--memory-budget megabytes] --mode interactive";
 
   /**
-   * Initiates the execution of the event calendar program.
+   * Initiates the execution of the event calendar program. With the journal option, the commands
+   * recorded in the journal are replayed first and every command that changes a calendar is
+   * recorded in it. With the snapshot option, the calendars are loaded from the snapshot if it
+   * exists and only the journaled commands after it are replayed. The snapshot is written again
+   * when a script ends, and periodically in the graphical mode. With the memory budget option, the
+   * least recently used calendars over the budget are kept on disk instead of in memory.
    *
    * @param args the command-line arguments
    */
   public static void main(String[] args) {
-    IModel model = new Model();
+    Model model = new Model();
     Viewer view;
 
+    String argString = String.join(" ", args);
+    Matcher journalMatcher = JOURNAL.matcher(argString);
+    CommandJournal journal = null;
+    Path snapshot = null;
+    long replayFrom = 0;
+
     try {
-      if (args.length == 0) {
+      if (journalMatcher.find()) {
+        journal = new CommandJournal(Path.of(journalMatcher.group(1)));
+        argString = journalMatcher.replaceFirst("").trim();
+      }
+      Matcher snapshotMatcher = SNAPSHOT.matcher(argString);
+      if (snapshotMatcher.find()) {
+        snapshot = Path.of(snapshotMatcher.group(1));
+        argString = snapshotMatcher.replaceFirst("").trim();
+        if (Files.exists(snapshot)) {
+          ModelSnapshot saved = ModelSnapshot.read(snapshot);
+          model = saved.load();
+          replayFrom = saved.getJournalPosition();
+        }
+      }
+      Matcher budgetMatcher = MEMORY_BUDGET.matcher(argString);
+      if (budgetMatcher.find()) {
+        model.setMemoryBudget(Long.parseLong(budgetMatcher.group(1)) << 20);
+        argString = budgetMatcher.replaceFirst("").trim();
+      }
+
+      if (argString.isEmpty()) {
         IViewModel viewModel = new ViewModel(model);
         ViewController controller = new ViewController(model);
+        if (journal != null) {
+          // every journaled command is already on disk, so the journal does not need closing
+          controller.setJournal(journal, replayFrom);
+        }
 
-        SwingUtilities.invokeLater(() -> controller.setView(
-            new CalendarView(viewModel))
-        );
+        Model viewedModel = model;
+        CommandJournal viewedJournal = journal;
+        Path snapshotPath = snapshot;
+        // the window exits the program, so archive calendars are closed on the way out
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+          try {
+            viewedModel.close();
+          } catch (IOException e) {
+            System.err.println("Could not close calendars: " + e.getMessage());
+          }
+        }));
+        SwingUtilities.invokeLater(() -> {
+          controller.setView(new CalendarView(viewModel));
+          if (snapshotPath != null) {
+            startSnapshotTimer(viewedModel, viewedJournal, snapshotPath);
+          }
+        });
       } else {
-        Reader input = parseArgs(args);
+        Reader input = parseArgs(argString);
         Appendable out = System.out;
         view = new View(out);
         if (input != null) {
-          Listener controller = new Controller(input, model, view);
+          Controller controller = new Controller(input, model, view);
+          if (journal != null) {
+            controller.setJournal(journal, replayFrom);
+          }
           controller.listen();
         }
+        if (snapshot != null) {
+          ModelSnapshot.capture(model, journalSize(journal)).write(snapshot);
+        }
+        if (journal != null) {
+          journal.close();
+        }
+        model.close();
       }
     } catch (IOException e) {
       System.err.println(e.getMessage());
     }
   }
 
+  /**
+   * Periodically writes a snapshot of the model in the graphical mode. Commands run on the event
+   * dispatch thread, so the timer captures a consistent model there. Only calendars that changed
+   * since the last capture are encoded again, nothing is captured while the model is unchanged or
+   * the previous snapshot is still being written, and writing happens in the background.
+   *
+   * @param model    model to capture
+   * @param journal  command journal, or null if there is none
+   * @param snapshot snapshot file path
+   */
+  private static void startSnapshotTimer(Model model, CommandJournal journal, Path snapshot) {
+    long[] capturedChanges = {-1};
+    CompletableFuture<?>[] writing = {CompletableFuture.completedFuture(null)};
+    new Timer(SNAPSHOT_INTERVAL, e -> {
+      long changes = model.getChangeCount();
+      if (changes == capturedChanges[0] || !writing[0].isDone()) {
+        return;
+      }
+      try {
+        ModelSnapshot captured = ModelSnapshot.capture(model, journalSize(journal));
+        capturedChanges[0] = changes;
+        writing[0] = captured.writeInBackground(snapshot).whenComplete((ignored, error) -> {
+          if (error != null) {
+            // write the snapshot again on the next tick
+            SwingUtilities.invokeLater(() -> capturedChanges[0] = -1);
+            System.err.println("Could not write snapshot: " + rootCause(error).getMessage());
+          }
+        });
+      } catch (IOException ex) {
+        System.err.println("Could not capture snapshot: " + ex.getMessage());
+      }
+    }).start();
+  }
+
+  private static Throwable rootCause(Throwable error) {
+    while (error.getCause() != null) {
+      error = error.getCause();
+    }
+    return error;
+  }
+
+  private static long journalSize(CommandJournal journal) {
+    return journal == null ? 0 : journal.size();
+  }
+
   /**
    * Parse command-line arguments and return the appropriate input reader.
    *
-   * @param args command-line arguments
+   * @param argString command-line arguments joined by spaces
    * @return Reader object for the controller or null if arguments are invalid
    * @throws FileNotFoundException if the file cannot be opened
    */
-  private static Reader parseArgs(String[] args) throws FileNotFoundException {
-    String argString = String.join(" ", args);
+  private static Reader parseArgs(String argString) throws FileNotFoundException {
     Matcher headlessMatcher = HEADLESS_MODE.matcher(argString);
     Matcher interactiveMatcher = INTERACTIVE_MODE.matcher(argString);
 
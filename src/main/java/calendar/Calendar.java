@@ -3,16 +3,19 @@ package calendar;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.time.zone.ZoneRulesException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
 
 import model.ConflictException;
 import utils.TimeUtils;
@@ -24,15 +27,78 @@ import utils.TimeUtils;
  */
 public class Calendar implements ICalendar {
 
+  /**
+   * Recurrence mode where every occurrence of a repeating event series is stored as an event.
+   */
+  public static final String EXPANDED_RECURRENCE = "expanded";
+  /**
+   * Recurrence mode where only the repeat rule of a series is stored and its occurrences are
+   * created when they are needed.
+   */
+  public static final String RULE_RECURRENCE = "rules";
+  /**
+   * Storage mode where events are found by time through a balanced interval tree.
+   */
+  public static final String TREE_STORAGE = "tree";
+  /**
+   * Storage mode where events are found by time by scanning sorted columns of start and end times.
+   */
+  public static final String COLUMNAR_STORAGE = "columnar";
+
   private static final Map<String, BiConsumer<ICalendar, String>> SETTERS = new HashMap<>();
 
+  // all-day conflicts compare local dates, so candidates are searched in a window wide enough to
+  // cover a full day plus the largest possible difference between two time zone offsets
+  private static final int CONFLICT_WINDOW_DAYS = 2;
+  private static final long CONFLICT_WINDOW_SECONDS =
+      ChronoUnit.DAYS.getDuration().multipliedBy(CONFLICT_WINDOW_DAYS).getSeconds();
+  // events spanning more days than this are indexed by date range instead of per day buckets
+  private static final int MAX_BUCKETED_DAYS = 31;
+  // properties that change where an event is found in the indexes
+  private static final Set<String> INDEXED_PROPERTIES =
+      Set.of("subject", "startDateTime", "endDateTime");
+  // properties whose values are shared through the string dictionary
+  private static final Set<String> TEXT_PROPERTIES = Set.of("subject", "description", "location");
+  // estimated heap of each kind of event, measured on a 64-bit JVM with compressed pointers
+  private static final long EVENT_BYTES = 192;
+  private static final long COMPACT_EVENT_BYTES = 64;
+  // includes the entry in the series index
+  private static final long REPEATING_EVENT_BYTES = 448;
+  // estimated heap of the entries of one event in the lists, maps and day buckets, which depends
+  // on how the events are indexed by time
+  private static final long TREE_INDEX_BYTES = 256;
+  private static final long COLUMNAR_INDEX_BYTES = 192;
+  // estimated heap of a series stored as a rule, with its template and index entries
+  private static final long RULE_BYTES = 1024;
+
   private String name;
   private ZoneId timezone;
-  private List<IEvent> events;
+  private final ZoneReference eventTimezone;
+  private final StringDictionary strings;
+  private String recurrence;
+  private String storage;
+  private final SortedEventList events;
+  private IntervalIndex<IEvent> intervalIndex;
+  private final Map<LocalDate, SortedEventList> dayIndex;
+  private final IntervalTree<IEvent> longEventIndex;
+  // the day buckets depend on the time zone and are rebuilt on the next date query after a change
+  private boolean dayIndexStale;
+  private final Map<EventKey, List<IEvent>> subjectStartIndex;
+  // built by the first lookup after a load, since a loaded calendar may never look up an event
+  private boolean subjectStartIndexStale;
+  private final Map<String, SortedEventList> subjectIndex;
+  private final Map<Long, SortedEventList> seriesIndex;
+  private final IntervalTree<EventSeries> rules;
+  private final Map<String, List<EventSeries>> rulesBySubject;
+  private final Map<Long, List<EventSeries>> rulesBySeries;
+  // estimated heap of the events and rules themselves, without their index entries
+  private long estimatedBytes;
 
   static {
     SETTERS.put("name", ICalendar::setName);
     SETTERS.put("timezone", ICalendar::setTimezone);
+    SETTERS.put("recurrence", ICalendar::setRecurrence);
+    SETTERS.put("storage", ICalendar::setStorage);
   }
 
   public static Set<String> getEditableProperties() {
@@ -53,13 +119,26 @@ public class Calendar implements ICalendar {
     }
 
     this.name = name;
-    this.events = new LinkedList<>();
+    this.recurrence = EXPANDED_RECURRENCE;
+    this.storage = TREE_STORAGE;
+    this.events = new SortedEventList();
+    this.intervalIndex = new IntervalTree<>();
+    this.dayIndex = new HashMap<>();
+    this.longEventIndex = new IntervalTree<>();
+    this.subjectStartIndex = new HashMap<>();
+    this.subjectIndex = new HashMap<>();
+    this.seriesIndex = new HashMap<>();
+    this.rules = new IntervalTree<>();
+    this.rulesBySubject = new HashMap<>();
+    this.rulesBySeries = new HashMap<>();
 
     try {
       this.timezone = TimeUtils.getZoneId(timezone);
     } catch (ZoneRulesException e) {
       throw new IllegalArgumentException("Invalid time zone: " + timezone);
     }
+    this.eventTimezone = new ZoneReference(this.timezone);
+    this.strings = new StringDictionary(true);
   }
 
   /**
@@ -68,8 +147,21 @@ public class Calendar implements ICalendar {
   public Calendar() {
     this.name = "default";
     this.timezone = ZoneId.systemDefault();
+    this.eventTimezone = new ZoneReference(this.timezone);
+    this.strings = new StringDictionary(true);
+    this.recurrence = EXPANDED_RECURRENCE;
+    this.storage = TREE_STORAGE;
 
-    this.events = new LinkedList<>();
+    this.events = new SortedEventList();
+    this.intervalIndex = new IntervalTree<>();
+    this.dayIndex = new HashMap<>();
+    this.longEventIndex = new IntervalTree<>();
+    this.subjectStartIndex = new HashMap<>();
+    this.subjectIndex = new HashMap<>();
+    this.seriesIndex = new HashMap<>();
+    this.rules = new IntervalTree<>();
+    this.rulesBySubject = new HashMap<>();
+    this.rulesBySeries = new HashMap<>();
   }
 
   @Override
@@ -97,12 +189,80 @@ public class Calendar implements ICalendar {
     }
     try {
       this.timezone = TimeUtils.getZoneId(value);
-      updateAllEvents();
+      eventTimezone.setZone(this.timezone);
+      dayIndexStale = true;
     } catch (ZoneRulesException e) {
       throw new IllegalArgumentException("Invalid time zone: " + value);
     }
   }
 
+  @Override
+  public String getRecurrence() {
+    return recurrence;
+  }
+
+  /**
+   * Set how repeating event series added from now on are stored. Series that are already part of
+   * the calendar are not changed.
+   *
+   * @param value either "expanded" or "rules"
+   * @throws IllegalArgumentException if the value is not a recurrence mode
+   */
+  @Override
+  public void setRecurrence(String value) throws IllegalArgumentException {
+    if (!EXPANDED_RECURRENCE.equals(value) && !RULE_RECURRENCE.equals(value)) {
+      throw new IllegalArgumentException("Invalid recurrence mode: " + value);
+    }
+    this.recurrence = value;
+  }
+
+  @Override
+  public StringDictionary getStringDictionary() {
+    return strings;
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return false;
+  }
+
+  @Override
+  public long getEstimatedBytes() {
+    long indexBytes = storage.equals(COLUMNAR_STORAGE) ? COLUMNAR_INDEX_BYTES : TREE_INDEX_BYTES;
+    return estimatedBytes + events.size() * indexBytes + strings.getBytesKept();
+  }
+
+  @Override
+  public String getStorage() {
+    return storage;
+  }
+
+  /**
+   * Set how the events are indexed by time. The index is rebuilt from the stored events when the
+   * mode changes.
+   *
+   * @param value either "tree" or "columnar"
+   * @throws IllegalArgumentException if the value is not a storage mode
+   */
+  @Override
+  public void setStorage(String value) throws IllegalArgumentException {
+    if (!TREE_STORAGE.equals(value) && !COLUMNAR_STORAGE.equals(value)) {
+      throw new IllegalArgumentException("Invalid storage mode: " + value);
+    }
+    if (value.equals(storage)) {
+      return;
+    }
+
+    IntervalIndex<IEvent> index = value.equals(TREE_STORAGE)
+        ? new IntervalTree<>() : new IntervalColumns<>();
+    // the events are sorted by start and end, so the columns are filled by appending
+    for (IEvent event : events) {
+      index.add(getStartKey(event), getEndKey(event), event);
+    }
+    this.intervalIndex = index;
+    this.storage = value;
+  }
+
   @Override
   public void edit(String property, String newValue) throws IllegalArgumentException {
     BiConsumer<ICalendar, String> setter = SETTERS.get(property);
@@ -113,11 +273,186 @@ public class Calendar implements ICalendar {
     }
   }
 
+  /**
+   * Get all events that are stored in the calendar, sorted by start and end date time. The returned
+   * list is a read-only view of the calendar's events. Occurrences of series stored as rules are
+   * not included.
+   *
+   * @return List of IEvent objects
+   */
   @Override
   public List<IEvent> getEvents() {
     return events;
   }
 
+  /**
+   * Get all events of the calendar sorted by start and end date time, including the occurrences of
+   * series stored as rules. The stored events and each series are merged while iterating, so
+   * occurrences are created one at a time.
+   *
+   * @return Iterable of IEvent objects
+   */
+  @Override
+  public Iterable<IEvent> getAllEvents() {
+    if (rules.size() == 0) {
+      return events;
+    }
+
+    List<EventSeries> allRules = rules.findOverlapping(Long.MIN_VALUE, Long.MAX_VALUE);
+    return () -> {
+      List<Iterator<IEvent>> sources = new ArrayList<>();
+      sources.add(events.iterator());
+      for (EventSeries rule : allRules) {
+        sources.add(rule.iterator(timezone));
+      }
+      return new MergingIterator(sources);
+    };
+  }
+
+  /**
+   * Get all events that occur on the given day. Events are looked up in the bucket for that day,
+   * in the index of events that span many days and in the series stored as rules around that day,
+   * so the cost depends only on the number of events on that day.
+   *
+   * @param date ChronoZonedDateTime object representing a day
+   * @return List of IEvent objects sorted by start date time, empty if there are no events
+   */
+  @Override
+  public List<IEvent> getEventsOnDate(ChronoZonedDateTime<LocalDate> date) {
+    if (dayIndexStale) {
+      rebuildDayIndex();
+    }
+    LocalDate day = date.toLocalDate();
+    SortedEventList bucket = dayIndex.get(day);
+    List<IEvent> result = bucket == null ? new ArrayList<>() : new ArrayList<>(bucket);
+
+    List<IEvent> longEvents = longEventIndex.findOverlapping(day.toEpochDay(), day.toEpochDay());
+    boolean added = result.addAll(longEvents);
+    added |= addOccurrences(result, day, day);
+    if (added) {
+      result.sort(null);
+    }
+
+    result.removeIf(event -> !event.isOnSameDay(date));
+    return result;
+  }
+
+  /**
+   * Get all events that overlap the given time range, including events that end exactly at the
+   * start of the range or start exactly at its end. Only events found in the interval index and
+   * occurrences of series stored as rules within the range are visited.
+   *
+   * @param startDateTime start of time range
+   * @param endDateTime   end of time range
+   * @return List of IEvent objects sorted by start date time, empty if there are no events
+   */
+  @Override
+  public List<IEvent> getEventsInRange(ChronoZonedDateTime<LocalDate> startDateTime,
+      ChronoZonedDateTime<LocalDate> endDateTime) {
+    List<IEvent> result = intervalIndex.findOverlapping(startDateTime.toEpochSecond(),
+        endDateTime.toEpochSecond());
+    if (addOccurrences(result, startDateTime.toLocalDate(), endDateTime.toLocalDate())) {
+      result.sort(null);
+    }
+    result.removeIf(event -> !event.isOverlap(startDateTime, endDateTime));
+    return result;
+  }
+
+  /**
+   * Checks if any event in the calendar is ongoing at the given date and time, meaning it starts at
+   * or before the given time and ends after it.
+   *
+   * @param dateTime ChronoZonedDateTime object
+   * @return true if the calendar is busy, false otherwise
+   */
+  @Override
+  public boolean isBusy(ChronoZonedDateTime<LocalDate> dateTime) {
+    return intervalIndex.hasIntervalContaining(dateTime.toEpochSecond())
+        || hasOccurrenceAt(dateTime);
+  }
+
+  /**
+   * Checks if any event in the calendar is ongoing at each of the given date and times. The date
+   * times and the events are both sorted, so all of them are answered in a single pass that tracks
+   * the latest end time of the events started so far. The pass starts at the first date time: the
+   * events before it are found with a binary search and their latest end is taken from the
+   * interval index, so a batch costs O(log n) plus the events between its date times.
+   *
+   * @param dateTimes list of ChronoZonedDateTime objects sorted in ascending order
+   * @return list containing true for each busy date time and false for each available one
+   * @throws IllegalArgumentException if the date times are not sorted
+   */
+  @Override
+  public List<Boolean> isBusy(List<ChronoZonedDateTime<LocalDate>> dateTimes)
+      throws IllegalArgumentException {
+    List<Boolean> result = new ArrayList<>(dateTimes.size());
+    long latestEnd = Long.MIN_VALUE;
+    long previous = Long.MIN_VALUE;
+    int index = -1;
+
+    for (ChronoZonedDateTime<LocalDate> dateTime : dateTimes) {
+      long point = dateTime.toEpochSecond();
+      if (point < previous) {
+        throw new IllegalArgumentException("Date times must be sorted in ascending order");
+      }
+      previous = point;
+
+      if (index < 0) {
+        latestEnd = intervalIndex.maxHighStartingAtOrBefore(point);
+        index = firstStartingAfter(point);
+      }
+      while (index < events.size() && getStartKey(events.get(index)) <= point) {
+        latestEnd = Math.max(latestEnd, getEndKey(events.get(index)));
+        index++;
+      }
+      result.add(latestEnd > point || hasOccurrenceAt(dateTime));
+    }
+    return result;
+  }
+
+  /**
+   * Finds the event with the given subject and start date time using a hash index, without
+   * searching through the other events. Occurrences of series stored as rules are created when
+   * they are found, so changing them does not change the calendar.
+   *
+   * @param subject       subject name
+   * @param startDateTime start date and time
+   * @return matching IEvent object, or null if there is no matching event
+   */
+  @Override
+  public IEvent findEvent(String subject, ChronoZonedDateTime<LocalDate> startDateTime) {
+    IEvent event = findStoredEvent(subject, startDateTime);
+    if (event != null) {
+      return event;
+    }
+
+    for (EventSeries rule : rulesBySubject.getOrDefault(subject, List.of())) {
+      long index = findOccurrence(rule, subject, startDateTime);
+      if (index >= 0) {
+        return rule.getOccurrence(index, timezone);
+      }
+    }
+    return null;
+  }
+
+  private IEvent findStoredEvent(String subject, ChronoZonedDateTime<LocalDate> startDateTime) {
+    if (subjectStartIndexStale) {
+      rebuildSubjectStartIndex();
+    }
+    List<IEvent> candidates = subjectStartIndex.get(
+        new EventKey(subject, startDateTime.toEpochSecond()));
+    if (candidates == null) {
+      return null;
+    }
+
+    for (IEvent candidate : candidates) {
+      if (candidate.matches(subject, startDateTime)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
   /**
    * Returns a string containing the calendar name and timezone.
    *
@@ -131,41 +466,548 @@ public class Calendar implements ICalendar {
 
   @Override
   public void addEvents(List<IEvent> newEvents) throws ConflictException {
-    // copy the list in case we need to rollback if a conflict is detected
-    List<IEvent> originalEvents = new LinkedList<>(events);
+    // keep track of the added events in case we need to rollback if a conflict is detected
+    List<IEvent> addedEvents = new ArrayList<>();
 
     try {
       for (IEvent newEvent : newEvents) {
+        internStrings(newEvent);
         // Check for conflicts with existing events first
-        for (IEvent existingEvent : events) {
-          if (existingEvent.conflictsWith(newEvent)) {
-            throw new ConflictException("Event conflicts with an existing event");
-          }
+        if (hasConflict(newEvent, null)) {
+          throw new ConflictException("Event conflicts with an existing event");
+        }
+
+        insertEvent(newEvent);
+        addedEvents.add(newEvent);
+      }
+    } catch (ConflictException e) {
+      // Remove the events that were added before the conflict
+      for (IEvent addedEvent : addedEvents) {
+        removeEvent(addedEvent);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Adds events in bulk, skipping the ones that conflict. The events are sorted and swept once:
+   * each event is checked against the calendar's index, which does not hold the new events yet,
+   * and against the accepted new events that end close enough to it to conflict. The accepted
+   * events are then inserted in sorted order, so the event lists only move forward.
+   *
+   * @param newEvents list of IEvent objects
+   * @return events that were skipped because of a conflict
+   */
+  @Override
+  public List<IEvent> addEventsSkippingConflicts(List<IEvent> newEvents) {
+    List<IEvent> sorted = new ArrayList<>(newEvents);
+    Collections.sort(sorted);
+
+    List<IEvent> accepted = new ArrayList<>();
+    List<IEvent> skipped = new ArrayList<>();
+    // accepted events that may still conflict with the following events
+    List<IEvent> active = new ArrayList<>();
+    for (IEvent newEvent : sorted) {
+      long start = getStartKey(newEvent);
+      active.removeIf(event -> getEndKey(event) + CONFLICT_WINDOW_SECONDS < start);
+
+      boolean conflict = hasConflict(newEvent, null);
+      for (int i = 0; i < active.size() && !conflict; i++) {
+        conflict = active.get(i).conflictsWith(newEvent);
+      }
+      if (conflict) {
+        skipped.add(newEvent);
+      } else {
+        internStrings(newEvent);
+        accepted.add(newEvent);
+        active.add(newEvent);
+      }
+    }
+
+    for (IEvent event : accepted) {
+      insertEvent(event);
+    }
+    return skipped;
+  }
+
+  /**
+   * Adds all events of a repeating event series. In the expanded recurrence mode every occurrence
+   * is added as an event. In the rules recurrence mode only the repeat rule is stored, and it is
+   * checked for conflicts without creating every occurrence.
+   *
+   * @param baseEvent base event of the series
+   * @throws ConflictException        if any occurrence conflicts with an existing event
+   * @throws IllegalArgumentException if the repeat rule is invalid
+   */
+  @Override
+  public void addSeries(IRepeatingEvent baseEvent)
+      throws ConflictException, IllegalArgumentException {
+    // the occurrences copy the strings of the base event, so they all share the same instances
+    internStrings(baseEvent);
+    boolean untilEndDate = baseEvent.getRepeatNumber() == 0;
+    if (recurrence.equals(EXPANDED_RECURRENCE)) {
+      addEvents(untilEndDate ? baseEvent.repeatUntilEndDate() : baseEvent.repeatNTimes());
+    } else {
+      addRules(List.of(EventSeries.of(baseEvent, untilEndDate)));
+    }
+  }
+
+  /**
+   * Get the series stored as rules in the calendar, sorted by their first date.
+   *
+   * @return list of EventSeries objects
+   */
+  List<EventSeries> getRules() {
+    return rules.findOverlapping(Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Adds events and series that are known not to conflict, such as the contents of a snapshot,
+   * without checking for conflicts. The events must be sorted by start and end date time, so they
+   * are appended to the lists instead of searched for, and the interval index is built from them
+   * in one pass. The day buckets are built by the first date query, and the subject and start
+   * index by the first event lookup.
+   *
+   * @param sortedEvents events sorted by start and end date time
+   * @param newRules     series stored as rules
+   * @throws IllegalArgumentException if the events are not sorted after the calendar's events
+   */
+  void load(List<IEvent> sortedEvents, List<EventSeries> newRules) throws IllegalArgumentException {
+    dayIndexStale = true;
+    subjectStartIndexStale = true;
+    long[] lows = new long[sortedEvents.size()];
+    long[] highs = new long[sortedEvents.size()];
+    events.ensureCapacity(events.size() + sortedEvents.size());
+    for (int i = 0; i < sortedEvents.size(); i++) {
+      IEvent event = sortedEvents.get(i);
+      event.followTimezone(eventTimezone);
+      events.append(event);
+      estimatedBytes += estimateBytes(event);
+      lows[i] = getStartKey(event);
+      highs[i] = getEndKey(event);
+      subjectIndex.computeIfAbsent(event.getSubject(), key -> new SortedEventList()).append(event);
+      if (event.isRepeating()) {
+        long seriesId = ((IRepeatingEvent) event).getSeriesId();
+        seriesIndex.computeIfAbsent(seriesId, key -> new SortedEventList()).append(event);
+      }
+    }
+    intervalIndex.addSorted(lows, highs, sortedEvents);
+    for (EventSeries rule : newRules) {
+      insertRule(rule);
+    }
+  }
+
+  /**
+   * Adds series stored as rules to the calendar. If any series conflicts with an existing event,
+   * none of the series are added.
+   *
+   * @param newRules list of EventSeries objects
+   * @throws ConflictException if there is a conflict with an existing event
+   */
+  private void addRules(List<EventSeries> newRules) throws ConflictException {
+    List<EventSeries> addedRules = new ArrayList<>();
+
+    try {
+      for (EventSeries rule : newRules) {
+        if (rule.isEmpty()) {
+          continue;
+        }
+        if (hasConflict(rule)) {
+          throw new ConflictException("Event conflicts with an existing event");
         }
 
-        int insertPosition = findInsertPosition(newEvent);
-        events.add(insertPosition, newEvent);
+        insertRule(rule);
+        addedRules.add(rule);
       }
     } catch (ConflictException e) {
-      // Restore original list on conflict
-      events = new LinkedList<>(originalEvents);
+      for (EventSeries addedRule : addedRules) {
+        removeRule(addedRule);
+      }
       throw e;
     }
   }
 
   /**
-   * Finds the position to insert a new event while maintaining sort order.
+   * Checks if the given event conflicts with any event in the calendar. Only events found in the
+   * interval index around the given event, and occurrences of series stored as rules on the same
+   * days, are compared using IEvent.conflictsWith.
+   *
+   * @param event   event to check
+   * @param ignored event that should be skipped, or null
+   * @return true if there is a conflict, false otherwise
+   */
+  private boolean hasConflict(IEvent event, IEvent ignored) {
+    List<IEvent> candidates = intervalIndex.findOverlapping(
+        getStartKey(event) - CONFLICT_WINDOW_SECONDS, getEndKey(event) + CONFLICT_WINDOW_SECONDS);
+    for (IEvent candidate : candidates) {
+      if (candidate != ignored && candidate.conflictsWith(event)) {
+        return true;
+      }
+    }
+
+    List<IEvent> occurrences = new ArrayList<>();
+    addOccurrences(occurrences, event.getStartDateTime().toLocalDate(),
+        event.getEndDateTime().toLocalDate());
+    for (IEvent occurrence : occurrences) {
+      // occurrences are created again for every search, so the ignored event is found by value
+      boolean isIgnored = ignored != null
+          && occurrence.matches(ignored.getSubject(), ignored.getStartDateTime());
+      if (!isIgnored && occurrence.conflictsWith(event)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if any occurrence of the given series conflicts with an event in the calendar. Stored
+   * events are only compared with the occurrences around them, and other series are compared
+   * using EventSeries.conflictsWith, so the occurrences of the series are never all created.
    *
-   * @param newEvent The event to insert
-   * @return The index where the event should be inserted
+   * @param rule series to check
+   * @return true if there is a conflict, false otherwise
    */
-  private int findInsertPosition(IEvent newEvent) {
-    for (int i = 0; i < events.size(); i++) {
-      if (events.get(i).compareTo(newEvent) >= 1) {
-        return i;
+  private boolean hasConflict(EventSeries rule) {
+    ZoneId zone = rule.getZone();
+    long low = rule.getFirstDate().atStartOfDay(zone).toEpochSecond() - CONFLICT_WINDOW_SECONDS;
+    long high = rule.getLastDate().plusDays(1).atStartOfDay(zone).toEpochSecond()
+        + CONFLICT_WINDOW_SECONDS;
+    for (IEvent candidate : intervalIndex.findOverlapping(low, high)) {
+      LocalDate from = candidate.getStartDateTime().toLocalDate().minusDays(CONFLICT_WINDOW_DAYS);
+      LocalDate to = candidate.getEndDateTime().toLocalDate().plusDays(CONFLICT_WINDOW_DAYS);
+      for (IEvent occurrence : rule.getOccurrences(from, to, timezone)) {
+        if (occurrence.conflictsWith(candidate)) {
+          return true;
+        }
       }
     }
-    return events.size();
+
+    for (EventSeries other : rules.findOverlapping(
+        rule.getFirstDate().toEpochDay() - CONFLICT_WINDOW_DAYS,
+        rule.getLastDate().toEpochDay() + CONFLICT_WINDOW_DAYS)) {
+      if (rule.conflictsWith(other, timezone)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Adds the occurrences of the series stored as rules that fall between the given dates. The
+   * dates are widened by the conflict window since a series may use a different time zone than the
+   * calendar, so callers need to filter the result.
+   *
+   * @param result list to add the occurrences to
+   * @param from   first date
+   * @param to     last date
+   * @return true if any occurrence was added, false otherwise
+   */
+  private boolean addOccurrences(List<IEvent> result, LocalDate from, LocalDate to) {
+    if (rules.size() == 0) {
+      return false;
+    }
+
+    LocalDate low = from.minusDays(CONFLICT_WINDOW_DAYS);
+    LocalDate high = to.plusDays(CONFLICT_WINDOW_DAYS);
+    boolean added = false;
+    for (EventSeries rule : rules.findOverlapping(low.toEpochDay(), high.toEpochDay())) {
+      added |= result.addAll(rule.getOccurrences(low, high, timezone));
+    }
+    return added;
+  }
+
+  /**
+   * Checks if an occurrence of a series stored as a rule is ongoing at the given date and time.
+   *
+   * @param dateTime ChronoZonedDateTime object
+   * @return true if an occurrence clashes with the date time, false otherwise
+   */
+  private boolean hasOccurrenceAt(ChronoZonedDateTime<LocalDate> dateTime) {
+    List<IEvent> occurrences = new ArrayList<>();
+    addOccurrences(occurrences, dateTime.toLocalDate(), dateTime.toLocalDate());
+    for (IEvent occurrence : occurrences) {
+      if (occurrence.clashesWith(dateTime)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the number of the occurrence of the given series with the given subject and start date
+   * time.
+   *
+   * @param rule          series to search
+   * @param subject       subject name
+   * @param startDateTime start date and time
+   * @return occurrence number, or -1 if the series has no matching occurrence
+   */
+  private long findOccurrence(EventSeries rule, String subject,
+      ChronoZonedDateTime<LocalDate> startDateTime) {
+    long index = rule.indexOf(startDateTime.withZoneSameInstant(rule.getZone()).toLocalDate());
+    if (index >= 0 && rule.getOccurrence(index, timezone).matches(subject, startDateTime)) {
+      return index;
+    }
+    return -1;
+  }
+
+  /**
+   * Turns the occurrence with the given subject and start date time of a series stored as a rule
+   * into a stored event, so that it can be changed on its own. The series is split around the
+   * occurrence.
+   *
+   * @param subject       subject name
+   * @param startDateTime start date and time
+   * @return the stored occurrence, or null if no series has a matching occurrence
+   */
+  private IEvent detachOccurrence(String subject, ChronoZonedDateTime<LocalDate> startDateTime) {
+    for (EventSeries rule : rulesBySubject.getOrDefault(subject, List.of())) {
+      long index = findOccurrence(rule, subject, startDateTime);
+      if (index < 0) {
+        continue;
+      }
+
+      IEvent occurrence = rule.getOccurrence(index, timezone);
+      removeRule(rule);
+      insertRule(rule.subSeries(rule.getFromIndex(), index));
+      insertRule(rule.subSeries(index + 1, rule.getToIndex()));
+      insertEvent(occurrence);
+      return occurrence;
+    }
+    return null;
+  }
+
+  /**
+   * Adds a series to the rule indexes. Empty series are ignored.
+   *
+   * @param rule series to insert
+   */
+  private void insertRule(EventSeries rule) {
+    if (rule.isEmpty()) {
+      return;
+    }
+    rules.add(rule.getFirstDate().toEpochDay(), rule.getLastDate().toEpochDay(), rule);
+    estimatedBytes += RULE_BYTES;
+    rulesBySubject.computeIfAbsent(rule.getSubject(), key -> new ArrayList<>(1)).add(rule);
+    rulesBySeries.computeIfAbsent(rule.getSeriesId(), key -> new ArrayList<>(1)).add(rule);
+  }
+
+  /**
+   * Removes a series from the rule indexes.
+   *
+   * @param rule series to remove
+   */
+  private void removeRule(EventSeries rule) {
+    if (rule.isEmpty()) {
+      return;
+    }
+    rules.remove(rule.getFirstDate().toEpochDay(), rule.getLastDate().toEpochDay(), rule);
+    estimatedBytes -= RULE_BYTES;
+    removeFromGroup(rulesBySubject, rule.getSubject(), rule);
+    removeFromGroup(rulesBySeries, rule.getSeriesId(), rule);
+  }
+
+  private <K> void removeFromGroup(Map<K, List<EventSeries>> groups, K key, EventSeries rule) {
+    List<EventSeries> group = groups.get(key);
+    if (group != null) {
+      group.removeIf(member -> member == rule);
+      if (group.isEmpty()) {
+        groups.remove(key);
+      }
+    }
+  }
+
+  /**
+   * Inserts an event into the event list and the indexes.
+   *
+   * @param event event to insert
+   */
+  private void insertEvent(IEvent event) {
+    event.followTimezone(eventTimezone);
+    events.insert(event);
+    estimatedBytes += estimateBytes(event);
+    intervalIndex.add(getStartKey(event), getEndKey(event), event);
+    indexDays(event);
+    if (!subjectStartIndexStale) {
+      subjectStartIndex.computeIfAbsent(getEventKey(event), key -> new ArrayList<>(1)).add(event);
+    }
+    subjectIndex.computeIfAbsent(event.getSubject(), key -> new SortedEventList()).insert(event);
+    if (event.isRepeating()) {
+      long seriesId = ((IRepeatingEvent) event).getSeriesId();
+      seriesIndex.computeIfAbsent(seriesId, key -> new SortedEventList()).insert(event);
+    }
+  }
+
+  /**
+   * Removes an event from the event list and the indexes.
+   *
+   * @param event event to remove
+   */
+  private void removeEvent(IEvent event) {
+    event.followTimezone(null);
+    events.delete(event);
+    estimatedBytes -= estimateBytes(event);
+    intervalIndex.remove(getStartKey(event), getEndKey(event), event);
+    unindexDays(event);
+
+    EventKey key = getEventKey(event);
+    List<IEvent> matches = subjectStartIndexStale ? null : subjectStartIndex.get(key);
+    if (matches != null) {
+      matches.removeIf(match -> match == event);
+      if (matches.isEmpty()) {
+        subjectStartIndex.remove(key);
+      }
+    }
+
+    SortedEventList sameSubject = subjectIndex.get(event.getSubject());
+    if (sameSubject != null) {
+      sameSubject.delete(event);
+      if (sameSubject.isEmpty()) {
+        subjectIndex.remove(event.getSubject());
+      }
+    }
+
+    if (event.isRepeating()) {
+      long seriesId = ((IRepeatingEvent) event).getSeriesId();
+      SortedEventList series = seriesIndex.get(seriesId);
+      if (series != null) {
+        series.delete(event);
+        if (series.isEmpty()) {
+          seriesIndex.remove(seriesId);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets a property of an event that is part of the calendar. The event is removed from the
+   * indexes first if the property affects where it is indexed, and added back afterwards.
+   *
+   * @param event    event to edit
+   * @param property property name
+   * @param newValue new value as a string
+   * @throws IllegalArgumentException if the given property name or value is invalid
+   */
+  private void editEvent(IEvent event, String property, String newValue)
+      throws IllegalArgumentException {
+    if (!INDEXED_PROPERTIES.contains(property)) {
+      event.setNewProperty(property, newValue);
+      return;
+    }
+
+    removeEvent(event);
+    try {
+      event.setNewProperty(property, newValue);
+    } finally {
+      insertEvent(event);
+    }
+  }
+
+  /**
+   * Replaces the subject, description and location of an event with the shared instances from
+   * the string dictionary.
+   *
+   * @param event event to update
+   */
+  private void internStrings(IEvent event) {
+    event.setSubject(strings.intern(event.getSubject()));
+    event.setDescription(strings.intern(event.getDescription()));
+    event.setLocation(strings.intern(event.getLocation()));
+  }
+
+  private String internValue(String property, String newValue) {
+    return TEXT_PROPERTIES.contains(property) ? strings.intern(newValue) : newValue;
+  }
+
+  /**
+   * Adds an event to the bucket of every day it touches. Events that span many days are added to
+   * the long event index instead.
+   *
+   * @param event event to index
+   */
+  private void indexDays(IEvent event) {
+    if (dayIndexStale) {
+      return;
+    }
+    LocalDate startDate = event.getStartDateTime().toLocalDate();
+    LocalDate endDate = event.getEndDateTime().toLocalDate();
+
+    if (ChronoUnit.DAYS.between(startDate, endDate) > MAX_BUCKETED_DAYS) {
+      longEventIndex.add(startDate.toEpochDay(), endDate.toEpochDay(), event);
+      return;
+    }
+    for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+      dayIndex.computeIfAbsent(day, key -> new SortedEventList()).insert(event);
+    }
+  }
+
+  /**
+   * Removes an event from the day buckets or the long event index.
+   *
+   * @param event event to remove
+   */
+  private void unindexDays(IEvent event) {
+    if (dayIndexStale) {
+      return;
+    }
+    LocalDate startDate = event.getStartDateTime().toLocalDate();
+    LocalDate endDate = event.getEndDateTime().toLocalDate();
+
+    if (ChronoUnit.DAYS.between(startDate, endDate) > MAX_BUCKETED_DAYS) {
+      longEventIndex.remove(startDate.toEpochDay(), endDate.toEpochDay(), event);
+      return;
+    }
+    for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+      SortedEventList bucket = dayIndex.get(day);
+      if (bucket != null) {
+        bucket.delete(event);
+        if (bucket.isEmpty()) {
+          dayIndex.remove(day);
+        }
+      }
+    }
+  }
+
+  private EventKey getEventKey(IEvent event) {
+    return new EventKey(event.getSubject(), getStartKey(event));
+  }
+
+  /**
+   * Get the index of the first event that starts after the given epoch second.
+   */
+  private int firstStartingAfter(long point) {
+    int low = 0;
+    int high = events.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (getStartKey(events.get(middle)) <= point) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static long estimateBytes(IEvent event) {
+    if (event instanceof CompactEvent) {
+      return COMPACT_EVENT_BYTES;
+    }
+    return event.isRepeating() ? REPEATING_EVENT_BYTES : EVENT_BYTES;
+  }
+
+  private long getStartKey(IEvent event) {
+    if (event instanceof CompactEvent) {
+      return ((CompactEvent) event).getStartEpochSecond();
+    }
+    return event.getStartDateTime().toEpochSecond();
+  }
+
+  private long getEndKey(IEvent event) {
+    if (event instanceof CompactEvent) {
+      return ((CompactEvent) event).getEndEpochSecond();
+    }
+    return event.getEndDateTime().toEpochSecond();
   }
 
   /**
@@ -187,12 +1029,11 @@ public class Calendar implements ICalendar {
         || property.equals("repeatEndDateTime")) {
       throw new IllegalArgumentException("Repeat rules cannot be changed for a single event");
     }
+    newValue = internValue(property, newValue);
 
     ChronoZonedDateTime<LocalDate> startDateTime = TimeUtils.parseDateTimeString(start, timezone);
-    IEvent target = events.stream()
-        .filter(event -> event.matches(subject, startDateTime))
-        .findFirst()
-        .orElse(null);
+    IEvent storedTarget = findStoredEvent(subject, startDateTime);
+    IEvent target = storedTarget != null ? storedTarget : findEvent(subject, startDateTime);
 
     if (target == null) {
       throw new IllegalArgumentException("Event not found: " + subject);
@@ -210,20 +1051,17 @@ public class Calendar implements ICalendar {
 
     newEvent.setNewProperty(property, newValue);
     // Check for conflicts with other events if changing time properties
-    if (property.equals("startDateTime") || property.equals("endDateTime")) {
-      for (IEvent otherEvent : events) {
-        if (otherEvent.matches(subject, startDateTime)) {
-          continue;
-        }
-
-        if (newEvent.conflictsWith(otherEvent)) {
-          throw new ConflictException("Event conflicts with an existing event");
-        }
-      }
+    boolean editTimeField = property.equals("startDateTime") || property.equals("endDateTime");
+    if (editTimeField && hasConflict(newEvent, target)) {
+      throw new ConflictException("Event conflicts with an existing event");
     }
 
     // no conflicts were found, apply the change
-    target.setNewProperty(property, newValue);
+    if (storedTarget == null) {
+      // the event is an occurrence of a series stored as a rule
+      target = detachOccurrence(subject, startDateTime);
+    }
+    editEvent(target, property, newValue);
   }
 
   @Override
@@ -234,15 +1072,13 @@ public class Calendar implements ICalendar {
           + "create a conflict.");
     }
 
-    List<IEvent> eventsToEdit = getEvents()
-        .stream()
-        .filter(event -> event.getSubject().equals(subject))
-        .collect(Collectors.toList());
+    List<IEvent> eventsToEdit = getEventsWithSubject(subject, null);
+    List<EventSeries> rulesToEdit = getRulesWithSubject(subject, null);
 
-    if (eventsToEdit.isEmpty()) {
+    if (eventsToEdit.isEmpty() && rulesToEdit.isEmpty()) {
       throw new IllegalArgumentException("Event not found: " + subject);
     }
-    removeAndAddEvents(eventsToEdit, property, newValue);
+    removeAndAddEvents(eventsToEdit, rulesToEdit, null, property, newValue);
   }
 
   @Override
@@ -254,88 +1090,341 @@ public class Calendar implements ICalendar {
     }
 
     ChronoZonedDateTime<LocalDate> startDateTime = TimeUtils.parseDateTimeString(start, timezone);
-    List<IEvent> eventsToEdit = getEvents()
-        .stream()
-        .filter(event -> event.getSubject().equals(subject)
-            && !event.getStartDateTime().isBefore(startDateTime))
-        .collect(Collectors.toList());
+    List<IEvent> eventsToEdit = getEventsWithSubject(subject, startDateTime);
+    List<EventSeries> rulesToEdit = getRulesWithSubject(subject, startDateTime);
 
-    if (eventsToEdit.isEmpty()) {
+    if (eventsToEdit.isEmpty() && rulesToEdit.isEmpty()) {
       throw new IllegalArgumentException("Event not found: " + subject);
     }
 
-    removeAndAddEvents(eventsToEdit, property, newValue);
+    removeAndAddEvents(eventsToEdit, rulesToEdit, startDateTime, property, newValue);
   }
 
-  private void removeAndAddEvents(List<IEvent> events, String property, String newValue) {
+  /**
+   * Get a copy of the events with the given subject that do not start before the given date time,
+   * sorted by start date time. Uses the subject index so only events with the subject are visited.
+   *
+   * @param subject       event subject
+   * @param startDateTime earliest start date time, or null to include all events
+   * @return list of matching events, empty if there are none
+   */
+  private List<IEvent> getEventsWithSubject(String subject,
+      ChronoZonedDateTime<LocalDate> startDateTime) {
+    SortedEventList sameSubject = subjectIndex.get(subject);
+    if (sameSubject == null) {
+      return new ArrayList<>();
+    }
+
+    int fromIndex = startDateTime == null ? 0 : sameSubject.lowerBound(startDateTime);
+    return new ArrayList<>(sameSubject.subList(fromIndex, sameSubject.size()));
+  }
+
+  /**
+   * Get the series stored as rules with the given subject that have an occurrence that does not
+   * start before the given date time.
+   *
+   * @param subject       event subject
+   * @param startDateTime earliest start date time, or null to include all series
+   * @return list of matching series, empty if there are none
+   */
+  private List<EventSeries> getRulesWithSubject(String subject,
+      ChronoZonedDateTime<LocalDate> startDateTime) {
+    List<EventSeries> result = new ArrayList<>();
+    for (EventSeries rule : rulesBySubject.getOrDefault(subject, List.of())) {
+      if (startDateTime == null || rule.indexStartingFrom(startDateTime) < rule.getToIndex()) {
+        result.add(rule);
+      }
+    }
+    return result;
+  }
+
+  private void removeAndAddEvents(List<IEvent> events, List<EventSeries> rulesToEdit,
+      ChronoZonedDateTime<LocalDate> startDateTime, String property, String newValue)
+      throws ConflictException {
+    newValue = internValue(property, newValue);
     boolean editRepeatField = property.equals("repeatDays") || property.equals("repeatNumber")
         || property.equals("repeatEndDateTime");
 
-    List<IEvent> eventsToAdd = new LinkedList<>();
-    Set<IEvent> eventsToRemove = new HashSet<>();
+    if (!editRepeatField) {
+      for (IEvent event : events) {
+        editEvent(event, property, newValue);
+      }
+      for (EventSeries rule : rulesToEdit) {
+        editRule(rule, startDateTime, property, newValue);
+      }
+      return;
+    }
 
+    // each series is created again from its first matching event, which may be a stored event or
+    // an occurrence of a series stored as a rule
+    List<IEvent> baseEvents = new ArrayList<>();
     for (IEvent event : events) {
-      if (event.isRepeating() && editRepeatField) {
-        IRepeatingEvent repeatingEvent = (IRepeatingEvent) event;
+      if (event.isRepeating()) {
+        baseEvents.add(event);
+      }
+    }
+    for (EventSeries rule : rulesToEdit) {
+      long index = startDateTime == null
+          ? rule.getFromIndex() : rule.indexStartingFrom(startDateTime);
+      baseEvents.add(rule.getOccurrence(index, timezone));
+    }
+    baseEvents.sort(null);
 
-        if (eventsToRemove.contains(repeatingEvent)) {
-          // skip events that we already know about
-          continue;
+    Set<Long> editedSeries = new HashSet<>();
+    List<IEvent> eventsToAdd = new ArrayList<>();
+    List<IEvent> eventsToRemove = new ArrayList<>();
+    Map<IRepeatingEvent, IRepeatingEvent> eventsToKeep = new HashMap<>();
+    Map<IRepeatingEvent, IRepeatingEvent> originalRules = new HashMap<>();
+    List<EventSeries> rulesToAdd = new ArrayList<>();
+    List<EventSeries> rulesToRemove = new ArrayList<>();
+    List<EventSeries> rulesToKeep = new ArrayList<>();
+
+    for (IEvent event : baseEvents) {
+      IRepeatingEvent repeatingEvent = (IRepeatingEvent) event;
+      if (!editedSeries.add(repeatingEvent.getSeriesId())) {
+        // skip series that we already know about
+        continue;
+      }
+
+      List<IEvent> followingEvents = getFollowingEvents(repeatingEvent);
+      for (EventSeries rule : rulesBySeries.getOrDefault(repeatingEvent.getSeriesId(),
+          List.of())) {
+        long index = rule.indexStartingFrom(repeatingEvent.getStartDateTime());
+        if (index < rule.getToIndex()) {
+          rulesToRemove.add(rule);
+          rulesToKeep.add(rule.subSeries(rule.getFromIndex(), index));
         }
-        eventsToRemove.addAll(getFollowingEvents(repeatingEvent));
-        repeatingEvent.setNewProperty(property, newValue);
-        eventsToAdd.addAll(repeatingEvent.editRepeat(property));
-      } else if (!editRepeatField) {
-        event.setNewProperty(property, newValue);
+      }
+
+      originalRules.put(repeatingEvent,
+          EventSeries.of(repeatingEvent, repeatingEvent.getRepeatNumber() == 0).getTemplate());
+      repeatingEvent.setNewProperty(property, newValue);
+      boolean untilEndDate = property.equals("repeatEndDateTime")
+          || property.equals("repeatDays") && repeatingEvent.getRepeatNumber() == 0;
+      EventSeries series = EventSeries.of(repeatingEvent, untilEndDate);
+      if (recurrence.equals(EXPANDED_RECURRENCE)) {
+        diffSeries(series, followingEvents, eventsToRemove, eventsToAdd, eventsToKeep);
+      } else {
+        eventsToRemove.addAll(followingEvents);
+        rulesToAdd.add(series);
       }
     }
 
-    this.events.removeAll(eventsToRemove);
+    for (IEvent event : eventsToRemove) {
+      removeEvent(event);
+    }
+    for (EventSeries rule : rulesToRemove) {
+      removeRule(rule);
+    }
+    for (EventSeries rule : rulesToKeep) {
+      insertRule(rule);
+    }
     try {
+      // only one of the lists is used, depending on the recurrence mode
       this.addEvents(eventsToAdd);
+      this.addRules(rulesToAdd);
     } catch (ConflictException e) {
-      // add back all the events that were removed
-      this.addEvents(new ArrayList<>(eventsToRemove));
+      // add back all the events and series that were removed
+      for (EventSeries rule : rulesToKeep) {
+        removeRule(rule);
+      }
+      for (EventSeries rule : rulesToRemove) {
+        insertRule(rule);
+      }
+      for (Map.Entry<IRepeatingEvent, IRepeatingEvent> entry : originalRules.entrySet()) {
+        entry.getKey().setRepeatRule(entry.getValue());
+      }
+      this.addEvents(eventsToRemove);
       throw e;
     }
+
+    // the kept events are now part of the new series
+    for (Map.Entry<IRepeatingEvent, IRepeatingEvent> entry : eventsToKeep.entrySet()) {
+      entry.getKey().setRepeatRule(entry.getValue());
+    }
   }
 
   /**
-   * Get all events that are part of the same event series as the base event that come after it.
+   * Compares the stored events of a series with the occurrences of its new repeat rule. Stored
+   * events that are still occurrences of the series are kept, so only the dropped events are
+   * removed and only the new occurrences are created and checked for conflicts. Both are sorted by
+   * date, so they are compared in a single pass.
    *
-   * @param base base repeating event
+   * @param series         new repeat rule of the series
+   * @param storedEvents   stored events of the series affected by the edit, sorted by start
+   * @param eventsToRemove list to add the dropped events to
+   * @param eventsToAdd    list to add the new occurrences to
+   * @param eventsToKeep   map to add the kept events to, along with the template of their series
    */
-  private List<IEvent> getFollowingEvents(IEvent base) {
-    List<IEvent> events = getEvents();
-    List<IEvent> followingEvents = new LinkedList<>();
+  private void diffSeries(EventSeries series, List<IEvent> storedEvents,
+      List<IEvent> eventsToRemove, List<IEvent> eventsToAdd,
+      Map<IRepeatingEvent, IRepeatingEvent> eventsToKeep) {
+    List<IEvent> keptEvents = new ArrayList<>();
+    for (IEvent event : storedEvents) {
+      if (series.hasOccurrence(event)) {
+        keptEvents.add(event);
+        eventsToKeep.put((IRepeatingEvent) event, series.getTemplate());
+      } else {
+        eventsToRemove.add(event);
+      }
+    }
 
-    // find index of last repeating event
-    IEvent last = base;
-    int index = events.indexOf(base);
-    while (index < events.size()) {
-      if (last.equals(events.get(index).getPrevious())) {
-        last = events.get(index);
+    int kept = 0;
+    for (long index = series.getFromIndex(); index < series.getToIndex(); index++) {
+      LocalDate date = series.getDate(index);
+      while (kept < keptEvents.size()
+          && keptEvents.get(kept).getStartDateTime().toLocalDate().isBefore(date)) {
+        kept++;
       }
-      index++;
+      if (kept < keptEvents.size()
+          && keptEvents.get(kept).getStartDateTime().toLocalDate().isEqual(date)) {
+        continue;
+      }
+      eventsToAdd.add(series.getOccurrence(index, timezone));
     }
+  }
 
-    // now last is the last repeating event
-    while (!last.equals(base)) {
-      followingEvents.add(last);
-      last = last.getPrevious();
+  /**
+   * Changes a property of the occurrences of a series stored as a rule that do not start before the
+   * given date time. The series is split in two if it has earlier occurrences.
+   *
+   * @param rule          series to edit
+   * @param startDateTime earliest start date time, or null to change every occurrence
+   * @param property      property name
+   * @param newValue      new value as a string
+   * @throws IllegalArgumentException if the given property name or value is invalid
+   */
+  private void editRule(EventSeries rule, ChronoZonedDateTime<LocalDate> startDateTime,
+      String property, String newValue) throws IllegalArgumentException {
+    long index = startDateTime == null
+        ? rule.getFromIndex() : rule.indexStartingFrom(startDateTime);
+    EventSeries edited = rule.subSeries(index, rule.getToIndex()).withProperty(property, newValue);
+
+    removeRule(rule);
+    insertRule(rule.subSeries(rule.getFromIndex(), index));
+    insertRule(edited);
+  }
+
+  /**
+   * Get all stored events that are part of the same event series as the base event and do not
+   * start before it, including the base event itself. Uses the series index so only events in the
+   * series are visited.
+   *
+   * @param base base repeating event
+   * @return list of stored events in the series from the base event onwards
+   */
+  private List<IEvent> getFollowingEvents(IRepeatingEvent base) {
+    SortedEventList series = seriesIndex.get(base.getSeriesId());
+    if (series == null) {
+      return new ArrayList<>();
     }
+    int index = series.lowerBound(base.getStartDateTime());
+    return new ArrayList<>(series.subList(index, series.size()));
+  }
 
-    // also remove the base event
-    followingEvents.add(last);
-    return followingEvents;
+  /**
+   * Rebuilds the day buckets after the time zone changed, since the dates of the events depend on
+   * it. The events themselves follow the calendar time zone and are not updated here.
+   */
+  private void rebuildDayIndex() {
+    dayIndex.clear();
+    longEventIndex.clear();
+    dayIndexStale = false;
+    for (IEvent event : events) {
+      indexDays(event);
+    }
   }
 
   /**
-   * Updates the timezones of all events in the calendar.
+   * Builds the subject and start index from the events after they were loaded.
    */
-  private void updateAllEvents() {
+  private void rebuildSubjectStartIndex() {
+    subjectStartIndex.clear();
+    subjectStartIndexStale = false;
     for (IEvent event : events) {
-      event.updateTimezone(timezone);
+      subjectStartIndex.computeIfAbsent(getEventKey(event), key -> new ArrayList<>(1)).add(event);
+    }
+  }
+
+  /**
+   * An iterator that merges several iterators of sorted events into a single sorted iterator.
+   */
+  private static class MergingIterator implements Iterator<IEvent> {
+
+    private final PriorityQueue<Source> queue;
+
+    private MergingIterator(List<Iterator<IEvent>> iterators) {
+      this.queue = new PriorityQueue<>(Math.max(1, iterators.size()),
+          (first, second) -> first.next.compareTo(second.next));
+      for (Iterator<IEvent> iterator : iterators) {
+        if (iterator.hasNext()) {
+          queue.add(new Source(iterator.next(), iterator));
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !queue.isEmpty();
+    }
+
+    @Override
+    public IEvent next() {
+      Source source = queue.poll();
+      if (source == null) {
+        throw new NoSuchElementException();
+      }
+
+      IEvent result = source.next;
+      if (source.rest.hasNext()) {
+        queue.add(new Source(source.rest.next(), source.rest));
+      }
+      return result;
+    }
+
+    /**
+     * The next event of an iterator along with the rest of the iterator.
+     */
+    private static class Source {
+
+      private final IEvent next;
+      private final Iterator<IEvent> rest;
+
+      private Source(IEvent next, Iterator<IEvent> rest) {
+        this.next = next;
+        this.rest = rest;
+      }
+    }
+  }
+
+  /**
+   * A key made of an event's subject and start instant, used to find single events by hash.
+   */
+  private static class EventKey {
+
+    private final String subject;
+    private final long start;
+
+    private EventKey(String subject, long start) {
+      this.subject = subject;
+      this.start = start;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof EventKey)) {
+        return false;
+      }
+      EventKey key = (EventKey) other;
+      return start == key.start && subject.equals(key.subject);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * subject.hashCode() + Long.hashCode(start);
     }
   }
 }
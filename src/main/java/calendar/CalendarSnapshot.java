@@ -0,0 +1,308 @@
+package calendar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.chrono.ChronoZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import utils.TimeUtils;
+
+/**
+ * A Java class for writing a calendar to a compact binary snapshot and reading it back. Every
+ * distinct subject, description, location and zone id is written once to a string table that the
+ * events refer to by number. Times are written as seconds since the epoch. Repeating events keep
+ * their series id and repeat rule, and series stored as rules are written as their template and
+ * occurrence numbers.
+ *
+ * <p>The events are written in the calendar's sorted order and were already checked for conflicts
+ * when they were added, so they are read back with Calendar.load, which appends them to the
+ * indexes without searching or checking. A MappedCalendar already keeps its events on disk, so
+ * only its directory is written and the calendar is opened from it again when read. Calendars of
+ * other types are read back as a Calendar with the same events.
+ */
+public class CalendarSnapshot {
+
+  private static final int ALL_DAY = 1;
+  private static final int PRIVATE = 1 << 1;
+  private static final int REPEATING = 1 << 2;
+  // written instead of the repeat end of series that repeat a number of times
+  private static final long NO_REPEAT_END = Long.MAX_VALUE;
+  private static final ChronoZonedDateTime<LocalDate> MAXIMUM_TIME = TimeUtils.getMaximumTime();
+
+  /**
+   * Writes the given calendar to the output.
+   *
+   * @param calendar calendar to write
+   * @param out      output to write to
+   * @throws IOException if an error occurs when writing
+   */
+  public static void write(ICalendar calendar, DataOutput out) throws IOException {
+    if (calendar instanceof MappedCalendar) {
+      out.writeUTF(calendar.getName());
+      out.writeUTF(calendar.getTimezone().getId());
+      out.writeUTF(calendar.getRecurrence());
+      out.writeUTF(calendar.getStorage());
+      out.writeUTF(((MappedCalendar) calendar).getDirectory().toString());
+      return;
+    }
+
+    List<IEvent> events = calendar.getEvents();
+    List<EventSeries> rules = calendar instanceof Calendar
+        ? ((Calendar) calendar).getRules() : List.of();
+
+    Map<String, Integer> table = new LinkedHashMap<>();
+    for (IEvent event : events) {
+      addStrings(table, event);
+    }
+    for (EventSeries rule : rules) {
+      addStrings(table, rule.getTemplate());
+    }
+
+    out.writeUTF(calendar.getName());
+    out.writeUTF(calendar.getTimezone().getId());
+    out.writeUTF(calendar.getRecurrence());
+    out.writeUTF(calendar.getStorage());
+    writeTable(table, out);
+
+    out.writeInt(events.size());
+    for (IEvent event : events) {
+      writeEvent(out, event, table);
+    }
+    out.writeInt(rules.size());
+    for (EventSeries rule : rules) {
+      writeEvent(out, rule.getTemplate(), table);
+      out.writeLong(rule.getFromIndex());
+      out.writeLong(rule.getToIndex());
+    }
+  }
+
+  /**
+   * Reads a calendar written by CalendarSnapshot.write.
+   *
+   * @param in input to read from
+   * @return Calendar object with the events and series of the snapshot, or the MappedCalendar
+   *         stored in the directory of the snapshot
+   * @throws IOException if an error occurs when reading, or if the snapshot is invalid
+   */
+  public static ICalendar read(DataInput in) throws IOException {
+    try {
+      Calendar calendar = new Calendar(in.readUTF(), in.readUTF());
+      calendar.setRecurrence(in.readUTF());
+      String storage = in.readUTF();
+      if (storage.equals(MappedCalendar.MAPPED_STORAGE)) {
+        // the name and time zone are also kept in the calendar files, which are authoritative
+        return MappedCalendar.open(Paths.get(in.readUTF()));
+      }
+      if (storage.equals(Calendar.TREE_STORAGE) || storage.equals(Calendar.COLUMNAR_STORAGE)) {
+        // set before the events are loaded so that the index is only built once
+        calendar.setStorage(storage);
+      }
+
+      String[] table = readTable(in, calendar.getStringDictionary());
+      ZoneId[] zones = new ZoneId[table.length];
+
+      int eventCount = in.readInt();
+      List<IEvent> events = new ArrayList<>(eventCount);
+      Map<Long, IEvent> lastInSeries = new HashMap<>();
+      for (int i = 0; i < eventCount; i++) {
+        events.add(readEvent(in, table, zones, lastInSeries));
+      }
+
+      int ruleCount = in.readInt();
+      List<EventSeries> rules = new ArrayList<>(ruleCount);
+      for (int i = 0; i < ruleCount; i++) {
+        IRepeatingEvent template = (IRepeatingEvent) readEvent(in, table, zones, new HashMap<>());
+        EventSeries series = EventSeries.of(template, template.getRepeatNumber() == 0);
+        rules.add(series.subSeries(in.readLong(), in.readLong()));
+      }
+
+      calendar.load(events, rules);
+      return calendar;
+    } catch (IllegalArgumentException | ClassCastException | IndexOutOfBoundsException
+        | DateTimeException e) {
+      throw new IOException("Invalid calendar snapshot", e);
+    }
+  }
+
+  /**
+   * Writes a list of events, such as the events an import added, in the format of the snapshot
+   * events. Repeating events are written with their repeat rule.
+   *
+   * @param events events to write
+   * @param out    output to write to
+   * @throws IOException if an error occurs when writing
+   */
+  public static void writeEvents(List<IEvent> events, DataOutput out) throws IOException {
+    Map<String, Integer> table = new LinkedHashMap<>();
+    for (IEvent event : events) {
+      addStrings(table, event);
+    }
+    writeTable(table, out);
+    out.writeInt(events.size());
+    for (IEvent event : events) {
+      writeEvent(out, event, table);
+    }
+  }
+
+  /**
+   * Reads a list of events written by CalendarSnapshot.writeEvents. Every repeating event is read
+   * as the base event of its own series.
+   *
+   * @param in      input to read from
+   * @param strings dictionary to share the strings of the events with
+   * @return list of IEvent objects
+   * @throws IOException if an error occurs when reading, or if the events are invalid
+   */
+  public static List<IEvent> readEvents(DataInput in, StringDictionary strings)
+      throws IOException {
+    try {
+      String[] table = readTable(in, strings);
+      ZoneId[] zones = new ZoneId[table.length];
+      int eventCount = in.readInt();
+      List<IEvent> events = new ArrayList<>(eventCount);
+      for (int i = 0; i < eventCount; i++) {
+        events.add(readEvent(in, table, zones, new HashMap<>()));
+      }
+      return events;
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+      throw new IOException("Invalid events", e);
+    }
+  }
+
+  private static void writeTable(Map<String, Integer> table, DataOutput out) throws IOException {
+    out.writeInt(table.size());
+    for (String value : table.keySet()) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String[] readTable(DataInput in, StringDictionary strings) throws IOException {
+    String[] table = new String[in.readInt()];
+    for (int i = 0; i < table.length; i++) {
+      byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      table[i] = strings.intern(new String(bytes, StandardCharsets.UTF_8));
+    }
+    return table;
+  }
+
+  private static void addStrings(Map<String, Integer> table, IEvent event) {
+    for (String value : new String[]{event.getStartDateTime().getZone().getId(),
+        event.getSubject(), event.getDescription(), event.getLocation()}) {
+      table.putIfAbsent(value, table.size());
+    }
+  }
+
+  private static void writeEvent(DataOutput out, IEvent event, Map<String, Integer> table)
+      throws IOException {
+    ChronoZonedDateTime<LocalDate> start = event.getStartDateTime();
+    int flags = (event.isAllDay() ? ALL_DAY : 0) | (event.isPrivate() ? PRIVATE : 0)
+        | (event.isRepeating() ? REPEATING : 0);
+    out.writeByte(flags);
+    out.writeLong(start.toEpochSecond());
+    out.writeLong(event.getEndDateTime().toEpochSecond());
+    out.writeInt(table.get(start.getZone().getId()));
+    out.writeInt(table.get(event.getSubject()));
+    out.writeInt(table.get(event.getDescription()));
+    out.writeInt(table.get(event.getLocation()));
+
+    if (event.isRepeating()) {
+      IRepeatingEvent repeatingEvent = (IRepeatingEvent) event;
+      int days = 0;
+      for (DayOfWeek day : repeatingEvent.getRepeatDays()) {
+        days |= 1 << (day.getValue() - 1);
+      }
+      ChronoZonedDateTime<LocalDate> repeatEnd = repeatingEvent.getRepeatEndDateTime();
+      out.writeLong(repeatingEvent.getSeriesId());
+      out.writeByte(days);
+      out.writeInt(repeatingEvent.getRepeatNumber());
+      // the maximum time may have been moved to the calendar time zone, so compare the instant
+      out.writeLong(repeatEnd.toEpochSecond() == MAXIMUM_TIME.toEpochSecond()
+          ? NO_REPEAT_END : repeatEnd.toEpochSecond());
+    }
+  }
+
+  private static IEvent readEvent(DataInput in, String[] table, ZoneId[] zones,
+      Map<Long, IEvent> lastInSeries) throws IOException {
+    int flags = in.readByte();
+    long start = in.readLong();
+    long end = in.readLong();
+    int zone = in.readInt();
+    if (zones[zone] == null) {
+      zones[zone] = ZoneId.of(table[zone]);
+    }
+    ZoneId zoneId = zones[zone];
+    String subject = table[in.readInt()];
+    String description = table[in.readInt()];
+    String location = table[in.readInt()];
+
+    if ((flags & REPEATING) == 0 && CompactEvent.isWholeMinute(start)
+        && CompactEvent.isWholeMinute(end)) {
+      // plain events are by far the most common, so skip creating their date times
+      return CompactEvent.ofEpochSeconds(subject, start, end, zoneId, description, location,
+          (flags & PRIVATE) != 0, (flags & ALL_DAY) != 0);
+    }
+    if ((flags & REPEATING) == 0) {
+      return new Event.EventBuilder()
+          .subject(subject)
+          .startDateTime(toDateTime(start, zoneId))
+          .endDateTime(toDateTime(end, zoneId))
+          .description(description)
+          .location(location)
+          .isPrivate((flags & PRIVATE) != 0)
+          .isAllDay((flags & ALL_DAY) != 0)
+          .build();
+    }
+
+    long seriesId = in.readLong();
+    int days = in.readByte();
+    int repeatNumber = in.readInt();
+    long repeatEnd = in.readLong();
+    Set<DayOfWeek> repeatDays = EnumSet.noneOf(DayOfWeek.class);
+    for (DayOfWeek day : DayOfWeek.values()) {
+      if ((days & 1 << (day.getValue() - 1)) != 0) {
+        repeatDays.add(day);
+      }
+    }
+
+    RepeatingEvent.reserveSeriesId(seriesId);
+    IEvent event = new RepeatingEvent.RepeatingEventBuilder()
+        .subject(subject)
+        .startDateTime(toDateTime(start, zoneId))
+        .endDateTime(toDateTime(end, zoneId))
+        .description(description)
+        .location(location)
+        .isPrivate((flags & PRIVATE) != 0)
+        .isAllDay((flags & ALL_DAY) != 0)
+        .repeatDays(repeatDays)
+        .repeatNumber(repeatNumber)
+        .repeatEndDateTime(repeatEnd == NO_REPEAT_END
+            ? MAXIMUM_TIME : toDateTime(repeatEnd, zoneId))
+        .previous(lastInSeries.get(seriesId))
+        .seriesId(seriesId)
+        .build();
+    lastInSeries.put(seriesId, event);
+    return event;
+  }
+
+  private static ChronoZonedDateTime<LocalDate> toDateTime(long epochSecond, ZoneId zone) {
+    return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone);
+  }
+}
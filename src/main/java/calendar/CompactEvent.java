@@ -0,0 +1,494 @@
+package calendar;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.BiConsumer;
+
+import utils.TimeUtils;
+
+/**
+ * A Java class representing a calendar event with a small memory footprint. Implements the IEvent
+ * interface. The start and end are stored as minutes since the epoch and the boolean flags are
+ * packed into a single byte, so the date time objects are only created when they are read. Times
+ * are stored with minute precision, which is the precision used by the rest of the application.
+ */
+public class CompactEvent implements IEvent {
+
+  private static final int ALL_DAY = 1;
+  private static final int PRIVATE = 1 << 1;
+  private static final long SECONDS_PER_MINUTE = 60;
+
+  private String subject;
+  private long startMinute;
+  private long endMinute;
+  private byte flags;
+  private ZoneId zone;
+
+  // optional fields
+  private String description;
+  private String location;
+
+  // calendar time zone that is applied lazily to the date times when they are read
+  private ZoneReference timezone;
+  private long timezoneVersion;
+
+  /**
+   * Constructs a CompactEvent object.
+   *
+   * @param subject       subject name
+   * @param startDateTime start date and time, on a whole minute
+   * @param endDateTime   end date and time, on a whole minute
+   * @param description   description (optional)
+   * @param location      location (optional)
+   * @param isPrivate     private boolean flag (optional)
+   * @param isAllDay      all day event boolean flag
+   * @throws IllegalArgumentException if any of the given parameters are invalid
+   */
+  private CompactEvent(String subject, ChronoZonedDateTime<LocalDate> startDateTime,
+      ChronoZonedDateTime<LocalDate> endDateTime, String description, String location,
+      boolean isPrivate, boolean isAllDay) throws IllegalArgumentException {
+    if (subject == null || subject.trim().isEmpty()) {
+      throw new IllegalArgumentException("Subject cannot be empty");
+    }
+    if (startDateTime == null) {
+      throw new IllegalArgumentException("StartDateTime cannot be null");
+    }
+    if (endDateTime == null) {
+      throw new IllegalArgumentException("EndDateTime cannot be null");
+    }
+    if (!endDateTime.isAfter(startDateTime)) {
+      throw new IllegalArgumentException("EndDateTime must be after startDateTime");
+    }
+
+    this.subject = subject;
+    this.startMinute = toEpochMinute(startDateTime);
+    this.endMinute = toEpochMinute(endDateTime);
+    this.zone = startDateTime.getZone();
+    this.description = description;
+    this.location = location;
+    setFlag(ALL_DAY, isAllDay);
+    setFlag(PRIVATE, isPrivate);
+  }
+
+  private CompactEvent(String subject, long startMinute, long endMinute, ZoneId zone,
+      String description, String location, boolean isPrivate, boolean isAllDay) {
+    this.subject = subject;
+    this.startMinute = startMinute;
+    this.endMinute = endMinute;
+    this.zone = zone;
+    this.description = description;
+    this.location = location;
+    setFlag(ALL_DAY, isAllDay);
+    setFlag(PRIVATE, isPrivate);
+  }
+
+  /**
+   * Creates an event from stored epoch seconds without creating any date time objects, such as
+   * when a snapshot is read. The values are expected to have been validated when they were stored.
+   *
+   * @param subject     subject name
+   * @param start       start in seconds since the epoch, on a whole minute
+   * @param end         end in seconds since the epoch, after the start
+   * @param zone        zone the date times are shown in
+   * @param description description
+   * @param location    location
+   * @param isPrivate   private boolean flag
+   * @param isAllDay    all day event boolean flag
+   * @return CompactEvent object
+   * @throws IllegalArgumentException if the times are not whole minutes or the end is not after the
+   *                                  start
+   */
+  static CompactEvent ofEpochSeconds(String subject, long start, long end, ZoneId zone,
+      String description, String location, boolean isPrivate, boolean isAllDay)
+      throws IllegalArgumentException {
+    if (!isWholeMinute(start) || !isWholeMinute(end)) {
+      throw new IllegalArgumentException("Compact events must start and end on a whole minute");
+    }
+    if (end <= start) {
+      throw new IllegalArgumentException("EndDateTime must be after startDateTime");
+    }
+    return new CompactEvent(subject, start / SECONDS_PER_MINUTE, end / SECONDS_PER_MINUTE, zone,
+        description, location, isPrivate, isAllDay);
+  }
+
+  /**
+   * Checks if the given epoch second is on a whole minute, so it can be stored by a CompactEvent.
+   *
+   * @param epochSecond seconds since the epoch
+   * @return true if the time is on a whole minute
+   */
+  static boolean isWholeMinute(long epochSecond) {
+    return epochSecond % SECONDS_PER_MINUTE == 0;
+  }
+
+  /**
+   * Creates a compact copy of the given event. Repeat fields are not copied.
+   *
+   * @param event event to copy
+   * @return CompactEvent object with the same values
+   * @throws IllegalArgumentException if the event does not start and end on a whole minute
+   */
+  public static CompactEvent of(IEvent event) throws IllegalArgumentException {
+    return new CompactEventBuilder()
+        .subject(event.getSubject())
+        .startDateTime(event.getStartDateTime())
+        .endDateTime(event.getEndDateTime())
+        .description(event.getDescription())
+        .location(event.getLocation())
+        .isPrivate(event.isPrivate())
+        .isAllDay(event.isAllDay())
+        .build();
+  }
+
+  @Override
+  public String getSubject() {
+    return subject;
+  }
+
+  @Override
+  public ChronoZonedDateTime<LocalDate> getStartDateTime() {
+    return toDateTime(startMinute);
+  }
+
+  @Override
+  public ChronoZonedDateTime<LocalDate> getEndDateTime() {
+    return toDateTime(endMinute);
+  }
+
+  /**
+   * Get the start as seconds since the epoch without creating a date time object.
+   *
+   * @return start epoch second
+   */
+  long getStartEpochSecond() {
+    return startMinute * SECONDS_PER_MINUTE;
+  }
+
+  /**
+   * Get the end as seconds since the epoch without creating a date time object.
+   *
+   * @return end epoch second
+   */
+  long getEndEpochSecond() {
+    return endMinute * SECONDS_PER_MINUTE;
+  }
+
+  @Override
+  public boolean isAllDay() {
+    return (flags & ALL_DAY) != 0;
+  }
+
+  @Override
+  public String getDescription() {
+    return description;
+  }
+
+  @Override
+  public String getLocation() {
+    return location;
+  }
+
+  @Override
+  public boolean isPrivate() {
+    return (flags & PRIVATE) != 0;
+  }
+
+  /**
+   * Standalone events do not store references to previous events. Returns null.
+   *
+   * @return null
+   */
+  @Override
+  public IEvent getPrevious() {
+    return null;
+  }
+
+  /**
+   * Calls the appropriate setter method based on the property name.
+   *
+   * @param property property name
+   * @param newValue new value
+   * @throws IllegalArgumentException if the given property name or value is invalid
+   */
+  @Override
+  public void setNewProperty(String property, String newValue) throws IllegalArgumentException {
+    BiConsumer<IEvent, String> setter = Event.SETTERS.get(property);
+    if (setter != null) {
+      setter.accept(this, newValue);
+    } else {
+      throw new IllegalArgumentException("Cannot change '" + property + "' for a single event");
+    }
+  }
+
+  @Override
+  public void setSubject(String subject) throws IllegalArgumentException {
+    if (subject == null || subject.trim().isEmpty()) {
+      throw new IllegalArgumentException("Subject cannot be null or empty");
+    }
+    this.subject = subject;
+  }
+
+  /**
+   * Set the event's start date time and updates the isAllDay flag.
+   *
+   * @param value new start date time as a string
+   * @throws IllegalArgumentException if the given startDateTime is null or invalid
+   */
+  @Override
+  public void setStartDateTime(String value) throws IllegalArgumentException {
+    if (value == null || value.isEmpty()) {
+      throw new IllegalArgumentException("StartDateTime cannot be null or empty");
+    }
+    ZoneId zone = getZone();
+    long minute = toEpochMinute(TimeUtils.parseDateTimeString(value, zone));
+
+    if (minute >= endMinute) {
+      throw new IllegalArgumentException("StartDateTime must be before endDateTime");
+    }
+
+    this.startMinute = minute;
+    updateAllDay(zone);
+  }
+
+  /**
+   * Set the event's end date time and updates the isAllDay flag.
+   *
+   * @param value new end date time as a string
+   * @throws IllegalArgumentException if the given endDateTime is null or invalid
+   */
+  @Override
+  public void setEndDateTime(String value) throws IllegalArgumentException {
+    if (value == null || value.isEmpty()) {
+      throw new IllegalArgumentException("EndDateTime cannot be null or empty");
+    }
+    ZoneId zone = getZone();
+    long minute = toEpochMinute(TimeUtils.parseDateTimeString(value, zone));
+
+    if (minute <= startMinute) {
+      throw new IllegalArgumentException("EndDateTime must be after startDateTime");
+    }
+
+    this.endMinute = minute;
+    updateAllDay(zone);
+  }
+
+  /**
+   * Set the event's description. Sets it to an empty string if the given description is null.
+   *
+   * @param description new description
+   */
+  @Override
+  public void setDescription(String description) {
+    this.description = description == null ? "" : description;
+  }
+
+  /**
+   * Set the event's location. Sets it to an empty string if the given location is null.
+   *
+   * @param location new location
+   */
+  @Override
+  public void setLocation(String location) {
+    this.location = location == null ? "" : location;
+  }
+
+  @Override
+  public void setIsPrivate(boolean isPrivate) {
+    setFlag(PRIVATE, isPrivate);
+  }
+
+  @Override
+  public boolean matches(String subject, ChronoZonedDateTime<LocalDate> startDateTime) {
+    return this.subject.equals(subject) && getStartDateTime().equals(startDateTime);
+  }
+
+  /**
+   * Checks if this event overlaps with the given time window. An overlap occurs if this event
+   * finishes in the middle of the window, or starts before the window ends.
+   *
+   * @param startDateTime ChronoZonedDateTime object representing the start of the window
+   * @param endDateTime   ChronoZonedDateTime object representing the end of the window
+   * @return true if there is an overlap, false otherwise
+   */
+  @Override
+  public boolean isOverlap(ChronoZonedDateTime<LocalDate> startDateTime,
+      ChronoZonedDateTime<LocalDate> endDateTime) {
+    return !getEndDateTime().isBefore(startDateTime) && !getStartDateTime().isAfter(endDateTime);
+  }
+
+  /**
+   * Checks if the given date and time clashes with this event. If this event starts before and ends
+   * after the time, there is a clash.
+   *
+   * @param dateTime ChronoZonedDateTime object
+   * @return true if there is a clash, false otherwise
+   */
+  @Override
+  public boolean clashesWith(ChronoZonedDateTime<LocalDate> dateTime) {
+    return !getStartDateTime().isAfter(dateTime) && getEndDateTime().isAfter(dateTime);
+  }
+
+  @Override
+  public boolean isOnSameDay(ChronoZonedDateTime<LocalDate> date) {
+    ChronoZonedDateTime<LocalDate> startDateTime = getStartDateTime();
+    ChronoZonedDateTime<LocalDate> endDateTime = getEndDateTime();
+    return endDateTime.toLocalDate().isEqual(date.toLocalDate())
+        || startDateTime.toLocalDate().isEqual(date.toLocalDate())
+        || startDateTime.isBefore(date) && endDateTime.isAfter(date);
+  }
+
+  @Override
+  public IEvent copy(long timeDifference, ZoneId timezone) {
+    return new CompactEventBuilder()
+        .subject(this.subject)
+        .startDateTime(getStartDateTime().withZoneSameLocal(timezone)
+            .plus(timeDifference, ChronoUnit.MINUTES))
+        .endDateTime(getEndDateTime().withZoneSameLocal(timezone)
+            .plus(timeDifference, ChronoUnit.MINUTES))
+        .description(this.description)
+        .isPrivate(isPrivate())
+        .isAllDay(isAllDay())
+        .location(this.location)
+        .build();
+  }
+
+  @Override
+  public boolean conflictsWith(IEvent other) {
+    if (isAllDay() || other.isAllDay()) {
+      LocalDate thisStartDate = getStartDateTime().toLocalDate();
+      LocalDate thisEndDate = isAllDay() ? thisStartDate : getEndDateTime().toLocalDate();
+      LocalDate otherStartDate = other.getStartDateTime().toLocalDate();
+      LocalDate otherEndDate = other.isAllDay()
+          ? otherStartDate : other.getEndDateTime().toLocalDate();
+      return !thisStartDate.isAfter(otherEndDate) && !otherStartDate.isAfter(thisEndDate);
+    }
+    if (other instanceof CompactEvent) {
+      CompactEvent compact = (CompactEvent) other;
+      return startMinute < compact.endMinute && endMinute > compact.startMinute;
+    }
+
+    return getStartDateTime().isBefore(other.getEndDateTime())
+        && getEndDateTime().isAfter(other.getStartDateTime());
+  }
+
+  @Override
+  public void updateTimezone(ZoneId timezone) {
+    this.zone = timezone;
+  }
+
+  @Override
+  public void followTimezone(ZoneReference timezone) {
+    this.zone = getZone();
+    this.timezone = timezone;
+    this.timezoneVersion = timezone == null ? 0 : timezone.getVersion();
+  }
+
+  /**
+   * Compares this event with another event based on their start and end times.
+   *
+   * @param other the event to compare with this event
+   * @return      a negative integer if this event starts before the other event or if start
+   *              times are equal and this event ends before the other, zero if both events have
+   *              identical start and end times, a positive integer if this event starts after
+   *              the other event or if start times are equal and this event ends after the other
+   */
+  @Override
+  public int compareTo(IEvent other) {
+    if (other instanceof CompactEvent) {
+      CompactEvent compact = (CompactEvent) other;
+      int compareStartMinutes = Long.compare(startMinute, compact.startMinute);
+      return compareStartMinutes != 0
+          ? compareStartMinutes : Long.compare(endMinute, compact.endMinute);
+    }
+    int compareStartTimes = getStartDateTime().compareTo(other.getStartDateTime());
+    if (compareStartTimes != 0) {
+      return compareStartTimes;
+    }
+
+    // if start times are equal, compare end times
+    return getEndDateTime().compareTo(other.getEndDateTime());
+  }
+
+  /**
+   * Returns a string containing all the fields of the event, in the same format as Event.
+   *
+   * @return string containing all fields and values
+   */
+  @Override
+  public String toString() {
+    String format = "subject: %s, startDateTime: %s, endDateTime: %s, description: %s, "
+        + "location: %s, isAllDay: %s, isPrivate: %s";
+    return String.format(format, subject, getStartDateTime(), getEndDateTime(), description,
+        location, isAllDay(), isPrivate());
+  }
+
+  /**
+   * Get the zone the date times are shown in, which is the zone of the followed calendar once it
+   * changed since the event started following it.
+   *
+   * @return ZoneId object
+   */
+  private ZoneId getZone() {
+    if (timezone != null && timezoneVersion != timezone.getVersion()) {
+      return timezone.getZone();
+    }
+    return zone;
+  }
+
+  private ChronoZonedDateTime<LocalDate> toDateTime(long epochMinute) {
+    return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochMinute * SECONDS_PER_MINUTE),
+        getZone());
+  }
+
+  private static long toEpochMinute(ChronoZonedDateTime<LocalDate> dateTime)
+      throws IllegalArgumentException {
+    long seconds = dateTime.toEpochSecond();
+    if (seconds % SECONDS_PER_MINUTE != 0 || dateTime.toLocalTime().getNano() != 0) {
+      throw new IllegalArgumentException("Compact events must start and end on a whole minute");
+    }
+    return seconds / SECONDS_PER_MINUTE;
+  }
+
+  private void updateAllDay(ZoneId zone) {
+    setFlag(ALL_DAY, TimeUtils.isMidnight(getStartDateTime(), zone)
+        && TimeUtils.isMidnight(getEndDateTime(), zone));
+  }
+
+  private void setFlag(int flag, boolean value) {
+    flags = (byte) (value ? flags | flag : flags & ~flag);
+  }
+
+  /**
+   * Inner Java class representing a builder for the CompactEvent class. Extends the
+   * AbstractEventBuilder class.
+   */
+  public static class CompactEventBuilder extends AbstractEventBuilder<CompactEventBuilder> {
+
+    /**
+     * Constructs a CompactEventBuilder using default values for optional fields.
+     */
+    public CompactEventBuilder() {
+      super();
+    }
+
+    @Override
+    protected CompactEventBuilder getBuilder() {
+      return this;
+    }
+
+    /**
+     * Builds a CompactEvent object with the values set in the CompactEventBuilder.
+     *
+     * @return CompactEvent object containing the values
+     * @throws IllegalArgumentException if the values are invalid
+     */
+    public CompactEvent build() throws IllegalArgumentException {
+      return new CompactEvent(subject, startDateTime, endDateTime, description,
+          location, isPrivate, isAllDay);
+    }
+  }
+}
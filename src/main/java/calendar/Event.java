@@ -19,7 +19,8 @@ import utils.TimeUtils;
  */
 public class Event implements IEvent {
 
-  private static final Map<String, BiConsumer<IEvent, String>> SETTERS = new HashMap<>();
+  // setters shared by the event classes, they only use methods of IEvent
+  static final Map<String, BiConsumer<IEvent, String>> SETTERS = new HashMap<>();
 
   protected String subject;
   protected ChronoZonedDateTime<LocalDate> startDateTime;
@@ -31,6 +32,11 @@ public class Event implements IEvent {
   protected String location;
   protected boolean isPrivate;
 
+  // calendar time zone that is applied lazily to the date times when they are read, the version
+  // is written after the date times so a thread that sees it current also sees them
+  private ZoneReference timezone;
+  private volatile long timezoneVersion;
+
   static {
     SETTERS.put("location", IEvent::setLocation);
     SETTERS.put("description", IEvent::setDescription);
@@ -103,11 +109,13 @@ public class Event implements IEvent {
 
   @Override
   public ChronoZonedDateTime<LocalDate> getStartDateTime() {
+    syncTimezone();
     return startDateTime;
   }
 
   @Override
   public ChronoZonedDateTime<LocalDate> getEndDateTime() {
+    syncTimezone();
     return endDateTime;
   }
 
@@ -177,6 +185,7 @@ public class Event implements IEvent {
     if (value == null || value.isEmpty()) {
       throw new IllegalArgumentException("StartDateTime cannot be null or empty");
     }
+    syncTimezone();
     ZoneId zone = this.startDateTime.getZone();
     ChronoZonedDateTime<LocalDate> startDateTime = TimeUtils.parseDateTimeString(value, zone);
 
@@ -200,6 +209,7 @@ public class Event implements IEvent {
     if (value == null || value.isEmpty()) {
       throw new IllegalArgumentException("EndDateTime cannot be null or empty");
     }
+    syncTimezone();
     ZoneId zone = this.endDateTime.getZone();
     ChronoZonedDateTime<LocalDate> endDateTime = TimeUtils.parseDateTimeString(value, zone);
 
@@ -239,6 +249,7 @@ public class Event implements IEvent {
 
   @Override
   public boolean matches(String subject, ChronoZonedDateTime<LocalDate> startDateTime) {
+    syncTimezone();
     return this.subject.equals(subject) && this.startDateTime.equals(startDateTime);
   }
 
@@ -253,6 +264,7 @@ public class Event implements IEvent {
   @Override
   public boolean isOverlap(ChronoZonedDateTime<LocalDate> startDateTime,
       ChronoZonedDateTime<LocalDate> endDateTime) {
+    syncTimezone();
     return !this.endDateTime.isBefore(startDateTime) && !this.startDateTime.isAfter(endDateTime);
   }
 
@@ -265,11 +277,13 @@ public class Event implements IEvent {
    */
   @Override
   public boolean clashesWith(ChronoZonedDateTime<LocalDate> dateTime) {
+    syncTimezone();
     return !this.startDateTime.isAfter(dateTime) && this.endDateTime.isAfter(dateTime);
   }
 
   @Override
   public boolean isOnSameDay(ChronoZonedDateTime<LocalDate> date) {
+    syncTimezone();
     return this.endDateTime.toLocalDate().isEqual(date.toLocalDate())
         || this.startDateTime.toLocalDate().isEqual(date.toLocalDate())
         || this.startDateTime.isBefore(date) && this.endDateTime.isAfter(date);
@@ -277,7 +291,7 @@ public class Event implements IEvent {
 
   @Override
   public IEvent copy(long timeDifference, ZoneId timezone) {
-
+    syncTimezone();
     ChronoZonedDateTime<LocalDate> adjustedStartDateTime = startDateTime.withZoneSameLocal(timezone)
         .plus(timeDifference, ChronoUnit.MINUTES);
     ChronoZonedDateTime<LocalDate> adjustedEndDateTime = endDateTime.withZoneSameLocal(timezone)
@@ -296,6 +310,7 @@ public class Event implements IEvent {
 
   @Override
   public boolean conflictsWith(IEvent other) {
+    syncTimezone();
     if (this.isAllDay && other.isAllDay()) {
       LocalDate thisDate = this.startDateTime.toLocalDate();
       LocalDate otherDate = other.getStartDateTime().toLocalDate();
@@ -326,6 +341,32 @@ public class Event implements IEvent {
     this.endDateTime = endDateTime.withZoneSameInstant(timezone);
   }
 
+  @Override
+  public void followTimezone(ZoneReference timezone) {
+    syncTimezone();
+    this.timezone = timezone;
+    this.timezoneVersion = timezone == null ? 0 : timezone.getVersion();
+  }
+
+  /**
+   * Moves the date times to the time zone of the followed calendar if it changed since they were
+   * last read. Must be called before reading the date time fields. Reads of an event in the
+   * current zone only check the version; moving the date times holds the lock of the event, so
+   * several threads reading the same event see the same date times.
+   */
+  protected void syncTimezone() {
+    ZoneReference reference = timezone;
+    if (reference != null && timezoneVersion != reference.getVersion()) {
+      synchronized (this) {
+        long version = reference.getVersion();
+        if (timezoneVersion != version) {
+          updateTimezone(reference.getZone());
+          timezoneVersion = version;
+        }
+      }
+    }
+  }
+
   /**
    * Compares this event with another event based on their start and end times.
    *
@@ -337,6 +378,7 @@ public class Event implements IEvent {
    */
   @Override
   public int compareTo(IEvent other) {
+    syncTimezone();
     int compareStartTimes = this.startDateTime.compareTo(other.getStartDateTime());
     if (compareStartTimes != 0) {
       return compareStartTimes;
@@ -353,6 +395,7 @@ public class Event implements IEvent {
    */
   @Override
   public String toString() {
+    syncTimezone();
     String format = "subject: %s, startDateTime: %s, endDateTime: %s, description: %s, "
         + "location: %s, isAllDay: %s, isPrivate: %s";
     return String.format(format, subject, startDateTime, endDateTime, description,
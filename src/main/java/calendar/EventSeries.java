@@ -0,0 +1,418 @@
+package calendar;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A Java class representing a repeating event series that is stored as a rule instead of as
+ * separate events. The series keeps a single template event and creates its occurrences only when
+ * they are needed, so its size does not depend on the number of occurrences.
+ *
+ * <p>Occurrences are numbered from the template's start date, which is the first day of the
+ * repeating week. Occurrence i falls i / k weeks after that date on the (i % k)-th repeat day of
+ * the week, where k is the number of repeat days. The series covers the occurrences from its from
+ * index up to but not including its to index, so finding an occurrence by number or by date costs
+ * O(1), and splitting a series only creates two new index ranges.
+ */
+class EventSeries {
+
+  private static final int DAYS_PER_WEEK = 7;
+
+  private final IRepeatingEvent template;
+  private final LocalDate anchor;
+  private final int[] dayOffsets;
+  private final long fromIndex;
+  private final long toIndex;
+
+  /**
+   * Constructs an EventSeries object.
+   *
+   * @param template   template event starting on the first day of the repeating week
+   * @param dayOffsets sorted offsets in days of the repeat days from the template's start date
+   * @param fromIndex  number of the first occurrence in the series
+   * @param toIndex    number after the last occurrence in the series
+   */
+  private EventSeries(IRepeatingEvent template, int[] dayOffsets, long fromIndex, long toIndex) {
+    this.template = template;
+    this.anchor = template.getStartDateTime().toLocalDate();
+    this.dayOffsets = dayOffsets;
+    this.fromIndex = fromIndex;
+    this.toIndex = Math.max(fromIndex, toIndex);
+  }
+
+  /**
+   * Creates the series of the given base event. The occurrences are the same events created by
+   * IRepeatingEvent.repeatUntilEndDate or IRepeatingEvent.repeatNTimes.
+   *
+   * @param base         base event of the series
+   * @param untilEndDate true to repeat until the repeat end date, false to repeat N times
+   * @return EventSeries object
+   * @throws IllegalArgumentException if the base event has no repeat days
+   */
+  static EventSeries of(IRepeatingEvent base, boolean untilEndDate)
+      throws IllegalArgumentException {
+    Set<DayOfWeek> days = base.getRepeatDays();
+    if (days == null || days.isEmpty()) {
+      throw new IllegalArgumentException("Repeat days cannot be empty");
+    }
+
+    RepeatingEvent.RepeatingEventBuilder builder = new RepeatingEvent.RepeatingEventBuilder()
+        .subject(base.getSubject())
+        .startDateTime(base.getStartDateTime())
+        .endDateTime(base.getEndDateTime())
+        .description(base.getDescription())
+        .location(base.getLocation())
+        .isPrivate(base.isPrivate())
+        .isAllDay(base.isAllDay())
+        .seriesId(base.getSeriesId())
+        .repeatDays(days);
+    if (untilEndDate) {
+      builder.repeatEndDateTime(base.getRepeatEndDateTime());
+    } else {
+      builder.repeatNumber(base.getRepeatNumber());
+    }
+    IRepeatingEvent template = builder.build();
+
+    LocalDate startDate = base.getStartDateTime().toLocalDate();
+    int[] dayOffsets = new int[days.size()];
+    int count = 0;
+    for (int offset = 0; offset < DAYS_PER_WEEK; offset++) {
+      if (days.contains(startDate.plusDays(offset).getDayOfWeek())) {
+        dayOffsets[count++] = offset;
+      }
+    }
+
+    EventSeries series = new EventSeries(template, dayOffsets, 0, 0);
+    long toIndex = untilEndDate
+        ? series.indexOnOrAfter(base.getRepeatEndDateTime().toLocalDate().plusDays(1))
+        : base.getRepeatNumber() + 1L;
+    return series.subSeries(0, toIndex);
+  }
+
+  /**
+   * Get the template event of the series.
+   *
+   * @return IRepeatingEvent object
+   */
+  IRepeatingEvent getTemplate() {
+    return template;
+  }
+
+  /**
+   * Get the subject of the events in the series.
+   *
+   * @return subject name
+   */
+  String getSubject() {
+    return template.getSubject();
+  }
+
+  /**
+   * Get the id of the event series. Series that were split from each other share the same id.
+   *
+   * @return series id
+   */
+  long getSeriesId() {
+    return template.getSeriesId();
+  }
+
+  /**
+   * Get the time zone the occurrence dates of the series are calculated in.
+   *
+   * @return ZoneId object
+   */
+  ZoneId getZone() {
+    return template.getStartDateTime().getZone();
+  }
+
+  /**
+   * Get the number of the first occurrence in the series.
+   *
+   * @return occurrence number
+   */
+  long getFromIndex() {
+    return fromIndex;
+  }
+
+  /**
+   * Get the number after the last occurrence in the series.
+   *
+   * @return occurrence number
+   */
+  long getToIndex() {
+    return toIndex;
+  }
+
+  /**
+   * Checks if the series has no occurrences.
+   *
+   * @return true if the series is empty, false otherwise
+   */
+  boolean isEmpty() {
+    return fromIndex == toIndex;
+  }
+
+  /**
+   * Get the date of the first occurrence. The series must not be empty.
+   *
+   * @return LocalDate object in the series time zone
+   */
+  LocalDate getFirstDate() {
+    return getDate(fromIndex);
+  }
+
+  /**
+   * Get the date of the last occurrence. The series must not be empty.
+   *
+   * @return LocalDate object in the series time zone
+   */
+  LocalDate getLastDate() {
+    return getDate(toIndex - 1);
+  }
+
+  /**
+   * Get the number of the occurrence on the given date.
+   *
+   * @param date LocalDate object in the series time zone
+   * @return occurrence number, or -1 if the series has no occurrence on the date
+   */
+  long indexOf(LocalDate date) {
+    long index = indexOnOrAfter(date);
+    if (index < fromIndex || index >= toIndex || !getDate(index).isEqual(date)) {
+      return -1;
+    }
+    return index;
+  }
+
+  /**
+   * Get the number of the first occurrence in the series that does not start before the given
+   * date time.
+   *
+   * @param dateTime ChronoZonedDateTime object
+   * @return occurrence number, equal to the to index if every occurrence starts earlier
+   */
+  long indexStartingFrom(ChronoZonedDateTime<LocalDate> dateTime) {
+    LocalDate date = dateTime.withZoneSameInstant(getZone()).toLocalDate();
+    long index = Math.max(fromIndex, indexOnOrAfter(date));
+    while (index < toIndex && getStartDateTime(index).isBefore(dateTime)) {
+      index++;
+    }
+    return Math.min(index, toIndex);
+  }
+
+  /**
+   * Get the date of the occurrence with the given number.
+   *
+   * @param index occurrence number
+   * @return LocalDate object in the series time zone
+   */
+  LocalDate getDate(long index) {
+    int count = dayOffsets.length;
+    return anchor.plusDays(DAYS_PER_WEEK * (index / count) + dayOffsets[(int) (index % count)]);
+  }
+
+  /**
+   * Checks if the given event is the same as the occurrence of the series on its start date,
+   * ignoring the repeat rule stored in the event.
+   *
+   * @param event event to check
+   * @return true if the event is an occurrence of the series, false otherwise
+   */
+  boolean hasOccurrence(IEvent event) {
+    long index = indexOf(event.getStartDateTime().toLocalDate());
+    if (index < 0) {
+      return false;
+    }
+
+    long days = ChronoUnit.DAYS.between(anchor, getDate(index));
+    return event.getStartDateTime().equals(template.getStartDateTime().plus(days, ChronoUnit.DAYS))
+        && event.getEndDateTime().equals(template.getEndDateTime().plus(days, ChronoUnit.DAYS))
+        && event.getSubject().equals(template.getSubject())
+        && event.getDescription().equals(template.getDescription())
+        && event.getLocation().equals(template.getLocation())
+        && event.isPrivate() == template.isPrivate()
+        && event.isAllDay() == template.isAllDay();
+  }
+
+  /**
+   * Creates the occurrence with the given number.
+   *
+   * @param index occurrence number
+   * @param zone  time zone of the created event
+   * @return IRepeatingEvent object
+   */
+  IRepeatingEvent getOccurrence(long index, ZoneId zone) {
+    long days = ChronoUnit.DAYS.between(anchor, getDate(index));
+    RepeatingEvent.RepeatingEventBuilder builder = new RepeatingEvent.RepeatingEventBuilder()
+        .subject(template.getSubject())
+        .startDateTime(template.getStartDateTime().plus(days, ChronoUnit.DAYS))
+        .endDateTime(template.getEndDateTime().plus(days, ChronoUnit.DAYS))
+        .description(template.getDescription())
+        .location(template.getLocation())
+        .isPrivate(template.isPrivate())
+        .isAllDay(template.isAllDay())
+        .seriesId(template.getSeriesId())
+        .repeatDays(template.getRepeatDays());
+    if (template.getRepeatNumber() > 0) {
+      builder.repeatNumber(template.getRepeatNumber());
+    } else {
+      builder.repeatEndDateTime(template.getRepeatEndDateTime());
+    }
+
+    IRepeatingEvent occurrence = builder.build();
+    if (!zone.equals(getZone())) {
+      occurrence.updateTimezone(zone);
+    }
+    return occurrence;
+  }
+
+  /**
+   * Creates all occurrences that fall between the given dates, including both dates.
+   *
+   * @param from first date in the series time zone
+   * @param to   last date in the series time zone
+   * @param zone time zone of the created events
+   * @return List of IEvent objects sorted by start date time
+   */
+  List<IEvent> getOccurrences(LocalDate from, LocalDate to, ZoneId zone) {
+    List<IEvent> result = new ArrayList<>();
+    for (long index = Math.max(fromIndex, indexOnOrAfter(from));
+        index < toIndex && !getDate(index).isAfter(to); index++) {
+      result.add(getOccurrence(index, zone));
+    }
+    return result;
+  }
+
+  /**
+   * Get an iterator that creates the occurrences of the series one at a time.
+   *
+   * @param zone time zone of the created events
+   * @return Iterator of IEvent objects sorted by start date time
+   */
+  Iterator<IEvent> iterator(ZoneId zone) {
+    return new Iterator<>() {
+      private long index = fromIndex;
+
+      @Override
+      public boolean hasNext() {
+        return index < toIndex;
+      }
+
+      @Override
+      public IEvent next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return getOccurrence(index++, zone);
+      }
+    };
+  }
+
+  /**
+   * Checks if any occurrence of this series conflicts with an occurrence of the other series.
+   * Both series repeat every week, so every conflicting pair of occurrences has a matching pair
+   * within the first week and a half of the dates both series cover, and only those dates are
+   * compared.
+   *
+   * @param other other series
+   * @param zone  time zone the occurrences are compared in
+   * @return true if there is a conflict, false otherwise
+   */
+  boolean conflictsWith(EventSeries other, ZoneId zone) {
+    if (isEmpty() || other.isEmpty()) {
+      return false;
+    }
+
+    LocalDate start = getFirstDate().isAfter(other.getFirstDate())
+        ? getFirstDate() : other.getFirstDate();
+    for (IEvent occurrence : getOccurrences(start.minusDays(2), start.plusDays(9), zone)) {
+      LocalDate date = occurrence.getStartDateTime().toLocalDate();
+      for (IEvent otherOccurrence : other.getOccurrences(date.minusDays(2), date.plusDays(2),
+          zone)) {
+        if (occurrence.conflictsWith(otherOccurrence)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Creates a series with the same rule that only covers the given occurrence numbers.
+   *
+   * @param from number of the first occurrence
+   * @param to   number after the last occurrence
+   * @return EventSeries object
+   */
+  EventSeries subSeries(long from, long to) {
+    return new EventSeries(template, dayOffsets, from, to);
+  }
+
+  /**
+   * Creates a copy of this series with a property of every occurrence changed. Properties that
+   * change the time or the repeat rule of the occurrences cannot be changed this way.
+   *
+   * @param property property name
+   * @param newValue new value as a string
+   * @return EventSeries object
+   * @throws IllegalArgumentException if the given property name or value is invalid
+   */
+  EventSeries withProperty(String property, String newValue) throws IllegalArgumentException {
+    if (property.equals("startDateTime") || property.equals("endDateTime")
+        || RepeatingEvent.getEditableProperties().contains(property)) {
+      throw new IllegalArgumentException("Invalid property: " + property);
+    }
+
+    IRepeatingEvent copy = new RepeatingEvent.RepeatingEventBuilder()
+        .subject(template.getSubject())
+        .startDateTime(template.getStartDateTime())
+        .endDateTime(template.getEndDateTime())
+        .description(template.getDescription())
+        .location(template.getLocation())
+        .isPrivate(template.isPrivate())
+        .isAllDay(template.isAllDay())
+        .seriesId(template.getSeriesId())
+        .repeatDays(template.getRepeatDays())
+        .repeatNumber(template.getRepeatNumber())
+        .repeatEndDateTime(template.getRepeatEndDateTime())
+        .build();
+    copy.setNewProperty(property, newValue);
+    return new EventSeries(copy, dayOffsets, fromIndex, toIndex);
+  }
+
+  private ChronoZonedDateTime<LocalDate> getStartDateTime(long index) {
+    long days = ChronoUnit.DAYS.between(anchor, getDate(index));
+    return template.getStartDateTime().plus(days, ChronoUnit.DAYS);
+  }
+
+  /**
+   * Get the number of the first occurrence of the unbounded rule on or after the given date.
+   *
+   * @param date LocalDate object in the series time zone
+   * @return occurrence number, at least 0
+   */
+  private long indexOnOrAfter(LocalDate date) {
+    long offset = ChronoUnit.DAYS.between(anchor, date);
+    if (offset <= 0) {
+      return 0;
+    }
+
+    int count = dayOffsets.length;
+    long week = offset / DAYS_PER_WEEK;
+    long remainder = offset % DAYS_PER_WEEK;
+    for (int i = 0; i < count; i++) {
+      if (dayOffsets[i] >= remainder) {
+        return week * count + i;
+      }
+    }
+    return (week + 1) * count;
+  }
+}
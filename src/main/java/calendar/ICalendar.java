@@ -1,6 +1,8 @@
 package calendar;
 
+import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.chrono.ChronoZonedDateTime;
 import java.util.List;
 
 import model.ConflictException;
@@ -40,6 +42,63 @@ public interface ICalendar {
    */
   void setTimezone(String timezone) throws IllegalArgumentException;
 
+  /**
+   * Get how repeating event series are stored in the calendar.
+   *
+   * @return recurrence mode, either "expanded" or "rules"
+   */
+  String getRecurrence();
+
+  /**
+   * Set how repeating event series added to the calendar are stored. In the expanded mode every
+   * occurrence is stored as an event, in the rules mode only the repeat rule is stored.
+   *
+   * @param recurrence recurrence mode, either "expanded" or "rules"
+   * @throws IllegalArgumentException if the new value is invalid
+   */
+  void setRecurrence(String recurrence) throws IllegalArgumentException;
+
+  /**
+   * Get how the events of the calendar are indexed by time.
+   *
+   * @return storage mode, either "tree" or "columnar"
+   */
+  String getStorage();
+
+  /**
+   * Set how the events of the calendar are indexed by time. The tree keeps edits cheap, while the
+   * columnar mode scans primitive columns and suits large calendars that are mostly queried.
+   *
+   * @param storage storage mode, either "tree" or "columnar"
+   * @throws IllegalArgumentException if the new value is invalid
+   */
+  void setStorage(String storage) throws IllegalArgumentException;
+
+  /**
+   * Get the dictionary that shares equal subjects, descriptions and locations between the events
+   * of the calendar. Its statistics report how many duplicates were found and the memory saved.
+   *
+   * @return StringDictionary object
+   */
+  StringDictionary getStringDictionary();
+
+  /**
+   * Checks if the calendar stores its events on disk itself, in which case changes to its events
+   * survive a restart without being recorded in the command journal.
+   *
+   * @return true if the events are stored on disk, false if they are only kept in memory
+   */
+  boolean isPersistent();
+
+  /**
+   * Estimates the heap used by the calendar, including its events, their index entries and the
+   * strings of its dictionary. The estimate is kept up to date as the calendar changes, so it is
+   * cheap to get.
+   *
+   * @return estimated number of bytes
+   */
+  long getEstimatedBytes();
+
   /**
    * Edit  property of a calendar.
    *
@@ -58,12 +117,86 @@ public interface ICalendar {
   void addEvents(List<IEvent> events) throws ConflictException;
 
   /**
-   * Get all events that are part of the calendar.
+   * Add events to the calendar in bulk, such as the rows of an import. The events are added in
+   * order of their start and end date time, and an event that conflicts with an existing event or
+   * with an event added before it is skipped instead of failing the whole list.
+   *
+   * @param events list of IEvent objects
+   * @return events that were skipped because of a conflict
+   */
+  List<IEvent> addEventsSkippingConflicts(List<IEvent> events);
+
+  /**
+   * Add all events of a repeating event series to the calendar.
+   *
+   * @param baseEvent base event of the series
+   * @throws ConflictException        if there is a conflict with an existing event
+   * @throws IllegalArgumentException if the repeat rule is invalid
+   */
+  void addSeries(IRepeatingEvent baseEvent) throws ConflictException, IllegalArgumentException;
+
+  /**
+   * Get all events that are stored in the calendar. Occurrences of series stored as rules are not
+   * included.
    *
    * @return List of IEvent objects
    */
   List<IEvent> getEvents();
 
+  /**
+   * Get all events of the calendar in sorted order, including the occurrences of series stored as
+   * rules.
+   *
+   * @return Iterable of IEvent objects
+   */
+  Iterable<IEvent> getAllEvents();
+
+  /**
+   * Get all events that occur on the given day. Included events start on the given date, end on the
+   * given date, or are ongoing during the day.
+   *
+   * @param date ChronoZonedDateTime object representing a day
+   * @return List of IEvent objects sorted by start date time, empty if there are no events
+   */
+  List<IEvent> getEventsOnDate(ChronoZonedDateTime<LocalDate> date);
+
+  /**
+   * Get all events that overlap the given time range.
+   *
+   * @param startDateTime start of time range
+   * @param endDateTime   end of time range
+   * @return List of IEvent objects sorted by start date time, empty if there are no events
+   */
+  List<IEvent> getEventsInRange(ChronoZonedDateTime<LocalDate> startDateTime,
+      ChronoZonedDateTime<LocalDate> endDateTime);
+
+  /**
+   * Finds the event with the given subject and start date time.
+   *
+   * @param subject       subject name
+   * @param startDateTime start date and time
+   * @return matching IEvent object, or null if there is no matching event
+   */
+  IEvent findEvent(String subject, ChronoZonedDateTime<LocalDate> startDateTime);
+
+  /**
+   * Checks if any event in the calendar is ongoing at the given date and time.
+   *
+   * @param dateTime ChronoZonedDateTime object
+   * @return true if the calendar is busy, false otherwise
+   */
+  boolean isBusy(ChronoZonedDateTime<LocalDate> dateTime);
+
+  /**
+   * Checks if any event in the calendar is ongoing at each of the given date and times.
+   *
+   * @param dateTimes list of ChronoZonedDateTime objects sorted in ascending order
+   * @return list containing true for each busy date time and false for each available one
+   * @throws IllegalArgumentException if the date times are not sorted
+   */
+  List<Boolean> isBusy(List<ChronoZonedDateTime<LocalDate>> dateTimes)
+      throws IllegalArgumentException;
+
   /**
    * Edit a single event in the calendar.
    *
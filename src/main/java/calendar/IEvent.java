@@ -7,6 +7,12 @@ import java.time.chrono.ChronoZonedDateTime;
 /**
  * A Java interface representing an event in a calendar and operations involving getting its values,
  * setting values, and checking for conflicts.
+ *
+ * <p>Events are not thread safe for changes. Any number of threads may read an event at the same
+ * time, including through getters, compareTo and conflictsWith, as long as no thread changes it or
+ * the time zone of its calendar meanwhile. Reads may move the date times to a changed calendar
+ * time zone, which implementations do safely, so an event read on one thread can be handed to
+ * other threads without reading it first.
  */
 public interface IEvent extends Comparable<IEvent> {
 
@@ -182,6 +188,16 @@ public interface IEvent extends Comparable<IEvent> {
    */
   void updateTimezone(ZoneId timezone);
 
+  /**
+   * Makes this event follow the time zone of a calendar. Whenever that zone changes, the start and
+   * end times are moved to it the next time they are read, instead of updating every event at
+   * once. Passing null stops following, keeping the zone the event has at that moment. Changing
+   * the followed zone is a change to the event and must not overlap with reads on other threads.
+   *
+   * @param timezone shared calendar time zone, or null
+   */
+  void followTimezone(ZoneReference timezone);
+
   /**
    * Determines whether this event is a repeating event.
    *
@@ -12,6 +12,14 @@ import java.util.Set;
  */
 public interface IRepeatingEvent extends IEvent {
 
+  /**
+   * Get the id of the series this event is part of. All events created from the same repeat rule
+   * share the same series id.
+   *
+   * @return series id
+   */
+  long getSeriesId();
+
   /**
    * Get the repeat end date time.
    *
@@ -64,6 +72,14 @@ public interface IRepeatingEvent extends IEvent {
    */
   void setRepeatEndDateTime(String value);
 
+  /**
+   * Set the repeat number, repeat days and repeat end date time of a repeating event to the values
+   * of the given event.
+   *
+   * @param other repeating event to copy the repeat rule from
+   */
+  void setRepeatRule(IRepeatingEvent other);
+
   /**
    * Creates events on the given days until the repeat end date and time.
    *
@@ -0,0 +1,214 @@
+package calendar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Java class representing a columnar interval index. The intervals are kept sorted by start and
+ * end in parallel primitive arrays, along with a running maximum of the ends, and the values are
+ * kept in a separate array that is only read for results. Queries find their bounds with binary
+ * searches and then scan the start and end columns in a plain loop, without touching the values.
+ *
+ * <p>Adding or removing an interval shifts the columns after it, so this index suits calendars
+ * that are mostly loaded in order and queried often. Adding intervals in sorted order appends. A
+ * very long interval raises the running maximum for every interval after it, so scans start from
+ * it; calendars with such intervals are better served by IntervalTree.
+ *
+ * @param <T> the type of values stored in the index
+ */
+class IntervalColumns<T> implements IntervalIndex<T> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private long[] lows;
+  private long[] highs;
+  // maxHighs[i] is the largest high among the first i + 1 intervals, so it never decreases
+  private long[] maxHighs;
+  private Object[] values;
+  private int size;
+
+  /**
+   * Constructs an empty IntervalColumns index.
+   */
+  IntervalColumns() {
+    this.lows = new long[DEFAULT_CAPACITY];
+    this.highs = new long[DEFAULT_CAPACITY];
+    this.maxHighs = new long[DEFAULT_CAPACITY];
+    this.values = new Object[DEFAULT_CAPACITY];
+    this.size = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  @Override
+  public void add(long low, long high, T value) throws IllegalArgumentException {
+    if (low > high) {
+      throw new IllegalArgumentException("Interval start must not be after its end");
+    }
+    if (size == lows.length) {
+      grow();
+    }
+
+    int index = upperBound(low, high);
+    int moved = size - index;
+    System.arraycopy(lows, index, lows, index + 1, moved);
+    System.arraycopy(highs, index, highs, index + 1, moved);
+    System.arraycopy(values, index, values, index + 1, moved);
+    lows[index] = low;
+    highs[index] = high;
+    values[index] = value;
+    size++;
+    updateMaxHighs(index);
+  }
+
+  @Override
+  public boolean remove(long low, long high, T value) {
+    for (int i = lowerBound(low, high); i < size && lows[i] == low && highs[i] == high; i++) {
+      if (values[i] == value) {
+        int moved = size - i - 1;
+        System.arraycopy(lows, i + 1, lows, i, moved);
+        System.arraycopy(highs, i + 1, highs, i, moved);
+        System.arraycopy(values, i + 1, values, i, moved);
+        size--;
+        values[size] = null;
+        updateMaxHighs(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get all values whose interval overlaps the given closed interval. Intervals before the first
+   * running maximum reaching the query start cannot overlap, and neither can intervals starting
+   * after the query end, so only the columns in between are scanned.
+   *
+   * @param low  start of the query interval
+   * @param high end of the query interval
+   * @return list of matching values
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<T> findOverlapping(long low, long high) {
+    List<T> result = new ArrayList<>();
+    int end = upperBoundOfLow(high);
+    for (int i = firstMaxHighAtLeast(low); i < end; i++) {
+      if (highs[i] >= low) {
+        result.add((T) values[i]);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean hasIntervalContaining(long point) {
+    int end = upperBoundOfLow(point);
+    for (int i = firstMaxHighAtLeast(point + 1); i < end; i++) {
+      if (highs[i] > point) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public long maxHighStartingAtOrBefore(long point) {
+    int end = upperBoundOfLow(point);
+    return end == 0 ? Long.MIN_VALUE : maxHighs[end - 1];
+  }
+
+  /**
+   * Finds the first interval whose running maximum high is at least the given value. No interval
+   * before it ends at or after the value.
+   */
+  private int firstMaxHighAtLeast(long value) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (maxHighs[mid] < value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Finds the first interval that starts after the given value.
+   */
+  private int upperBoundOfLow(long value) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (lows[mid] <= value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Finds the first interval that is not before the given interval.
+   */
+  private int lowerBound(long low, long high) {
+    int from = 0;
+    int to = size;
+    while (from < to) {
+      int mid = (from + to) >>> 1;
+      if (lows[mid] < low || lows[mid] == low && highs[mid] < high) {
+        from = mid + 1;
+      } else {
+        to = mid;
+      }
+    }
+    return from;
+  }
+
+  /**
+   * Finds the first interval that is after the given interval.
+   */
+  private int upperBound(long low, long high) {
+    int from = 0;
+    int to = size;
+    while (from < to) {
+      int mid = (from + to) >>> 1;
+      if (lows[mid] < low || lows[mid] == low && highs[mid] <= high) {
+        from = mid + 1;
+      } else {
+        to = mid;
+      }
+    }
+    return from;
+  }
+
+  private void updateMaxHighs(int from) {
+    long max = from == 0 ? Long.MIN_VALUE : maxHighs[from - 1];
+    for (int i = from; i < size; i++) {
+      max = Math.max(max, highs[i]);
+      maxHighs[i] = max;
+    }
+  }
+
+  private void grow() {
+    int capacity = lows.length * 2;
+    lows = Arrays.copyOf(lows, capacity);
+    highs = Arrays.copyOf(highs, capacity);
+    maxHighs = Arrays.copyOf(maxHighs, capacity);
+    values = Arrays.copyOf(values, capacity);
+  }
+}
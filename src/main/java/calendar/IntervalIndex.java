@@ -0,0 +1,87 @@
+package calendar;
+
+import java.util.List;
+
+/**
+ * An interface for indexes that store values under closed intervals [low, high] and find the
+ * values overlapping a query interval.
+ *
+ * @param <T> the type of values stored in the index
+ */
+interface IntervalIndex<T> {
+
+  /**
+   * Get the number of values stored in the index.
+   *
+   * @return number of values
+   */
+  int size();
+
+  /**
+   * Removes all values from the index.
+   */
+  void clear();
+
+  /**
+   * Adds a value with the given closed interval.
+   *
+   * @param low   start of the interval
+   * @param high  end of the interval
+   * @param value value to store
+   * @throws IllegalArgumentException if low is greater than high
+   */
+  void add(long low, long high, T value) throws IllegalArgumentException;
+
+  /**
+   * Removes the given value stored under the given interval. Values are compared by identity.
+   *
+   * @param low   start of the interval the value was added with
+   * @param high  end of the interval the value was added with
+   * @param value value to remove
+   * @return true if the value was found and removed, false otherwise
+   */
+  boolean remove(long low, long high, T value);
+
+  /**
+   * Adds values whose intervals are sorted by start, then end, with the same result as adding
+   * them one by one. Indexes may build themselves faster from sorted input.
+   *
+   * @param lows   starts of the intervals
+   * @param highs  ends of the intervals
+   * @param values values to store, in the order of their intervals
+   * @throws IllegalArgumentException if an interval start is after its end, or if the intervals
+   *                                  are not sorted
+   */
+  default void addSorted(long[] lows, long[] highs, List<T> values)
+      throws IllegalArgumentException {
+    for (int i = 0; i < values.size(); i++) {
+      add(lows[i], highs[i], values.get(i));
+    }
+  }
+
+  /**
+   * Get all values whose interval overlaps the given closed interval. Values are returned in order
+   * of their interval start, then interval end, then insertion order.
+   *
+   * @param low  start of the query interval
+   * @param high end of the query interval
+   * @return list of matching values
+   */
+  List<T> findOverlapping(long low, long high);
+
+  /**
+   * Checks if any interval starts at or before the given point and ends after it.
+   *
+   * @param point point to check
+   * @return true if an interval contains the point, false otherwise
+   */
+  boolean hasIntervalContaining(long point);
+
+  /**
+   * Get the largest end of the intervals that start at or before the given point.
+   *
+   * @param point point to check
+   * @return largest interval end, or Long.MIN_VALUE if no interval starts at or before the point
+   */
+  long maxHighStartingAtOrBefore(long point);
+}
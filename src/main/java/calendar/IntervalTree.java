@@ -0,0 +1,366 @@
+package calendar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Java class representing an augmented interval tree. Each node stores a closed interval
+ * [low, high] along with every value that was added with exactly that interval, and the maximum
+ * high value found in its subtree. The tree is kept balanced using AVL rotations so that insertion
+ * and removal cost O(log n) and overlap queries cost O(log n + k).
+ *
+ * @param <T> the type of values stored in the tree
+ */
+class IntervalTree<T> implements IntervalIndex<T> {
+
+  private Node<T> root;
+  private int size;
+
+  /**
+   * Constructs an empty IntervalTree.
+   */
+  IntervalTree() {
+    this.root = null;
+    this.size = 0;
+  }
+
+  /**
+   * Get the number of values stored in the tree.
+   *
+   * @return number of values
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes all values from the tree.
+   */
+  @Override
+  public void clear() {
+    root = null;
+    size = 0;
+  }
+
+  /**
+   * Adds a value with the given closed interval.
+   *
+   * @param low   start of the interval
+   * @param high  end of the interval
+   * @param value value to store
+   * @throws IllegalArgumentException if low is greater than high
+   */
+  @Override
+  public void add(long low, long high, T value) throws IllegalArgumentException {
+    if (low > high) {
+      throw new IllegalArgumentException("Interval start must not be after its end");
+    }
+    root = insert(root, low, high, value);
+    size++;
+  }
+
+  /**
+   * Adds values whose intervals are sorted. An empty tree is built balanced in linear time by
+   * making the middle interval the root of each subtree, instead of rebalancing after every
+   * insertion.
+   *
+   * @param lows   starts of the intervals
+   * @param highs  ends of the intervals
+   * @param values values to store, in the order of their intervals
+   * @throws IllegalArgumentException if an interval start is after its end, or if the intervals
+   *                                  are not sorted
+   */
+  @Override
+  public void addSorted(long[] lows, long[] highs, List<T> values)
+      throws IllegalArgumentException {
+    if (root != null) {
+      IntervalIndex.super.addSorted(lows, highs, values);
+      return;
+    }
+
+    // values sharing an interval share a node
+    List<Node<T>> nodes = new ArrayList<>();
+    for (int i = 0; i < values.size(); i++) {
+      if (lows[i] > highs[i]) {
+        throw new IllegalArgumentException("Interval start must not be after its end");
+      }
+      Node<T> last = nodes.isEmpty() ? null : nodes.get(nodes.size() - 1);
+      int compare = last == null ? 1 : compareKeys(lows[i], highs[i], last.low, last.high);
+      if (compare < 0) {
+        throw new IllegalArgumentException("Intervals must be added in sorted order");
+      } else if (compare == 0) {
+        last.values.add(values.get(i));
+      } else {
+        nodes.add(new Node<>(lows[i], highs[i], values.get(i)));
+      }
+    }
+    root = build(nodes, 0, nodes.size());
+    size = values.size();
+  }
+
+  /**
+   * Removes the given value stored under the given interval. Values are compared by identity.
+   *
+   * @param low   start of the interval the value was added with
+   * @param high  end of the interval the value was added with
+   * @param value value to remove
+   * @return true if the value was found and removed, false otherwise
+   */
+  @Override
+  public boolean remove(long low, long high, T value) {
+    int before = size;
+    root = delete(root, low, high, value);
+    return size < before;
+  }
+
+  /**
+   * Get all values whose interval overlaps the given closed interval. Values are returned in order
+   * of their interval start, then interval end, then insertion order.
+   *
+   * @param low  start of the query interval
+   * @param high end of the query interval
+   * @return list of matching values
+   */
+  @Override
+  public List<T> findOverlapping(long low, long high) {
+    List<T> result = new ArrayList<>();
+    collectOverlapping(root, low, high, result);
+    return result;
+  }
+
+  /**
+   * Checks if any interval starts at or before the given point and ends after it. Descends a
+   * single path from the root, so the check costs O(log n).
+   *
+   * @param point point to check
+   * @return true if an interval contains the point, false otherwise
+   */
+  @Override
+  public boolean hasIntervalContaining(long point) {
+    Node<T> node = root;
+    while (node != null) {
+      if (node.low <= point && node.high > point) {
+        return true;
+      }
+
+      if (node.left != null && node.left.maxHigh > point) {
+        // if the left subtree has no match then neither does the right subtree, since the
+        // interval ending after the point must start after it
+        node = node.left;
+      } else if (node.low > point) {
+        return false;
+      } else {
+        node = node.right;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the largest end of the intervals that start at or before the given point. Descends a
+   * single path from the root, taking the maximum of each left subtree that starts early enough,
+   * so the lookup costs O(log n).
+   *
+   * @param point point to check
+   * @return largest interval end, or Long.MIN_VALUE if no interval starts at or before the point
+   */
+  @Override
+  public long maxHighStartingAtOrBefore(long point) {
+    long max = Long.MIN_VALUE;
+    Node<T> node = root;
+    while (node != null) {
+      if (node.low <= point) {
+        // this node and its whole left subtree start early enough
+        max = Math.max(max, Math.max(node.high, maxHigh(node.left)));
+        node = node.right;
+      } else {
+        node = node.left;
+      }
+    }
+    return max;
+  }
+
+  private void collectOverlapping(Node<T> node, long low, long high, List<T> result) {
+    if (node == null || node.maxHigh < low) {
+      // nothing in this subtree ends late enough
+      return;
+    }
+
+    collectOverlapping(node.left, low, high, result);
+    if (node.low > high) {
+      // this node and everything to its right starts too late
+      return;
+    }
+    if (node.high >= low) {
+      result.addAll(node.values);
+    }
+    collectOverlapping(node.right, low, high, result);
+  }
+
+  private Node<T> insert(Node<T> node, long low, long high, T value) {
+    if (node == null) {
+      return new Node<>(low, high, value);
+    }
+
+    int compare = compareKeys(low, high, node.low, node.high);
+    if (compare < 0) {
+      node.left = insert(node.left, low, high, value);
+    } else if (compare > 0) {
+      node.right = insert(node.right, low, high, value);
+    } else {
+      node.values.add(value);
+      return node;
+    }
+    return rebalance(node);
+  }
+
+  private Node<T> build(List<Node<T>> nodes, int from, int to) {
+    if (from >= to) {
+      return null;
+    }
+
+    int middle = (from + to) >>> 1;
+    Node<T> node = nodes.get(middle);
+    node.left = build(nodes, from, middle);
+    node.right = build(nodes, middle + 1, to);
+    update(node);
+    return node;
+  }
+
+  private Node<T> delete(Node<T> node, long low, long high, T value) {
+    if (node == null) {
+      return null;
+    }
+
+    int compare = compareKeys(low, high, node.low, node.high);
+    if (compare < 0) {
+      node.left = delete(node.left, low, high, value);
+    } else if (compare > 0) {
+      node.right = delete(node.right, low, high, value);
+    } else {
+      if (!removeByIdentity(node.values, value)) {
+        return node;
+      }
+      size--;
+      if (!node.values.isEmpty()) {
+        return node;
+      }
+      if (node.left == null) {
+        return node.right;
+      }
+      if (node.right == null) {
+        return node.left;
+      }
+
+      // replace this node with the smallest node of its right subtree
+      Node<T> successor = node.right;
+      while (successor.left != null) {
+        successor = successor.left;
+      }
+      node.low = successor.low;
+      node.high = successor.high;
+      node.values = successor.values;
+      node.right = detachMin(node.right);
+    }
+    return rebalance(node);
+  }
+
+  private Node<T> detachMin(Node<T> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    node.left = detachMin(node.left);
+    return rebalance(node);
+  }
+
+  private boolean removeByIdentity(List<T> values, T value) {
+    for (int i = 0; i < values.size(); i++) {
+      if (values.get(i) == value) {
+        values.remove(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int compareKeys(long low1, long high1, long low2, long high2) {
+    int compare = Long.compare(low1, low2);
+    return compare != 0 ? compare : Long.compare(high1, high2);
+  }
+
+  private Node<T> rebalance(Node<T> node) {
+    update(node);
+    int balance = height(node.left) - height(node.right);
+
+    if (balance > 1) {
+      if (height(node.left.left) < height(node.left.right)) {
+        node.left = rotateLeft(node.left);
+      }
+      return rotateRight(node);
+    }
+    if (balance < -1) {
+      if (height(node.right.right) < height(node.right.left)) {
+        node.right = rotateRight(node.right);
+      }
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  private Node<T> rotateLeft(Node<T> node) {
+    Node<T> pivot = node.right;
+    node.right = pivot.left;
+    pivot.left = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+
+  private Node<T> rotateRight(Node<T> node) {
+    Node<T> pivot = node.left;
+    node.left = pivot.right;
+    pivot.right = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+
+  private void update(Node<T> node) {
+    node.height = 1 + Math.max(height(node.left), height(node.right));
+    node.maxHigh = Math.max(node.high, Math.max(maxHigh(node.left), maxHigh(node.right)));
+  }
+
+  private int height(Node<T> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private long maxHigh(Node<T> node) {
+    return node == null ? Long.MIN_VALUE : node.maxHigh;
+  }
+
+  /**
+   * A node in the interval tree holding all values that share the same interval.
+   *
+   * @param <T> the type of values stored in the node
+   */
+  private static class Node<T> {
+
+    private long low;
+    private long high;
+    private long maxHigh;
+    private int height;
+    private List<T> values;
+    private Node<T> left;
+    private Node<T> right;
+
+    private Node(long low, long high, T value) {
+      this.low = low;
+      this.high = high;
+      this.maxHigh = high;
+      this.height = 1;
+      this.values = new ArrayList<>(1);
+      this.values.add(value);
+    }
+  }
+}
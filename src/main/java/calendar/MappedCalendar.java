@@ -0,0 +1,1159 @@
+package calendar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneRulesException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import model.ConflictException;
+import utils.TimeUtils;
+
+/**
+ * A Java class representing a calendar whose events are kept in memory-mapped files instead of on
+ * the heap. Implements the ICalendar interface and answers the same queries as Calendar, which
+ * suits archive calendars with tens of millions of events.
+ *
+ * <p>The events file holds fixed-width records sorted by start and end, with the start and end
+ * stored as minutes since the epoch next to the latest end of all records up to it. Range, status
+ * and conflict queries binary search these columns, the same way IntervalColumns does on the heap.
+ * Subjects, descriptions and locations are written once to a separate string area and records
+ * refer to them by offset. A hash table of those offsets in a third file finds the offset of a
+ * string, so no string is kept on the heap to look it up. The records are mapped in fixed-size
+ * segments, so files larger than a single buffer are supported.
+ *
+ * <p>Added events are sorted and merged into the records in one pass from the back, so a batch
+ * moves each record at most once and a batch that starts after the last record only writes its
+ * own records. Bulk inserts into a large archive should therefore pass many events at a time.
+ *
+ * <p>Events returned by the calendar are CompactEvent copies created from the records when they
+ * are read, so the heap holds only the events of the current query. Changing a returned event
+ * does not change the calendar. Repeating series are stored as their occurrences, so repeat rules
+ * cannot be edited later. Replaced strings stay in the string area, which is limited to 2 GB.
+ *
+ * <p>Every change forces the segments and strings it wrote to the files, and then the header, so
+ * the header never counts records that are not on disk yet.
+ */
+public class MappedCalendar implements ICalendar, AutoCloseable {
+
+  /**
+   * Storage mode of a mapped calendar, which cannot be changed.
+   */
+  public static final String MAPPED_STORAGE = "mapped";
+
+  private static final Map<String, BiConsumer<ICalendar, String>> SETTERS = new HashMap<>();
+
+  private static final String EVENTS_FILE = "events.dat";
+  private static final String STRINGS_FILE = "strings.dat";
+  private static final String STRING_INDEX_FILE = "strings.idx";
+  private static final int MAGIC = 0x43414c31;
+  private static final int DEFAULT_SEGMENT_RECORDS = 1 << 20;
+  private static final int INITIAL_STRINGS_SIZE = 1 << 16;
+  private static final int INITIAL_INDEX_SLOTS = 1 << 12;
+  // keeps the string index within a single mapped buffer
+  private static final int MAX_INDEX_SLOTS = 1 << 27;
+  // estimated heap of the channels, buffers and fields, since the records are mapped from disk
+  private static final long HEAP_BYTES = 4096;
+  private static final long SECONDS_PER_MINUTE = 60;
+  // same conflict window as Calendar, in minutes
+  private static final long CONFLICT_WINDOW_MINUTES = ChronoUnit.DAYS.getDuration().toMinutes() * 2;
+  private static final Set<String> TIME_PROPERTIES = Set.of("startDateTime", "endDateTime");
+  private static final Set<String> REPEAT_PROPERTIES =
+      Set.of("repeatDays", "repeatNumber", "repeatEndDateTime");
+
+  // header fields of the events file
+  private static final int HEADER_SIZE = 16;
+  private static final int HEADER_COUNT = 4;
+  private static final int HEADER_NAME = 8;
+  private static final int HEADER_TIMEZONE = 12;
+
+  // record fields, the start, end and latest end are minutes since the epoch
+  private static final int RECORD_SIZE = 40;
+  private static final int START = 0;
+  private static final int END = 8;
+  private static final int MAX_END = 16;
+  private static final int SUBJECT = 24;
+  private static final int DESCRIPTION = 28;
+  private static final int LOCATION = 32;
+  private static final int FLAGS = 36;
+  private static final int ALL_DAY = 1;
+  private static final int PRIVATE = 1 << 1;
+
+  // header fields of the string index, which covers the string area up to the given size
+  private static final int INDEX_HEADER_SIZE = 16;
+  private static final int INDEX_SLOTS = 0;
+  private static final int INDEX_ENTRIES = 4;
+  private static final int INDEX_COVERED = 8;
+
+  // slots of the string index hold the hash of a string and its offset, 0 for an empty slot
+  private static final int SLOT_SIZE = 8;
+  private static final int SLOT_OFFSET = 4;
+
+  private final Path directory;
+  private final FileChannel eventsChannel;
+  private final FileChannel stringsChannel;
+  private final FileChannel indexChannel;
+  private final int segmentRecords;
+  private final MappedByteBuffer header;
+  private final List<MappedByteBuffer> segments;
+  private MappedByteBuffer stringArea;
+  private MappedByteBuffer stringIndex;
+  private int indexSlots;
+  // segments and strings written since they were last forced
+  private final BitSet touchedSegments;
+  private boolean touchedStrings;
+  // only counts how often strings are written, it does not keep them
+  private final StringDictionary strings;
+  private final List<IEvent> events;
+  private int count;
+  private String name;
+  private ZoneId timezone;
+
+  static {
+    SETTERS.put("name", ICalendar::setName);
+    SETTERS.put("timezone", ICalendar::setTimezone);
+    SETTERS.put("recurrence", ICalendar::setRecurrence);
+    SETTERS.put("storage", ICalendar::setStorage);
+  }
+
+  /**
+   * Creates a MappedCalendar with the given name and timezone, storing its files in the given
+   * directory. The directory is created if it does not exist.
+   *
+   * @param name      calendar name string
+   * @param timezone  timezone string
+   * @param directory directory to store the calendar files in
+   * @throws IllegalArgumentException if any of the given arguments are invalid, or if the directory
+   *                                  already contains a calendar
+   * @throws IOException              if an error occurs when creating the files
+   */
+  public MappedCalendar(String name, String timezone, Path directory)
+      throws IllegalArgumentException, IOException {
+    this(name, timezone, directory, DEFAULT_SEGMENT_RECORDS);
+  }
+
+  /**
+   * Creates a MappedCalendar that maps the given number of records per segment.
+   *
+   * @param name           calendar name string
+   * @param timezone       timezone string
+   * @param directory      directory to store the calendar files in
+   * @param segmentRecords number of records in each mapped segment
+   * @throws IllegalArgumentException if any of the given arguments are invalid, or if the
+   *                                  directory already contains a calendar
+   * @throws IOException              if an error occurs when creating the files
+   */
+  MappedCalendar(String name, String timezone, Path directory, int segmentRecords)
+      throws IllegalArgumentException, IOException {
+    if (name == null || name.trim().isEmpty() || timezone == null || timezone.isEmpty()) {
+      throw new IllegalArgumentException("Name and time zone cannot be null or empty");
+    }
+    if (Files.exists(directory.resolve(EVENTS_FILE))) {
+      throw new IllegalArgumentException("A calendar is already stored in " + directory);
+    }
+    ZoneId zone = parseZone(timezone);
+
+    Files.createDirectories(directory);
+    this.directory = directory.toAbsolutePath();
+    this.eventsChannel = openChannel(directory.resolve(EVENTS_FILE));
+    this.stringsChannel = openChannel(directory.resolve(STRINGS_FILE));
+    this.indexChannel = openChannel(directory.resolve(STRING_INDEX_FILE));
+    this.segmentRecords = segmentRecords;
+    this.header = eventsChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+    this.segments = new ArrayList<>();
+    this.touchedSegments = new BitSet();
+    this.stringArea = stringsChannel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_STRINGS_SIZE);
+    this.strings = new StringDictionary(true);
+    this.events = new RecordList();
+
+    // the string area starts with the number of bytes used
+    stringArea.putInt(0, Integer.BYTES);
+    rebuildStringIndex(INITIAL_INDEX_SLOTS);
+    header.putInt(0, MAGIC);
+    header.putInt(HEADER_COUNT, 0);
+    setName(name);
+    this.timezone = zone;
+    header.putInt(HEADER_TIMEZONE, writeString(zone.getId()));
+  }
+
+  private MappedCalendar(Path directory, int segmentRecords) throws IOException {
+    this.directory = directory.toAbsolutePath();
+    this.eventsChannel = openChannel(directory.resolve(EVENTS_FILE));
+    this.stringsChannel = openChannel(directory.resolve(STRINGS_FILE));
+    this.segmentRecords = segmentRecords;
+    this.header = eventsChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+    if (header.getInt(0) != MAGIC) {
+      eventsChannel.close();
+      stringsChannel.close();
+      throw new IOException("Not a mapped calendar: " + directory);
+    }
+    this.indexChannel = openChannel(directory.resolve(STRING_INDEX_FILE));
+    this.segments = new ArrayList<>();
+    this.touchedSegments = new BitSet();
+    this.stringArea = stringsChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+        Math.max(stringsChannel.size(), INITIAL_STRINGS_SIZE));
+    this.strings = new StringDictionary(true);
+    this.events = new RecordList();
+
+    openStringIndex();
+    this.count = header.getInt(HEADER_COUNT);
+    this.name = readString(header.getInt(HEADER_NAME));
+    this.timezone = ZoneId.of(readString(header.getInt(HEADER_TIMEZONE)));
+  }
+
+  /**
+   * Opens the calendar stored in the given directory.
+   *
+   * @param directory directory containing the calendar files
+   * @return MappedCalendar object
+   * @throws IOException if the directory does not contain a calendar or cannot be read
+   */
+  public static MappedCalendar open(Path directory) throws IOException {
+    return open(directory, DEFAULT_SEGMENT_RECORDS);
+  }
+
+  static MappedCalendar open(Path directory, int segmentRecords) throws IOException {
+    if (!isStoredIn(directory)) {
+      throw new IOException("No calendar is stored in " + directory);
+    }
+    return new MappedCalendar(directory, segmentRecords);
+  }
+
+  /**
+   * Checks if a calendar is stored in the given directory.
+   *
+   * @param directory directory that may contain calendar files
+   * @return true if the directory contains a calendar, false otherwise
+   */
+  public static boolean isStoredIn(Path directory) {
+    return Files.exists(directory.resolve(EVENTS_FILE));
+  }
+
+  /**
+   * Get the directory the calendar files are stored in.
+   *
+   * @return absolute directory path
+   */
+  Path getDirectory() {
+    return directory;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public ZoneId getTimezone() {
+    return timezone;
+  }
+
+  @Override
+  public void setName(String value) throws IllegalArgumentException {
+    if (value == null || value.trim().isEmpty()) {
+      throw new IllegalArgumentException("Calendar name cannot be null or empty");
+    }
+    header.putInt(HEADER_NAME, writeString(value));
+    this.name = value;
+    force();
+  }
+
+  /**
+   * Set the calendar's timezone. Records store instants, so only the stored zone id changes.
+   *
+   * @param value timezone name as a string
+   * @throws IllegalArgumentException if the new value is invalid
+   */
+  @Override
+  public void setTimezone(String value) throws IllegalArgumentException {
+    if (value == null || value.trim().isEmpty()) {
+      throw new IllegalArgumentException("Time zone cannot be null or empty");
+    }
+    ZoneId zone = parseZone(value);
+    header.putInt(HEADER_TIMEZONE, writeString(zone.getId()));
+    this.timezone = zone;
+    force();
+  }
+
+  @Override
+  public String getRecurrence() {
+    return Calendar.EXPANDED_RECURRENCE;
+  }
+
+  /**
+   * Mapped calendars always store the occurrences of a series, so only the expanded recurrence
+   * mode is accepted.
+   *
+   * @param value recurrence mode
+   * @throws IllegalArgumentException if the value is not "expanded"
+   */
+  @Override
+  public void setRecurrence(String value) throws IllegalArgumentException {
+    if (!Calendar.EXPANDED_RECURRENCE.equals(value)) {
+      throw new IllegalArgumentException("Invalid recurrence mode for a mapped calendar: " + value);
+    }
+  }
+
+  @Override
+  public String getStorage() {
+    return MAPPED_STORAGE;
+  }
+
+  /**
+   * The storage of a mapped calendar cannot be changed, so only "mapped" is accepted.
+   *
+   * @param value storage mode
+   * @throws IllegalArgumentException if the value is not "mapped"
+   */
+  @Override
+  public void setStorage(String value) throws IllegalArgumentException {
+    if (!MAPPED_STORAGE.equals(value)) {
+      throw new IllegalArgumentException("Invalid storage mode for a mapped calendar: " + value);
+    }
+  }
+
+  /**
+   * Get the dictionary of the strings written to the string area. Every distinct string is written
+   * once, and the statistics report how many duplicates were not written again.
+   *
+   * @return StringDictionary object
+   */
+  @Override
+  public StringDictionary getStringDictionary() {
+    return strings;
+  }
+
+  /**
+   * The records are written to the mapped files as events are added and edited.
+   *
+   * @return true
+   */
+  @Override
+  public boolean isPersistent() {
+    return true;
+  }
+
+  /**
+   * Estimates the heap used by the calendar, which does not grow with its events since they are
+   * mapped from disk instead of kept on the heap.
+   *
+   * @return estimated number of bytes
+   */
+  @Override
+  public long getEstimatedBytes() {
+    return HEAP_BYTES;
+  }
+
+  @Override
+  public void edit(String property, String newValue) throws IllegalArgumentException {
+    BiConsumer<ICalendar, String> setter = SETTERS.get(property);
+    if (setter != null) {
+      setter.accept(this, newValue);
+    } else {
+      throw new IllegalArgumentException("Invalid property: " + property);
+    }
+  }
+
+  /**
+   * Adds events to the calendar. Every event is checked before any record is written, and the
+   * events are then merged into the records in one pass.
+   *
+   * @param newEvents list of IEvent objects
+   * @throws ConflictException        if an event conflicts with an existing event or with another
+   *                                  of the given events
+   * @throws IllegalArgumentException if an event does not start and end on a whole minute
+   */
+  @Override
+  public void addEvents(List<IEvent> newEvents) throws ConflictException, IllegalArgumentException {
+    List<IEvent> sorted = new ArrayList<>(newEvents);
+    Collections.sort(sorted);
+
+    List<IEvent> accepted = acceptEvents(sorted, null);
+    if (accepted == null) {
+      throw new ConflictException("Event conflicts with an existing event");
+    }
+    mergeRecords(accepted);
+    force();
+  }
+
+  /**
+   * Adds events in bulk, skipping the ones that conflict. The events are sorted and checked, and
+   * the accepted ones are merged into the records in one pass.
+   *
+   * @param newEvents list of IEvent objects
+   * @return events that were skipped because of a conflict
+   * @throws IllegalArgumentException if an event does not start and end on a whole minute
+   */
+  @Override
+  public List<IEvent> addEventsSkippingConflicts(List<IEvent> newEvents)
+      throws IllegalArgumentException {
+    List<IEvent> sorted = new ArrayList<>(newEvents);
+    Collections.sort(sorted);
+
+    List<IEvent> skipped = new ArrayList<>();
+    mergeRecords(acceptEvents(sorted, skipped));
+    force();
+    return skipped;
+  }
+
+  /**
+   * Adds every occurrence of a repeating event series as a single event.
+   *
+   * @param baseEvent base event of the series
+   * @throws ConflictException        if any occurrence conflicts with an existing event
+   * @throws IllegalArgumentException if the repeat rule is invalid
+   */
+  @Override
+  public void addSeries(IRepeatingEvent baseEvent)
+      throws ConflictException, IllegalArgumentException {
+    addEvents(baseEvent.getRepeatNumber() == 0
+        ? baseEvent.repeatUntilEndDate() : baseEvent.repeatNTimes());
+  }
+
+  /**
+   * Get all events of the calendar sorted by start and end date time. The returned list is a
+   * read-only view that creates each event from its record when it is read.
+   *
+   * @return List of IEvent objects
+   */
+  @Override
+  public List<IEvent> getEvents() {
+    return events;
+  }
+
+  @Override
+  public Iterable<IEvent> getAllEvents() {
+    return events;
+  }
+
+  /**
+   * Get all events that occur on the given day. Only the records around the day are read.
+   *
+   * @param date ChronoZonedDateTime object representing a day
+   * @return List of IEvent objects sorted by start date time, empty if there are no events
+   */
+  @Override
+  public List<IEvent> getEventsOnDate(ChronoZonedDateTime<LocalDate> date) {
+    ZonedDateTime dayStart = date.toLocalDate().atStartOfDay(timezone);
+    // widened by a day on both sides since the given date may use another time zone
+    List<IEvent> result = findOverlapping(toMinute(dayStart.minusDays(1)),
+        toMinute(dayStart.plusDays(2)));
+    result.removeIf(event -> !event.isOnSameDay(date));
+    return result;
+  }
+
+  /**
+   * Get all events that overlap the given time range, including events that end exactly at the
+   * start of the range or start exactly at its end. Only the records in the range are read.
+   *
+   * @param startDateTime start of time range
+   * @param endDateTime   end of time range
+   * @return List of IEvent objects sorted by start date time, empty if there are no events
+   */
+  @Override
+  public List<IEvent> getEventsInRange(ChronoZonedDateTime<LocalDate> startDateTime,
+      ChronoZonedDateTime<LocalDate> endDateTime) {
+    List<IEvent> result = findOverlapping(toMinute(startDateTime), toMinute(endDateTime));
+    result.removeIf(event -> !event.isOverlap(startDateTime, endDateTime));
+    return result;
+  }
+
+  @Override
+  public IEvent findEvent(String subject, ChronoZonedDateTime<LocalDate> startDateTime) {
+    int index = findRecord(subject, startDateTime);
+    return index < 0 ? null : readEvent(index);
+  }
+
+  /**
+   * Checks if any event in the calendar is ongoing at the given date and time with two binary
+   * searches, without reading any event.
+   *
+   * @param dateTime ChronoZonedDateTime object
+   * @return true if the calendar is busy, false otherwise
+   */
+  @Override
+  public boolean isBusy(ChronoZonedDateTime<LocalDate> dateTime) {
+    long point = toMinute(dateTime);
+    // the first record whose latest end is after the point ends after it, so the calendar is busy
+    // if that record does not start after the point
+    return firstAbove(MAX_END, point) < firstAbove(START, point);
+  }
+
+  @Override
+  public List<Boolean> isBusy(List<ChronoZonedDateTime<LocalDate>> dateTimes)
+      throws IllegalArgumentException {
+    List<Boolean> result = new ArrayList<>(dateTimes.size());
+    long previous = Long.MIN_VALUE;
+    for (ChronoZonedDateTime<LocalDate> dateTime : dateTimes) {
+      long point = dateTime.toEpochSecond();
+      if (point < previous) {
+        throw new IllegalArgumentException("Date times must be sorted in ascending order");
+      }
+      previous = point;
+      result.add(isBusy(dateTime));
+    }
+    return result;
+  }
+
+  @Override
+  public void editSingleEvent(String property, String subject, String start, String end,
+      String newValue) throws IllegalArgumentException, ConflictException {
+    if (REPEAT_PROPERTIES.contains(property)) {
+      throw new IllegalArgumentException("Repeat rules cannot be changed for a single event");
+    }
+
+    int index = findRecord(subject, TimeUtils.parseDateTimeString(start, timezone));
+    if (index < 0) {
+      throw new IllegalArgumentException("Event not found: " + subject);
+    }
+
+    IEvent newEvent = readEvent(index);
+    newEvent.setNewProperty(property, newValue);
+    if (!TIME_PROPERTIES.contains(property)) {
+      writeRecord(index, newEvent);
+    } else if (hasConflict(newEvent, index)) {
+      throw new ConflictException("Event conflicts with an existing event");
+    } else {
+      moveRecord(index, newEvent);
+    }
+    force();
+  }
+
+  @Override
+  public void editEventsFromStartDateTime(String property, String subject, String start,
+      String newValue) throws ConflictException, IllegalArgumentException {
+    editEvents(property, subject, TimeUtils.parseDateTimeString(start, timezone), newValue);
+  }
+
+  @Override
+  public void editEventsBySubject(String property, String subject, String newValue)
+      throws ConflictException, IllegalArgumentException {
+    editEvents(property, subject, null, newValue);
+  }
+
+  /**
+   * Forces the changes to the files and closes them. The calendar cannot be used afterwards.
+   *
+   * @throws IOException if an error occurs when closing the files
+   */
+  @Override
+  public void close() throws IOException {
+    force();
+    eventsChannel.close();
+    stringsChannel.close();
+    indexChannel.close();
+  }
+
+  /**
+   * Returns a string containing the calendar name and timezone.
+   *
+   * @return formatted string
+   */
+  @Override
+  public String toString() {
+    String format = "name: %s, timezone: %s";
+    return String.format(format, name, timezone);
+  }
+
+  /**
+   * Changes a property of the events with the given subject that do not start before the given
+   * date time. The subjects are compared by their offset in the string area, so records of other
+   * events are skipped without reading their strings. Every change is checked before any record
+   * is written.
+   *
+   * @param property      property name
+   * @param subject       event subject
+   * @param startDateTime earliest start date time, or null to change every event
+   * @param newValue      new value as a string
+   * @throws ConflictException        if the start or end times would be changed
+   * @throws IllegalArgumentException if no events are found or the new value is invalid
+   */
+  private void editEvents(String property, String subject,
+      ChronoZonedDateTime<LocalDate> startDateTime, String newValue)
+      throws ConflictException, IllegalArgumentException {
+    if (TIME_PROPERTIES.contains(property)) {
+      throw new ConflictException("Editing the start or end times of multiple events at once will "
+          + "create a conflict.");
+    }
+    if (REPEAT_PROPERTIES.contains(property)) {
+      throw new IllegalArgumentException("Repeat rules are not stored in a mapped calendar");
+    }
+
+    int subjectOffset = findString(subject);
+    int from = startDateTime == null ? 0 : firstAbove(START, toMinute(startDateTime) - 1);
+    List<Integer> indexes = new ArrayList<>();
+    List<IEvent> editedEvents = new ArrayList<>();
+    for (int index = from; subjectOffset >= 0 && index < count; index++) {
+      if (getInt(index, SUBJECT) == subjectOffset) {
+        IEvent event = readEvent(index);
+        event.setNewProperty(property, newValue);
+        indexes.add(index);
+        editedEvents.add(event);
+      }
+    }
+
+    if (indexes.isEmpty()) {
+      throw new IllegalArgumentException("Event not found: " + subject);
+    }
+    for (int i = 0; i < indexes.size(); i++) {
+      writeRecord(indexes.get(i), editedEvents.get(i));
+    }
+    force();
+  }
+
+  /**
+   * Checks if the given event conflicts with any event in the calendar. Only the records around
+   * the event are read and compared using IEvent.conflictsWith.
+   *
+   * @param event   event to check
+   * @param ignored index of a record that should be skipped, or -1
+   * @return true if there is a conflict, false otherwise
+   */
+  private boolean hasConflict(IEvent event, int ignored) {
+    long low = toMinute(event.getStartDateTime()) - CONFLICT_WINDOW_MINUTES;
+    long high = toMinute(event.getEndDateTime()) + CONFLICT_WINDOW_MINUTES;
+    int to = firstAbove(START, high);
+    for (int index = firstAbove(MAX_END, low - 1); index < to; index++) {
+      if (index != ignored && getLong(index, END) >= low
+          && readEvent(index).conflictsWith(event)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sweeps new events sorted by start and end, and keeps the ones that conflict neither with the
+   * records nor with the kept events that end close enough to them to conflict.
+   *
+   * @param sorted  new events sorted by start and end date time
+   * @param skipped list the conflicting events are added to, or null to stop at the first one
+   * @return kept events in sorted order, or null if skipped is null and an event conflicts
+   */
+  private List<IEvent> acceptEvents(List<IEvent> sorted, List<IEvent> skipped) {
+    List<IEvent> accepted = new ArrayList<>(sorted.size());
+    // kept events that may still conflict with the following events
+    List<IEvent> active = new ArrayList<>();
+    for (IEvent event : sorted) {
+      long start = toMinute(event.getStartDateTime());
+      active.removeIf(other -> toMinute(other.getEndDateTime()) + CONFLICT_WINDOW_MINUTES < start);
+
+      boolean conflict = hasConflict(event, -1);
+      for (int i = 0; i < active.size() && !conflict; i++) {
+        conflict = active.get(i).conflictsWith(event);
+      }
+      if (!conflict) {
+        accepted.add(event);
+        active.add(event);
+      } else if (skipped == null) {
+        return null;
+      } else {
+        skipped.add(event);
+      }
+    }
+    return accepted;
+  }
+
+  /**
+   * Get the events whose records start at or before the high minute and end at or after the low
+   * minute.
+   *
+   * @param low  low minute
+   * @param high high minute
+   * @return list of events sorted by start and end date time
+   */
+  private List<IEvent> findOverlapping(long low, long high) {
+    List<IEvent> result = new ArrayList<>();
+    int to = firstAbove(START, high);
+    for (int index = firstAbove(MAX_END, low - 1); index < to; index++) {
+      if (getLong(index, END) >= low) {
+        result.add(readEvent(index));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Finds the record of the event with the given subject and start date time.
+   *
+   * @param subject       subject name
+   * @param startDateTime start date and time
+   * @return index of the record, or -1 if there is no matching event
+   */
+  private int findRecord(String subject, ChronoZonedDateTime<LocalDate> startDateTime) {
+    int subjectOffset = findString(subject);
+    if (subjectOffset < 0) {
+      return -1;
+    }
+
+    long start = toMinute(startDateTime);
+    for (int index = firstAbove(START, start - 1);
+        index < count && getLong(index, START) == start; index++) {
+      if (getInt(index, SUBJECT) == subjectOffset
+          && readEvent(index).matches(subject, startDateTime)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Get the index of the first record whose value in the given column is greater than the key.
+   * Both the start column and the latest end column are sorted.
+   *
+   * @param field column offset in the record
+   * @param key   key to compare with
+   * @return index of the first greater record, or the number of records if there is none
+   */
+  private int firstAbove(int field, long key) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (getLong(middle, field) > key) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Writes new records for events sorted by start and end. The records and the events are merged
+   * from the back, so every record after the first event moves once to its final place and the
+   * records before it are not touched. An event is placed after the records with the same start
+   * and end. The times are checked and the strings written before any record moves, and the
+   * header counts the new records only once they are all in place.
+   *
+   * @param sorted events sorted by start and end date time
+   * @throws IllegalArgumentException if an event does not start and end on a whole minute
+   */
+  private void mergeRecords(List<IEvent> sorted) throws IllegalArgumentException {
+    int added = sorted.size();
+    long[] starts = new long[added];
+    long[] ends = new long[added];
+    // every event is checked before any record moves
+    for (int i = 0; i < added; i++) {
+      starts[i] = toEpochMinute(sorted.get(i).getStartDateTime());
+      ends[i] = toEpochMinute(sorted.get(i).getEndDateTime());
+    }
+    if (added == 0) {
+      return;
+    }
+    int[][] fields = new int[added][];
+    for (int i = 0; i < added; i++) {
+      fields[i] = writeFields(sorted.get(i));
+    }
+    getSegment(count + added - 1);
+
+    int record = count - 1;
+    int target = count + added - 1;
+    int lastAdded = -1;
+    for (int event = added - 1; event >= 0; target--) {
+      long recordStart = record < 0 ? Long.MIN_VALUE : getLong(record, START);
+      if (recordStart > starts[event]
+          || recordStart == starts[event] && getLong(record, END) > ends[event]) {
+        copyRecord(record--, target);
+      } else {
+        putLong(target, START, starts[event]);
+        putLong(target, END, ends[event]);
+        putFields(target, fields[event]);
+        lastAdded = Math.max(lastAdded, target);
+        event--;
+      }
+    }
+    count += added;
+    updateMaxEnd(target + 1, lastAdded + 1);
+    header.putInt(HEADER_COUNT, count);
+  }
+
+  /**
+   * Moves a record to the place of its new start and end, writing the given event to it. Only
+   * the records between the old and the new place move, after the strings of the event are
+   * written.
+   *
+   * @param index index of the record
+   * @param event event with the new start and end
+   * @throws IllegalArgumentException if the event does not start and end on a whole minute
+   */
+  private void moveRecord(int index, IEvent event) throws IllegalArgumentException {
+    long start = toEpochMinute(event.getStartDateTime());
+    long end = toEpochMinute(event.getEndDateTime());
+    int[] fields = writeFields(event);
+    int place = firstAbove(START, start - 1);
+    while (place < count && getLong(place, START) == start && getLong(place, END) <= end) {
+      place++;
+    }
+    if (place > index) {
+      // the record itself sorts before its new place and leaves it
+      place--;
+    }
+
+    for (int i = index; i < place; i++) {
+      copyRecord(i + 1, i);
+    }
+    for (int i = index; i > place; i--) {
+      copyRecord(i - 1, i);
+    }
+    putLong(place, START, start);
+    putLong(place, END, end);
+    putFields(place, fields);
+    updateMaxEnd(Math.min(index, place), Math.max(index, place) + 1);
+  }
+
+  /**
+   * Writes the strings and flags of the given event to a record. The start and end are not
+   * written, since they decide where the record is.
+   *
+   * @param index index of the record
+   * @param event event to write
+   */
+  private void writeRecord(int index, IEvent event) {
+    putFields(index, writeFields(event));
+  }
+
+  /**
+   * Writes the strings of the given event to the string area.
+   *
+   * @param event event to write
+   * @return offsets of the subject, description and location, followed by the flags
+   */
+  private int[] writeFields(IEvent event) {
+    return new int[]{writeString(event.getSubject()), writeString(event.getDescription()),
+        writeString(event.getLocation()),
+        (event.isAllDay() ? ALL_DAY : 0) | (event.isPrivate() ? PRIVATE : 0)};
+  }
+
+  private void putFields(int index, int[] fields) {
+    putInt(index, SUBJECT, fields[0]);
+    putInt(index, DESCRIPTION, fields[1]);
+    putInt(index, LOCATION, fields[2]);
+    putInt(index, FLAGS, fields[3]);
+  }
+
+  private IEvent readEvent(int index) {
+    int flags = getInt(index, FLAGS);
+    return CompactEvent.ofEpochSeconds(readString(getInt(index, SUBJECT)),
+        getLong(index, START) * SECONDS_PER_MINUTE, getLong(index, END) * SECONDS_PER_MINUTE,
+        timezone, readString(getInt(index, DESCRIPTION)), readString(getInt(index, LOCATION)),
+        (flags & PRIVATE) != 0, (flags & ALL_DAY) != 0);
+  }
+
+  /**
+   * Recomputes the latest end of the records from the given index onwards. The latest end of a
+   * record only depends on the one before it and its own end, so once a record after the changed
+   * ones already holds the right value, so do all records after it and the pass stops.
+   *
+   * @param from      index of the first changed record
+   * @param changedTo index after the last changed record
+   */
+  private void updateMaxEnd(int from, int changedTo) {
+    long maxEnd = from == 0 ? Long.MIN_VALUE : getLong(from - 1, MAX_END);
+    for (int index = from; index < count; index++) {
+      maxEnd = Math.max(maxEnd, getLong(index, END));
+      if (index >= changedTo && getLong(index, MAX_END) == maxEnd) {
+        return;
+      }
+      putLong(index, MAX_END, maxEnd);
+    }
+  }
+
+  /**
+   * Forces the segments and strings written since the last call to the files, and then the header,
+   * so the header on disk never counts records that are not.
+   */
+  private void force() {
+    for (int segment = touchedSegments.nextSetBit(0); segment >= 0;
+        segment = touchedSegments.nextSetBit(segment + 1)) {
+      segments.get(segment).force();
+    }
+    touchedSegments.clear();
+    if (touchedStrings) {
+      stringArea.force();
+      stringIndex.force();
+      touchedStrings = false;
+    }
+    header.force();
+  }
+
+  private void copyRecord(int from, int to) {
+    for (int field = 0; field < RECORD_SIZE; field += Long.BYTES) {
+      putLong(to, field, getLong(from, field));
+    }
+  }
+
+  private long getLong(int index, int field) {
+    return getSegment(index).getLong(getPosition(index) + field);
+  }
+
+  private int getInt(int index, int field) {
+    return getSegment(index).getInt(getPosition(index) + field);
+  }
+
+  private void putLong(int index, int field, long value) {
+    touchedSegments.set(index / segmentRecords);
+    getSegment(index).putLong(getPosition(index) + field, value);
+  }
+
+  private void putInt(int index, int field, int value) {
+    touchedSegments.set(index / segmentRecords);
+    getSegment(index).putInt(getPosition(index) + field, value);
+  }
+
+  private int getPosition(int index) {
+    return (index % segmentRecords) * RECORD_SIZE;
+  }
+
+  /**
+   * Get the segment containing the record with the given index, mapping the segments up to it if
+   * they are not mapped yet. Mapping a segment past the end of the file grows the file.
+   *
+   * @param index index of the record
+   * @return MappedByteBuffer of the segment
+   */
+  private MappedByteBuffer getSegment(int index) {
+    int segment = index / segmentRecords;
+    while (segments.size() <= segment) {
+      long segmentSize = (long) segmentRecords * RECORD_SIZE;
+      try {
+        segments.add(eventsChannel.map(FileChannel.MapMode.READ_WRITE,
+            HEADER_SIZE + segments.size() * segmentSize, segmentSize));
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot map the events file", e);
+      }
+    }
+    return segments.get(segment);
+  }
+
+  /**
+   * Get the offset of the given string in the string area, writing it at the end of the area and
+   * adding it to the string index if it was not written before.
+   *
+   * @param value string to write
+   * @return offset of the string
+   */
+  private int writeString(String value) {
+    value = strings.intern(value);
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    int offset = findString(value.hashCode(), bytes);
+    if (offset >= 0) {
+      return offset;
+    }
+
+    int used = stringArea.getInt(0);
+    long required = (long) used + Integer.BYTES + bytes.length;
+    if (required > Integer.MAX_VALUE) {
+      throw new IllegalStateException("The string area of the calendar is full");
+    }
+    if (required > stringArea.capacity()) {
+      try {
+        long capacity = Math.min(Integer.MAX_VALUE,
+            Math.max(required, 2L * stringArea.capacity()));
+        stringArea = stringsChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot map the strings file", e);
+      }
+    }
+
+    touchedStrings = true;
+    stringArea.putInt(used, bytes.length);
+    stringArea.duplicate().position(used + Integer.BYTES).put(bytes);
+    stringArea.putInt(0, (int) required);
+    if (2L * (stringIndex.getInt(INDEX_ENTRIES) + 1) > indexSlots) {
+      // the new string is already in the area, so the larger index includes it
+      rebuildStringIndex(indexSlots * 2);
+    } else {
+      indexString(value.hashCode(), used);
+      stringIndex.putInt(INDEX_COVERED, (int) required);
+    }
+    return used;
+  }
+
+  /**
+   * Get the offset of the given string in the string area.
+   *
+   * @param value string to find
+   * @return offset of the string, or -1 if it was never written
+   */
+  private int findString(String value) {
+    return findString(value.hashCode(), value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Finds a string in the string index by probing the slots from its hash, comparing the bytes of
+   * the strings in the area whose hash matches.
+   */
+  private int findString(int hash, byte[] bytes) {
+    int mask = indexSlots - 1;
+    for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+      int position = INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+      int offset = stringIndex.getInt(position + SLOT_OFFSET);
+      if (offset == 0) {
+        return -1;
+      }
+      if (stringIndex.getInt(position) == hash && stringEquals(offset, bytes)) {
+        return offset;
+      }
+    }
+  }
+
+  private void indexString(int hash, int offset) {
+    int mask = indexSlots - 1;
+    int slot = spread(hash) & mask;
+    while (stringIndex.getInt(INDEX_HEADER_SIZE + slot * SLOT_SIZE + SLOT_OFFSET) != 0) {
+      slot = (slot + 1) & mask;
+    }
+    stringIndex.putInt(INDEX_HEADER_SIZE + slot * SLOT_SIZE, hash);
+    stringIndex.putInt(INDEX_HEADER_SIZE + slot * SLOT_SIZE + SLOT_OFFSET, offset);
+    stringIndex.putInt(INDEX_ENTRIES, stringIndex.getInt(INDEX_ENTRIES) + 1);
+  }
+
+  private boolean stringEquals(int offset, byte[] bytes) {
+    if (stringArea.getInt(offset) != bytes.length) {
+      return false;
+    }
+    ByteBuffer stored = stringArea.duplicate();
+    stored.position(offset + Integer.BYTES).limit(offset + Integer.BYTES + bytes.length);
+    return stored.mismatch(ByteBuffer.wrap(bytes)) < 0;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Maps the string index, or rebuilds it if it is missing or does not cover the whole string
+   * area, such as after a crash between writing a string and indexing it.
+   *
+   * @throws IOException if the index cannot be mapped
+   */
+  private void openStringIndex() throws IOException {
+    if (indexChannel.size() >= INDEX_HEADER_SIZE) {
+      int slots = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, INDEX_HEADER_SIZE)
+          .getInt(INDEX_SLOTS);
+      if (slots > 0 && Integer.bitCount(slots) == 1 && slots <= MAX_INDEX_SLOTS
+          && indexChannel.size() >= INDEX_HEADER_SIZE + (long) slots * SLOT_SIZE) {
+        this.indexSlots = slots;
+        this.stringIndex = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+            INDEX_HEADER_SIZE + (long) slots * SLOT_SIZE);
+        if (stringIndex.getInt(INDEX_COVERED) == stringArea.getInt(0)) {
+          return;
+        }
+      }
+    }
+
+    int strings = 0;
+    for (int offset = Integer.BYTES; offset < stringArea.getInt(0);
+        offset += Integer.BYTES + stringArea.getInt(offset)) {
+      strings++;
+    }
+    int slots = INITIAL_INDEX_SLOTS;
+    while (slots < 2L * strings) {
+      slots *= 2;
+    }
+    rebuildStringIndex(slots);
+  }
+
+  /**
+   * Builds the string index with the given number of slots from the strings in the string area.
+   * The strings are read one at a time, so this takes no heap beyond a single string.
+   *
+   * @param slots number of slots, a power of two
+   */
+  private void rebuildStringIndex(int slots) {
+    if (slots > MAX_INDEX_SLOTS) {
+      throw new IllegalStateException("The string index of the calendar is full");
+    }
+    touchedStrings = true;
+    try {
+      stringIndex = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+          INDEX_HEADER_SIZE + (long) slots * SLOT_SIZE);
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot map the string index", e);
+    }
+    for (int position = INDEX_HEADER_SIZE; position < stringIndex.capacity();
+        position += SLOT_SIZE) {
+      stringIndex.putLong(position, 0);
+    }
+    indexSlots = slots;
+    stringIndex.putInt(INDEX_SLOTS, slots);
+    stringIndex.putInt(INDEX_ENTRIES, 0);
+
+    int used = stringArea.getInt(0);
+    for (int offset = Integer.BYTES; offset < used;
+        offset += Integer.BYTES + stringArea.getInt(offset)) {
+      indexString(readString(offset).hashCode(), offset);
+    }
+    stringIndex.putInt(INDEX_COVERED, used);
+  }
+
+  private String readString(int offset) {
+    byte[] bytes = new byte[stringArea.getInt(offset)];
+    stringArea.duplicate().position(offset + Integer.BYTES).get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static long toMinute(ChronoZonedDateTime<LocalDate> dateTime) {
+    return Math.floorDiv(dateTime.toEpochSecond(), SECONDS_PER_MINUTE);
+  }
+
+  private static long toEpochMinute(ChronoZonedDateTime<LocalDate> dateTime)
+      throws IllegalArgumentException {
+    long seconds = dateTime.toEpochSecond();
+    if (seconds % SECONDS_PER_MINUTE != 0 || dateTime.toLocalTime().getNano() != 0) {
+      throw new IllegalArgumentException("Mapped events must start and end on a whole minute");
+    }
+    return seconds / SECONDS_PER_MINUTE;
+  }
+
+  private static ZoneId parseZone(String timezone) throws IllegalArgumentException {
+    try {
+      return TimeUtils.getZoneId(timezone);
+    } catch (ZoneRulesException e) {
+      throw new IllegalArgumentException("Invalid time zone: " + timezone);
+    }
+  }
+
+  private static FileChannel openChannel(Path path) throws IOException {
+    return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+  }
+
+  /**
+   * A read-only list view of the records that creates each event when it is read.
+   */
+  private class RecordList extends AbstractList<IEvent> implements RandomAccess {
+
+    @Override
+    public IEvent get(int index) {
+      Objects.checkIndex(index, count);
+      return readEvent(index);
+    }
+
+    @Override
+    public int size() {
+      return count;
+    }
+  }
+}
@@ -13,6 +13,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
@@ -24,11 +25,13 @@ import utils.TimeUtils;
 public class RepeatingEvent extends Event implements IRepeatingEvent {
 
   private static final Map<String, BiConsumer<IRepeatingEvent, String>> SETTERS = new HashMap<>();
+  private static final AtomicLong NEXT_SERIES_ID = new AtomicLong();
 
   private int repeatNumber;
   private Set<DayOfWeek> repeatDays;
   private ChronoZonedDateTime<LocalDate> repeatEndDateTime;
   private final IEvent previous;
+  private final long seriesId;
 
   static {
     SETTERS.put("repeatNumber", IRepeatingEvent::setRepeatNumber);
@@ -45,6 +48,25 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
     return new HashSet<>(SETTERS.keySet());
   }
 
+  /**
+   * Creates a new unique series id.
+   *
+   * @return series id
+   */
+  public static long newSeriesId() {
+    return NEXT_SERIES_ID.incrementAndGet();
+  }
+
+  /**
+   * Makes sure that new series ids are greater than the given id, which belongs to a series that
+   * was loaded from a snapshot.
+   *
+   * @param seriesId id of an existing series
+   */
+  static void reserveSeriesId(long seriesId) {
+    NEXT_SERIES_ID.accumulateAndGet(seriesId, Math::max);
+  }
+
   /**
    * Constructs a RepeatingEvent object.
    *
@@ -59,13 +81,14 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
    * @param repeatEndDateTime repeat end date and time
    * @param isAllDay          all day event boolean flag
    * @param previous          previous repeating event in series
+   * @param seriesId          id of the series the event is part of
    * @throws IllegalArgumentException if any of the given parameters are invalid
    */
   private RepeatingEvent(String subject, ChronoZonedDateTime<LocalDate> startDateTime,
       ChronoZonedDateTime<LocalDate> endDateTime, String description, String location,
       boolean isPrivate, int repeatNumber, Set<DayOfWeek> days,
-      ChronoZonedDateTime<LocalDate> repeatEndDateTime, boolean isAllDay, IEvent previous)
-      throws IllegalArgumentException {
+      ChronoZonedDateTime<LocalDate> repeatEndDateTime, boolean isAllDay, IEvent previous,
+      long seriesId) throws IllegalArgumentException {
     // call the Event constructor
     super(subject, startDateTime, endDateTime, description, location, isPrivate, isAllDay);
 
@@ -84,6 +107,7 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
     this.repeatEndDateTime = repeatEndDateTime;
     this.repeatDays = days;
     this.previous = previous;
+    this.seriesId = seriesId;
   }
 
   /**
@@ -96,6 +120,11 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
     return previous;
   }
 
+  @Override
+  public long getSeriesId() {
+    return seriesId;
+  }
+
   /**
    * Get the repeat end date time, if it exists.
    *
@@ -103,6 +132,7 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
    */
   @Override
   public ChronoZonedDateTime<LocalDate> getRepeatEndDateTime() {
+    syncTimezone();
     return repeatEndDateTime;
   }
 
@@ -149,10 +179,19 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
 
   @Override
   public void setRepeatEndDateTime(String value) {
+    syncTimezone();
     ZoneId zone = this.repeatEndDateTime.getZone();
     this.repeatEndDateTime = TimeUtils.parseDateTimeString(value, zone);
   }
 
+  @Override
+  public void setRepeatRule(IRepeatingEvent other) {
+    syncTimezone();
+    this.repeatNumber = other.getRepeatNumber();
+    this.repeatDays = other.getRepeatDays();
+    this.repeatEndDateTime = other.getRepeatEndDateTime();
+  }
+
   @Override
   public List<IEvent> editRepeat(String property) throws IllegalArgumentException {
     switch (property) {
@@ -173,6 +212,7 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
 
   @Override
   public List<IEvent> repeatUntilEndDate() throws IllegalArgumentException {
+    syncTimezone();
     List<IEvent> repeatingEvents = new ArrayList<>();
 
     // get repeat end date
@@ -201,6 +241,7 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
             .isPrivate(this.isPrivate)
             .isAllDay(this.isAllDay)
             .previous(previous)
+            .seriesId(this.seriesId)
             .repeatEndDateTime(this.repeatEndDateTime)
             .repeatDays(this.repeatDays)
             .build();
@@ -222,6 +263,7 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
    */
   @Override
   public List<IEvent> repeatNTimes() throws IllegalArgumentException {
+    syncTimezone();
     List<IEvent> repeatingEvents = new ArrayList<>();
 
     IRepeatingEvent previous = this;
@@ -241,6 +283,7 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
             .isPrivate(this.isPrivate)
             .isAllDay(this.isAllDay)
             .previous(previous)
+            .seriesId(this.seriesId)
             .repeatNumber(this.repeatNumber)
             .repeatDays(this.repeatDays)
             .build();
@@ -253,9 +296,19 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
     return repeatingEvents;
   }
 
+  /**
+   * Copies the repeating event and adjusts its times. The copy starts a new series of its own.
+   *
+   * @param timeDifference long representing the difference in minutes that the copy needs to be
+   *                       adjusted by
+   * @param timezone       ZoneId object representing the new timezone
+   * @return copy of the event
+   * @throws IllegalArgumentException if the adjusted values are invalid
+   */
   @Override
   public IRepeatingEvent copy(long timeDifference, ZoneId timezone)
       throws IllegalArgumentException {
+    syncTimezone();
     IEvent copy = super.copy(timeDifference, timezone);
 
     ChronoZonedDateTime<LocalDate> adjustedRepeatEndDateTime = null;
@@ -308,6 +361,7 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
    */
   @Override
   public String toString() {
+    syncTimezone();
     String format = "subject: %s, startDateTime: %s, endDateTime: %s, description: %s, "
         + "location: %s, isAllDay: %s, isPrivate: %s, repeatNumber: %s, repeatEndDateTime: %s";
     return String.format(format, subject, startDateTime, endDateTime, description,
@@ -333,15 +387,17 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
     private Set<DayOfWeek> days;
     private ChronoZonedDateTime<LocalDate> repeatEndDateTime;
     private IEvent previous;
+    private long seriesId;
 
     /**
-     * A builder class for creating Repeating events.
+     * A builder class for creating Repeating events. Each builder starts with a new series id.
      */
     public RepeatingEventBuilder() {
       super();
       this.repeatEndDateTime = TimeUtils.getMaximumTime();
       this.repeatNumber = 0;
       this.previous = null;
+      this.seriesId = newSeriesId();
     }
 
     public RepeatingEventBuilder repeatNumber(int repeatNumber) {
@@ -365,6 +421,11 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
       return getBuilder();
     }
 
+    public RepeatingEventBuilder seriesId(long seriesId) {
+      this.seriesId = seriesId;
+      return getBuilder();
+    }
+
     @Override
     protected RepeatingEventBuilder getBuilder() {
       return this;
@@ -377,7 +438,7 @@ public class RepeatingEvent extends Event implements IRepeatingEvent {
      */
     public RepeatingEvent build() {
       return new RepeatingEvent(subject, startDateTime, endDateTime, description, location,
-          isPrivate, repeatNumber, days, repeatEndDateTime, isAllDay, previous);
+          isPrivate, repeatNumber, days, repeatEndDateTime, isAllDay, previous, seriesId);
     }
   }
 }
@@ -0,0 +1,234 @@
+package calendar;
+
+import java.time.LocalDate;
+import java.time.chrono.ChronoZonedDateTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * A Java class representing a list of events that is always sorted using IEvent.compareTo. The
+ * events are stored in a gap buffer, a single array with a movable gap at the last edit position.
+ * Positions are found with a binary search in O(log n), and consecutive inserts or removals near
+ * the same position only need to move the elements between them. Iteration walks a plain array.
+ *
+ * <p>The list is read-only through the List interface. Events can only be added and removed
+ * through the insert and delete methods so that the sort order cannot be broken by callers.
+ */
+class SortedEventList extends AbstractList<IEvent> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private IEvent[] buffer;
+  private int gapStart;
+  private int gapEnd;
+
+  /**
+   * Constructs an empty SortedEventList.
+   */
+  SortedEventList() {
+    this.buffer = new IEvent[DEFAULT_CAPACITY];
+    this.gapStart = 0;
+    this.gapEnd = DEFAULT_CAPACITY;
+  }
+
+  @Override
+  public IEvent get(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+    return buffer[toBufferIndex(index)];
+  }
+
+  @Override
+  public int size() {
+    return buffer.length - (gapEnd - gapStart);
+  }
+
+  /**
+   * Inserts an event after all events that compare less than or equal to it.
+   *
+   * @param event event to insert
+   * @return the index the event was inserted at
+   */
+  int insert(IEvent event) {
+    int index = upperBound(event);
+    if (gapStart == gapEnd) {
+      grow();
+    }
+    moveGap(index);
+    buffer[gapStart++] = event;
+    modCount++;
+    return index;
+  }
+
+  /**
+   * Appends an event that does not compare less than the last event, without searching for its
+   * position. Used to fill the list from events that are already sorted.
+   *
+   * @param event event to append
+   * @throws IllegalArgumentException if the event compares less than the last event
+   */
+  void append(IEvent event) throws IllegalArgumentException {
+    int size = size();
+    if (size > 0 && get(size - 1).compareTo(event) > 0) {
+      throw new IllegalArgumentException("Events must be appended in sorted order");
+    }
+    if (gapStart == gapEnd) {
+      grow();
+    }
+    moveGap(size);
+    buffer[gapStart++] = event;
+    modCount++;
+  }
+
+  /**
+   * Makes room for the given number of events, so that appending that many does not grow the
+   * buffer again.
+   *
+   * @param capacity number of events
+   */
+  void ensureCapacity(int capacity) {
+    if (capacity > buffer.length) {
+      moveGap(size());
+      IEvent[] newBuffer = new IEvent[capacity];
+      System.arraycopy(buffer, 0, newBuffer, 0, gapStart);
+      gapEnd = capacity;
+      buffer = newBuffer;
+    }
+  }
+
+  /**
+   * Removes the given event from the list. Events are compared by identity.
+   *
+   * @param event event to remove
+   * @return true if the event was removed, false if it is not in the list
+   */
+  boolean delete(IEvent event) {
+    int index = indexOfIdentity(event);
+    if (index < 0) {
+      return false;
+    }
+    moveGap(index);
+    buffer[gapEnd++] = null;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Get the index of the given event in the list, compared by identity.
+   *
+   * @param event event to find
+   * @return index of the event, or -1 if it is not in the list
+   */
+  int indexOfIdentity(IEvent event) {
+    int size = size();
+    for (int i = lowerBound(event); i < size; i++) {
+      IEvent current = get(i);
+      if (current == event) {
+        return i;
+      }
+      if (current.compareTo(event) > 0) {
+        break;
+      }
+    }
+
+    // the event may have been changed since it was inserted, fall back to a linear search
+    for (int i = 0; i < size; i++) {
+      if (get(i) == event) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Get the index of the first event that compares greater than or equal to the given event.
+   *
+   * @param event event to compare with
+   * @return index between 0 and size
+   */
+  int lowerBound(IEvent event) {
+    int low = 0;
+    int high = size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (get(middle).compareTo(event) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Get the index of the first event that compares greater than the given event.
+   *
+   * @param event event to compare with
+   * @return index between 0 and size
+   */
+  int upperBound(IEvent event) {
+    int low = 0;
+    int high = size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (get(middle).compareTo(event) <= 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Get the index of the first event that does not start before the given date time.
+   *
+   * @param startDateTime ChronoZonedDateTime object
+   * @return index between 0 and size
+   */
+  int lowerBound(ChronoZonedDateTime<LocalDate> startDateTime) {
+    int low = 0;
+    int high = size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (get(middle).getStartDateTime().isBefore(startDateTime)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int toBufferIndex(int index) {
+    return index < gapStart ? index : index + (gapEnd - gapStart);
+  }
+
+  private void moveGap(int index) {
+    if (index < gapStart) {
+      int count = gapStart - index;
+      System.arraycopy(buffer, index, buffer, gapEnd - count, count);
+      Arrays.fill(buffer, index, Math.min(gapStart, gapEnd - count), null);
+      gapStart -= count;
+      gapEnd -= count;
+    } else if (index > gapStart) {
+      int count = index - gapStart;
+      System.arraycopy(buffer, gapEnd, buffer, gapStart, count);
+      Arrays.fill(buffer, Math.max(gapEnd, gapStart + count), gapEnd + count, null);
+      gapStart += count;
+      gapEnd += count;
+    }
+  }
+
+  private void grow() {
+    int newCapacity = Math.max(DEFAULT_CAPACITY, buffer.length * 2);
+    IEvent[] newBuffer = new IEvent[newCapacity];
+    int tail = buffer.length - gapEnd;
+
+    System.arraycopy(buffer, 0, newBuffer, 0, gapStart);
+    System.arraycopy(buffer, gapEnd, newBuffer, newCapacity - tail, tail);
+    buffer = newBuffer;
+    gapEnd = newCapacity - tail;
+  }
+}
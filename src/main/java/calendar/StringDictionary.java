@@ -0,0 +1,145 @@
+package calendar;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A Java class representing a dictionary of the strings used by the events of a calendar. Equal
+ * subjects, descriptions and locations are replaced by a single shared instance when events are
+ * added, so repeated values take memory only once. With weak references a string is dropped from
+ * the dictionary once no event uses it anymore.
+ *
+ * <p>The dictionary also counts its lookups, which can be read as statistics. The bytes saved are
+ * an estimate based on the size of a Latin-1 string on a 64-bit JVM with compressed pointers. The
+ * methods are synchronized, since imports parse rows on several threads.
+ */
+public class StringDictionary {
+
+  // String object with its hash and coder fields, plus the header of its byte array
+  private static final int STRING_OVERHEAD = 40;
+  // map entry holding a kept string, with its weak reference for a weak dictionary
+  private static final int ENTRY_OVERHEAD = 64;
+
+  private final Map<String, WeakReference<String>> weakStrings;
+  private final Map<String, String> strings;
+  private long lookups;
+  private long hits;
+  private long bytesSaved;
+  private long bytesKept;
+
+  /**
+   * Constructs an empty StringDictionary.
+   *
+   * @param weak true to drop strings that are no longer used by any event
+   */
+  public StringDictionary(boolean weak) {
+    this.weakStrings = weak ? new WeakHashMap<>() : null;
+    this.strings = weak ? null : new HashMap<>();
+  }
+
+  /**
+   * Get the shared instance of the given string, adding it to the dictionary if it is new.
+   *
+   * @param value string to look up, may be null
+   * @return shared string equal to the given one, or null if the given string is null
+   */
+  public synchronized String intern(String value) {
+    if (value == null) {
+      return null;
+    }
+
+    String shared;
+    if (strings != null) {
+      shared = strings.putIfAbsent(value, value);
+    } else {
+      WeakReference<String> reference = weakStrings.get(value);
+      shared = reference == null ? null : reference.get();
+      if (shared == null) {
+        weakStrings.put(value, new WeakReference<>(value));
+      }
+    }
+
+    if (shared == value) {
+      // already the shared instance, e.g. an event that is added again
+      return value;
+    }
+    lookups++;
+    if (shared == null) {
+      bytesKept += ENTRY_OVERHEAD + STRING_OVERHEAD + value.length();
+      return value;
+    }
+    hits++;
+    bytesSaved += STRING_OVERHEAD + value.length();
+    return shared;
+  }
+
+  /**
+   * Get the number of strings currently in the dictionary.
+   *
+   * @return number of distinct strings
+   */
+  public synchronized int size() {
+    return strings != null ? strings.size() : weakStrings.size();
+  }
+
+  /**
+   * Get the number of strings looked up so far, not counting strings that were already shared.
+   *
+   * @return number of lookups
+   */
+  public synchronized long getLookups() {
+    return lookups;
+  }
+
+  /**
+   * Get the number of looked up strings that were replaced by an existing instance.
+   *
+   * @return number of duplicates found
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Get the ratio of looked up strings to the strings that had to be kept, which is 1 when no
+   * duplicates were found.
+   *
+   * @return deduplication ratio
+   */
+  public synchronized double getDedupRatio() {
+    long kept = lookups - hits;
+    return kept == 0 ? 1 : (double) lookups / kept;
+  }
+
+  /**
+   * Get the estimated number of bytes saved by sharing duplicate strings.
+   *
+   * @return estimated bytes saved
+   */
+  public synchronized long getBytesSaved() {
+    return bytesSaved;
+  }
+
+  /**
+   * Get the estimated number of bytes used by the strings added to the dictionary and their
+   * entries. Strings dropped by a weak dictionary are not subtracted, so this may overestimate.
+   *
+   * @return estimated bytes kept
+   */
+  public synchronized long getBytesKept() {
+    return bytesKept;
+  }
+
+  /**
+   * Returns a summary of the dictionary statistics.
+   *
+   * @return string containing the statistics
+   */
+  @Override
+  public synchronized String toString() {
+    return String.format("strings: %d, lookups: %d, duplicates: %d, dedupRatio: %.2f, "
+        + "bytesSaved: %d", size(), lookups, hits, getDedupRatio(), bytesSaved);
+  }
+}
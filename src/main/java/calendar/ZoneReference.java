@@ -0,0 +1,53 @@
+package calendar;
+
+import java.time.ZoneId;
+
+/**
+ * A Java class representing the time zone of a calendar, shared by all of its events. Changing the
+ * zone only increments a version number, and each event moves its date times to the new zone the
+ * next time they are read, so changing the time zone of a calendar does not depend on its size.
+ * The version is written after the zone, so a thread that reads a new version reads its zone.
+ */
+public final class ZoneReference {
+
+  private volatile ZoneId zone;
+  private volatile long version;
+
+  /**
+   * Constructs a ZoneReference object.
+   *
+   * @param zone initial time zone
+   */
+  ZoneReference(ZoneId zone) {
+    this.zone = zone;
+    this.version = 0;
+  }
+
+  /**
+   * Get the current time zone.
+   *
+   * @return ZoneId object
+   */
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  /**
+   * Get the number of times the time zone has been changed.
+   *
+   * @return version number
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Changes the time zone. Events that follow this reference apply it lazily.
+   *
+   * @param zone new time zone
+   */
+  void setZone(ZoneId zone) {
+    this.zone = zone;
+    this.version++;
+  }
+}
@@ -1,8 +1,11 @@
 package command;
 
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import calendar.IEvent;
 import model.IModel;
 import view.Viewer;
 
@@ -47,6 +50,35 @@ public abstract class AbstractCommand implements Command {
     return true;
   }
 
+  /**
+   * Commands change the model unless they override this method.
+   *
+   * @return true
+   */
+  @Override
+  public boolean changesModel() {
+    return true;
+  }
+
+  /**
+   * Commands are journaled as their command string unless they override this method.
+   *
+   * @return false
+   */
+  @Override
+  public boolean journalsAddedEvents() {
+    return false;
+  }
+
+  /**
+   * Commands journaled as their command string do not hand over the events they add.
+   *
+   * @param sink ignored
+   */
+  @Override
+  public void setAddedEventsSink(Consumer<List<IEvent>> sink) {
+    // the command string is journaled instead
+  }
 
   /**
    * Execute the command with the matched pattern.
@@ -1,5 +1,9 @@
 package command;
 
+import java.util.List;
+import java.util.function.Consumer;
+
+import calendar.IEvent;
 import model.IModel;
 import view.Viewer;
 
@@ -18,4 +22,28 @@ public interface Command {
    * @throws Exception if an error occurs
    */
   boolean execute(IModel model, Viewer view, String commandString) throws Exception;
+
+  /**
+   * Checks if the command changes the model, in which case it is recorded in the command journal
+   * once it changed the model.
+   *
+   * @return true if the command changes the model, false otherwise
+   */
+  boolean changesModel();
+
+  /**
+   * Checks if the command is journaled as the events it adds instead of its command string, for
+   * commands whose replay would read files outside the journal, such as imports.
+   *
+   * @return true if the command hands the events it adds to its sink, false otherwise
+   */
+  boolean journalsAddedEvents();
+
+  /**
+   * Sets where the command hands the events it adds, batch by batch as each batch is added, if it
+   * is journaled as those events. Without a sink the added events are not kept.
+   *
+   * @param sink consumer of added events and series, or null if they are not journaled
+   */
+  void setAddedEventsSink(Consumer<List<IEvent>> sink);
 }
\ No newline at end of file
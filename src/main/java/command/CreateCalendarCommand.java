@@ -1,20 +1,26 @@
 package command;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import calendar.Calendar;
 import calendar.ICalendar;
+import calendar.MappedCalendar;
 import model.IModel;
 import view.Viewer;
 
 /**
- * Command for creating a calendar with a name and timezone.
+ * Command for creating a calendar with a name and timezone. With an archive directory the events
+ * are kept in memory-mapped files in that directory instead of on the heap, and an archive already
+ * stored there is opened with its own name and timezone.
  */
 public class CreateCalendarCommand extends AbstractCommand {
 
   private static final Pattern PATTERN = Pattern.compile("^\\s*create\\s+calendar\\s+"
-      + "--name\\s+(?:\"([^\"]+)\"|([^\"\\s]+))\\s+--timezone\\s+([\\w/-]+)\\s*$");
+      + "--name\\s+(?:\"([^\"]+)\"|([^\"\\s]+))\\s+--timezone\\s+([\\w/-]+)"
+      + "(?:\\s+--archive\\s+(?:\"([^\"]+)\"|([^\"\\s]+)))?\\s*$");
 
   /**
    * Constructs a CreateCalendarCommand object.
@@ -24,7 +30,8 @@ public class CreateCalendarCommand extends AbstractCommand {
   }
 
   /**
-   * Creates a new calendar with the given name and timezone.
+   * Creates a new calendar with the given name and timezone, or opens the archive calendar in the
+   * given directory.
    *
    * @param model   IModel object
    * @param view    Viewer object
@@ -35,9 +42,24 @@ public class CreateCalendarCommand extends AbstractCommand {
   protected void executeMatched(IModel model, Viewer view, Matcher matcher) throws Exception {
     String name = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
     String timeZone = matcher.group(3);
+    String archive = matcher.group(4) != null ? matcher.group(4) : matcher.group(5);
 
-    ICalendar calendar = new Calendar(name, timeZone);
-    model.addCalendar(calendar);
-    view.print("Created calendar");
+    if (archive == null) {
+      model.addCalendar(new Calendar(name, timeZone));
+      view.print("Created calendar");
+      return;
+    }
+
+    Path directory = Paths.get(archive);
+    boolean opened = MappedCalendar.isStoredIn(directory);
+    MappedCalendar calendar = opened ? MappedCalendar.open(directory)
+        : new MappedCalendar(name, timeZone, directory);
+    try {
+      model.addCalendar(calendar);
+    } catch (Exception e) {
+      calendar.close();
+      throw e;
+    }
+    view.print(opened ? "Opened archive calendar " + calendar.getName() : "Created calendar");
   }
 }
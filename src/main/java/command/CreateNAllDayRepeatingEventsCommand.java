@@ -3,12 +3,10 @@ package command;
 import java.time.LocalDate;
 import java.time.chrono.ChronoZonedDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import calendar.ICalendar;
-import calendar.IEvent;
 import calendar.IRepeatingEvent;
 import model.IModel;
 import calendar.RepeatingEvent;
@@ -65,8 +63,7 @@ public class CreateNAllDayRepeatingEventsCommand extends AbstractCommand {
         .repeatDays(TimeUtils.getDaysOfWeek(days))
         .build();
 
-    List<IEvent> repeatingEvents = baseEvent.repeatNTimes();
-    model.addEvents(repeatingEvents);
+    model.addSeries(baseEvent);
 
     view.print("Created repeating event");
   }
@@ -2,12 +2,10 @@ package command;
 
 import java.time.LocalDate;
 import java.time.chrono.ChronoZonedDateTime;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import calendar.ICalendar;
-import calendar.IEvent;
 import calendar.IRepeatingEvent;
 import model.IModel;
 import calendar.RepeatingEvent;
@@ -65,8 +63,7 @@ public class CreateNRepeatingEventsCommand extends AbstractCommand {
         .repeatNumber(repeatNumber)
         .repeatDays(TimeUtils.getDaysOfWeek(days))
         .build();
-    List<IEvent> repeatingEvents = baseEvent.repeatNTimes();
-    model.addEvents(repeatingEvents);
+    model.addSeries(baseEvent);
 
     view.print("Created repeating event");
   }
@@ -2,12 +2,10 @@ package command;
 
 import java.time.LocalDate;
 import java.time.chrono.ChronoZonedDateTime;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import calendar.ICalendar;
-import calendar.IEvent;
 import calendar.IRepeatingEvent;
 import model.IModel;
 import calendar.RepeatingEvent;
@@ -67,8 +65,7 @@ public class CreateRepeatingEventsUntilEndCommand extends AbstractCommand {
         .repeatDays(TimeUtils.getDaysOfWeek(days))
         .build();
 
-    List<IEvent> repeatingEvents = baseEvent.repeatUntilEndDate();
-    model.addEvents(repeatingEvents);
+    model.addSeries(baseEvent);
 
     view.print("Created repeating event");
   }
@@ -1,6 +1,5 @@
 package command;
 
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -15,7 +14,7 @@ import view.Viewer;
 public class ExportCalendarCommand extends AbstractCommand {
 
   private static final Pattern PATTERN = Pattern.compile("^\\s*export\\s+cal\\s+"
-      + "(\\/*(?:[\\w\\-\\.]+\\/)*[\\w\\-\\.]+\\.csv)$");
+      + "(\\/*(?:[\\w\\-\\.]+\\/)*[\\w\\-\\.]+\\.(?:csv|ics))$");
 
   /**
    * Constructs an ExportCalendarCommand object.
@@ -25,8 +24,9 @@ public class ExportCalendarCommand extends AbstractCommand {
   }
 
   /**
-   * Exports the calendar with events as a csv file and also prints the absolute path of the
-   * generated CSV file.
+   * Exports the calendar with events as a csv or ics file and also prints the absolute path of the
+   * generated file. In an ics file every repeating series is written as one event with a repeat
+   * rule.
    *
    * @param model   IModel object
    * @param view    Viewer object
@@ -37,8 +37,20 @@ public class ExportCalendarCommand extends AbstractCommand {
   protected void executeMatched(IModel model, Viewer view, Matcher matcher) throws Exception {
     String filename = matcher.group(1);
 
-    List<IEvent> events = model.getCurrentCalendar().getEvents();
-    String filepath = ImportExportUtils.exportCalendar(filename, events);
+    Iterable<IEvent> events = model.getCurrentCalendar().getAllEvents();
+    String filepath = filename.endsWith(".ics")
+        ? ImportExportUtils.exportIcsCalendar(filename, events)
+        : ImportExportUtils.exportCalendar(filename, events);
     view.print("Exported calendar to " + filepath);
   }
+
+  /**
+   * Exporting a calendar does not change the model.
+   *
+   * @return false
+   */
+  @Override
+  public boolean changesModel() {
+    return false;
+  }
 }
@@ -1,23 +1,40 @@
 package command;
 
-import java.time.ZoneId;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import calendar.ICalendar;
 import calendar.IEvent;
+import calendar.IRepeatingEvent;
 import model.ConflictException;
 import model.IModel;
 import utils.ImportExportUtils;
 import view.Viewer;
 
 /**
- * Command for importing a calendar from a CSV file.
+ * Command for importing a calendar from a CSV or iCalendar file.
  */
 public class ImportCalendarCommand extends AbstractCommand {
 
   private static final Pattern PATTERN = Pattern.compile("^\\s*import\\s+cal\\s+"
-      + "(/*(?:[\\w\\-.]+/)*[\\w\\-.]+\\.csv)$");
+      + "(/*(?:[\\w\\-.]+/)*[\\w\\-.]+\\.(?:csv|ics))$");
+
+  // events of an ics file added at a time
+  private static final int ICS_BATCH_EVENTS = 8192;
+
+  // receives the added events and series batch by batch, null when they are not journaled
+  private Consumer<List<IEvent>> sink;
+  // counts of the running import, and the added series not yet handed to the sink
+  private long added;
+  private long skipped;
+  private List<IEvent> pendingSeries;
 
   /**
    * Constructs an ImportCalendarCommand object.
@@ -27,7 +44,12 @@ public class ImportCalendarCommand extends AbstractCommand {
   }
 
   /**
-   * Imports a calendar from a csv file.
+   * Imports a calendar from a csv or ics file. Repeating series of an ics file are added as series,
+   * so a calendar with the rules recurrence stores them without creating their occurrences. A
+   * conflicting series is skipped as a whole and counted as one skipped event. The file is added
+   * in batches while it is read, so when a row turns out to be invalid, the batches before it are
+   * kept and the error reports how many events were added. Each added batch is handed to the sink
+   * before the next one is read, so no more than a batch is kept for the journal.
    *
    * @param model   IModel object
    * @param view    Viewer object
@@ -38,22 +60,107 @@ public class ImportCalendarCommand extends AbstractCommand {
   protected void executeMatched(IModel model, Viewer view, Matcher matcher) throws Exception {
     String filename = matcher.group(1);
 
-    ZoneId zone = model.getCurrentCalendar().getTimezone();
-    List<IEvent> events = ImportExportUtils.importCalendar(filename, zone);
-
-    int count = 0;
-    for (IEvent event : events) {
-      try {
-        model.addEvents(List.of(event));
-      } catch (ConflictException e) {
-        count++;
+    ICalendar calendar = model.getCurrentCalendar();
+    // changes to a persistent calendar are already on disk and are not journaled
+    Consumer<List<IEvent>> journal = calendar.isPersistent() ? null : sink;
+    added = 0;
+    skipped = 0;
+    pendingSeries = new ArrayList<>();
+    try {
+      // events are added batch by batch while the file is read, instead of after reading all of it
+      if (filename.endsWith(".ics")) {
+        importIcs(model, filename, calendar, journal);
+      } else {
+        ImportExportUtils.importCalendar(filename, calendar.getTimezone(),
+            calendar.getStringDictionary(), events -> addBatch(model, events, journal));
       }
+    } catch (IOException e) {
+      if (added == 0) {
+        throw e;
+      }
+      // the batches added before the error stay in the calendar and were journaled as events
+      Throwable reason = e;
+      while (reason.getCause() != null) {
+        reason = reason.getCause();
+      }
+      throw new IOException("Import stopped after adding " + added + " events: "
+          + reason.getMessage(), e);
+    } finally {
+      pendingSeries = null;
     }
 
     String message = "Finished importing events.";
-    if (count > 0) {
-      message += " Skipped " + count + " conflicting events.";
+    if (skipped > 0) {
+      message += " Skipped " + skipped + " conflicting events.";
     }
     view.print(message);
   }
+
+  private void importIcs(IModel model, String filename, ICalendar calendar,
+      Consumer<List<IEvent>> journal) throws IOException {
+    List<IEvent> batch = new ArrayList<>();
+    ImportExportUtils.importIcsCalendar(filename, calendar.getTimezone(),
+        calendar.getStringDictionary(), event -> {
+          if (!event.isRepeating()) {
+            batch.add(event);
+            if (batch.size() == ICS_BATCH_EVENTS) {
+              addBatch(model, new ArrayList<>(batch), journal);
+              batch.clear();
+            }
+            return;
+          }
+          try {
+            model.addSeries((IRepeatingEvent) event);
+            added++;
+            if (journal != null) {
+              // series are journaled with the next batch instead of one record each
+              pendingSeries.add(event);
+              if (pendingSeries.size() == ICS_BATCH_EVENTS) {
+                addBatch(model, new ArrayList<>(batch), journal);
+                batch.clear();
+              }
+            }
+          } catch (ConflictException e) {
+            skipped++;
+          }
+        });
+    addBatch(model, batch, journal);
+  }
+
+  private void addBatch(IModel model, List<IEvent> events, Consumer<List<IEvent>> journal) {
+    List<IEvent> batchSkipped = model.addEventsSkippingConflicts(events);
+    added += events.size() - batchSkipped.size();
+    skipped += batchSkipped.size();
+    if (journal == null) {
+      return;
+    }
+
+    Set<IEvent> notAdded = Collections.newSetFromMap(new IdentityHashMap<>());
+    notAdded.addAll(batchSkipped);
+    List<IEvent> batchAdded = pendingSeries;
+    pendingSeries = new ArrayList<>();
+    for (IEvent event : events) {
+      if (!notAdded.contains(event)) {
+        batchAdded.add(event);
+      }
+    }
+    if (!batchAdded.isEmpty()) {
+      journal.accept(batchAdded);
+    }
+  }
+
+  /**
+   * Imports are journaled as the events they added, so their replay does not need the file.
+   *
+   * @return true
+   */
+  @Override
+  public boolean journalsAddedEvents() {
+    return true;
+  }
+
+  @Override
+  public void setAddedEventsSink(Consumer<List<IEvent>> sink) {
+    this.sink = sink;
+  }
 }
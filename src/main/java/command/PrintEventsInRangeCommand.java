@@ -49,4 +49,14 @@ public class PrintEventsInRangeCommand extends AbstractCommand {
     List<IEvent> events = model.getEventsInRange(startDateTime, endDateTime);
     view.printEvents(events);
   }
+
+  /**
+   * Printing events does not change the model.
+   *
+   * @return false
+   */
+  @Override
+  public boolean changesModel() {
+    return false;
+  }
 }
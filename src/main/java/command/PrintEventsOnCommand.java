@@ -46,4 +46,14 @@ public class PrintEventsOnCommand extends AbstractCommand {
     List<IEvent> events = model.getEventsOnDate(date);
     view.printEvents(events);
   }
+
+  /**
+   * Printing events does not change the model.
+   *
+   * @return false
+   */
+  @Override
+  public boolean changesModel() {
+    return false;
+  }
 }
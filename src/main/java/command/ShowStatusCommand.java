@@ -35,4 +35,14 @@ public class ShowStatusCommand extends AbstractCommand {
     String status = model.getStatus(dateTime);
     view.print(status);
   }
+
+  /**
+   * Showing the status does not change the model.
+   *
+   * @return false
+   */
+  @Override
+  public boolean changesModel() {
+    return false;
+  }
 }
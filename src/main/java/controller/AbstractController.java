@@ -1,8 +1,16 @@
 package controller;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import calendar.CalendarSnapshot;
+import calendar.IEvent;
+import calendar.IRepeatingEvent;
+
 import command.Command;
 import command.CopyEventCommand;
 import command.CopyEventsInRangeCommand;
@@ -25,6 +33,8 @@ import command.PrintEventsOnCommand;
 import command.ShowStatusCommand;
 import command.UseCalendarCommand;
 
+import gui.Features;
+import model.ConflictException;
 import model.IModel;
 import model.UnknownCommandException;
 import view.Viewer;
@@ -35,10 +45,36 @@ import view.Viewer;
  */
 public abstract class AbstractController implements Listener {
 
+  // replayed commands already showed their output when they were first handled
+  private static final Viewer SILENT_VIEW = new Viewer() {
+    @Override
+    public void print(String message) {
+      // nothing to show
+    }
+
+    @Override
+    public void addFeatures(Features features) {
+      // nothing to show
+    }
+
+    @Override
+    public void printError(String message) {
+      // nothing to show
+    }
+
+    @Override
+    public void printEvents(List<IEvent> events) {
+      // nothing to show
+    }
+  };
+
   protected IModel model;
   protected Viewer view;
 
   protected List<Command> commands;
+  private CommandJournal journal;
+  // replay failures found before a view was set
+  private final List<String> replayFailures = new ArrayList<>();
 
   /**
    * Constructs an AbstractController object.
@@ -82,7 +118,9 @@ public abstract class AbstractController implements Listener {
   }
 
   /**
-   * Processes a given command string by matching it against available commands.
+   * Processes a given command string by matching it against available commands. A command is
+   * recorded in the journal once it changed the model, even if it failed afterwards, such as a copy
+   * that skipped conflicting events.
    *
    * @param commandString The user input representing a command.
    * @throws Exception throws an UnknownCommandException if no command matches.
@@ -90,7 +128,17 @@ public abstract class AbstractController implements Listener {
   @Override
   public void handleCommand(String commandString) throws Exception {
     for (Command command : this.commands) {
-      if (command.execute(model, view, commandString)) {
+      long changes = model.getChangeCount();
+      command.setAddedEventsSink(journal == null ? null : this::journalEvents);
+      boolean handled;
+      try {
+        handled = command.execute(model, view, commandString);
+      } catch (Exception e) {
+        journal(command, commandString, changes, true);
+        throw e;
+      }
+      if (handled) {
+        journal(command, commandString, changes, false);
         return;
       }
     }
@@ -98,12 +146,144 @@ public abstract class AbstractController implements Listener {
   }
 
   /**
-   * Sets the Viewer to be used by the Listener.
+   * Records a handled command in the journal if it changed the model. Commands that add events
+   * read from outside the journal already recorded each batch of those events as it was added.
+   *
+   * @param command       handled command
+   * @param commandString command string
+   * @param changes       change count of the model before the command
+   * @param failed        whether the command failed
+   * @throws IOException if the journal cannot be written
+   */
+  private void journal(Command command, String commandString, long changes, boolean failed)
+      throws IOException {
+    if (journal == null || !command.changesModel() || command.journalsAddedEvents()
+        || model.getChangeCount() == changes) {
+      return;
+    }
+    if (failed) {
+      journal.appendFailed(commandString);
+    } else {
+      journal.append(commandString);
+    }
+  }
+
+  /**
+   * Replays the records of the given journal without showing the output of their commands, and
+   * records the commands that change the model in it from now on. Records that fail during the
+   * replay are skipped and reported on the view, or on the view set later if there is none yet.
+   *
+   * @param journal CommandJournal object
+   * @return number of records that were replayed successfully
+   */
+  public int setJournal(CommandJournal journal) {
+    return setJournal(journal, 0);
+  }
+
+  /**
+   * Replays the records of the given journal after the given number of records, and records the
+   * commands that change the model in it from now on. This is used when the model was loaded from
+   * a snapshot that already contains the changes of the first records. Records that fail during
+   * the replay are skipped and reported on the view, except commands that were recorded as failed.
+   *
+   * @param journal    CommandJournal object
+   * @param replayFrom number of records at the start of the journal to skip
+   * @return number of records that were replayed successfully
+   */
+  public int setJournal(CommandJournal journal, long replayFrom) {
+    List<CommandJournal.Record> records = journal.getRecords();
+    int replayed = 0;
+    for (CommandJournal.Record record : records.subList(
+        (int) Math.min(replayFrom, records.size()), records.size())) {
+      try {
+        if (record.getEvents() != null) {
+          replayEvents(record.getEvents());
+        } else if (!runCommand(record.getCommand(), SILENT_VIEW)) {
+          throw new UnknownCommandException(record.getCommand());
+        }
+        replayed++;
+      } catch (Exception e) {
+        if (record.isFailed()) {
+          // the command failed the same way when it was handled
+          replayed++;
+        } else {
+          reportReplayFailure(record, e);
+        }
+      }
+    }
+    journal.releaseRecords();
+    this.journal = journal;
+    return replayed;
+  }
+
+  private void journalEvents(List<IEvent> events) {
+    try {
+      journal.appendEvents(events);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void replayEvents(byte[] encoded) throws IOException, ConflictException {
+    List<IEvent> events = CalendarSnapshot.readEvents(
+        new DataInputStream(new ByteArrayInputStream(encoded)),
+        model.getCurrentCalendar().getStringDictionary());
+    List<IEvent> plainEvents = new ArrayList<>();
+    for (IEvent event : events) {
+      if (event.isRepeating()) {
+        model.addSeries((IRepeatingEvent) event);
+      } else {
+        plainEvents.add(event);
+      }
+    }
+    int skipped = model.addEventsSkippingConflicts(plainEvents).size();
+    if (skipped > 0) {
+      throw new ConflictException("Skipped " + skipped + " conflicting imported events");
+    }
+  }
+
+  private void reportReplayFailure(CommandJournal.Record record, Exception e) {
+    String message = "Could not replay "
+        + (record.getCommand() != null ? record.getCommand() : "imported events") + ": "
+        + e.getMessage();
+    if (view != null) {
+      view.printError(message);
+    } else {
+      replayFailures.add(message);
+    }
+  }
+
+  /**
+   * Executes the first command that matches the given command string.
+   *
+   * @param commandString command string
+   * @param viewer        Viewer object to show the output on
+   * @return true if a command matched, false otherwise
+   * @throws Exception if an error occurs when executing the command
+   */
+  private boolean runCommand(String commandString, Viewer viewer) throws Exception {
+    for (Command command : this.commands) {
+      // replayed imports are not journaled again
+      command.setAddedEventsSink(null);
+      boolean handled = command.execute(model, viewer, commandString);
+      if (handled) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sets the Viewer to be used by the Listener, and shows the replay failures found before it.
    *
    * @param viewer Viewer object
    */
   @Override
   public void setView(Viewer viewer) {
     this.view = viewer;
+    for (String message : replayFailures) {
+      viewer.printError(message);
+    }
+    replayFailures.clear();
   }
 }
@@ -0,0 +1,354 @@
+package controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import calendar.CalendarSnapshot;
+import calendar.IEvent;
+
+/**
+ * A Java class representing an append-only journal of the commands that changed the model. Each
+ * command is written as a record holding its length, a checksum and its UTF-8 bytes, so that a
+ * record torn by a crash is detected and dropped when the journal is opened again.
+ *
+ * <p>Besides plain commands, a record can hold a command that failed after changing the model,
+ * which is expected to fail again when it is replayed, or the encoded events a command added,
+ * for commands such as imports whose replay would read files outside the journal. These records
+ * start with a control character that no command starts with. Events are encoded straight into
+ * the file, and the header of their record is written once their length and checksum are known.
+ *
+ * <p>A command is only reported as journaled once the file was forced to disk. Commands appended
+ * while another thread is forcing the file wait for the next force, which then covers all of
+ * them, so concurrent callers share a single fsync instead of paying for one each.
+ */
+public class CommandJournal implements AutoCloseable {
+
+  private static final int RECORD_HEADER = 2 * Integer.BYTES;
+  private static final byte FAILED_COMMAND = 1;
+  private static final byte EVENTS = 2;
+
+  private final FileChannel channel;
+  // records read when the journal was opened, until they are released after the replay
+  private final List<Record> records;
+  private final long recordCount;
+  // number of records appended and number of records known to be on disk
+  private long appended;
+  private long synced;
+  private boolean forcing;
+  private boolean closed;
+
+  /**
+   * Opens the journal at the given path, creating it if it does not exist. The recorded commands
+   * are read, and a torn or corrupt record at the end of the file is cut off.
+   *
+   * @param path journal file path
+   * @throws IOException if the journal cannot be opened or read
+   */
+  public CommandJournal(Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.records = new ArrayList<>();
+
+    long valid = readRecords();
+    this.recordCount = records.size();
+    if (valid < channel.size()) {
+      channel.truncate(valid);
+      channel.force(false);
+    }
+    channel.position(valid);
+  }
+
+  /**
+   * Get the records that were in the journal when it was opened, in the order they were appended.
+   *
+   * @return read-only list of Record objects
+   */
+  public List<Record> getRecords() {
+    return Collections.unmodifiableList(records);
+  }
+
+  /**
+   * Drops the records read when the journal was opened, once they were replayed, so their
+   * commands and events are not kept in memory for as long as the journal is open.
+   */
+  public void releaseRecords() {
+    records.clear();
+  }
+
+  /**
+   * Get the number of records in the journal, both those read when it was opened and those
+   * appended since.
+   *
+   * @return number of records
+   */
+  public synchronized long size() {
+    return recordCount + appended;
+  }
+
+  /**
+   * Appends a command to the journal and waits until it is on disk.
+   *
+   * @param command command string
+   * @throws IOException if the command cannot be written or forced to disk
+   */
+  public void append(String command) throws IOException {
+    appendRecord(command.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Appends a command that failed after it changed the model, and waits until it is on disk.
+   *
+   * @param command command string
+   * @throws IOException if the command cannot be written or forced to disk
+   */
+  public void appendFailed(String command) throws IOException {
+    appendRecord(withKind(FAILED_COMMAND, command.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Appends events that a command added to the calendar in use, and waits until they are on disk.
+   * The events are encoded straight into the file, so a batch is never copied into a buffer.
+   *
+   * @param events events and series, encoded with CalendarSnapshot.writeEvents
+   * @throws IOException if the events cannot be written or forced to disk
+   */
+  public void appendEvents(List<IEvent> events) throws IOException {
+    long sequence;
+    synchronized (this) {
+      if (closed) {
+        throw new IOException("The journal is closed");
+      }
+      long start = channel.position();
+      try {
+        // a negative length marks the record as torn until its header is written
+        writeFully(ByteBuffer.allocate(RECORD_HEADER).putInt(-1).putInt(0).flip(), -1);
+        CRC32 checksum = new CRC32();
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+            new BufferedOutputStream(Channels.newOutputStream(channel)), checksum));
+        out.writeByte(EVENTS);
+        CalendarSnapshot.writeEvents(events, out);
+        out.flush();
+
+        long length = channel.position() - start - RECORD_HEADER;
+        if (length > Integer.MAX_VALUE) {
+          throw new IOException("Too many events for one journal record");
+        }
+        writeFully(ByteBuffer.allocate(RECORD_HEADER).putInt((int) length)
+            .putInt((int) checksum.getValue()).flip(), start);
+      } catch (IOException | RuntimeException e) {
+        // drop the partial record, so the records appended after it are not cut off when reopened
+        channel.truncate(start);
+        channel.position(start);
+        throw e;
+      }
+      sequence = ++appended;
+    }
+    awaitSync(sequence);
+  }
+
+  private void writeFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (position < 0) {
+        channel.write(buffer);
+      } else {
+        position += channel.write(buffer, position);
+      }
+    }
+  }
+
+  private static byte[] withKind(byte kind, byte[] bytes) {
+    byte[] payload = new byte[bytes.length + 1];
+    payload[0] = kind;
+    System.arraycopy(bytes, 0, payload, 1, bytes.length);
+    return payload;
+  }
+
+  private void appendRecord(byte[] bytes) throws IOException {
+    CRC32 checksum = new CRC32();
+    checksum.update(bytes);
+    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + bytes.length)
+        .putInt(bytes.length)
+        .putInt((int) checksum.getValue())
+        .put(bytes);
+    record.flip();
+
+    long sequence;
+    synchronized (this) {
+      if (closed) {
+        throw new IOException("The journal is closed");
+      }
+      while (record.hasRemaining()) {
+        channel.write(record);
+      }
+      sequence = ++appended;
+    }
+    awaitSync(sequence);
+  }
+
+  /**
+   * Closes the journal once every appended record is on disk.
+   *
+   * @throws IOException if the journal cannot be forced or closed
+   */
+  @Override
+  public void close() throws IOException {
+    long sequence;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      sequence = appended;
+    }
+    try {
+      awaitSync(sequence);
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Waits until the given record is on disk. If no other thread is forcing the file, the calling
+   * thread forces it for every record appended so far, otherwise it waits for that force to finish
+   * and checks again.
+   *
+   * @param sequence number of the record
+   * @throws IOException if the file cannot be forced
+   */
+  private void awaitSync(long sequence) throws IOException {
+    while (true) {
+      long target;
+      synchronized (this) {
+        while (forcing && synced < sequence) {
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the journal");
+          }
+        }
+        if (synced >= sequence) {
+          return;
+        }
+        forcing = true;
+        target = appended;
+      }
+
+      boolean forced = false;
+      try {
+        channel.force(false);
+        forced = true;
+      } finally {
+        synchronized (this) {
+          forcing = false;
+          if (forced) {
+            synced = Math.max(synced, target);
+          }
+          notifyAll();
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the records from the start of the file until the end or the first record that is
+   * incomplete or does not match its checksum.
+   *
+   * @return length of the valid part of the file
+   * @throws IOException if the file cannot be read
+   */
+  private long readRecords() throws IOException {
+    channel.position(0);
+    DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Channels.newInputStream(channel)));
+    long valid = 0;
+    while (true) {
+      try {
+        int length = in.readInt();
+        int expected = in.readInt();
+        if (length < 0 || valid + RECORD_HEADER + length > channel.size()) {
+          return valid;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes);
+        if ((int) checksum.getValue() != expected) {
+          return valid;
+        }
+        records.add(new Record(bytes));
+        valid += RECORD_HEADER + length;
+      } catch (EOFException e) {
+        return valid;
+      }
+    }
+  }
+
+  /**
+   * A record of the journal, holding either a command or the encoded events a command added.
+   */
+  public static final class Record {
+
+    private final String command;
+    private final boolean failed;
+    private final byte[] events;
+
+    private Record(byte[] payload) {
+      byte kind = payload.length == 0 ? 0 : payload[0];
+      this.failed = kind == FAILED_COMMAND;
+      if (kind == EVENTS) {
+        this.command = null;
+        this.events = Arrays.copyOfRange(payload, 1, payload.length);
+      } else {
+        int from = failed ? 1 : 0;
+        this.command = new String(payload, from, payload.length - from, StandardCharsets.UTF_8);
+        this.events = null;
+      }
+    }
+
+    /**
+     * Get the recorded command.
+     *
+     * @return command string, or null if the record holds events
+     */
+    public String getCommand() {
+      return command;
+    }
+
+    /**
+     * Checks if the recorded command failed after it changed the model.
+     *
+     * @return true if the command failed, false otherwise
+     */
+    public boolean isFailed() {
+      return failed;
+    }
+
+    /**
+     * Get the recorded events.
+     *
+     * @return encoded events, or null if the record holds a command
+     */
+    public byte[] getEvents() {
+      return events;
+    }
+  }
+}
@@ -18,6 +18,7 @@ import javax.swing.JComboBox;
 import javax.swing.BoxLayout;
 import javax.swing.Box;
 
+import calendar.Calendar;
 import calendar.ICalendar;
 
 /**
@@ -34,6 +35,8 @@ public class EditCalendarDialog extends JDialog implements IDialog {
   private final JComboBox<String> selectPropertyComboBox;
   private final JTextField nameTextField;
   private final JComboBox<String> timezoneComboBox;
+  private final JComboBox<String> recurrenceComboBox;
+  private final JComboBox<String> storageComboBox;
 
   /**
    * Constructs an EditCalendarDialog object.
@@ -106,13 +109,27 @@ public class EditCalendarDialog extends JDialog implements IDialog {
     nameTextField.setPreferredSize(new Dimension(fieldSize.width, fieldSize.height));
     newValuePanel.add(nameTextField, "name");
 
+    // recurrence modes dropdown
+    recurrenceComboBox = new JComboBox<>(new String[]{Calendar.EXPANDED_RECURRENCE,
+        Calendar.RULE_RECURRENCE});
+    recurrenceComboBox.setSelectedItem(calendar.getRecurrence());
+    recurrenceComboBox.setPreferredSize(new Dimension(fieldSize.width, fieldSize.height));
+    newValuePanel.add(recurrenceComboBox, "recurrence");
+
+    // storage modes dropdown
+    storageComboBox = new JComboBox<>(new String[]{Calendar.TREE_STORAGE,
+        Calendar.COLUMNAR_STORAGE});
+    storageComboBox.setSelectedItem(calendar.getStorage());
+    storageComboBox.setPreferredSize(new Dimension(fieldSize.width, fieldSize.height));
+    newValuePanel.add(storageComboBox, "storage");
+
     constraint.gridx = 1;
     panel.add(newValuePanel, constraint);
 
     selectPropertyComboBox.addActionListener(e -> {
       String selectedProperty = (String) selectPropertyComboBox.getSelectedItem();
       CardLayout cardLayout = (CardLayout) (newValuePanel.getLayout());
-      // Show the card corresponding to the selected property ("name" or "timezone")
+      // Show the card corresponding to the selected property
       cardLayout.show(newValuePanel, selectedProperty);
     });
 
@@ -157,6 +174,10 @@ public class EditCalendarDialog extends JDialog implements IDialog {
       assert property != null;
       if (property.equals("name")) {
         newValue = nameTextField.getText();
+      } else if (property.equals("recurrence")) {
+        newValue = (String) recurrenceComboBox.getSelectedItem();
+      } else if (property.equals("storage")) {
+        newValue = (String) storageComboBox.getSelectedItem();
       } else {
         newValue = (String) timezoneComboBox.getSelectedItem();
       }
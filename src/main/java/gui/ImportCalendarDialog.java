@@ -98,7 +98,7 @@ public class ImportCalendarDialog extends JDialog implements IDialog {
   private void displayImportFileChooser() {
     JFileChooser fileChooser = new JFileChooser();
     fileChooser.setDialogTitle("Select file");
-    FileFilter filter = new FileNameExtensionFilter("CSV files", "csv");
+    FileFilter filter = new FileNameExtensionFilter("Calendar files", "csv", "ics");
     fileChooser.setFileFilter(filter);
     fileChooser.setAcceptAllFileFilterUsed(false);
 
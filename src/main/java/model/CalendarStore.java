@@ -0,0 +1,321 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import calendar.Calendar;
+import calendar.CalendarSnapshot;
+import calendar.ICalendar;
+import calendar.MappedCalendar;
+
+/**
+ * A Java class holding the calendars of a model by the name they are looked up with. A calendar is
+ * either resident, or stored on disk in the snapshot format and read back the first time it is
+ * looked up. Resident calendars are kept in least recently used order, and when their estimated
+ * size exceeds the memory budget the least recently used ones are written to disk and dropped. The
+ * size of a calendar is its own estimate plus its kept snapshot encoding, and the model evicts
+ * after every change, so a calendar that grows through added or imported events is checked too.
+ *
+ * <p>Only Calendar objects are evicted, since other calendar types would not read back as the same
+ * type, and the pinned calendar, which is the one in use, is never evicted. A calendar object that
+ * was evicted no longer belongs to the model, so calendars should be looked up again instead of
+ * being kept across commands.
+ */
+class CalendarStore {
+
+  private final Map<String, Entry> entries;
+  // resident entries, least recently used first
+  private final LinkedHashMap<String, Entry> resident;
+  private long memoryBudget;
+  private Path directory;
+  private int nextFile;
+  private ICalendar pinned;
+
+  /**
+   * Constructs an empty CalendarStore without a memory budget.
+   */
+  CalendarStore() {
+    this.entries = new HashMap<>();
+    this.resident = new LinkedHashMap<>(16, 0.75f, true);
+    this.memoryBudget = Long.MAX_VALUE;
+  }
+
+  /**
+   * Sets the estimated number of bytes the resident calendars may use, and evicts calendars until
+   * they fit.
+   *
+   * @param bytes memory budget in bytes
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  void setMemoryBudget(long bytes) throws IllegalArgumentException {
+    if (bytes < 0) {
+      throw new IllegalArgumentException("Memory budget must not be negative");
+    }
+    this.memoryBudget = bytes;
+    evict();
+  }
+
+  /**
+   * Sets the calendar that must stay resident.
+   *
+   * @param calendar ICalendar object
+   */
+  void pin(ICalendar calendar) {
+    this.pinned = calendar;
+  }
+
+  /**
+   * Checks if a calendar is stored under the given name.
+   *
+   * @param key name the calendar is looked up with
+   * @return true if a calendar exists, false otherwise
+   */
+  boolean contains(String key) {
+    return entries.containsKey(key);
+  }
+
+  /**
+   * Checks if the calendar stored under the given name is in memory.
+   *
+   * @param key name the calendar is looked up with
+   * @return true if the calendar is resident, false otherwise
+   */
+  boolean isResident(String key) {
+    return resident.containsKey(key);
+  }
+
+  /**
+   * Get the names the calendars are looked up with.
+   *
+   * @return set of names
+   */
+  Set<String> keys() {
+    return entries.keySet();
+  }
+
+  /**
+   * Adds a resident calendar.
+   *
+   * @param key      name the calendar is looked up with
+   * @param calendar ICalendar object
+   */
+  void put(String key, ICalendar calendar) {
+    Entry entry = new Entry();
+    entry.calendar = calendar;
+    entries.put(key, entry);
+    resident.put(key, entry);
+  }
+
+  /**
+   * Adds a calendar in the snapshot format, which is only read when it is looked up.
+   *
+   * @param key     name the calendar is looked up with
+   * @param encoded calendar written by CalendarSnapshot.write
+   * @throws UncheckedIOException if the calendar cannot be written to disk
+   */
+  void putEncoded(String key, byte[] encoded) throws UncheckedIOException {
+    Entry entry = new Entry();
+    store(entry, encoded);
+    entries.put(key, entry);
+  }
+
+  /**
+   * Get the calendar stored under the given name, reading it from disk if it is not resident. This
+   * does not evict other calendars, which happens on the next call to evict.
+   *
+   * @param key name the calendar is looked up with
+   * @return ICalendar object, or null if there is no such calendar
+   * @throws UncheckedIOException if the calendar cannot be read from disk
+   */
+  ICalendar get(String key) throws UncheckedIOException {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+
+    if (entry.calendar == null) {
+      try {
+        entry.calendar = CalendarSnapshot.read(
+            new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(entry.file))));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    resident.put(key, entry);
+    return entry.calendar;
+  }
+
+  /**
+   * Get the name the given resident calendar is looked up with.
+   *
+   * @param calendar ICalendar object
+   * @return name of the calendar, or null if it is not a resident calendar of the store
+   */
+  String keyOf(ICalendar calendar) {
+    for (Map.Entry<String, Entry> entry : resident.entrySet()) {
+      if (entry.getValue().calendar == calendar) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Get every calendar, reading the ones that are not resident.
+   *
+   * @return list of ICalendar objects
+   * @throws UncheckedIOException if a calendar cannot be read from disk
+   */
+  List<ICalendar> getAll() throws UncheckedIOException {
+    List<ICalendar> calendars = new ArrayList<>();
+    for (String key : entries.keySet()) {
+      calendars.add(get(key));
+    }
+    return calendars;
+  }
+
+  /**
+   * Get the calendar stored under the given name in the snapshot format, without reading it if
+   * it is not resident. The encoding of a resident calendar is kept until the calendar changes, so
+   * capturing calendars that did not change since the last capture costs nothing.
+   *
+   * @param key name the calendar is looked up with
+   * @return calendar written by CalendarSnapshot.write, which must not be modified
+   * @throws IOException if the calendar cannot be read from disk or encoded
+   */
+  byte[] getEncoded(String key) throws IOException {
+    Entry entry = entries.get(key);
+    if (entry.calendar == null) {
+      return Files.readAllBytes(entry.file);
+    }
+    if (entry.encoded == null) {
+      entry.encoded = encode(entry.calendar);
+    }
+    return entry.encoded;
+  }
+
+  /**
+   * Drops the kept encoding of the given calendar, which must be called before it is changed.
+   *
+   * @param calendar ICalendar object that is about to change
+   */
+  void changing(ICalendar calendar) {
+    for (Entry entry : resident.values()) {
+      if (entry.calendar == calendar) {
+        entry.encoded = null;
+      }
+    }
+  }
+
+  /**
+   * Writes the least recently used calendars to disk and drops them until the resident calendars
+   * fit in the memory budget.
+   *
+   * @throws UncheckedIOException if a calendar cannot be written to disk
+   */
+  void evict() throws UncheckedIOException {
+    long used = 0;
+    for (Entry entry : resident.values()) {
+      used += estimateSize(entry);
+    }
+
+    Iterator<Entry> iterator = resident.values().iterator();
+    // the most recently used calendar is kept, since its caller is still using it
+    for (int left = resident.size(); left > 1 && used > memoryBudget; left--) {
+      Entry entry = iterator.next();
+      if (entry.calendar == pinned || !(entry.calendar instanceof Calendar)) {
+        continue;
+      }
+      try {
+        store(entry, entry.encoded == null ? encode(entry.calendar) : entry.encoded);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      used -= estimateSize(entry);
+      entry.calendar = null;
+      entry.encoded = null;
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Closes the calendars that keep files open, which are the mapped calendars. Evicted calendars
+   * are Calendar objects, so only resident calendars need closing. Every calendar is closed even
+   * if closing another one fails.
+   *
+   * @throws IOException if a calendar cannot be closed
+   */
+  void close() throws IOException {
+    IOException failure = null;
+    for (Entry entry : resident.values()) {
+      if (!(entry.calendar instanceof MappedCalendar)) {
+        continue;
+      }
+      try {
+        ((MappedCalendar) entry.calendar).close();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private long estimateSize(Entry entry) {
+    long size = entry.calendar.getEstimatedBytes();
+    return entry.encoded == null ? size : size + entry.encoded.length;
+  }
+
+  private byte[] encode(ICalendar calendar) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    CalendarSnapshot.write(calendar, out);
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private void store(Entry entry, byte[] encoded) throws UncheckedIOException {
+    try {
+      if (entry.file == null) {
+        if (directory == null) {
+          directory = Files.createTempDirectory("calendars");
+          directory.toFile().deleteOnExit();
+        }
+        entry.file = directory.resolve((nextFile++) + ".calendar");
+        entry.file.toFile().deleteOnExit();
+      }
+      Files.write(entry.file, encoded);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * A calendar that is resident, stored on disk, or both when it was read back.
+   */
+  private static class Entry {
+
+    private ICalendar calendar;
+    private Path file;
+    // snapshot format of the resident calendar, kept until it changes
+    private byte[] encoded;
+  }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 
 import calendar.ICalendar;
 import calendar.IEvent;
+import calendar.IRepeatingEvent;
 
 /**
  * A Java interface representing the operations carried out by a Model in the calendar application.
@@ -66,6 +67,26 @@ public interface IModel {
    */
   void addEvents(List<IEvent> events) throws IllegalStateException, ConflictException;
 
+  /**
+   * Add events to the current calendar in bulk, skipping the ones that conflict.
+   *
+   * @param events List of IEvent objects
+   * @return events that were skipped because of a conflict
+   * @throws IllegalStateException if there is no current calendar
+   */
+  List<IEvent> addEventsSkippingConflicts(List<IEvent> events) throws IllegalStateException;
+
+  /**
+   * Add all events of a repeating event series to the current calendar.
+   *
+   * @param baseEvent base event of the series
+   * @throws IllegalStateException    if there is no current calendar
+   * @throws IllegalArgumentException if the repeat rule is invalid
+   * @throws ConflictException        if there is a conflict
+   */
+  void addSeries(IRepeatingEvent baseEvent)
+      throws IllegalStateException, IllegalArgumentException, ConflictException;
+
   /**
    * Get all events that occur on the given day.
    *
@@ -96,6 +117,15 @@ public interface IModel {
    */
   String getStatus(String dateTime);
 
+  /**
+   * Get the status at each of the given dates and times.
+   *
+   * @param dateTimes dates and times as strings, sorted in ascending order
+   * @return list of status strings in the same order as the given dates and times
+   * @throws IllegalArgumentException if the dates and times are not sorted
+   */
+  List<String> getStatuses(List<String> dateTimes) throws IllegalArgumentException;
+
   /**
    * Edits events in the calendar from the given start date that have the given subject name.
    *
@@ -174,4 +204,14 @@ public interface IModel {
    */
   void copyEventsOnDate(String start, String newCalendarStart, String target)
       throws IllegalArgumentException, ConflictException;
+
+  /**
+   * Get the number of changes made to the model so far that the command journal has to record.
+   * Changes to the events of persistent calendars are not counted, since they are already on disk.
+   * A change is counted as soon as it is made, so a command that fails after changing the model,
+   * such as a copy that skips conflicting events, still increases the count.
+   *
+   * @return number of changes
+   */
+  long getChangeCount();
 }
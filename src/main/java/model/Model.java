@@ -1,17 +1,16 @@
 package model;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.chrono.ChronoZonedDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 import calendar.Calendar;
 import calendar.ICalendar;
 import calendar.IEvent;
+import calendar.IRepeatingEvent;
 import utils.TimeUtils;
 
 /**
@@ -20,16 +19,31 @@ import utils.TimeUtils;
  */
 public class Model implements IModel {
 
-  private final Map<String, ICalendar> calendarMap;
+  private final CalendarStore calendars;
   private ICalendar current;
+  private long changes;
 
   /**
    * Constructs a model object. Creates a default calendar using the System timezone.
    */
   public Model() {
-    this.calendarMap = new HashMap<>();
+    this.calendars = new CalendarStore();
     this.current = new Calendar();
-    calendarMap.put("default", current);
+    calendars.put("default", current);
+    calendars.pin(current);
+  }
+
+  /**
+   * Constructs a model object with the given calendars, such as the calendars of a snapshot.
+   *
+   * @param calendars  calendars by the name they are looked up with
+   * @param currentKey name of the calendar in use
+   * @throws IllegalArgumentException if the calendar in use is not one of the calendars
+   */
+  Model(CalendarStore calendars, String currentKey) throws IllegalArgumentException {
+    this.calendars = calendars;
+    this.current = getCalendar(currentKey);
+    calendars.pin(current);
   }
 
   /**
@@ -53,20 +67,34 @@ public class Model implements IModel {
   public void addCalendar(ICalendar calendar) throws IllegalArgumentException {
     String name = calendar.getName();
 
-    if (calendarMap.containsKey(name)) {
+    if (calendars.contains(name)) {
       throw new IllegalArgumentException("Calendar already exists");
     }
-    this.calendarMap.put(name, calendar);
+    this.calendars.put(name, calendar);
+    changes++;
   }
 
   /**
-   * Get all existing calendars.
+   * Get all existing calendars. Calendars that are not in memory are read, and calendars over the
+   * memory budget are only evicted when the next calendar is looked up.
    *
    * @return List of ICalendar objects
    */
   @Override
   public List<ICalendar> getAllCalendars() {
-    return new ArrayList<>(this.calendarMap.values());
+    return calendars.getAll();
+  }
+
+  /**
+   * Sets the estimated number of bytes the calendars kept in memory may use. The least recently
+   * used calendars over the budget are written to disk and read again when they are next used. The
+   * calendar in use is always kept in memory.
+   *
+   * @param bytes memory budget in bytes
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  public void setMemoryBudget(long bytes) throws IllegalArgumentException {
+    calendars.setMemoryBudget(bytes);
   }
 
   /**
@@ -81,7 +109,9 @@ public class Model implements IModel {
   public void editCalendar(String name, String property, String newValue)
       throws IllegalArgumentException {
     ICalendar calendar = getCalendar(name);
+    calendars.changing(calendar);
     calendar.edit(property, newValue);
+    changes++;
   }
 
   /**
@@ -93,6 +123,8 @@ public class Model implements IModel {
   @Override
   public void useCalendar(String name) throws IllegalArgumentException {
     this.current = getCalendar(name);
+    calendars.pin(current);
+    changes++;
   }
 
   /**
@@ -104,7 +136,44 @@ public class Model implements IModel {
    */
   @Override
   public void addEvents(List<IEvent> events) throws IllegalStateException, ConflictException {
+    calendars.changing(current);
     getCurrentCalendar().addEvents(events);
+    changed(current);
+  }
+
+  /**
+   * Add events to the current calendar in bulk, skipping the ones that conflict.
+   *
+   * @param events List of IEvent objects
+   * @return events that were skipped because of a conflict
+   * @throws IllegalStateException if there is no current calendar
+   */
+  @Override
+  public List<IEvent> addEventsSkippingConflicts(List<IEvent> events)
+      throws IllegalStateException {
+    calendars.changing(current);
+    List<IEvent> skipped = getCurrentCalendar().addEventsSkippingConflicts(events);
+    if (skipped.size() < events.size()) {
+      changed(current);
+    }
+    return skipped;
+  }
+
+  /**
+   * Add all events of a repeating event series to the current calendar. The calendar decides
+   * whether the occurrences are stored as events or as a repeat rule.
+   *
+   * @param baseEvent base event of the series
+   * @throws IllegalStateException    if there is no current calendar
+   * @throws IllegalArgumentException if the repeat rule is invalid
+   * @throws ConflictException        if there is a conflict
+   */
+  @Override
+  public void addSeries(IRepeatingEvent baseEvent)
+      throws IllegalStateException, IllegalArgumentException, ConflictException {
+    calendars.changing(current);
+    getCurrentCalendar().addSeries(baseEvent);
+    changed(current);
   }
 
   /**
@@ -118,9 +187,7 @@ public class Model implements IModel {
   @Override
   public List<IEvent> getEventsOnDate(ChronoZonedDateTime<LocalDate> date)
       throws IllegalArgumentException {
-    List<IEvent> result = getEvents().stream()
-        .filter(event -> event.isOnSameDay(date))
-        .collect(Collectors.toList());
+    List<IEvent> result = getCalendarInUse().getEventsOnDate(date);
 
     if (result.isEmpty()) {
       throw new IllegalArgumentException("No events found on the given date");
@@ -144,9 +211,7 @@ public class Model implements IModel {
       throw new IllegalArgumentException("Range end date must be after range start date");
     }
 
-    List<IEvent> result = getEvents().stream()
-        .filter(event -> event.isOverlap(startDateTime, endDateTime))
-        .collect(Collectors.toList());
+    List<IEvent> result = getCalendarInUse().getEventsInRange(startDateTime, endDateTime);
 
     if (result.isEmpty()) {
       throw new IllegalArgumentException("No events found in given date range");
@@ -164,11 +229,34 @@ public class Model implements IModel {
   public String getStatus(String dateTimeString) {
     ChronoZonedDateTime<LocalDate> dateTime = TimeUtils.parseDateTimeString(dateTimeString,
         getCurrentCalendar().getTimezone());
-    List<IEvent> events = getEvents();
-    if (events.stream().anyMatch(event -> event.clashesWith(dateTime))) {
-      return Status.BUSY.getValue();
+    return getStatusValue(getCalendarInUse().isBusy(dateTime));
+  }
+
+  /**
+   * Get the status at each of the given dates and times. All dates and times are answered in a
+   * single pass over the current calendar.
+   *
+   * @param dateTimeStrings dates and times as strings, sorted in ascending order
+   * @return list of status strings in the same order as the given dates and times
+   * @throws IllegalArgumentException if the dates and times are not sorted
+   */
+  @Override
+  public List<String> getStatuses(List<String> dateTimeStrings) throws IllegalArgumentException {
+    ICalendar calendar = getCalendarInUse();
+    List<ChronoZonedDateTime<LocalDate>> dateTimes = new ArrayList<>();
+    for (String dateTimeString : dateTimeStrings) {
+      dateTimes.add(TimeUtils.parseDateTimeString(dateTimeString, calendar.getTimezone()));
     }
-    return Status.AVAILABLE.getValue();
+
+    List<String> result = new ArrayList<>();
+    for (boolean busy : calendar.isBusy(dateTimes)) {
+      result.add(getStatusValue(busy));
+    }
+    return result;
+  }
+
+  private String getStatusValue(boolean busy) {
+    return busy ? Status.BUSY.getValue() : Status.AVAILABLE.getValue();
   }
 
   /**
@@ -184,7 +272,9 @@ public class Model implements IModel {
   @Override
   public void editEventsFromStartDateTime(String property, String subject, String start,
       String newValue) throws ConflictException, IllegalArgumentException {
+    calendars.changing(current);
     getCurrentCalendar().editEventsFromStartDateTime(property, subject, start, newValue);
+    changed(current);
   }
 
   /**
@@ -201,7 +291,9 @@ public class Model implements IModel {
   @Override
   public void editSingleEvent(String property, String subject, String start, String end,
       String newValue) throws IllegalArgumentException, ConflictException {
+    calendars.changing(current);
     getCurrentCalendar().editSingleEvent(property, subject, start, end, newValue);
+    changed(current);
   }
 
   /**
@@ -216,7 +308,9 @@ public class Model implements IModel {
   @Override
   public void editEventsBySubject(String property, String subject, String newValue)
       throws ConflictException, IllegalArgumentException {
+    calendars.changing(current);
     getCurrentCalendar().editEventsBySubject(property, subject, newValue);
+    changed(current);
   }
 
   /**
@@ -244,10 +338,7 @@ public class Model implements IModel {
         TimeUtils.parseDateTimeString(newCalendarStart, current.getTimezone());
 
     // get events in current calendar and find target event
-    IEvent event = getEvents().stream()
-        .filter(e -> e.matches(subject, startDateTime))
-        .findFirst()
-        .orElse(null);
+    IEvent event = getCalendarInUse().findEvent(subject, startDateTime);
     if (event == null) {
       throw new IllegalArgumentException("Event not found");
     }
@@ -258,7 +349,9 @@ public class Model implements IModel {
         newCalendarStartDateTime);
     IEvent copy = event.copy(timeDifference, target.getTimezone());
 
+    calendars.changing(target);
     target.addEvents(List.of(copy));
+    changed(target);
   }
 
   /**
@@ -329,10 +422,12 @@ public class Model implements IModel {
         newStartDateTime);
 
     int conflicts = 0;
+    calendars.changing(target);
     for (IEvent event : events) {
       IEvent copy = event.copy(difference, target.getTimezone());
       try {
         target.addEvents(List.of(copy));
+        changed(target);
       } catch (ConflictException ignored) {
         conflicts++;
       }
@@ -344,20 +439,62 @@ public class Model implements IModel {
     }
   }
 
-  private ICalendar getCalendar(String name) throws IllegalArgumentException {
-    ICalendar calendar = calendarMap.getOrDefault(name, null);
+  @Override
+  public long getChangeCount() {
+    return changes;
+  }
+
+  /**
+   * Closes the calendars of the model that keep files open, such as archive calendars, forcing
+   * their changes to disk. The model cannot be used afterwards.
+   *
+   * @throws IOException if a calendar cannot be closed
+   */
+  public void close() throws IOException {
+    calendars.close();
+  }
+
+  private void changed(ICalendar calendar) {
+    if (!calendar.isPersistent()) {
+      changes++;
+    }
+    // the calendar may have grown over the memory budget
+    calendars.evict();
+  }
+
+  /**
+   * Get the calendars by the name they are looked up with, which is the name they had when they
+   * were added.
+   *
+   * @return CalendarStore object
+   */
+  CalendarStore getCalendars() {
+    return calendars;
+  }
+
+  /**
+   * Get the calendar with the given name, reading it if it is not in memory. Other calendars over
+   * the memory budget are evicted, but not the returned one.
+   *
+   * @param name name the calendar is looked up with
+   * @return ICalendar object
+   * @throws IllegalArgumentException if there is no calendar with the name
+   */
+  ICalendar getCalendar(String name) throws IllegalArgumentException {
+    ICalendar calendar = calendars.get(name);
 
     if (calendar == null) {
       throw new IllegalArgumentException("Calendar not found");
     }
+    calendars.evict();
     return calendar;
   }
 
-  private List<IEvent> getEvents() throws IllegalStateException {
+  private ICalendar getCalendarInUse() throws IllegalStateException {
     if (this.current == null) {
       throw new IllegalStateException("No calendar in use");
     }
-    return this.current.getEvents();
+    return this.current;
   }
 }
 
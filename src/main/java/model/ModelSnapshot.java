@@ -0,0 +1,178 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+import calendar.CalendarSnapshot;
+
+/**
+ * A Java class representing a binary snapshot of the whole model: every calendar with its time
+ * zone, settings, events and series, and the calendar in use. The snapshot also stores how many
+ * commands of the command journal it covers, so that only the commands after it are replayed.
+ *
+ * <p>A snapshot is captured into memory on the thread that changes the model, which only costs
+ * the encoding. Writing it to disk can then happen in the background while the model keeps
+ * changing. Files are written next to their target and moved into place once complete, so a
+ * crash never leaves a partial snapshot behind, and a checksum guards against corruption.
+ */
+public class ModelSnapshot {
+
+  private static final int MAGIC = 0x43414c53;
+  private static final int VERSION = 2;
+
+  private final byte[] data;
+  private final long journalPosition;
+
+  private ModelSnapshot(byte[] data, long journalPosition) {
+    this.data = data;
+    this.journalPosition = journalPosition;
+  }
+
+  /**
+   * Captures a snapshot of the given model.
+   *
+   * @param model           model to capture
+   * @param journalPosition number of journaled commands whose changes are part of the model
+   * @return ModelSnapshot object
+   * @throws IOException if the model cannot be encoded
+   */
+  public static ModelSnapshot capture(Model model, long journalPosition) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeLong(journalPosition);
+
+    // calendars that are not in memory are copied without reading them
+    CalendarStore calendars = model.getCalendars();
+    String currentKey = calendars.keyOf(model.getCurrentCalendar());
+    out.writeUTF(currentKey == null ? "" : currentKey);
+    out.writeInt(calendars.keys().size());
+    for (String key : calendars.keys()) {
+      byte[] encoded = calendars.getEncoded(key);
+      out.writeUTF(key);
+      out.writeInt(encoded.length);
+      out.write(encoded);
+    }
+
+    CRC32 checksum = new CRC32();
+    checksum.update(bytes.toByteArray());
+    out.writeLong(checksum.getValue());
+    out.flush();
+    return new ModelSnapshot(bytes.toByteArray(), journalPosition);
+  }
+
+  /**
+   * Reads the snapshot stored in the given file.
+   *
+   * @param path snapshot file path
+   * @return ModelSnapshot object
+   * @throws IOException if the file cannot be read or is not a valid snapshot
+   */
+  public static ModelSnapshot read(Path path) throws IOException {
+    byte[] data = Files.readAllBytes(path);
+    if (data.length < 2 * Integer.BYTES + 2 * Long.BYTES) {
+      throw new IOException("Invalid snapshot: " + path);
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(data);
+    CRC32 checksum = new CRC32();
+    checksum.update(data, 0, data.length - Long.BYTES);
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION
+        || buffer.getLong(data.length - Long.BYTES) != checksum.getValue()) {
+      throw new IOException("Invalid snapshot: " + path);
+    }
+    return new ModelSnapshot(data, buffer.getLong(2 * Integer.BYTES));
+  }
+
+  /**
+   * Get the number of journaled commands whose changes are part of the snapshot.
+   *
+   * @return number of commands
+   */
+  public long getJournalPosition() {
+    return journalPosition;
+  }
+
+  /**
+   * Creates a model with the calendars of the snapshot. Only the calendar in use is read, the
+   * others are written to disk as they are and read the first time they are used.
+   *
+   * @return Model object
+   * @throws IOException if the snapshot is not valid, or if the calendars cannot be written to disk
+   */
+  public Model load() throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    in.skipBytes(2 * Integer.BYTES + Long.BYTES);
+
+    String currentKey = in.readUTF();
+    int count = in.readInt();
+    CalendarStore calendars = new CalendarStore();
+    try {
+      for (int i = 0; i < count; i++) {
+        String key = in.readUTF();
+        byte[] encoded = new byte[in.readInt()];
+        in.readFully(encoded);
+        if (key.equals(currentKey)) {
+          calendars.put(key, CalendarSnapshot.read(
+              new DataInputStream(new ByteArrayInputStream(encoded))));
+        } else {
+          calendars.putEncoded(key, encoded);
+        }
+      }
+      return new Model(calendars, currentKey);
+    } catch (IllegalArgumentException | NegativeArraySizeException e) {
+      throw new IOException("Invalid snapshot", e);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Writes the snapshot to the given file, replacing it once the snapshot is on disk.
+   *
+   * @param path snapshot file path
+   * @throws IOException if the file cannot be written
+   */
+  public void write(Path path) throws IOException {
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.wrap(data);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Writes the snapshot to the given file on a background thread.
+   *
+   * @param path snapshot file path
+   * @return CompletableFuture that completes once the snapshot is on disk
+   */
+  public CompletableFuture<Void> writeInBackground(Path path) {
+    return CompletableFuture.runAsync(() -> {
+      try {
+        write(path);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+}
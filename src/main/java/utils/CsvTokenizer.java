@@ -0,0 +1,245 @@
+package utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A Java class splitting CSV text into records and fields as described in RFC 4180. Fields are
+ * separated by commas and records by line breaks, and a field in double quotes may hold commas,
+ * line breaks and quotes, which are written twice. Unquoted fields are taken as they are.
+ *
+ * <p>The tokenizer works on a range of a buffer of UTF-8 bytes, which may be a mapped file, and
+ * does not copy it. Separators, quotes and line breaks are single bytes in UTF-8 that never occur
+ * inside another character, so records are found without decoding. A field is only known by its
+ * position, which is reused for every record, and is decoded only when it is asked for as a
+ * string. The buffer is read with absolute gets, so several tokenizers may share it.
+ */
+class CsvTokenizer {
+
+  private static final byte QUOTE = '"';
+  private static final byte SEPARATOR = ',';
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
+  private final ByteBuffer text;
+  private final int end;
+  private int position;
+
+  // bounds of the fields of the current record, without their quotes
+  private int[] starts;
+  private int[] ends;
+  private boolean[] escaped;
+  private int fieldCount;
+  // bytes of the field being decoded
+  private byte[] scratch;
+
+  /**
+   * Constructs a CsvTokenizer for the given range of the text.
+   *
+   * @param text  UTF-8 bytes holding CSV records
+   * @param start index of the first byte of the range
+   * @param end   index after the last byte of the range
+   */
+  CsvTokenizer(ByteBuffer text, int start, int end) {
+    this.text = text;
+    this.position = start;
+    this.end = end;
+    this.starts = new int[16];
+    this.ends = new int[16];
+    this.escaped = new boolean[16];
+    this.scratch = new byte[64];
+  }
+
+  /**
+   * Finds the end of the last complete record in the given range, which is the index after its
+   * line break. Line breaks inside quoted fields do not end a record.
+   *
+   * @param text  UTF-8 bytes holding CSV records
+   * @param start index of the first byte of the range, which must start a record
+   * @param end   index after the last byte of the range
+   * @return index after the last line break that ends a record, or start if there is none
+   */
+  static int findLastRecordEnd(ByteBuffer text, int start, int end) {
+    int recordEnd = start;
+    boolean quoted = false;
+    boolean fieldStart = true;
+    for (int i = start; i < end; i++) {
+      byte c = text.get(i);
+      if (quoted) {
+        if (c == QUOTE) {
+          if (i + 1 < end && text.get(i + 1) == QUOTE) {
+            i++;
+          } else {
+            quoted = false;
+          }
+        }
+        continue;
+      }
+
+      if (c == QUOTE && fieldStart) {
+        quoted = true;
+      } else if (c == LF) {
+        recordEnd = i + 1;
+      }
+      fieldStart = c == SEPARATOR || c == LF || c == CR;
+    }
+    return recordEnd;
+  }
+
+  /**
+   * Moves to the next record of the range. A line break at the end of the range does not start
+   * another record.
+   *
+   * @return true if there is a record, false at the end of the range
+   */
+  boolean nextRecord() {
+    if (position >= end) {
+      return false;
+    }
+
+    fieldCount = 0;
+    while (!readField()) {
+      // read the fields up to the end of the record
+    }
+    return true;
+  }
+
+  /**
+   * Get the number of fields of the current record.
+   *
+   * @return number of fields
+   */
+  int getFieldCount() {
+    return fieldCount;
+  }
+
+  /**
+   * Get the length of a field of the current record in bytes, counting escaped quotes twice.
+   *
+   * @param field index of the field
+   * @return number of bytes
+   */
+  int length(int field) {
+    return ends[field] - starts[field];
+  }
+
+  /**
+   * Get a byte of a field of the current record. Only meant for fields without quotes.
+   *
+   * @param field index of the field
+   * @param index index of the byte in the field
+   * @return byte, which is the character itself for ASCII characters
+   */
+  byte byteAt(int field, int index) {
+    return text.get(starts[field] + index);
+  }
+
+  /**
+   * Checks if a field of the current record is equal to the given value, without decoding it.
+   *
+   * @param field index of the field
+   * @param value ASCII value to compare with
+   * @return true if the field holds the value, false otherwise
+   */
+  boolean fieldEquals(int field, String value) {
+    if (escaped[field]) {
+      return getString(field).equals(value);
+    }
+    int length = length(field);
+    if (length != value.length()) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (text.get(starts[field] + i) != value.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Get a field of the current record as a string, with escaped quotes unescaped.
+   *
+   * @param field index of the field
+   * @return value of the field
+   */
+  String getString(int field) {
+    if (scratch.length < length(field)) {
+      scratch = new byte[Math.max(length(field), scratch.length * 2)];
+    }
+
+    int length = 0;
+    for (int i = starts[field]; i < ends[field]; i++) {
+      byte b = text.get(i);
+      scratch[length++] = b;
+      if (b == QUOTE && escaped[field]) {
+        // skip the second quote of the pair
+        i++;
+      }
+    }
+    return new String(scratch, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads the field at the current position and moves past the separator or line break after it.
+   *
+   * @return true if the field ended the record, false if another field follows
+   */
+  private boolean readField() {
+    if (fieldCount == starts.length) {
+      grow();
+    }
+
+    int field = fieldCount++;
+    escaped[field] = false;
+    if (position < end && text.get(position) == QUOTE) {
+      starts[field] = ++position;
+      while (position < end) {
+        if (text.get(position) == QUOTE) {
+          if (position + 1 < end && text.get(position + 1) == QUOTE) {
+            escaped[field] = true;
+            position += 2;
+            continue;
+          }
+          break;
+        }
+        position++;
+      }
+      ends[field] = position;
+      // skip the closing quote, characters after it are not valid CSV and are ignored
+      position++;
+      skipToFieldEnd();
+    } else {
+      starts[field] = position;
+      skipToFieldEnd();
+      ends[field] = position;
+    }
+
+    if (position >= end) {
+      return true;
+    }
+    byte c = text.get(position++);
+    if (c == CR && position < end && text.get(position) == LF) {
+      position++;
+    }
+    return c != SEPARATOR;
+  }
+
+  private void skipToFieldEnd() {
+    while (position < end) {
+      byte c = text.get(position);
+      if (c == SEPARATOR || c == LF || c == CR) {
+        return;
+      }
+      position++;
+    }
+  }
+
+  private void grow() {
+    int size = starts.length * 2;
+    starts = Arrays.copyOf(starts, size);
+    ends = Arrays.copyOf(ends, size);
+    escaped = Arrays.copyOf(escaped, size);
+  }
+}
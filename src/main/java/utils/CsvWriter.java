@@ -0,0 +1,190 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.chrono.ChronoLocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A Java class writing CSV records as described in RFC 4180 into a buffer that is passed to the
+ * underlying writer when it is full. Fields holding commas, line breaks or quotes are written in
+ * quotes, with quotes written twice, so they are read back by CsvTokenizer as they were.
+ *
+ * <p>Dates and times are written digit by digit into the buffer in the MM/dd/yyyy and hh:mm a
+ * shapes the import expects, so no string or formatter is created for them.
+ */
+class CsvWriter implements Closeable {
+
+  private static final char QUOTE = '"';
+  private static final char SEPARATOR = ',';
+  private static final int BUFFER_CHARS = 1 << 16;
+  // writes the years that do not have four digits in the current era
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+  private final Writer writer;
+  private final char[] buffer;
+  private int position;
+  private boolean fieldStart;
+
+  /**
+   * Constructs a CsvWriter that writes to the given writer.
+   *
+   * @param writer writer the records are written to
+   */
+  CsvWriter(Writer writer) {
+    this.writer = writer;
+    this.buffer = new char[BUFFER_CHARS];
+    this.fieldStart = true;
+  }
+
+  /**
+   * Writes a field, in quotes if it holds a comma, a line break or a quote. A null field is
+   * written as an empty one.
+   *
+   * @param value value of the field
+   * @throws IOException if the buffer cannot be written
+   */
+  void writeField(String value) throws IOException {
+    startField();
+    if (value == null) {
+      return;
+    }
+
+    int length = value.length();
+    boolean quoted = false;
+    for (int i = 0; i < length && !quoted; i++) {
+      char c = value.charAt(i);
+      quoted = c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r';
+    }
+    if (!quoted) {
+      write(value);
+      return;
+    }
+
+    write(QUOTE);
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c == QUOTE) {
+        write(QUOTE);
+      }
+      write(c);
+    }
+    write(QUOTE);
+  }
+
+  /**
+   * Writes a field holding the date of the given date time as MM/dd/yyyy.
+   *
+   * @param dateTime date time to write
+   * @throws IOException if the buffer cannot be written
+   */
+  void writeDate(ChronoLocalDateTime<LocalDate> dateTime) throws IOException {
+    LocalDate date = dateTime.toLocalDate();
+    int year = date.getYear();
+    if (year < 1 || year > 9999) {
+      writeField(date.format(DATE_FORMATTER));
+      return;
+    }
+
+    startField();
+    writeDigits(date.getMonthValue(), 2);
+    write('/');
+    writeDigits(date.getDayOfMonth(), 2);
+    write('/');
+    writeDigits(year, 4);
+  }
+
+  /**
+   * Writes a field holding the time of the given date time as hh:mm AM or hh:mm PM.
+   *
+   * @param dateTime date time to write
+   * @throws IOException if the buffer cannot be written
+   */
+  void writeTime(ChronoLocalDateTime<LocalDate> dateTime) throws IOException {
+    startField();
+    LocalTime time = dateTime.toLocalTime();
+    int hour = time.getHour();
+    writeDigits(hour % 12 == 0 ? 12 : hour % 12, 2);
+    write(':');
+    writeDigits(time.getMinute(), 2);
+    write(' ');
+    write(hour < 12 ? 'A' : 'P');
+    write('M');
+  }
+
+  /**
+   * Ends the current record with a line break.
+   *
+   * @throws IOException if the buffer cannot be written
+   */
+  void endRecord() throws IOException {
+    write('\n');
+    fieldStart = true;
+  }
+
+  /**
+   * Passes the buffered characters to the underlying writer and flushes it.
+   *
+   * @throws IOException if the buffer cannot be written
+   */
+  void flush() throws IOException {
+    writer.write(buffer, 0, position);
+    position = 0;
+    writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      writer.close();
+    }
+  }
+
+  private void startField() throws IOException {
+    if (!fieldStart) {
+      write(SEPARATOR);
+    }
+    fieldStart = false;
+  }
+
+  private void writeDigits(int value, int digits) throws IOException {
+    if (position + digits > buffer.length) {
+      drain();
+    }
+    for (int i = position + digits - 1; i >= position; i--) {
+      buffer[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+    position += digits;
+  }
+
+  private void write(String value) throws IOException {
+    int length = value.length();
+    if (position + length > buffer.length) {
+      drain();
+      if (length > buffer.length) {
+        writer.write(value);
+        return;
+      }
+    }
+    value.getChars(0, length, buffer, position);
+    position += length;
+  }
+
+  private void write(char c) throws IOException {
+    if (position == buffer.length) {
+      drain();
+    }
+    buffer[position++] = c;
+  }
+
+  private void drain() throws IOException {
+    writer.write(buffer, 0, position);
+    position = 0;
+  }
+}
@@ -0,0 +1,560 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import calendar.Event;
+import calendar.IEvent;
+import calendar.RepeatingEvent;
+import calendar.StringDictionary;
+
+/**
+ * A Java class reading the events of an iCalendar file as described in RFC 5545, one VEVENT at a
+ * time. A VEVENT with an RRULE is returned as the base event of a repeating series, which is not
+ * expanded, so a long series is read as a single event and its occurrences are created only when
+ * the calendar needs them.
+ *
+ * <p>Rules repeating daily or weekly on some days, with INTERVAL 1 and either COUNT or UNTIL, are
+ * supported, which covers every series this app creates. Dates excluded by EXDATE split a series
+ * into runs, the same way IcsWriter writes a series with removed occurrences. An event with a
+ * RECURRENCE-ID is read as an event of its own, and the occurrence it replaces is excluded from
+ * its series, which needs the replaced occurrences to be read from the file first. Times with a
+ * TZID are read in that time zone, and times in UTC, floating times and times with an unknown TZID
+ * are read in the zone of the calendar. Components other than VEVENT, and properties the app has
+ * no field for, are skipped, while RDATE is rejected since its events would be lost.
+ */
+class IcsReader implements Closeable {
+
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final Map<String, DayOfWeek> DAYS = new HashMap<>();
+
+  static {
+    String[] codes = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+    for (DayOfWeek day : DayOfWeek.values()) {
+      DAYS.put(codes[day.ordinal()], day);
+    }
+  }
+
+  private final BufferedReader reader;
+  private final ZoneId zone;
+  private final StringDictionary strings;
+  private final Deque<IEvent> ready;
+  // dates of the occurrences replaced by other events, by the UID of their series
+  private final Map<String, Set<LocalDate>> replaced;
+  private String nextLine;
+
+  /**
+   * Constructs an IcsReader.
+   *
+   * @param reader  reader of the calendar file
+   * @param zone    time zone of the calendar the events are read into
+   * @param strings dictionary of the calendar the events are read into
+   */
+  IcsReader(BufferedReader reader, ZoneId zone, StringDictionary strings) {
+    this.reader = reader;
+    this.zone = zone;
+    this.strings = strings;
+    this.ready = new ArrayDeque<>();
+    this.replaced = new HashMap<>();
+  }
+
+  /**
+   * Reads the occurrences replaced by events with a RECURRENCE-ID from a second reader of the same
+   * file, which it closes. It is called before the first event is read, so a series leaves out the
+   * occurrences replaced anywhere in the file. Only the lines of the properties involved are
+   * parsed.
+   *
+   * @param file second reader of the calendar file
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if a replacing event has no UID or replaces a range
+   */
+  void readReplacedOccurrences(BufferedReader file) throws IOException, IllegalArgumentException {
+    try (IcsReader scan = new IcsReader(file, zone, strings)) {
+      // depth of nested components in a VEVENT, or -1 outside of one
+      int depth = -1;
+      String uid = null;
+      Property recurrenceId = null;
+      for (String line = scan.readLine(); line != null; line = scan.readLine()) {
+        if (!startsWith(line, "BEGIN") && !startsWith(line, "END")
+            && (depth != 0 || !startsWith(line, "UID") && !startsWith(line, "RECURRENCE-ID"))) {
+          continue;
+        }
+        Property property = Property.parse(line);
+        if (depth < 0) {
+          if (line.equalsIgnoreCase("BEGIN:VEVENT")) {
+            depth = 0;
+            uid = null;
+            recurrenceId = null;
+          }
+        } else if (property.name.equals("BEGIN")) {
+          depth++;
+        } else if (property.name.equals("END")) {
+          if (depth-- == 0 && recurrenceId != null) {
+            addReplaced(uid, recurrenceId);
+          }
+        } else if (property.name.equals("UID")) {
+          uid = property.value;
+        } else if (property.name.equals("RECURRENCE-ID")) {
+          recurrenceId = property;
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the next event. An event with a repeat rule is returned as an IRepeatingEvent that is
+   * the base event of its series.
+   *
+   * @return IEvent object, or null at the end of the file
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if an event is invalid or its repeat rule is not supported
+   */
+  IEvent next() throws IOException, IllegalArgumentException {
+    while (ready.isEmpty()) {
+      String line = readLine();
+      if (line == null) {
+        return null;
+      }
+      if (line.equalsIgnoreCase("BEGIN:VEVENT")) {
+        readEvent();
+      }
+    }
+    return ready.poll();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private void addReplaced(String uid, Property recurrenceId) {
+    if (uid == null) {
+      throw new IllegalArgumentException("Missing UID of an event with a RECURRENCE-ID");
+    }
+    if (recurrenceId.parameters.containsKey("RANGE")) {
+      throw new IllegalArgumentException("Unsupported RECURRENCE-ID range: "
+          + recurrenceId.parameters.get("RANGE"));
+    }
+    replaced.computeIfAbsent(uid, key -> new HashSet<>())
+        .add(parseDateTime(recurrenceId).toLocalDate());
+  }
+
+  private void readEvent() throws IOException {
+    Map<String, Property> properties = new HashMap<>();
+    List<Property> exclusions = new ArrayList<>();
+    int depth = 0;
+    for (String line = readLine(); ; line = readLine()) {
+      if (line == null) {
+        throw new IllegalArgumentException("Missing END:VEVENT");
+      }
+      Property property = Property.parse(line);
+      if (property.name.equals("BEGIN")) {
+        // alarms and other components nested in the event
+        depth++;
+      } else if (property.name.equals("END")) {
+        if (depth-- == 0) {
+          break;
+        }
+      } else if (depth == 0 && property.name.equals("EXDATE")) {
+        exclusions.add(property);
+      } else if (depth == 0) {
+        properties.put(property.name, property);
+      }
+    }
+    if (properties.containsKey("RDATE")) {
+      throw new IllegalArgumentException("Unsupported RDATE: " + properties.get("RDATE").value);
+    }
+
+    Property start = properties.get("DTSTART");
+    if (start == null) {
+      throw new IllegalArgumentException("Missing DTSTART");
+    }
+    boolean isAllDay = start.isDate();
+    ChronoZonedDateTime<LocalDate> startDateTime = parseDateTime(start);
+    ChronoZonedDateTime<LocalDate> endDateTime;
+    if (properties.containsKey("DTEND")) {
+      endDateTime = parseDateTime(properties.get("DTEND"));
+    } else if (properties.containsKey("DURATION")) {
+      endDateTime = startDateTime.plus(parseDuration(properties.get("DURATION").value));
+    } else {
+      // an all day event without an end lasts one day, other events end when they start
+      endDateTime = isAllDay ? startDateTime.plus(Period.ofDays(1)) : startDateTime;
+    }
+
+    String subject = text(properties.get("SUMMARY"));
+    String description = text(properties.get("DESCRIPTION"));
+    String location = text(properties.get("LOCATION"));
+    Property privacy = properties.get("CLASS");
+    boolean isPrivate = privacy != null && !privacy.value.equalsIgnoreCase("PUBLIC");
+
+    IEvent base = new Event.EventBuilder()
+        .subject(subject)
+        .startDateTime(startDateTime)
+        .endDateTime(endDateTime)
+        .isAllDay(isAllDay)
+        .description(description)
+        .location(location)
+        .isPrivate(isPrivate)
+        .build();
+    Property rule = properties.get("RRULE");
+    if (rule != null && properties.containsKey("RECURRENCE-ID")) {
+      throw new IllegalArgumentException("Unsupported recurrence rule of a replacing event: "
+          + rule.value);
+    }
+    if (rule == null) {
+      // an event with a RECURRENCE-ID is left out of its series, so it is an event of its own
+      ready.add(base);
+      return;
+    }
+
+    SortedSet<LocalDate> excluded = new TreeSet<>();
+    for (Property exclusion : exclusions) {
+      for (String value : exclusion.value.split(",")) {
+        excluded.add(parseDateTime(
+            new Property(exclusion.name, exclusion.parameters, value)).toLocalDate());
+      }
+    }
+    Property uid = properties.get("UID");
+    if (uid != null) {
+      excluded.addAll(replaced.getOrDefault(uid.value, Set.of()));
+    }
+    readRule(rule.value, base, excluded);
+  }
+
+  /**
+   * Adds the series of the given repeat rule. The first event of an iCalendar series is always its
+   * DTSTART, while a series of this app starts on the first repeat day, so a DTSTART that is not a
+   * repeat day is added as an event of its own. Excluded dates are left out of the series.
+   */
+  private void readRule(String rule, IEvent base, SortedSet<LocalDate> excluded) {
+    Map<String, String> parts = new HashMap<>();
+    for (String part : rule.split(";")) {
+      int equals = part.indexOf('=');
+      if (equals < 0) {
+        throw new IllegalArgumentException("Invalid recurrence rule: " + rule);
+      }
+      parts.put(part.substring(0, equals).toUpperCase(), part.substring(equals + 1));
+    }
+
+    String frequency = parts.remove("FREQ");
+    String interval = parts.remove("INTERVAL");
+    String byDay = parts.remove("BYDAY");
+    String count = parts.remove("COUNT");
+    String until = parts.remove("UNTIL");
+    parts.remove("WKST");
+    boolean daily = "DAILY".equalsIgnoreCase(frequency);
+    if (!parts.isEmpty() || (interval != null && !interval.equals("1"))
+        || !(daily || "WEEKLY".equalsIgnoreCase(frequency)) || (daily && byDay != null)) {
+      throw new IllegalArgumentException("Unsupported recurrence rule: " + rule);
+    }
+    if ((count == null) == (until == null)) {
+      throw new IllegalArgumentException("Recurrence rules need either COUNT or UNTIL: " + rule);
+    }
+
+    ChronoZonedDateTime<LocalDate> start = base.getStartDateTime();
+    ChronoZonedDateTime<LocalDate> end = base.getEndDateTime();
+    Set<DayOfWeek> days = daily ? EnumSet.allOf(DayOfWeek.class) : EnumSet.noneOf(DayOfWeek.class);
+    if (!daily && byDay == null) {
+      days.add(start.toLocalDate().getDayOfWeek());
+    } else if (!daily) {
+      for (String code : byDay.split(",")) {
+        DayOfWeek day = DAYS.get(code.toUpperCase());
+        if (day == null) {
+          throw new IllegalArgumentException("Unsupported recurrence rule: " + rule);
+        }
+        days.add(day);
+      }
+    }
+
+    LocalDate untilDate = until == null ? null : parseUntil(until, start);
+    long occurrences;
+    try {
+      occurrences = count == null ? Long.MAX_VALUE : Long.parseLong(count);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid recurrence rule: " + rule);
+    }
+    if (occurrences < 1 || (untilDate != null && untilDate.isBefore(start.toLocalDate()))) {
+      throw new IllegalArgumentException("Recurrence rule has no events: " + rule);
+    }
+
+    if (!days.contains(start.toLocalDate().getDayOfWeek())) {
+      if (!excluded.contains(start.toLocalDate())) {
+        ready.add(base);
+      }
+      // the series continues from the first repeat day after DTSTART
+      int offset = 1;
+      while (!days.contains(start.toLocalDate().plusDays(offset).getDayOfWeek())) {
+        offset++;
+      }
+      start = start.plus(Period.ofDays(offset));
+      end = end.plus(Period.ofDays(offset));
+      occurrences--;
+      if (occurrences == 0 || (untilDate != null && untilDate.isBefore(start.toLocalDate()))) {
+        return;
+      }
+    }
+    addRuns(base, start, end, days, occurrences, untilDate, excluded);
+  }
+
+  /**
+   * Adds the series from the given start as runs between its excluded dates. As in RFC 5545,
+   * excluded occurrences still count towards COUNT.
+   */
+  private void addRuns(IEvent base, ChronoZonedDateTime<LocalDate> start,
+      ChronoZonedDateTime<LocalDate> end, Set<DayOfWeek> days, long occurrences,
+      LocalDate untilDate, SortedSet<LocalDate> excluded) {
+    LocalDate from = start.toLocalDate();
+    for (LocalDate date : excluded.tailSet(from)) {
+      if (untilDate != null && date.isAfter(untilDate)) {
+        break;
+      }
+      if (!days.contains(date.getDayOfWeek())) {
+        continue;
+      }
+      long before = countRepeatDays(from, date, days);
+      if (before >= occurrences) {
+        break;
+      }
+      if (before > 0) {
+        addRun(base, start, end, days, before, null);
+      }
+
+      // the next run starts on the first repeat day after the excluded one
+      LocalDate next = date.plusDays(1);
+      while (!days.contains(next.getDayOfWeek())) {
+        next = next.plusDays(1);
+      }
+      Period shift = Period.ofDays((int) ChronoUnit.DAYS.between(from, next));
+      start = start.plus(shift);
+      end = end.plus(shift);
+      occurrences -= before + 1;
+      from = next;
+      if (occurrences == 0 || (untilDate != null && untilDate.isBefore(from))) {
+        return;
+      }
+    }
+    addRun(base, start, end, days, occurrences, untilDate);
+  }
+
+  private void addRun(IEvent base, ChronoZonedDateTime<LocalDate> start,
+      ChronoZonedDateTime<LocalDate> end, Set<DayOfWeek> days, long occurrences,
+      LocalDate untilDate) {
+    if (occurrences == 1) {
+      // a repeat number of zero would mean no repeat rule at all
+      ready.add(new Event.EventBuilder()
+          .subject(base.getSubject())
+          .startDateTime(start)
+          .endDateTime(end)
+          .isAllDay(base.isAllDay())
+          .description(base.getDescription())
+          .location(base.getLocation())
+          .isPrivate(base.isPrivate())
+          .build());
+      return;
+    }
+
+    RepeatingEvent.RepeatingEventBuilder builder = new RepeatingEvent.RepeatingEventBuilder()
+        .subject(base.getSubject())
+        .startDateTime(start)
+        .endDateTime(end)
+        .isAllDay(base.isAllDay())
+        .description(base.getDescription())
+        .location(base.getLocation())
+        .isPrivate(base.isPrivate())
+        .repeatDays(days);
+    if (untilDate != null) {
+      builder.repeatEndDateTime(untilDate.atStartOfDay(start.getZone()));
+    } else {
+      // the base event is repeated N more times
+      builder.repeatNumber((int) Math.min(occurrences - 1, Integer.MAX_VALUE));
+    }
+    ready.add(builder.build());
+  }
+
+  private static long countRepeatDays(LocalDate from, LocalDate to, Set<DayOfWeek> days) {
+    long weeks = ChronoUnit.DAYS.between(from, to) / 7;
+    long count = weeks * days.size();
+    for (LocalDate day = from.plusWeeks(weeks); day.isBefore(to); day = day.plusDays(1)) {
+      if (days.contains(day.getDayOfWeek())) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static boolean startsWith(String line, String name) {
+    return line.regionMatches(true, 0, name, 0, name.length());
+  }
+
+  private LocalDate parseUntil(String until, ChronoZonedDateTime<LocalDate> startDateTime) {
+    if (until.length() == 8) {
+      return LocalDate.parse(until, DATE_FORMATTER);
+    }
+    ChronoZonedDateTime<LocalDate> untilDateTime = until.endsWith("Z")
+        ? LocalDateTime.parse(until.substring(0, until.length() - 1), DATE_TIME_FORMATTER)
+            .atZone(ZoneOffset.UTC).withZoneSameInstant(startDateTime.getZone())
+        : LocalDateTime.parse(until, DATE_TIME_FORMATTER).atZone(startDateTime.getZone());
+    // the last day only has an event if it starts before the end of the rule
+    LocalDate untilDate = untilDateTime.toLocalDate();
+    return untilDateTime.toLocalTime().isBefore(startDateTime.toLocalTime())
+        ? untilDate.minusDays(1) : untilDate;
+  }
+
+  private ChronoZonedDateTime<LocalDate> parseDateTime(Property property) {
+    String value = property.value;
+    try {
+      if (property.isDate()) {
+        return LocalDate.parse(value, DATE_FORMATTER).atStartOfDay(zone);
+      }
+      if (value.endsWith("Z")) {
+        return LocalDateTime.parse(value.substring(0, value.length() - 1), DATE_TIME_FORMATTER)
+            .atZone(ZoneOffset.UTC).withZoneSameInstant(zone);
+      }
+      LocalDateTime dateTime = LocalDateTime.parse(value, DATE_TIME_FORMATTER);
+      String timezone = property.parameters.get("TZID");
+      if (timezone != null) {
+        try {
+          return dateTime.atZone(ZoneId.of(timezone)).withZoneSameInstant(zone);
+        } catch (DateTimeException e) {
+          // an id of a VTIMEZONE component that is not a region id
+        }
+      }
+      return dateTime.atZone(zone);
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Invalid date time: " + value);
+    }
+  }
+
+  private static Duration parseDuration(String value) {
+    try {
+      // Duration does not know weeks, which only occur on their own
+      return value.contains("W") ? Duration.ofDays(Period.parse(value).getDays())
+          : Duration.parse(value);
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Invalid duration: " + value);
+    }
+  }
+
+  private String text(Property property) {
+    if (property == null) {
+      return strings.intern("");
+    }
+    String value = property.value;
+    if (value.indexOf('\\') < 0) {
+      return strings.intern(value);
+    }
+
+    StringBuilder text = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        c = value.charAt(++i);
+        text.append(c == 'n' || c == 'N' ? '\n' : c);
+      } else {
+        text.append(c);
+      }
+    }
+    return strings.intern(text.toString());
+  }
+
+  /**
+   * Reads the next content line, joining the lines it was folded into.
+   */
+  private String readLine() throws IOException {
+    String line = nextLine != null ? nextLine : reader.readLine();
+    nextLine = null;
+    while (line != null && line.isEmpty()) {
+      line = reader.readLine();
+    }
+    if (line == null) {
+      return null;
+    }
+
+    StringBuilder unfolded = null;
+    for (String next = reader.readLine(); ; next = reader.readLine()) {
+      if (next != null && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+        if (unfolded == null) {
+          unfolded = new StringBuilder(line);
+        }
+        unfolded.append(next, 1, next.length());
+      } else {
+        nextLine = next;
+        break;
+      }
+    }
+    return unfolded == null ? line : unfolded.toString();
+  }
+
+  /**
+   * A content line split into its name, parameters and value.
+   */
+  private static class Property {
+
+    private final String name;
+    private final Map<String, String> parameters;
+    private final String value;
+
+    private Property(String name, Map<String, String> parameters, String value) {
+      this.name = name;
+      this.parameters = parameters;
+      this.value = value;
+    }
+
+    private static Property parse(String line) {
+      // the value starts after the first colon outside a quoted parameter value
+      int colon = -1;
+      boolean quoted = false;
+      for (int i = 0; i < line.length() && colon < 0; i++) {
+        char c = line.charAt(i);
+        if (c == '"') {
+          quoted = !quoted;
+        } else if (c == ':' && !quoted) {
+          colon = i;
+        }
+      }
+      if (colon < 0) {
+        throw new IllegalArgumentException("Invalid content line: " + line);
+      }
+
+      String[] head = line.substring(0, colon).split(";");
+      Map<String, String> parameters = new HashMap<>();
+      for (int i = 1; i < head.length; i++) {
+        int equals = head[i].indexOf('=');
+        if (equals > 0) {
+          parameters.put(head[i].substring(0, equals).toUpperCase(),
+              head[i].substring(equals + 1).replace("\"", ""));
+        }
+      }
+      return new Property(head[0].toUpperCase(), parameters, line.substring(colon + 1));
+    }
+
+    private boolean isDate() {
+      return "DATE".equalsIgnoreCase(parameters.get("VALUE")) || value.length() == 8;
+    }
+  }
+}
@@ -0,0 +1,292 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import calendar.IEvent;
+import calendar.IRepeatingEvent;
+
+/**
+ * A Java class writing events as an iCalendar file as described in RFC 5545. Events are written
+ * while they are passed in, and the occurrences of a repeating series are written as a single
+ * VEVENT with an RRULE instead of one VEVENT each.
+ *
+ * <p>Occurrences are collected into runs of the same series that fall on consecutive repeat days
+ * and share all other properties. A run is exactly what its first occurrence and an RRULE with
+ * the run's repeat days and length create, so a series that had single occurrences edited or
+ * removed is written as several runs and still reads back the same. Events must be passed in by
+ * start date, as ICalendar.getAllEvents returns them, so a run that cannot continue is written as
+ * soon as a later day is reached and only the runs of the current days are held. Events in any
+ * other order are still written correctly, only in more runs.
+ *
+ * <p>Times are written in the time zone of the event with a TZID parameter holding its region id.
+ * No VTIMEZONE components are written, region ids are understood by common calendar apps.
+ */
+class IcsWriter implements Closeable {
+
+  private static final int MAX_LINE_BYTES = 75;
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+  private final Writer writer;
+  private final String timestamp;
+  private final Map<List<Object>, Run> runs;
+  // runs by the next day they could continue on, runs that were extended since are skipped
+  private final PriorityQueue<Pending> pending;
+  private long nextUid;
+
+  /**
+   * Constructs an IcsWriter and writes the start of the calendar.
+   *
+   * @param writer writer the calendar is written to
+   * @throws IOException if the calendar cannot be written
+   */
+  IcsWriter(Writer writer) throws IOException {
+    this.writer = writer;
+    this.timestamp = ZonedDateTime.now(ZoneOffset.UTC).format(DATE_TIME_FORMATTER) + "Z";
+    this.runs = new HashMap<>();
+    this.pending = new PriorityQueue<>((a, b) -> a.next.compareTo(b.next));
+    writeLine("BEGIN:VCALENDAR");
+    writeLine("VERSION:2.0");
+    writeLine("PRODID:-//Calendar App//Calendar//EN");
+    writeLine("CALSCALE:GREGORIAN");
+  }
+
+  /**
+   * Writes an event, or adds it to the run of its series if it is an occurrence of one.
+   *
+   * @param event event to write
+   * @throws IOException if the calendar cannot be written
+   */
+  void write(IEvent event) throws IOException {
+    LocalDate date = event.getStartDateTime().toLocalDate();
+    // events are sorted by instant, so a run is only closed once a day has passed in every zone
+    while (!pending.isEmpty() && pending.peek().next.isBefore(date.minusDays(1))) {
+      Pending entry = pending.poll();
+      if (runs.get(entry.run.key) == entry.run && entry.run.next.equals(entry.next)) {
+        runs.remove(entry.run.key);
+        writeRun(entry.run);
+      }
+    }
+
+    if (!event.isRepeating()) {
+      writeEvent(event, null);
+      return;
+    }
+    IRepeatingEvent occurrence = (IRepeatingEvent) event;
+    Set<DayOfWeek> days = occurrence.getRepeatDays();
+    if (days == null || !days.contains(date.getDayOfWeek())) {
+      writeEvent(event, null);
+      return;
+    }
+
+    List<Object> key = keyOf(occurrence);
+    Run run = runs.get(key);
+    if (run != null && run.next.equals(date)) {
+      run.count++;
+    } else {
+      if (run != null) {
+        writeRun(run);
+      }
+      run = new Run(key, occurrence);
+      runs.put(key, run);
+    }
+    run.next = nextRepeatDay(date, days);
+    pending.add(new Pending(run.next, run));
+  }
+
+  /**
+   * Writes the runs that are still open and the end of the calendar, and closes the writer.
+   *
+   * @throws IOException if the calendar cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      Run[] open = runs.values().toArray(new Run[0]);
+      Arrays.sort(open, (a, b) -> a.first.compareTo(b.first));
+      for (Run run : open) {
+        writeRun(run);
+      }
+      runs.clear();
+      writeLine("END:VCALENDAR");
+    } finally {
+      writer.close();
+    }
+  }
+
+  private List<Object> keyOf(IRepeatingEvent event) {
+    ChronoZonedDateTime<LocalDate> start = event.getStartDateTime();
+    return Arrays.asList(event.getSeriesId(), event.getSubject(), event.getDescription(),
+        event.getLocation(), event.isPrivate(), event.isAllDay(), event.getRepeatDays(),
+        event.getRepeatNumber(), event.getRepeatEndDateTime(), start.getZone(),
+        start.toLocalTime(), Duration.between(start, event.getEndDateTime()));
+  }
+
+  private static LocalDate nextRepeatDay(LocalDate date, Set<DayOfWeek> days) {
+    LocalDate next = date.plusDays(1);
+    while (!days.contains(next.getDayOfWeek())) {
+      next = next.plusDays(1);
+    }
+    return next;
+  }
+
+  private void writeRun(Run run) throws IOException {
+    if (run.count == 1) {
+      writeEvent(run.first, null);
+      return;
+    }
+
+    StringBuilder rule = new StringBuilder("RRULE:FREQ=");
+    Set<DayOfWeek> days = run.first.getRepeatDays();
+    if (days.size() == DAY_CODES.length) {
+      rule.append("DAILY");
+    } else {
+      rule.append("WEEKLY;BYDAY=");
+      String separator = "";
+      for (DayOfWeek day : DayOfWeek.values()) {
+        if (days.contains(day)) {
+          rule.append(separator).append(DAY_CODES[day.ordinal()]);
+          separator = ",";
+        }
+      }
+    }
+
+    ChronoZonedDateTime<LocalDate> repeatEnd = run.first.getRepeatEndDateTime();
+    LocalDate repeatEndDate = repeatEnd.withZoneSameInstant(run.first.getStartDateTime()
+        .getZone()).toLocalDate();
+    if (run.first.getRepeatNumber() == 0 && run.next.isAfter(repeatEndDate)) {
+      // the run ends with the repeat end date of the series
+      rule.append(";UNTIL=");
+      if (run.first.isAllDay()) {
+        rule.append(repeatEndDate.format(DATE_FORMATTER));
+      } else {
+        // occurrences start any time on the last day, so the whole day is included
+        ZoneId zone = run.first.getStartDateTime().getZone();
+        rule.append(repeatEndDate.plusDays(1).atStartOfDay(zone).minusSeconds(1)
+            .withZoneSameInstant(ZoneOffset.UTC).format(DATE_TIME_FORMATTER)).append('Z');
+      }
+    } else {
+      rule.append(";COUNT=").append(run.count);
+    }
+    writeEvent(run.first, rule.toString());
+  }
+
+  private void writeEvent(IEvent event, String rule) throws IOException {
+    writeLine("BEGIN:VEVENT");
+    writeLine("UID:" + (rule == null ? "event-" : "series-") + (nextUid++) + "@calendar-app");
+    writeLine("DTSTAMP:" + timestamp);
+    writeText("SUMMARY", event.getSubject());
+    ChronoZonedDateTime<LocalDate> start = event.getStartDateTime();
+    ChronoZonedDateTime<LocalDate> end = event.getEndDateTime();
+    if (event.isAllDay()) {
+      LocalDate endDate = end.toLocalDate();
+      if (!TimeUtils.isMidnight(end, end.getZone()) || !endDate.isAfter(start.toLocalDate())) {
+        // the end date of an all day event is the day after its last day
+        endDate = endDate.plusDays(1);
+      }
+      writeLine("DTSTART;VALUE=DATE:" + start.toLocalDate().format(DATE_FORMATTER));
+      writeLine("DTEND;VALUE=DATE:" + endDate.format(DATE_FORMATTER));
+    } else {
+      writeLine("DTSTART;TZID=" + start.getZone().getId() + ":"
+          + start.toLocalDateTime().format(DATE_TIME_FORMATTER));
+      writeLine("DTEND;TZID=" + end.getZone().getId() + ":"
+          + end.toLocalDateTime().format(DATE_TIME_FORMATTER));
+    }
+    if (rule != null) {
+      writeLine(rule);
+    }
+    if (event.getDescription() != null && !event.getDescription().isEmpty()) {
+      writeText("DESCRIPTION", event.getDescription());
+    }
+    if (event.getLocation() != null && !event.getLocation().isEmpty()) {
+      writeText("LOCATION", event.getLocation());
+    }
+    if (event.isPrivate()) {
+      writeLine("CLASS:PRIVATE");
+    }
+    writeLine("END:VEVENT");
+  }
+
+  private void writeText(String name, String value) throws IOException {
+    StringBuilder line = new StringBuilder(name).append(':');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' || c == ';' || c == ',') {
+        line.append('\\').append(c);
+      } else if (c == '\n') {
+        line.append("\\n");
+      } else if (c != '\r') {
+        line.append(c);
+      }
+    }
+    writeLine(line.toString());
+  }
+
+  /**
+   * Writes a content line, folded into lines of at most 75 bytes that continue with a space.
+   */
+  private void writeLine(String line) throws IOException {
+    int bytes = 0;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      // UTF-8 size of the character, a surrogate pair takes four bytes
+      int size = c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+      if (bytes + size > MAX_LINE_BYTES && !Character.isLowSurrogate(c)) {
+        writer.write("\r\n ");
+        bytes = 1;
+      }
+      writer.write(c);
+      bytes += size;
+    }
+    writer.write("\r\n");
+  }
+
+  /**
+   * Occurrences of a series on consecutive repeat days.
+   */
+  private static class Run {
+
+    private final List<Object> key;
+    private final IRepeatingEvent first;
+    private LocalDate next;
+    private int count;
+
+    private Run(List<Object> key, IRepeatingEvent first) {
+      this.key = key;
+      this.first = first;
+      this.count = 1;
+    }
+  }
+
+  /**
+   * A run and the day it could continue on when it was queued.
+   */
+  private static class Pending {
+
+    private final LocalDate next;
+    private final Run run;
+
+    private Pending(LocalDate next, Run run) {
+      this.next = next;
+      this.run = run;
+    }
+  }
+}
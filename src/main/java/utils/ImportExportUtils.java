@@ -1,28 +1,40 @@
 package utils;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.chrono.ChronoLocalDateTime;
 import java.time.chrono.ChronoZonedDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.Scanner;
-
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.io.Writer;
-import java.nio.charset.StandardCharsets;
-
-import view.EventFormatter;
-import view.IFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import calendar.Event;
 import calendar.IEvent;
+import calendar.StringDictionary;
 
 /**
  * A Java class containing util methods for importing and exporting data.
@@ -31,29 +43,156 @@ public class ImportExportUtils {
 
   private static final String[] HEADERS = {"subject", "startDate", "startTime", "endDate",
       "endTime", "allDayEvent", "description", "location", "private"};
+  private static final String DATE_TIME_PATTERN = "MM/dd/yyyy'T'hh:mm a";
+  // bytes parsed per batch, per slice of a batch that is parsed on its own, and mapped at a time
+  private static final int CHUNK_BYTES = 1 << 20;
+  private static final int SLICE_BYTES = 1 << 16;
+  private static final long MAP_BYTES = 1 << 28;
+  // events of a month formatted as one partition of an export at most
+  private static final int PARTITION_EVENTS = 1 << 14;
 
   /**
-   * Exports the calendar as a csv file that can be imported to Google Calendar app.
+   * Exports the calendar as a csv file that can be imported to Google Calendar app. The events are
+   * cut into partitions of consecutive events starting in the same month, which are formatted on
+   * the common fork-join pool and written to the file in order, so the file is the same as if the
+   * events were written one by one. Only a few partitions are held at a time. Events are read on
+   * the pool threads, which IEvent allows while the calendar is not changed during the export.
    *
    * @param filename the desired name of the output CSV file (without extension)
    * @return the filepath of the generated csv file
    * @throws IOException if an error occurs when writing the CSV file
    */
-  public static String exportCalendar(String filename, List<IEvent> events) throws IOException {
+  public static String exportCalendar(String filename, Iterable<IEvent> events) throws IOException {
     String filepath = getPath(filename);
+    // with a single processor, handing partitions to another thread only adds overhead
+    boolean parallel = Runtime.getRuntime().availableProcessors() > 1;
+    int inFlight = Math.max(2, 2 * ForkJoinPool.getCommonPoolParallelism());
 
-    Writer writer = new FileWriter(filepath);
-    writer.append(String.join(",", HEADERS)).append("\n");
+    try (OutputStream out = Files.newOutputStream(Path.of(filepath))) {
+      Deque<CompletableFuture<byte[]>> formatting = new ArrayDeque<>();
+      formatting.add(CompletableFuture.completedFuture(formatPartition(HEADERS, List.of())));
+      List<IEvent> partition = new ArrayList<>();
+      int month = 0;
+      for (IEvent event : events) {
+        LocalDate date = event.getStartDateTime().toLocalDate();
+        int eventMonth = date.getYear() * 12 + date.getMonthValue();
+        if (!partition.isEmpty() && (eventMonth != month || partition.size() == PARTITION_EVENTS)) {
+          List<IEvent> rows = partition;
+          formatting.add(parallel
+              ? CompletableFuture.supplyAsync(() -> formatPartition(null, rows),
+                  ForkJoinPool.commonPool())
+              : CompletableFuture.completedFuture(formatPartition(null, rows)));
+          partition = new ArrayList<>();
+          while (formatting.size() > inFlight) {
+            out.write(formatting.remove().join());
+          }
+        }
+        month = eventMonth;
+        partition.add(event);
+      }
+      if (!partition.isEmpty()) {
+        formatting.add(CompletableFuture.completedFuture(formatPartition(null, partition)));
+      }
+      while (!formatting.isEmpty()) {
+        out.write(formatting.remove().join());
+      }
+    } catch (CompletionException e) {
+      throw new IOException(e.getCause());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return filepath;
+  }
 
-    IFormatter<IEvent> formatter = new EventFormatter();
-    for (IEvent event : events) {
-      writer.append(formatter.formatCsv(event)).append("\n");
+  /**
+   * Formats the given header, if any, and events as CSV records in UTF-8.
+   */
+  private static byte[] formatPartition(String[] headers, List<IEvent> events)
+      throws UncheckedIOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(events.size() * 96 + 128);
+    try (CsvWriter writer = new CsvWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+      if (headers != null) {
+        for (String header : headers) {
+          writer.writeField(header);
+        }
+        writer.endRecord();
+      }
+      for (IEvent event : events) {
+        writeEvent(writer, event);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
+    return bytes.toByteArray();
+  }
 
-    writer.close();
+  /**
+   * Exports the events as an iCalendar (.ics) file. The occurrences of a repeating series are
+   * written as a single event with a repeat rule, and the events are written while they are
+   * iterated, so the events should be sorted by start date time.
+   *
+   * @param filename the desired name of the output ics file
+   * @param events   events to export
+   * @return the filepath of the generated ics file
+   * @throws IOException if an error occurs when writing the file
+   */
+  public static String exportIcsCalendar(String filename, Iterable<IEvent> events)
+      throws IOException {
+    String filepath = getPath(filename);
+
+    try (IcsWriter writer = new IcsWriter(Files.newBufferedWriter(Path.of(filepath)))) {
+      for (IEvent event : events) {
+        writer.write(event);
+      }
+    }
     return filepath;
   }
 
+  /**
+   * Reads the events of an iCalendar (.ics) file one by one and passes each to the given consumer.
+   * An event with a repeat rule is passed as an IRepeatingEvent that is the base event of its
+   * series, without creating its occurrences, so it can be added with addSeries.
+   *
+   * @param filePath import filepath
+   * @param zone     time zone of the calendar the events are imported to
+   * @param strings  dictionary of the calendar the events are imported to
+   * @param events   consumer called with each event in file order
+   * @return number of events and series imported
+   * @throws IOException if an error occurs when reading or parsing the file
+   */
+  public static long importIcsCalendar(String filePath, ZoneId zone, StringDictionary strings,
+      Consumer<IEvent> events) throws IOException {
+    try (IcsReader reader = new IcsReader(new BufferedReader(new InputStreamReader(
+        new FileInputStream(filePath), StandardCharsets.UTF_8)), zone, strings)) {
+      // a first pass finds the occurrences replaced by other events, so their series leave them out
+      reader.readReplacedOccurrences(new BufferedReader(new InputStreamReader(
+          new FileInputStream(filePath), StandardCharsets.UTF_8)));
+      long count = 0;
+      for (IEvent event = reader.next(); event != null; event = reader.next()) {
+        events.accept(event);
+        count++;
+      }
+      return count;
+    } catch (IllegalArgumentException | DateTimeException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static void writeEvent(CsvWriter writer, IEvent event) throws IOException {
+    ChronoLocalDateTime<LocalDate> start = event.getStartDateTime().toLocalDateTime();
+    ChronoLocalDateTime<LocalDate> end = event.getEndDateTime().toLocalDateTime();
+    writer.writeField(event.getSubject());
+    writer.writeDate(start);
+    writer.writeTime(start);
+    writer.writeDate(end);
+    writer.writeTime(end);
+    writer.writeField(event.isAllDay() ? "True" : "False");
+    writer.writeField(event.getDescription());
+    writer.writeField(event.getLocation());
+    writer.writeField(event.isPrivate() ? "True" : "False");
+    writer.endRecord();
+  }
+
   /**
    * Parses the given file and creates an IEvent object for each row. Returns a list of all events
    *
@@ -63,60 +202,208 @@ public class ImportExportUtils {
    * @throws IOException if an error occurs when reading the file
    */
   public static List<IEvent> importCalendar(String filePath, ZoneId zone) throws IOException {
-    Reader reader = getFileReader(filePath);
-    try (Scanner scanner = new Scanner(reader)) {
-      if (scanner.hasNextLine()) {
-        // skip header row
-        scanner.nextLine();
-      }
+    return importCalendar(filePath, zone, new StringDictionary(false));
+  }
 
-      List<IEvent> events = new ArrayList<>();
-      while (scanner.hasNextLine()) {
-        IEvent event = buildEvent(scanner.nextLine(), zone);
-        events.add(event);
-      }
+  /**
+   * Parses the given file and creates an IEvent object for each row. Equal subjects, descriptions
+   * and locations are shared through the given dictionary while the rows are read, so duplicates
+   * are never kept. Returns a list of all events
+   *
+   * @param filePath import filepath
+   * @param zone     current timezone
+   * @param strings  dictionary of the calendar the events are imported to
+   * @return List of IEvents
+   * @throws IOException if an error occurs when reading the file
+   */
+  public static List<IEvent> importCalendar(String filePath, ZoneId zone,
+      StringDictionary strings) throws IOException {
+    List<IEvent> events = new ArrayList<>();
+    importCalendar(filePath, zone, strings, false, events::addAll);
+    return events;
+  }
+
+  /**
+   * Parses the given file in batches of rows and passes each batch to the given consumer, sorted
+   * by start and end date time. While the consumer handles a batch, the next one is already read
+   * and parsed on the common fork-join pool, with the rows of a batch parsed in parallel. At most
+   * two batches are held at a time, so files of any size can be imported in bounded memory. The
+   * file is memory-mapped in large windows and read as UTF-8 bytes, and only the text fields are
+   * decoded.
+   *
+   * @param filePath import filepath
+   * @param zone     current timezone
+   * @param strings  dictionary of the calendar the events are imported to
+   * @param batches  consumer called with each batch in file order, on the calling thread
+   * @return number of rows imported
+   * @throws IOException if an error occurs when reading or parsing the file
+   */
+  public static long importCalendar(String filePath, ZoneId zone, StringDictionary strings,
+      Consumer<List<IEvent>> batches) throws IOException {
+    return importCalendar(filePath, zone, strings, true, batches);
+  }
+
+  private static long importCalendar(String filePath, ZoneId zone, StringDictionary strings,
+      boolean sorted, Consumer<List<IEvent>> batches) throws IOException {
+    try (FileChannel channel = new FileInputStream(filePath).getChannel()) {
+      long size = channel.size();
+      long rows = 0;
+      CompletableFuture<List<IEvent>> parsing = null;
+      ByteBuffer window = null;
+      long windowStart = 0;
+      long position = 0;
+      int chunkBytes = CHUNK_BYTES;
+      while (position < size) {
+        long chunkEnd = Math.min(position + chunkBytes, size);
+        if (window == null || chunkEnd > windowStart + window.capacity()) {
+          windowStart = position;
+          window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+              Math.min(Math.max(MAP_BYTES, chunkBytes), size - position));
+        }
 
-      return events;
+        // only whole records are parsed, the rest is left for the next chunk
+        int start = (int) (position - windowStart);
+        int end = (int) (chunkEnd - windowStart);
+        int recordEnd = chunkEnd == size ? end : CsvTokenizer.findLastRecordEnd(window, start, end);
+        if (recordEnd == start) {
+          // a single record is longer than the chunk
+          chunkBytes *= 2;
+          continue;
+        }
+
+        ByteBuffer text = window;
+        boolean skipHeader = position == 0;
+        CompletableFuture<List<IEvent>> next = CompletableFuture.supplyAsync(
+            () -> parseChunk(text, start, recordEnd, skipHeader, zone, strings, sorted),
+            ForkJoinPool.commonPool());
+        position = windowStart + recordEnd;
+        chunkBytes = CHUNK_BYTES;
+
+        if (parsing != null) {
+          rows += deliver(parsing, batches);
+        }
+        parsing = next;
+      }
+      if (parsing != null) {
+        rows += deliver(parsing, batches);
+      }
+      return rows;
+    } catch (CompletionException e) {
+      throw new IOException(e.getCause());
+    } catch (IOException e) {
+      throw e;
     } catch (Exception e) {
       throw new IOException(e);
     }
   }
 
-  private static IEvent buildEvent(String row, ZoneId zone) {
-    String pattern = "MM/dd/yyyy'T'hh:mm a";
-    String[] parts = row.split(",");
+  private static int deliver(CompletableFuture<List<IEvent>> parsing,
+      Consumer<List<IEvent>> batches) {
+    List<IEvent> events = parsing.join();
+    batches.accept(events);
+    return events.size();
+  }
 
-    String subject = parts[0];
+  /**
+   * Parses the records of a chunk. The chunk is cut into slices at record ends, which are parsed
+   * in parallel with a tokenizer each.
+   */
+  private static List<IEvent> parseChunk(ByteBuffer text, int chunkStart, int end,
+      boolean skipHeader, ZoneId zone, StringDictionary strings, boolean sorted) {
+    List<int[]> slices = new ArrayList<>();
+    for (int start = chunkStart; start < end; ) {
+      int sliceEnd = CsvTokenizer.findLastRecordEnd(text, start, Math.min(start + SLICE_BYTES,
+          end));
+      if (sliceEnd == start || end - sliceEnd < SLICE_BYTES / 2) {
+        // the slice holds no whole record, or the rest is too small to be worth its own slice
+        sliceEnd = end;
+      }
+      slices.add(new int[]{start, sliceEnd});
+      start = sliceEnd;
+    }
 
-    String startDate = parts[1];
-    String startTime = parts[2];
-    ChronoZonedDateTime<LocalDate> startDateTime = TimeUtils.parseDateTimeStringWithPattern(
-        String.format("%sT%s", startDate, startTime), zone, pattern);
+    List<IEvent> events = IntStream.range(0, slices.size()).parallel()
+        .mapToObj(i -> parseSlice(text, slices.get(i), skipHeader && i == 0, zone, strings))
+        .flatMap(List::stream)
+        .collect(Collectors.toCollection(ArrayList::new));
+    if (sorted) {
+      Collections.sort(events);
+    }
+    return events;
+  }
 
-    String endDate = parts[3];
-    String endTime = parts[4];
-    ChronoZonedDateTime<LocalDate> endDateTime = TimeUtils.parseDateTimeStringWithPattern(
-        String.format("%sT%s", endDate, endTime), zone, pattern);
+  private static List<IEvent> parseSlice(ByteBuffer text, int[] slice, boolean skipHeader,
+      ZoneId zone, StringDictionary strings) {
+    CsvTokenizer row = new CsvTokenizer(text, slice[0], slice[1]);
+    if (skipHeader) {
+      row.nextRecord();
+    }
 
-    boolean isAllDay = parts[5].equals("True");
-    String description = parts[6];
-    String location = parts[7];
-    boolean isPrivate = parts[8].equals("True");
+    List<IEvent> events = new ArrayList<>();
+    while (row.nextRecord()) {
+      events.add(buildEvent(row, zone, strings));
+    }
+    return events;
+  }
+
+  private static IEvent buildEvent(CsvTokenizer row, ZoneId zone, StringDictionary strings) {
+    if (row.getFieldCount() < HEADERS.length) {
+      throw new IllegalArgumentException("Expected " + HEADERS.length + " fields in a row, found "
+          + row.getFieldCount());
+    }
 
     return new Event.EventBuilder()
-        .subject(subject)
-        .startDateTime(startDateTime)
-        .endDateTime(endDateTime)
-        .isAllDay(isAllDay)
-        .description(description)
-        .location(location)
-        .isPrivate(isPrivate)
+        .subject(strings.intern(row.getString(0)))
+        .startDateTime(parseDateTime(row, 1, 2, zone))
+        .endDateTime(parseDateTime(row, 3, 4, zone))
+        .isAllDay(row.fieldEquals(5, "True"))
+        .description(strings.intern(row.getString(6)))
+        .location(strings.intern(row.getString(7)))
+        .isPrivate(row.fieldEquals(8, "True"))
         .build();
   }
 
-  private static Reader getFileReader(String filepath) throws IOException {
-    InputStream inputStream = new FileInputStream(filepath);
-    return new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+  /**
+   * Parses a date field in the MM/dd/yyyy format and a time field in the hh:mm a format, as
+   * written by exportCalendar, reading the digits from the fields without decoding them. Values in
+   * any other shape go through the date time formatter.
+   */
+  private static ChronoZonedDateTime<LocalDate> parseDateTime(CsvTokenizer row, int dateField,
+      int timeField, ZoneId zone) {
+    if (row.length(dateField) == 10 && row.length(timeField) == 8
+        && row.byteAt(dateField, 2) == '/' && row.byteAt(dateField, 5) == '/'
+        && row.byteAt(timeField, 2) == ':' && row.byteAt(timeField, 5) == ' '
+        && row.byteAt(timeField, 7) == 'M') {
+      int month = digits(row, dateField, 0, 2);
+      int day = digits(row, dateField, 3, 2);
+      int year = digits(row, dateField, 6, 4);
+      int hour = digits(row, timeField, 0, 2);
+      int minute = digits(row, timeField, 3, 2);
+      byte meridiem = row.byteAt(timeField, 6);
+      if (month >= 0 && day >= 0 && year >= 0 && hour >= 1 && hour <= 12 && minute >= 0
+          && (meridiem == 'A' || meridiem == 'P')) {
+        hour = hour % 12 + (meridiem == 'P' ? 12 : 0);
+        try {
+          return LocalDateTime.of(year, month, day, hour, minute).atZone(zone);
+        } catch (DateTimeException e) {
+          // let the formatter decide, it may resolve the value differently
+        }
+      }
+    }
+    return TimeUtils.parseDateTimeStringWithPattern(
+        row.getString(dateField) + "T" + row.getString(timeField), zone, DATE_TIME_PATTERN);
+  }
+
+  private static int digits(CsvTokenizer row, int field, int from, int count) {
+    int value = 0;
+    for (int i = from; i < from + count; i++) {
+      byte c = row.byteAt(field, i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
   }
 
   private static String getPath(String filepath) {
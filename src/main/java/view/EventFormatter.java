@@ -9,17 +9,18 @@ import calendar.IEvent;
  */
 public class EventFormatter implements IFormatter<IEvent> {
 
+  // formatters are immutable, so they are shared instead of being created for every event
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+  private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("hh:mm a");
+
   @Override
   public String formatCsv(IEvent event) {
-    DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
-    DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
-
     return String.join(",",
         event.getSubject(),
-        event.getStartDateTime().format(dateFormatter),
-        event.getStartDateTime().format(timeFormatter),
-        event.getEndDateTime().format(dateFormatter),
-        event.getEndDateTime().format(timeFormatter),
+        event.getStartDateTime().format(DATE_FORMATTER),
+        event.getStartDateTime().format(TIME_FORMATTER),
+        event.getEndDateTime().format(DATE_FORMATTER),
+        event.getEndDateTime().format(TIME_FORMATTER),
         event.isAllDay() ? "True" : "False",
         event.getDescription() != null ? event.getDescription() : "",
         event.getLocation() != null ? event.getLocation() : "",
@@ -0,0 +1,92 @@
+package benchmark;
+
+import java.time.LocalDate;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import calendar.Calendar;
+import calendar.Event;
+import calendar.ICalendar;
+import calendar.IEvent;
+import model.ConflictException;
+import utils.TimeUtils;
+
+/**
+ * A Java class for measuring how the cost of adding an event to a Calendar changes as the calendar
+ * grows. This is not a unit test, run it with the main method. Calendar sizes can be passed as
+ * arguments, the default sizes go from 1k to 1M events.
+ */
+public class CalendarInsertBenchmark {
+
+  private static final int INSERTS = 1000;
+
+  /**
+   * Runs the benchmark and prints the average cost per insert for each calendar size.
+   *
+   * @param args optional calendar sizes
+   */
+  public static void main(String[] args) {
+    int[] sizes = {1_000, 10_000, 100_000, 1_000_000};
+    if (args.length > 0) {
+      sizes = new int[args.length];
+      for (int i = 0; i < args.length; i++) {
+        sizes[i] = Integer.parseInt(args[i]);
+      }
+    }
+
+    // warm up the JIT before measuring
+    run(sizes[0]);
+
+    System.out.println("events,insertMicros,conflictMicros");
+    for (int size : sizes) {
+      run(size);
+    }
+  }
+
+  private static void run(int size) {
+    ICalendar calendar = new Calendar("benchmark", "America/New_York");
+    ChronoZonedDateTime<LocalDate> start =
+        TimeUtils.parseDateTimeString("2000-01-01T09:00", calendar.getTimezone());
+
+    calendar.addEvents(createEvents(start, 0, size));
+
+    // time adding events one by one, the way commands add them
+    List<IEvent> newEvents = createEvents(start, size, INSERTS);
+    long insertStart = System.nanoTime();
+    for (IEvent event : newEvents) {
+      calendar.addEvents(List.of(event));
+    }
+    long insertTime = System.nanoTime() - insertStart;
+
+    // time rejecting events that conflict with existing events in the middle of the calendar
+    List<IEvent> conflicts = createEvents(start.plus(30, ChronoUnit.MINUTES), size / 2, INSERTS);
+    long conflictStart = System.nanoTime();
+    for (IEvent event : conflicts) {
+      try {
+        calendar.addEvents(List.of(event));
+      } catch (ConflictException ignored) {
+        // expected
+      }
+    }
+    long conflictTime = System.nanoTime() - conflictStart;
+
+    System.out.printf("%d,%.2f,%.2f%n", size, insertTime / 1000.0 / INSERTS,
+        conflictTime / 1000.0 / INSERTS);
+  }
+
+  private static List<IEvent> createEvents(ChronoZonedDateTime<LocalDate> start, int offset,
+      int count) {
+    List<IEvent> events = new ArrayList<>(count);
+    for (int i = offset; i < offset + count; i++) {
+      ChronoZonedDateTime<LocalDate> eventStart = start.plus(i, ChronoUnit.HOURS);
+      events.add(new Event.EventBuilder()
+          .subject("event " + i)
+          .startDateTime(eventStart)
+          .endDateTime(eventStart.plus(45, ChronoUnit.MINUTES))
+          .build());
+    }
+    return events;
+  }
+}
@@ -0,0 +1,72 @@
+package benchmark;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import calendar.Event;
+import calendar.IEvent;
+import utils.ImportExportUtils;
+import utils.TimeUtils;
+import view.EventFormatter;
+import view.IFormatter;
+
+/**
+ * A Java class comparing the CSV export with writing every row formatted by EventFormatter through
+ * an unbuffered FileWriter, which is how events were exported before. This is not a unit test, run
+ * it with the main method. The number of events can be passed as an argument, the default is 1M.
+ */
+public class CsvExportBenchmark {
+
+  private static final int ROUNDS = 3;
+
+  /**
+   * Runs the benchmark and prints the time of both ways of exporting for every round.
+   *
+   * @param args optional number of events
+   * @throws IOException if a file cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    ChronoZonedDateTime<LocalDate> start = TimeUtils.parseDateTimeString("2000-01-01T09:00",
+        ZoneId.of("America/New_York"));
+    List<IEvent> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      ChronoZonedDateTime<LocalDate> eventStart = start.plus(i, ChronoUnit.HOURS);
+      events.add(new Event.EventBuilder()
+          .subject("event " + i % 100)
+          .startDateTime(eventStart)
+          .endDateTime(eventStart.plus(45, ChronoUnit.MINUTES))
+          .description("weekly, with notes")
+          .location("room " + i % 10)
+          .build());
+    }
+
+    Path path = Files.createTempFile("benchmark", ".csv");
+    path.toFile().deleteOnExit();
+    System.out.println("round,formatterMs,writerMs,sizeMb");
+    for (int round = 1; round <= ROUNDS; round++) {
+      long begin = System.nanoTime();
+      IFormatter<IEvent> formatter = new EventFormatter();
+      try (Writer writer = new FileWriter(path.toFile())) {
+        for (IEvent event : events) {
+          writer.append(formatter.formatCsv(event)).append("\n");
+        }
+      }
+      long formatterTime = System.nanoTime();
+      ImportExportUtils.exportCalendar(path.toString(), events);
+      long writerTime = System.nanoTime();
+
+      System.out.printf("%d,%d,%d,%d%n", round, (formatterTime - begin) / 1_000_000,
+          (writerTime - formatterTime) / 1_000_000, Files.size(path) >> 20);
+    }
+  }
+}
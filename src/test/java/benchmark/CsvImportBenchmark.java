@@ -0,0 +1,99 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.chrono.ChronoZonedDateTime;
+
+import calendar.Event;
+import calendar.IEvent;
+import calendar.StringDictionary;
+import utils.ImportExportUtils;
+import utils.TimeUtils;
+
+/**
+ * A Java class comparing the CSV import with parsing every row by splitting it at commas and
+ * formatting its dates into a string for the date time parser, which is how rows were read before
+ * the tokenizer. This is not a unit test, run it with the main method. The number of rows can be
+ * passed as an argument, the default is 1M.
+ */
+public class CsvImportBenchmark {
+
+  private static final int ROUNDS = 3;
+  private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+  /**
+   * Runs the benchmark and prints the time of both ways of parsing for every round.
+   *
+   * @param args optional number of rows
+   * @throws IOException if the file cannot be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    Path path = Files.createTempFile("benchmark", ".csv");
+    path.toFile().deleteOnExit();
+    try (Writer writer = Files.newBufferedWriter(path)) {
+      writer.write("subject,startDate,startTime,endDate,endTime,allDayEvent,description,"
+          + "location,private\n");
+      for (int i = 0; i < count; i++) {
+        int month = 1 + i % 12;
+        int day = 1 + i % 28;
+        int hour = 1 + i % 12;
+        writer.write(String.format("event %d,%02d/%02d/2025,%02d:00 AM,%02d/%02d/2025,%02d:30 PM,"
+            + "False,\"weekly, with notes\",room %d,False%n",
+            i % 100, month, day, hour, month, day, hour, i % 10));
+      }
+    }
+
+    System.out.println("round,splitMs,tokenizerMs");
+    for (int round = 1; round <= ROUNDS; round++) {
+      long begin = System.nanoTime();
+      long split = importBySplitting(path);
+      long splitTime = System.nanoTime();
+      long[] tokenized = new long[1];
+      ImportExportUtils.importCalendar(path.toString(), ZONE, new StringDictionary(false),
+          batch -> tokenized[0] += batch.size());
+      long tokenizerTime = System.nanoTime();
+
+      if (split != count || tokenized[0] != count) {
+        throw new IllegalStateException("The wrong number of rows was imported");
+      }
+      System.out.printf("%d,%d,%d%n", round, (splitTime - begin) / 1_000_000,
+          (tokenizerTime - splitTime) / 1_000_000);
+    }
+  }
+
+  private static long importBySplitting(Path path) throws IOException {
+    String pattern = "MM/dd/yyyy'T'hh:mm a";
+    StringDictionary strings = new StringDictionary(false);
+    long count = 0;
+    try (BufferedReader reader = Files.newBufferedReader(path)) {
+      reader.readLine();
+      for (String row = reader.readLine(); row != null; row = reader.readLine()) {
+        // splitting does not know about quotes, which only matters for the description here
+        String[] parts = row.split(",");
+        ChronoZonedDateTime<LocalDate> start = TimeUtils.parseDateTimeStringWithPattern(
+            String.format("%sT%s", parts[1], parts[2]), ZONE, pattern);
+        ChronoZonedDateTime<LocalDate> end = TimeUtils.parseDateTimeStringWithPattern(
+            String.format("%sT%s", parts[3], parts[4]), ZONE, pattern);
+        IEvent event = new Event.EventBuilder()
+            .subject(strings.intern(parts[0]))
+            .startDateTime(start)
+            .endDateTime(end)
+            .isAllDay(parts[5].equals("True"))
+            .description(strings.intern(parts[6] + "," + parts[7]))
+            .location(strings.intern(parts[8]))
+            .isPrivate(parts[9].equals("True"))
+            .build();
+        if (event != null) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+}
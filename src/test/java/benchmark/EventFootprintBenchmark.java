@@ -0,0 +1,70 @@
+package benchmark;
+
+import java.time.LocalDate;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.IntFunction;
+
+import calendar.CompactEvent;
+import calendar.Event;
+import calendar.IEvent;
+import utils.TimeUtils;
+
+/**
+ * A Java class for measuring how much heap an event takes with Event and with CompactEvent. This
+ * is not a unit test, run it with the main method and enough heap for the events, for example
+ * -Xmx2g. The number of events can be passed as an argument, the default is 1M. Subjects are
+ * shared between events so only the event objects themselves are measured.
+ */
+public class EventFootprintBenchmark {
+
+  private static final String SUBJECT = "event";
+
+  /**
+   * Runs the benchmark and prints the bytes per event for each representation.
+   *
+   * @param args optional number of events
+   */
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    ChronoZonedDateTime<LocalDate> start =
+        TimeUtils.parseDateTimeString("2000-01-01T09:00", TimeUtils.getZoneId("America/New_York"));
+
+    System.out.println("representation,events,bytesPerEvent");
+    print("Event", count, i -> {
+      ChronoZonedDateTime<LocalDate> eventStart = start.plus(i, ChronoUnit.HOURS);
+      return new Event.EventBuilder()
+          .subject(SUBJECT)
+          .startDateTime(eventStart)
+          .endDateTime(eventStart.plus(45, ChronoUnit.MINUTES))
+          .build();
+    });
+    print("CompactEvent", count, i -> {
+      ChronoZonedDateTime<LocalDate> eventStart = start.plus(i, ChronoUnit.HOURS);
+      return new CompactEvent.CompactEventBuilder()
+          .subject(SUBJECT)
+          .startDateTime(eventStart)
+          .endDateTime(eventStart.plus(45, ChronoUnit.MINUTES))
+          .build();
+    });
+  }
+
+  private static void print(String name, int count, IntFunction<IEvent> factory) {
+    IEvent[] events = new IEvent[count];
+    long before = usedMemory();
+    for (int i = 0; i < count; i++) {
+      events[i] = factory.apply(i);
+    }
+    long after = usedMemory();
+
+    System.out.printf("%s,%d,%.1f%n", name, events.length, (after - before) / (double) count);
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,97 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import calendar.CompactEvent;
+import calendar.IEvent;
+import calendar.MappedCalendar;
+import utils.TimeUtils;
+
+/**
+ * A Java class showing that the heap used by a MappedCalendar stays flat as events are added, even
+ * though every event has its own description. This is not a unit test, run it with the main
+ * method. The number of events can be passed as an argument, the default is 10M, and the calendar
+ * files are written to a temporary directory that is left behind for inspection. At the end a
+ * batch of events spread over the whole calendar is merged in to show the cost of an import into
+ * a full archive.
+ */
+public class MappedCalendarBenchmark {
+
+  private static final int STEPS = 10;
+  private static final int QUERIES = 1000;
+  private static final int BATCH = 10_000;
+
+  /**
+   * Runs the benchmark and prints the used heap and the cost of a day query after each step.
+   *
+   * @param args optional number of events
+   * @throws IOException if the calendar files cannot be created
+   */
+  public static void main(String[] args) throws IOException {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    Path directory = Files.createTempDirectory("mapped-benchmark");
+    try (MappedCalendar calendar = new MappedCalendar("benchmark", "America/New_York",
+        directory)) {
+      ChronoZonedDateTime<LocalDate> start =
+          TimeUtils.parseDateTimeString("2000-01-01T09:00", calendar.getTimezone());
+
+      System.out.println("events,usedHeapMb,dayQueryMicros");
+      int added = 0;
+      for (int step = 1; step <= STEPS; step++) {
+        List<IEvent> batch = new ArrayList<>();
+        for (; added < (long) count * step / STEPS; added++) {
+          batch.add(createEvent(start.plus(added, ChronoUnit.HOURS), 45, added));
+          if (batch.size() == BATCH) {
+            calendar.addEvents(batch);
+            batch.clear();
+          }
+        }
+        calendar.addEvents(batch);
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+          calendar.getEventsOnDate(start.plus((long) i * added / QUERIES, ChronoUnit.HOURS));
+        }
+        long micros = (System.nanoTime() - begin) / QUERIES / 1000;
+        System.out.printf("%d,%d,%d%n", added, usedMemory() >> 20, micros);
+      }
+
+      // events after each of BATCH evenly spread records, so the merge moves nearly every record
+      List<IEvent> batch = new ArrayList<>();
+      for (int i = 0; i < BATCH; i++) {
+        long hour = (long) i * added / BATCH;
+        batch.add(createEvent(start.plus(hour * 60 + 50, ChronoUnit.MINUTES), 5, added + i));
+      }
+      long begin = System.nanoTime();
+      calendar.addEvents(batch);
+      System.out.printf("spread batch of %d: %d ms%n", BATCH,
+          (System.nanoTime() - begin) / 1_000_000);
+    }
+    System.out.println("files: " + directory);
+  }
+
+  private static IEvent createEvent(ChronoZonedDateTime<LocalDate> start, int minutes,
+      int index) {
+    return new CompactEvent.CompactEventBuilder()
+        .subject("event " + index % 100)
+        .description("note " + index)
+        .startDateTime(start)
+        .endDateTime(start.plus(minutes, ChronoUnit.MINUTES))
+        .build();
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
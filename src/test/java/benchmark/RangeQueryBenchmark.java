@@ -0,0 +1,101 @@
+package benchmark;
+
+import java.time.LocalDate;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import calendar.Calendar;
+import calendar.Event;
+import calendar.ICalendar;
+import calendar.IEvent;
+import utils.TimeUtils;
+
+/**
+ * A Java class comparing range queries that scan every event against range queries served by the
+ * calendar's interval index. This is not a unit test, run it with the main method. The calendar
+ * covers ten years with an event every two hours. The storage mode of the calendar can be passed
+ * as an argument, the default is "tree".
+ */
+public class RangeQueryBenchmark {
+
+  private static final int YEARS = 10;
+  private static final int QUERIES = 500;
+
+  /**
+   * Runs the benchmark and prints the average cost per query for several window sizes.
+   *
+   * @param args optional storage mode
+   */
+  public static void main(String[] args) {
+    ICalendar calendar = new Calendar("benchmark", "America/New_York");
+    if (args.length > 0) {
+      calendar.setStorage(args[0]);
+    }
+    ChronoZonedDateTime<LocalDate> start =
+        TimeUtils.parseDateTimeString("2015-01-01T00:00", calendar.getTimezone());
+    ChronoZonedDateTime<LocalDate> end = start.plus(YEARS, ChronoUnit.YEARS);
+
+    List<IEvent> events = new ArrayList<>();
+    int index = 0;
+    for (ChronoZonedDateTime<LocalDate> eventStart = start; eventStart.isBefore(end);
+        eventStart = eventStart.plus(2, ChronoUnit.HOURS)) {
+      events.add(new Event.EventBuilder()
+          .subject("event " + index++)
+          .startDateTime(eventStart)
+          .endDateTime(eventStart.plus(1, ChronoUnit.HOURS))
+          .build());
+    }
+    calendar.addEvents(events);
+
+    ChronoUnit[] windows = {ChronoUnit.DAYS, ChronoUnit.WEEKS, ChronoUnit.MONTHS,
+        ChronoUnit.YEARS};
+
+    // warm up both paths before measuring
+    for (ChronoUnit window : windows) {
+      runQueries(calendar, start, window, false);
+      runQueries(calendar, start, window, true);
+    }
+
+    System.out.println("events: " + calendar.getEvents().size());
+    System.out.println("window,matches,scanMicros,indexMicros");
+    for (ChronoUnit window : windows) {
+      long scanStart = System.nanoTime();
+      long matches = runQueries(calendar, start, window, false);
+      long scanTime = System.nanoTime() - scanStart;
+
+      long indexStart = System.nanoTime();
+      runQueries(calendar, start, window, true);
+      long indexTime = System.nanoTime() - indexStart;
+
+      System.out.printf("%s,%d,%.2f,%.2f%n", window, matches / QUERIES,
+          scanTime / 1000.0 / QUERIES, indexTime / 1000.0 / QUERIES);
+    }
+  }
+
+  private static long runQueries(ICalendar calendar, ChronoZonedDateTime<LocalDate> start,
+      ChronoUnit window, boolean indexed) {
+    Random random = new Random(1);
+    long matches = 0;
+
+    for (int i = 0; i < QUERIES; i++) {
+      ChronoZonedDateTime<LocalDate> from = start.plus(random.nextInt(365 * (YEARS - 1)),
+          ChronoUnit.DAYS);
+      ChronoZonedDateTime<LocalDate> to = from.plus(1, window);
+
+      List<IEvent> result;
+      if (indexed) {
+        result = calendar.getEventsInRange(from, to);
+      } else {
+        result = calendar.getEvents().stream()
+            .filter(event -> event.isOverlap(from, to))
+            .collect(Collectors.toList());
+      }
+      matches += result.size();
+    }
+    return matches;
+  }
+}
@@ -0,0 +1,76 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import calendar.Calendar;
+import calendar.Event;
+import calendar.IEvent;
+import model.Model;
+import model.ModelSnapshot;
+import utils.TimeUtils;
+
+/**
+ * A Java class measuring how long it takes to capture, write, read and load a snapshot of a model
+ * with many events. This is not a unit test, run it with the main method. The number of events can
+ * be passed as an argument, the default is 1M.
+ */
+public class SnapshotBenchmark {
+
+  private static final int ROUNDS = 5;
+
+  /**
+   * Runs the benchmark and prints the time of each step for every round.
+   *
+   * @param args optional number of events
+   * @throws IOException if the snapshot cannot be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    Model model = new Model();
+    model.addCalendar(new Calendar("benchmark", "America/New_York"));
+    model.useCalendar("benchmark");
+
+    ChronoZonedDateTime<LocalDate> start = TimeUtils.parseDateTimeString("2000-01-01T09:00",
+        model.getCurrentCalendar().getTimezone());
+    List<IEvent> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      ChronoZonedDateTime<LocalDate> eventStart = start.plus(i, ChronoUnit.HOURS);
+      events.add(new Event.EventBuilder()
+          .subject("event " + i % 100)
+          .startDateTime(eventStart)
+          .endDateTime(eventStart.plus(45, ChronoUnit.MINUTES))
+          .location("room " + i % 10)
+          .build());
+    }
+    model.addEvents(events);
+
+    Path path = Files.createTempFile("benchmark", ".snapshot");
+    path.toFile().deleteOnExit();
+    System.out.println("round,captureMs,writeMs,readMs,loadMs,sizeMb");
+    for (int round = 1; round <= ROUNDS; round++) {
+      long begin = System.nanoTime();
+      ModelSnapshot snapshot = ModelSnapshot.capture(model, 0);
+      long captured = System.nanoTime();
+      snapshot.write(path);
+      long written = System.nanoTime();
+      ModelSnapshot read = ModelSnapshot.read(path);
+      long readTime = System.nanoTime();
+      Model loaded = read.load();
+      long loadedTime = System.nanoTime();
+
+      if (loaded.getCurrentCalendar().getEvents().size() != count) {
+        throw new IllegalStateException("The loaded model has the wrong number of events");
+      }
+      System.out.printf("%d,%d,%d,%d,%d,%d%n", round, (captured - begin) / 1_000_000,
+          (written - captured) / 1_000_000, (readTime - written) / 1_000_000,
+          (loadedTime - readTime) / 1_000_000, Files.size(path) >> 20);
+    }
+  }
+}
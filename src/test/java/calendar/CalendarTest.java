@@ -1,6 +1,10 @@
 package calendar;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.junit.Before;
@@ -10,7 +14,11 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.chrono.ChronoZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 import model.ConflictException;
 import utils.TimeUtils;
@@ -211,6 +219,44 @@ public class CalendarTest {
     }
   }
 
+  @Test
+  public void testUpdateTimezoneMovesDays() {
+    IEvent late = new Event.EventBuilder()
+        .subject("late")
+        .startDateTime(TimeUtils.parseDateTimeString("2025-03-02T22:00", calendar.getTimezone()))
+        .endDateTime(TimeUtils.parseDateTimeString("2025-03-02T23:00", calendar.getTimezone()))
+        .build();
+    IEvent renamed = new Event.EventBuilder()
+        .subject("standup")
+        .startDateTime(TimeUtils.parseDateTimeString("2025-03-04T09:00", calendar.getTimezone()))
+        .endDateTime(TimeUtils.parseDateTimeString("2025-03-04T10:00", calendar.getTimezone()))
+        .build();
+    calendar.addEvents(List.of(late, renamed));
+    calendar.editSingleEvent("subject", "standup", "2025-03-04T09:00", "", "renamed");
+
+    calendar.edit("timezone", "Europe/London");
+    ZoneId london = calendar.getTimezone();
+    // 22:00 in New York is 03:00 on the next day in London
+    assertTrue(calendar.getEventsOnDate(
+        TimeUtils.parseDateTimeString("2025-03-02T00:00", london)).isEmpty());
+    assertEquals(List.of(late), calendar.getEventsOnDate(
+        TimeUtils.parseDateTimeString("2025-03-03T00:00", london)));
+
+    // events added while the day buckets are out of date are found once they are rebuilt
+    IEvent added = new Event.EventBuilder()
+        .subject("added")
+        .startDateTime(TimeUtils.parseDateTimeString("2025-03-03T08:00", london))
+        .endDateTime(TimeUtils.parseDateTimeString("2025-03-03T09:00", london))
+        .build();
+    calendar.edit("timezone", "Asia/Tokyo");
+    calendar.addEvents(List.of(added));
+    calendar.edit("timezone", "Europe/London");
+    assertEquals(List.of(late, added), calendar.getEventsOnDate(
+        TimeUtils.parseDateTimeString("2025-03-03T00:00", london)));
+    // edited events are indexed again and keep following the calendar
+    assertEquals(london, renamed.getStartDateTime().getZone());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testInvalidEdit() {
     calendar.edit("invalid", "invalid");
@@ -625,4 +671,758 @@ public class CalendarTest {
 
     assertEquals(8, calendar.getEvents().size());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testAddEventsAllDayConflictsWithMultiDayEvent() {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-03-02T22:00", calendar.getTimezone());
+
+    IEvent multiDay = new Event.EventBuilder()
+        .subject("multi day")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(2, ChronoUnit.DAYS))
+        .build();
+    calendar.addEvents(List.of(multiDay));
+
+    // all day event on the last date of the multi day event
+    ChronoZonedDateTime<LocalDate> allDayStart =
+        TimeUtils.parseDateTimeString("2025-03-04T00:00", calendar.getTimezone());
+    IEvent allDay = new Event.EventBuilder()
+        .subject("all day")
+        .startDateTime(allDayStart)
+        .endDateTime(allDayStart.plus(1, ChronoUnit.DAYS))
+        .isAllDay(true)
+        .build();
+
+    try {
+      calendar.addEvents(List.of(allDay));
+      fail("Expected a ConflictException");
+    } catch (ConflictException e) {
+      assertEquals("Event conflicts with an existing event", e.getMessage());
+    }
+
+    // the day after the multi day event ends is free
+    IEvent nextDay = new Event.EventBuilder()
+        .subject("next day")
+        .startDateTime(allDayStart.plus(1, ChronoUnit.DAYS))
+        .endDateTime(allDayStart.plus(2, ChronoUnit.DAYS))
+        .isAllDay(true)
+        .build();
+    calendar.addEvents(List.of(nextDay));
+    assertEquals(2, calendar.getEvents().size());
+  }
+
+  @Test
+  public void testEditSingleEventMovesConflictWindow() {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-03-02T10:00", calendar.getTimezone());
+
+    IEvent event = new Event.EventBuilder()
+        .subject("moved")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .build();
+    calendar.addEvents(List.of(event));
+
+    calendar.editSingleEvent("startDateTime", "moved", "2025-03-02T10:00",
+        "2025-03-02T11:00", "2025-03-02T08:00");
+    calendar.editSingleEvent("endDateTime", "moved", "2025-03-02T08:00",
+        "2025-03-02T11:00", "2025-03-02T09:00");
+
+    // the original slot is now free
+    IEvent original = new Event.EventBuilder()
+        .subject("original slot")
+        .startDateTime(dateTime.plus(30, ChronoUnit.MINUTES))
+        .endDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .build();
+    IEvent overlap = new Event.EventBuilder()
+        .subject("overlap")
+        .startDateTime(dateTime.minus(90, ChronoUnit.MINUTES))
+        .endDateTime(dateTime.minus(30, ChronoUnit.MINUTES))
+        .build();
+
+    try {
+      calendar.addEvents(List.of(original, overlap));
+      fail("Expected a ConflictException");
+    } catch (ConflictException e) {
+      assertEquals(1, calendar.getEvents().size());
+    }
+
+    calendar.addEvents(List.of(original));
+    assertEquals(2, calendar.getEvents().size());
+  }
+
+  @Test
+  public void testGetEventsOnDate() {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-03-02T22:00", calendar.getTimezone());
+
+    IEvent multiDay = new Event.EventBuilder()
+        .subject("multi day")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(2, ChronoUnit.DAYS))
+        .build();
+    IEvent longEvent = new Event.EventBuilder()
+        .subject("long")
+        .startDateTime(dateTime.minus(100, ChronoUnit.DAYS))
+        .endDateTime(dateTime.minus(1, ChronoUnit.DAYS))
+        .build();
+    IEvent otherDay = new Event.EventBuilder()
+        .subject("other day")
+        .startDateTime(dateTime.plus(5, ChronoUnit.DAYS))
+        .endDateTime(dateTime.plus(5, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS))
+        .build();
+    calendar.addEvents(List.of(multiDay, otherDay));
+    calendar.addEvents(List.of(longEvent));
+
+    ChronoZonedDateTime<LocalDate> date =
+        TimeUtils.parseDateString("2025-03-03", calendar.getTimezone());
+    assertEquals(List.of(multiDay), calendar.getEventsOnDate(date));
+
+    date = TimeUtils.parseDateString("2025-03-07", calendar.getTimezone());
+    assertEquals(List.of(otherDay), calendar.getEventsOnDate(date));
+
+    date = TimeUtils.parseDateString("2025-01-15", calendar.getTimezone());
+    assertEquals(List.of(longEvent), calendar.getEventsOnDate(date));
+
+    date = TimeUtils.parseDateString("2025-03-01", calendar.getTimezone());
+    assertEquals(List.of(longEvent), calendar.getEventsOnDate(date));
+
+    date = TimeUtils.parseDateString("2025-03-20", calendar.getTimezone());
+    assertEquals(List.of(), calendar.getEventsOnDate(date));
+  }
+
+  @Test
+  public void testGetEventsOnDateAfterEditAndTimezoneChange() {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-03-02T22:00", calendar.getTimezone());
+
+    IEvent event = new Event.EventBuilder()
+        .subject("late")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .build();
+    calendar.addEvents(List.of(event));
+
+    ChronoZonedDateTime<LocalDate> march2 =
+        TimeUtils.parseDateString("2025-03-02", calendar.getTimezone());
+    ChronoZonedDateTime<LocalDate> march3 =
+        TimeUtils.parseDateString("2025-03-03", calendar.getTimezone());
+    assertEquals(List.of(event), calendar.getEventsOnDate(march2));
+    assertEquals(List.of(), calendar.getEventsOnDate(march3));
+
+    calendar.editSingleEvent("endDateTime", "late", "2025-03-02T22:00",
+        "2025-03-02T23:00", "2025-03-03T01:00");
+    assertEquals(List.of(event), calendar.getEventsOnDate(march3));
+
+    // 22:00 in US/Eastern is 03:00 the next day in UTC
+    calendar.setTimezone("UTC");
+    march2 = TimeUtils.parseDateString("2025-03-02", calendar.getTimezone());
+    march3 = TimeUtils.parseDateString("2025-03-03", calendar.getTimezone());
+    assertEquals(List.of(), calendar.getEventsOnDate(march2));
+    assertEquals(List.of(event), calendar.getEventsOnDate(march3));
+  }
+
+  @Test
+  public void testGetEventsInRange() {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-03-02T10:00", calendar.getTimezone());
+
+    IEvent before = new Event.EventBuilder()
+        .subject("before")
+        .startDateTime(dateTime.minus(2, ChronoUnit.HOURS))
+        .endDateTime(dateTime.minus(1, ChronoUnit.HOURS))
+        .build();
+    IEvent touching = new Event.EventBuilder()
+        .subject("touching")
+        .startDateTime(dateTime.minus(1, ChronoUnit.HOURS))
+        .endDateTime(dateTime)
+        .build();
+    IEvent inside = new Event.EventBuilder()
+        .subject("inside")
+        .startDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .endDateTime(dateTime.plus(2, ChronoUnit.HOURS))
+        .build();
+    IEvent after = new Event.EventBuilder()
+        .subject("after")
+        .startDateTime(dateTime.plus(4, ChronoUnit.HOURS))
+        .endDateTime(dateTime.plus(5, ChronoUnit.HOURS))
+        .build();
+    calendar.addEvents(List.of(after, inside, touching, before));
+
+    assertEquals(List.of(touching, inside),
+        calendar.getEventsInRange(dateTime, dateTime.plus(3, ChronoUnit.HOURS)));
+    assertEquals(List.of(before, touching, inside, after),
+        calendar.getEventsInRange(dateTime.minus(1, ChronoUnit.DAYS),
+            dateTime.plus(1, ChronoUnit.DAYS)));
+    assertEquals(List.of(),
+        calendar.getEventsInRange(dateTime.plus(1, ChronoUnit.DAYS),
+            dateTime.plus(2, ChronoUnit.DAYS)));
+  }
+
+  @Test
+  public void testIsBusy() {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-03-02T10:00", calendar.getTimezone());
+
+    IEvent event1 = new Event.EventBuilder()
+        .subject("1")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .build();
+    IEvent event2 = new Event.EventBuilder()
+        .subject("2")
+        .startDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .endDateTime(dateTime.plus(2, ChronoUnit.HOURS))
+        .build();
+    calendar.addEvents(List.of(event1, event2));
+
+    assertFalse(calendar.isBusy(dateTime.minus(1, ChronoUnit.MINUTES)));
+    assertTrue(calendar.isBusy(dateTime));
+    assertTrue(calendar.isBusy(dateTime.plus(1, ChronoUnit.HOURS)));
+    assertFalse(calendar.isBusy(dateTime.plus(2, ChronoUnit.HOURS)));
+
+    List<ChronoZonedDateTime<LocalDate>> dateTimes = List.of(
+        dateTime.minus(1, ChronoUnit.MINUTES), dateTime, dateTime,
+        dateTime.plus(90, ChronoUnit.MINUTES), dateTime.plus(2, ChronoUnit.HOURS));
+    assertEquals(List.of(false, true, true, true, false), calendar.isBusy(dateTimes));
+  }
+
+  @Test
+  public void testIsBusyBatchAfterEarlierEvents() {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-03-02T10:00", calendar.getTimezone());
+
+    // the long event starts well before the batch and still covers its first date times
+    IEvent shortEvent = new Event.EventBuilder()
+        .subject("short")
+        .startDateTime(dateTime.minus(1, ChronoUnit.DAYS))
+        .endDateTime(dateTime.minus(1, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS))
+        .build();
+    IEvent longEvent = new Event.EventBuilder()
+        .subject("long")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(10, ChronoUnit.DAYS))
+        .build();
+    IEvent lateEvent = new Event.EventBuilder()
+        .subject("late")
+        .startDateTime(dateTime.plus(12, ChronoUnit.DAYS))
+        .endDateTime(dateTime.plus(12, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS))
+        .build();
+    calendar.addEvents(List.of(shortEvent, longEvent, lateEvent));
+
+    List<ChronoZonedDateTime<LocalDate>> dateTimes = List.of(
+        dateTime.plus(5, ChronoUnit.DAYS), dateTime.plus(10, ChronoUnit.DAYS),
+        dateTime.plus(11, ChronoUnit.DAYS), dateTime.plus(12, ChronoUnit.DAYS));
+    assertEquals(List.of(true, false, false, true), calendar.isBusy(dateTimes));
+
+    calendar.edit("storage", "columnar");
+    assertEquals(List.of(true, false, false, true), calendar.isBusy(dateTimes));
+  }
+
+  @Test
+  public void testFindEvent() {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-03-02T10:00", calendar.getTimezone());
+
+    IEvent event1 = new Event.EventBuilder()
+        .subject("1")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .build();
+    IEvent event2 = new Event.EventBuilder()
+        .subject("1")
+        .startDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .endDateTime(dateTime.plus(2, ChronoUnit.HOURS))
+        .build();
+    calendar.addEvents(List.of(event1, event2));
+
+    assertSame(event1, calendar.findEvent("1", dateTime));
+    assertSame(event2, calendar.findEvent("1", dateTime.plus(1, ChronoUnit.HOURS)));
+    assertNull(calendar.findEvent("2", dateTime));
+    assertNull(calendar.findEvent("1", dateTime.plus(30, ChronoUnit.MINUTES)));
+    // the same instant in another timezone is not a match
+    assertNull(calendar.findEvent("1", dateTime.withZoneSameInstant(ZoneId.of("UTC"))));
+
+    calendar.editSingleEvent("subject", "1", "2025-03-02T10:00", "2025-03-02T11:00", "renamed");
+    assertNull(calendar.findEvent("1", dateTime));
+    assertSame(event1, calendar.findEvent("renamed", dateTime));
+
+    calendar.editSingleEvent("startDateTime", "1", "2025-03-02T11:00", "2025-03-02T12:00",
+        "2025-03-02T11:30");
+    assertNull(calendar.findEvent("1", dateTime.plus(1, ChronoUnit.HOURS)));
+    assertSame(event2, calendar.findEvent("1", dateTime.plus(90, ChronoUnit.MINUTES)));
+
+    calendar.editEventsBySubject("subject", "1", "bulk renamed");
+    assertNull(calendar.findEvent("1", dateTime.plus(90, ChronoUnit.MINUTES)));
+    assertSame(event2, calendar.findEvent("bulk renamed", dateTime.plus(90, ChronoUnit.MINUTES)));
+  }
+
+  @Test
+  public void testEditEventsFromStartDateTimeAfterSubjectChange() {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-03-02T10:00", calendar.getTimezone());
+
+    IEvent event1 = new Event.EventBuilder()
+        .subject("standup")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .build();
+    IEvent event2 = new Event.EventBuilder()
+        .subject("standup")
+        .startDateTime(dateTime.plus(1, ChronoUnit.DAYS))
+        .endDateTime(dateTime.plus(1, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS))
+        .build();
+    IEvent event3 = new Event.EventBuilder()
+        .subject("standup")
+        .startDateTime(dateTime.plus(2, ChronoUnit.DAYS))
+        .endDateTime(dateTime.plus(2, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS))
+        .build();
+    calendar.addEvents(List.of(event3, event1, event2));
+
+    calendar.editEventsFromStartDateTime("subject", "standup", "2025-03-03T10:00", "sync");
+    assertEquals("standup", event1.getSubject());
+    assertEquals("sync", event2.getSubject());
+    assertEquals("sync", event3.getSubject());
+
+    calendar.editEventsFromStartDateTime("location", "sync", "2025-03-04T00:00", "Room 1");
+    assertEquals("", event2.getLocation());
+    assertEquals("Room 1", event3.getLocation());
+
+    calendar.editEventsBySubject("description", "standup", "daily");
+    assertEquals("daily", event1.getDescription());
+    assertEquals("", event2.getDescription());
+
+    try {
+      calendar.editEventsFromStartDateTime("location", "standup", "2025-03-03T10:00", "Room 2");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event not found: standup", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testEditRepeatingEventsOnlyChangesMatchingSeries() {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-03-03T09:00", calendar.getTimezone());
+
+    IRepeatingEvent standup = new RepeatingEvent.RepeatingEventBuilder()
+        .subject("standup")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(30, ChronoUnit.MINUTES))
+        .repeatDays(TimeUtils.getDaysOfWeek(new char[]{'M', 'T', 'W', 'R', 'F'}))
+        .repeatNumber(4)
+        .build();
+    IRepeatingEvent review = new RepeatingEvent.RepeatingEventBuilder()
+        .subject("review")
+        .startDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .endDateTime(dateTime.plus(2, ChronoUnit.HOURS))
+        .repeatDays(TimeUtils.getDaysOfWeek(new char[]{'M', 'T', 'W', 'R', 'F'}))
+        .repeatNumber(4)
+        .build();
+    calendar.addEvents(standup.repeatNTimes());
+    calendar.addEvents(review.repeatNTimes());
+    assertEquals(10, calendar.getEvents().size());
+
+    // shorten the standup series from its third occurrence onwards
+    calendar.editEventsFromStartDateTime("repeatNumber", "standup", "2025-03-05T09:00", "1");
+
+    long standups = calendar.getEvents().stream()
+        .filter(event -> event.getSubject().equals("standup"))
+        .count();
+    long reviews = calendar.getEvents().stream()
+        .filter(event -> event.getSubject().equals("review"))
+        .count();
+    assertEquals(4, standups);
+    assertEquals(5, reviews);
+  }
+
+  private ICalendar createRuleCalendar() {
+    ICalendar ruleCalendar = new Calendar("rules", "US/Eastern");
+    ruleCalendar.edit("recurrence", "rules");
+    return ruleCalendar;
+  }
+
+  private IRepeatingEvent createSeries(String subject, String start, int hours, String days,
+      int repeatNumber) {
+    ChronoZonedDateTime<LocalDate> startDateTime =
+        TimeUtils.parseDateTimeString(start, calendar.getTimezone());
+    return new RepeatingEvent.RepeatingEventBuilder()
+        .subject(subject)
+        .startDateTime(startDateTime)
+        .endDateTime(startDateTime.plus(hours, ChronoUnit.HOURS))
+        .repeatDays(TimeUtils.getDaysOfWeek(days.toCharArray()))
+        .repeatNumber(repeatNumber)
+        .build();
+  }
+
+  private String getAllEvents(ICalendar calendar) {
+    List<IEvent> result = new ArrayList<>();
+    for (IEvent event : calendar.getAllEvents()) {
+      result.add(event);
+    }
+    return result.toString();
+  }
+
+  @Test
+  public void testSetStorage() {
+    assertEquals("tree", calendar.getStorage());
+    calendar.edit("storage", "columnar");
+    assertEquals("columnar", calendar.getStorage());
+
+    try {
+      calendar.edit("storage", "disk");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid storage mode: disk", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testColumnarStorageMatchesTree() {
+    ICalendar columnar = new Calendar("columnar", "US/Eastern");
+    // half of the events are added before switching, so the columns are built from both paths
+    columnar.addSeries(createSeries("standup", "2025-03-03T09:00", 1, "MWF", 20));
+    columnar.edit("storage", "columnar");
+    for (ICalendar current : List.of(calendar, columnar)) {
+      if (current == calendar) {
+        current.addSeries(createSeries("standup", "2025-03-03T09:00", 1, "MWF", 20));
+      }
+      current.addSeries(createSeries("lunch", "2025-03-03T12:00", 1, "MTWRF", 20));
+      current.editEventsFromStartDateTime("location", "lunch", "2025-03-10T12:00", "Cafe");
+      current.editSingleEvent("endDateTime", "lunch", "2025-03-11T12:00", "",
+          "2025-03-11T15:00");
+      current.editSingleEvent("startDateTime", "standup", "2025-03-12T09:00", "",
+          "2025-03-12T08:00");
+    }
+
+    ZoneId zone = calendar.getTimezone();
+    ChronoZonedDateTime<LocalDate> from = TimeUtils.parseDateTimeString("2025-03-09T00:00", zone);
+    ChronoZonedDateTime<LocalDate> to = TimeUtils.parseDateTimeString("2025-03-14T12:00", zone);
+    assertEquals(calendar.getEventsInRange(from, to).toString(),
+        columnar.getEventsInRange(from, to).toString());
+    assertEquals(getAllEvents(calendar), getAllEvents(columnar));
+    for (int minutes = 0; minutes < 7 * 24 * 60; minutes += 15) {
+      ChronoZonedDateTime<LocalDate> dateTime = from.plus(minutes, ChronoUnit.MINUTES);
+      assertEquals(calendar.isBusy(dateTime), columnar.isBusy(dateTime));
+    }
+
+    try {
+      columnar.addEvents(List.of(new Event.EventBuilder()
+          .subject("conflict")
+          .startDateTime(TimeUtils.parseDateTimeString("2025-03-12T08:30", zone))
+          .endDateTime(TimeUtils.parseDateTimeString("2025-03-12T08:45", zone))
+          .build()));
+      fail("Expected a ConflictException");
+    } catch (ConflictException e) {
+      assertEquals("Event conflicts with an existing event", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testEventsShareStrings() {
+    calendar.addSeries(createSeries(new String("standup"), "2025-03-03T09:00", 1, "MWF", 3));
+    IEvent event = new Event.EventBuilder()
+        .subject(new String("standup"))
+        .startDateTime(TimeUtils.parseDateTimeString("2025-03-04T09:00", calendar.getTimezone()))
+        .endDateTime(TimeUtils.parseDateTimeString("2025-03-04T10:00", calendar.getTimezone()))
+        .location(new String("Room 1"))
+        .build();
+    calendar.addEvents(List.of(event));
+    calendar.editEventsBySubject("location", "standup", new String("Room 1"));
+
+    List<IEvent> events = calendar.getEvents();
+    assertEquals(5, events.size());
+    for (IEvent other : events) {
+      assertSame(event.getSubject(), other.getSubject());
+      assertSame(event.getLocation(), other.getLocation());
+    }
+
+    StringDictionary strings = calendar.getStringDictionary();
+    // empty descriptions and locations are already the same instance, so only the two subjects,
+    // the new location and the edited location are looked up
+    assertEquals(5, strings.getLookups());
+    assertEquals(2, strings.getHits());
+    assertEquals(3, strings.size());
+  }
+
+  @Test
+  public void testSetRecurrence() {
+    assertEquals("expanded", calendar.getRecurrence());
+    calendar.edit("recurrence", "rules");
+    assertEquals("rules", calendar.getRecurrence());
+
+    try {
+      calendar.edit("recurrence", "lazy");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid recurrence mode: lazy", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testRuleRecurrenceMatchesExpanded() {
+    ICalendar ruleCalendar = createRuleCalendar();
+    IRepeatingEvent standup = createSeries("standup", "2025-03-03T09:00", 1, "MTWRF", 20);
+    IRepeatingEvent gym = new RepeatingEvent.RepeatingEventBuilder()
+        .subject("gym")
+        .startDateTime(TimeUtils.parseDateString("2025-03-01", calendar.getTimezone()))
+        .endDateTime(TimeUtils.parseDateString("2025-03-02", calendar.getTimezone()))
+        .isAllDay(true)
+        .repeatDays(TimeUtils.getDaysOfWeek(new char[]{'S', 'U'}))
+        .repeatEndDateTime(TimeUtils.parseDateString("2025-04-30", calendar.getTimezone()))
+        .build();
+    IEvent meeting = new Event.EventBuilder()
+        .subject("meeting")
+        .startDateTime(TimeUtils.parseDateTimeString("2025-03-04T13:00", calendar.getTimezone()))
+        .endDateTime(TimeUtils.parseDateTimeString("2025-03-04T14:00", calendar.getTimezone()))
+        .build();
+
+    for (ICalendar current : List.of(calendar, ruleCalendar)) {
+      current.addSeries(standup);
+      current.addSeries(gym);
+      current.addEvents(List.of(meeting));
+    }
+
+    assertEquals(40, calendar.getEvents().size());
+    assertEquals(1, ruleCalendar.getEvents().size());
+    assertEquals(getAllEvents(calendar), getAllEvents(ruleCalendar));
+    assertEquals(calendar.getEvents().toString(), getAllEvents(ruleCalendar));
+
+    ChronoZonedDateTime<LocalDate> from =
+        TimeUtils.parseDateTimeString("2025-03-07T09:30", calendar.getTimezone());
+    ChronoZonedDateTime<LocalDate> to = from.plus(10, ChronoUnit.DAYS);
+    assertEquals(calendar.getEventsInRange(from, to).toString(),
+        ruleCalendar.getEventsInRange(from, to).toString());
+
+    for (int day = 0; day < 40; day++) {
+      ChronoZonedDateTime<LocalDate> date = from.plus(day, ChronoUnit.DAYS);
+      assertEquals(calendar.getEventsOnDate(date).toString(),
+          ruleCalendar.getEventsOnDate(date).toString());
+      assertEquals(calendar.isBusy(date), ruleCalendar.isBusy(date));
+    }
+
+    List<ChronoZonedDateTime<LocalDate>> dateTimes = new ArrayList<>();
+    for (int hour = 0; hour < 24 * 7; hour++) {
+      dateTimes.add(from.plus(hour, ChronoUnit.HOURS));
+    }
+    assertEquals(calendar.isBusy(dateTimes), ruleCalendar.isBusy(dateTimes));
+
+    ChronoZonedDateTime<LocalDate> start =
+        TimeUtils.parseDateTimeString("2025-03-10T09:00", calendar.getTimezone());
+    assertEquals(calendar.findEvent("standup", start).toString(),
+        ruleCalendar.findEvent("standup", start).toString());
+    assertNull(ruleCalendar.findEvent("standup", start.plus(1, ChronoUnit.HOURS)));
+    assertNull(ruleCalendar.findEvent("standup", start.minus(1, ChronoUnit.DAYS)));
+
+    calendar.setTimezone("Europe/London");
+    ruleCalendar.setTimezone("Europe/London");
+    assertEquals(getAllEvents(calendar), getAllEvents(ruleCalendar));
+  }
+
+  @Test
+  public void testRuleRecurrenceConflicts() {
+    ICalendar ruleCalendar = createRuleCalendar();
+    IEvent meeting = new Event.EventBuilder()
+        .subject("meeting")
+        .startDateTime(TimeUtils.parseDateTimeString("2025-06-04T09:30", calendar.getTimezone()))
+        .endDateTime(TimeUtils.parseDateTimeString("2025-06-04T10:30", calendar.getTimezone()))
+        .build();
+    ruleCalendar.addEvents(List.of(meeting));
+
+    // the 66th occurrence falls on the meeting
+    try {
+      ruleCalendar.addSeries(createSeries("standup", "2025-03-03T09:00", 1, "MTWRF", 70));
+      fail("Expected a ConflictException");
+    } catch (ConflictException e) {
+      assertEquals("Event conflicts with an existing event", e.getMessage());
+    }
+    assertEquals(List.of(meeting).toString(), getAllEvents(ruleCalendar));
+
+    ruleCalendar.addSeries(createSeries("standup", "2025-03-03T09:00", 1, "MTWRF", 60));
+    ruleCalendar.addSeries(createSeries("review", "2025-03-03T09:00", 1, "SU", 60));
+
+    try {
+      ruleCalendar.addSeries(createSeries("sync", "2025-05-01T08:00", 2, "R", 3));
+      fail("Expected a ConflictException");
+    } catch (ConflictException e) {
+      assertEquals("Event conflicts with an existing event", e.getMessage());
+    }
+
+    IEvent lunch = new Event.EventBuilder()
+        .subject("lunch")
+        .startDateTime(TimeUtils.parseDateTimeString("2025-04-08T09:59", calendar.getTimezone()))
+        .endDateTime(TimeUtils.parseDateTimeString("2025-04-08T11:00", calendar.getTimezone()))
+        .build();
+    try {
+      ruleCalendar.addEvents(List.of(lunch));
+      fail("Expected a ConflictException");
+    } catch (ConflictException e) {
+      assertEquals("Event conflicts with an existing event", e.getMessage());
+    }
+    assertEquals(1, ruleCalendar.getEvents().size());
+
+    try {
+      ruleCalendar.editSingleEvent("endDateTime", "meeting", "2025-06-04T09:30", "",
+          "2025-06-07T09:30");
+      fail("Expected a ConflictException");
+    } catch (ConflictException e) {
+      assertEquals("Event conflicts with an existing event", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testRuleRecurrenceEdits() {
+    ICalendar ruleCalendar = createRuleCalendar();
+    for (ICalendar current : List.of(calendar, ruleCalendar)) {
+      current.addSeries(createSeries("standup", "2025-03-03T09:00", 1, "MWF", 12));
+      current.addSeries(createSeries("review", "2025-03-04T09:00", 1, "TR", 8));
+
+      current.editSingleEvent("location", "standup", "2025-03-07T09:00", "", "Room 1");
+      current.editSingleEvent("startDateTime", "review", "2025-03-06T09:00", "",
+          "2025-03-06T08:30");
+      current.editEventsFromStartDateTime("description", "standup", "2025-03-12T09:00", "late");
+      current.editEventsBySubject("subject", "review", "retro");
+      current.editEventsFromStartDateTime("repeatDays", "standup", "2025-03-17T09:00", "MWS");
+      current.editEventsFromStartDateTime("repeatNumber", "retro", "2025-03-13T09:00", "2");
+    }
+
+    assertEquals(getAllEvents(calendar), getAllEvents(ruleCalendar));
+    // only the two occurrences that were edited on their own are stored
+    assertEquals(2, ruleCalendar.getEvents().size());
+    assertEquals("Room 1", ruleCalendar.findEvent("standup",
+        TimeUtils.parseDateTimeString("2025-03-07T09:00", calendar.getTimezone())).getLocation());
+
+    try {
+      ruleCalendar.editEventsBySubject("location", "review", "Room 2");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event not found: review", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testRepeatEditKeepsOccurrences() {
+    calendar.addSeries(createSeries("standup", "2025-03-03T09:00", 1, "MWF", 5));
+    ChronoZonedDateTime<LocalDate> wednesday =
+        TimeUtils.parseDateTimeString("2025-03-05T09:00", calendar.getTimezone());
+    IEvent occurrence = calendar.findEvent("standup", wednesday);
+
+    calendar.editEventsBySubject("repeatNumber", "standup", "20");
+    ICalendar expected = new Calendar("expected", "US/Eastern");
+    expected.addSeries(createSeries("standup", "2025-03-03T09:00", 1, "MWF", 20));
+    assertEquals(getAllEvents(expected), getAllEvents(calendar));
+    // the occurrences that are still part of the series are kept
+    assertSame(occurrence, calendar.findEvent("standup", wednesday));
+    assertEquals(20, ((IRepeatingEvent) occurrence).getRepeatNumber());
+
+    calendar.editEventsBySubject("repeatDays", "standup", "MF");
+    assertNull(calendar.findEvent("standup", wednesday));
+    expected = new Calendar("expected", "US/Eastern");
+    expected.addSeries(createSeries("standup", "2025-03-03T09:00", 1, "MF", 20));
+    assertEquals(getAllEvents(expected), getAllEvents(calendar));
+  }
+
+  @Test
+  public void testRepeatEditConflictKeepsSeries() {
+    calendar.addSeries(createSeries("standup", "2025-03-03T09:00", 1, "MWF", 5));
+    calendar.addSeries(createSeries("review", "2025-03-21T09:00", 1, "F", 1));
+    String before = getAllEvents(calendar);
+    IEvent occurrence = calendar.findEvent("standup",
+        TimeUtils.parseDateTimeString("2025-03-05T09:00", calendar.getTimezone()));
+
+    try {
+      calendar.editEventsBySubject("repeatNumber", "standup", "8");
+      fail("Expected a ConflictException");
+    } catch (ConflictException e) {
+      assertEquals("Event conflicts with an existing event", e.getMessage());
+    }
+    assertEquals(before, getAllEvents(calendar));
+    assertEquals(5, ((IRepeatingEvent) occurrence).getRepeatNumber());
+  }
+
+  @Test
+  public void testEstimatedBytes() {
+    long empty = calendar.getEstimatedBytes();
+    calendar.addEvents(List.of(createEvent("first", "2025-03-03T10:00", 60),
+        createEvent("second", "2025-03-03T12:00", 60)));
+    long tree = calendar.getEstimatedBytes();
+    assertTrue(tree > empty);
+
+    calendar.setStorage(Calendar.COLUMNAR_STORAGE);
+    assertTrue(calendar.getEstimatedBytes() < tree);
+    calendar.setStorage(Calendar.TREE_STORAGE);
+
+    // an edit reindexes the event, and the new subject is already in the dictionary
+    calendar.editEventsBySubject("subject", "first", "second");
+    assertEquals(tree, calendar.getEstimatedBytes());
+  }
+
+  @Test
+  public void testAddEventsSkippingConflicts() {
+    calendar.addEvents(List.of(createEvent("existing", "2025-03-03T10:00", 60)));
+    IEvent late = createEvent("late", "2025-03-03T10:30", 60);
+    IEvent first = createEvent("first", "2025-03-03T12:00", 60);
+    IEvent overlap = createEvent("overlap", "2025-03-03T12:30", 60);
+    IEvent allDay = new Event.EventBuilder()
+        .subject("holiday")
+        .startDateTime(TimeUtils.parseDateTimeString("2025-03-04T00:00", calendar.getTimezone()))
+        .endDateTime(TimeUtils.parseDateTimeString("2025-03-04T23:59", calendar.getTimezone()))
+        .isAllDay(true)
+        .build();
+    IEvent onHoliday = createEvent("meeting", "2025-03-04T09:00", 60);
+
+    List<IEvent> skipped = calendar.addEventsSkippingConflicts(
+        List.of(onHoliday, overlap, late, allDay, first));
+
+    assertEquals(List.of(late, overlap, onHoliday), skipped);
+    assertEquals(List.of("existing", "first", "holiday"), calendar.getEvents().stream()
+        .map(IEvent::getSubject).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testAddEventsSkippingConflictsMatchesAddEvents() {
+    Random random = new Random(11);
+    ICalendar expected = new Calendar("expected", "US/Eastern");
+    List<IEvent> existing = new ArrayList<>();
+    List<IEvent> newEvents = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      String start = String.format("2025-03-%02dT%02d:%02d", 1 + random.nextInt(28),
+          random.nextInt(23), random.nextInt(4) * 15);
+      (i % 5 == 0 ? existing : newEvents).add(createEvent("event " + i, start,
+          15 + random.nextInt(120)));
+    }
+    for (IEvent event : existing) {
+      try {
+        calendar.addEvents(List.of(event));
+        expected.addEvents(List.of(event.copy(0, expected.getTimezone())));
+      } catch (ConflictException e) {
+        // keep only the existing events that fit
+      }
+    }
+
+    int expectedSkipped = 0;
+    List<IEvent> sorted = new ArrayList<>(newEvents);
+    Collections.sort(sorted);
+    for (IEvent event : sorted) {
+      try {
+        expected.addEvents(List.of(event.copy(0, expected.getTimezone())));
+      } catch (ConflictException e) {
+        expectedSkipped++;
+      }
+    }
+
+    assertEquals(expectedSkipped, calendar.addEventsSkippingConflicts(newEvents).size());
+    assertEquals(expected.getEvents().toString(), calendar.getEvents().toString());
+  }
+
+  private IEvent createEvent(String subject, String start, int minutes) {
+    ChronoZonedDateTime<LocalDate> startDateTime =
+        TimeUtils.parseDateTimeString(start, calendar.getTimezone());
+    return new Event.EventBuilder()
+        .subject(subject)
+        .startDateTime(startDateTime)
+        .endDateTime(startDateTime.plus(minutes, ChronoUnit.MINUTES))
+        .build();
+  }
+}
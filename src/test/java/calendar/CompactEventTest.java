@@ -0,0 +1,157 @@
+package calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import utils.TimeUtils;
+
+/**
+ * A JUnit test class for testing the CompactEvent class.
+ */
+public class CompactEventTest {
+
+  ZoneId zone;
+  ChronoZonedDateTime<LocalDate> dateTime;
+
+  @Before
+  public void setUp() {
+    zone = ZoneId.of("US/Eastern");
+    dateTime = TimeUtils.parseDateTimeString("2025-03-02T10:00", zone);
+  }
+
+  private IEvent createEvent(String subject, int startHour, int endHour) {
+    return new Event.EventBuilder()
+        .subject(subject)
+        .startDateTime(dateTime.plus(startHour, ChronoUnit.HOURS))
+        .endDateTime(dateTime.plus(endHour, ChronoUnit.HOURS))
+        .description("description")
+        .location("location")
+        .isPrivate(true)
+        .build();
+  }
+
+  @Test
+  public void testMatchesEvent() {
+    IEvent event = createEvent("test", 0, 2);
+    CompactEvent compact = CompactEvent.of(event);
+
+    assertEquals(event.toString(), compact.toString());
+    assertEquals(event.getStartDateTime(), compact.getStartDateTime());
+    assertEquals(event.getEndDateTime(), compact.getEndDateTime());
+    assertTrue(compact.isPrivate());
+    assertFalse(compact.isAllDay());
+    assertEquals(0, compact.compareTo(event));
+    assertTrue(compact.matches("test", dateTime));
+  }
+
+  @Test
+  public void testOfEpochSeconds() {
+    IEvent event = createEvent("test", 0, 2);
+    CompactEvent compact = CompactEvent.ofEpochSeconds("test",
+        event.getStartDateTime().toEpochSecond(), event.getEndDateTime().toEpochSecond(), zone,
+        "description", "location", true, false);
+    CompactEvent later = CompactEvent.of(createEvent("later", 1, 3));
+
+    assertEquals(event.toString(), compact.toString());
+    assertTrue(compact.compareTo(later) < 0);
+    assertTrue(later.compareTo(compact) > 0);
+    assertTrue(compact.conflictsWith(later));
+    assertFalse(compact.conflictsWith(CompactEvent.of(createEvent("after", 2, 3))));
+  }
+
+  @Test
+  public void testWholeMinutesOnly() {
+    try {
+      new CompactEvent.CompactEventBuilder()
+          .subject("test")
+          .startDateTime(dateTime.plus(30, ChronoUnit.SECONDS))
+          .endDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+          .build();
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Compact events must start and end on a whole minute", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testFlags() {
+    CompactEvent compact = CompactEvent.of(createEvent("test", 0, 2));
+
+    compact.setIsPrivate(false);
+    assertFalse(compact.isPrivate());
+    compact.setStartDateTime("2025-03-02T00:00");
+    compact.setEndDateTime("2025-03-03T00:00");
+    assertTrue(compact.isAllDay());
+    assertFalse(compact.isPrivate());
+    compact.setNewProperty("private", "true");
+    assertTrue(compact.isPrivate());
+    assertTrue(compact.isAllDay());
+  }
+
+  @Test
+  public void testSetStartDateTimeAfterEnd() {
+    CompactEvent compact = CompactEvent.of(createEvent("test", 0, 2));
+    try {
+      compact.setStartDateTime("2025-03-02T12:00");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("StartDateTime must be before endDateTime", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testConflictsWith() {
+    IEvent event = createEvent("event", 0, 2);
+    CompactEvent overlapping = CompactEvent.of(createEvent("overlapping", 1, 3));
+    CompactEvent after = CompactEvent.of(createEvent("after", 2, 3));
+    ChronoZonedDateTime<LocalDate> midnight = dateTime.minus(10, ChronoUnit.HOURS);
+    CompactEvent allDay = new CompactEvent.CompactEventBuilder()
+        .subject("all day")
+        .startDateTime(midnight)
+        .endDateTime(midnight.plus(1, ChronoUnit.DAYS))
+        .isAllDay(true)
+        .build();
+
+    assertTrue(overlapping.conflictsWith(event));
+    assertFalse(after.conflictsWith(event));
+    assertTrue(allDay.conflictsWith(event));
+    assertEquals(event.conflictsWith(allDay), allDay.conflictsWith(event));
+  }
+
+  @Test
+  public void testFollowTimezone() {
+    CompactEvent compact = CompactEvent.of(createEvent("test", 0, 1));
+    ZoneReference timezone = new ZoneReference(zone);
+
+    compact.followTimezone(timezone);
+    timezone.setZone(ZoneId.of("Europe/London"));
+    assertEquals("2025-03-02T15:00Z[Europe/London]", compact.getStartDateTime().toString());
+
+    compact.followTimezone(null);
+    timezone.setZone(ZoneId.of("Asia/Tokyo"));
+    assertEquals("2025-03-02T15:00Z[Europe/London]", compact.getStartDateTime().toString());
+  }
+
+  @Test
+  public void testInCalendar() {
+    ICalendar calendar = new Calendar("test", "US/Eastern");
+    IEvent compact = CompactEvent.of(createEvent("test", 0, 1));
+    calendar.addEvents(List.of(compact));
+
+    calendar.editSingleEvent("location", "test", "2025-03-02T10:00", "", "Room 1");
+    assertEquals("Room 1", compact.getLocation());
+    assertTrue(calendar.isBusy(dateTime.plus(30, ChronoUnit.MINUTES)));
+    assertEquals(List.of(compact), calendar.getEventsOnDate(dateTime));
+  }
+}
@@ -0,0 +1,192 @@
+package calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import utils.TimeUtils;
+
+/**
+ * A JUnit test class for testing the EventSeries class.
+ */
+public class EventSeriesTest {
+
+  ZoneId zone;
+  ChronoZonedDateTime<LocalDate> dateTime;
+
+  @Before
+  public void setUp() {
+    zone = ZoneId.of("US/Eastern");
+    // a Sunday
+    dateTime = TimeUtils.parseDateTimeString("2025-03-02T09:00", zone);
+  }
+
+  private IRepeatingEvent createBase(String subject, String days, int startHour, int endHour) {
+    return new RepeatingEvent.RepeatingEventBuilder()
+        .subject(subject)
+        .startDateTime(dateTime.plus(startHour, ChronoUnit.HOURS))
+        .endDateTime(dateTime.plus(endHour, ChronoUnit.HOURS))
+        .repeatDays(TimeUtils.getDaysOfWeek(days.toCharArray()))
+        .repeatNumber(5)
+        .build();
+  }
+
+  private List<IEvent> getAll(EventSeries series, ZoneId zone) {
+    List<IEvent> result = new ArrayList<>();
+    Iterator<IEvent> iterator = series.iterator(zone);
+    while (iterator.hasNext()) {
+      result.add(iterator.next());
+    }
+    return result;
+  }
+
+  @Test
+  public void testMatchesRepeatNTimes() {
+    IRepeatingEvent base = createBase("standup", "MWF", 0, 1);
+    EventSeries series = EventSeries.of(base, false);
+
+    assertEquals(6, series.getToIndex() - series.getFromIndex());
+    assertEquals(base.repeatNTimes().toString(), getAll(series, zone).toString());
+    assertEquals(LocalDate.of(2025, 3, 3), series.getFirstDate());
+    assertEquals(LocalDate.of(2025, 3, 14), series.getLastDate());
+  }
+
+  @Test
+  public void testMatchesRepeatUntilEndDate() {
+    IRepeatingEvent base = new RepeatingEvent.RepeatingEventBuilder()
+        .subject("gym")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .repeatDays(TimeUtils.getDaysOfWeek(new char[]{'U', 'T', 'R'}))
+        .repeatEndDateTime(dateTime.plus(40, ChronoUnit.DAYS))
+        .build();
+    EventSeries series = EventSeries.of(base, true);
+
+    assertEquals(base.repeatUntilEndDate().toString(), getAll(series, zone).toString());
+  }
+
+  @Test
+  public void testEmptyRepeatDays() {
+    IRepeatingEvent base = new RepeatingEvent.RepeatingEventBuilder()
+        .subject("empty")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .repeatDays(TimeUtils.getDaysOfWeek(new char[]{}))
+        .repeatNumber(2)
+        .build();
+    try {
+      EventSeries.of(base, false);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Repeat days cannot be empty", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testIndexOf() {
+    EventSeries series = EventSeries.of(createBase("standup", "MWF", 0, 1), false);
+
+    assertEquals(-1, series.indexOf(LocalDate.of(2025, 3, 2)));
+    assertEquals(0, series.indexOf(LocalDate.of(2025, 3, 3)));
+    assertEquals(-1, series.indexOf(LocalDate.of(2025, 3, 4)));
+    assertEquals(3, series.indexOf(LocalDate.of(2025, 3, 10)));
+    assertEquals(5, series.indexOf(LocalDate.of(2025, 3, 14)));
+    assertEquals(-1, series.indexOf(LocalDate.of(2025, 3, 17)));
+  }
+
+  @Test
+  public void testIndexStartingFrom() {
+    EventSeries series = EventSeries.of(createBase("standup", "MWF", 0, 1), false);
+
+    assertEquals(0, series.indexStartingFrom(dateTime));
+    // the occurrence on Wednesday has already started at 09:30
+    assertEquals(2, series.indexStartingFrom(
+        TimeUtils.parseDateTimeString("2025-03-05T09:30", zone)));
+    assertEquals(1, series.indexStartingFrom(
+        TimeUtils.parseDateTimeString("2025-03-05T09:00", zone)));
+    // 14:00 in London is 09:00 in New York
+    assertEquals(1, series.indexStartingFrom(
+        TimeUtils.parseDateTimeString("2025-03-05T14:00", ZoneId.of("Europe/London"))));
+    assertEquals(6, series.indexStartingFrom(
+        TimeUtils.parseDateTimeString("2025-03-20T09:00", zone)));
+  }
+
+  @Test
+  public void testGetOccurrencesInOtherZone() {
+    EventSeries series = EventSeries.of(createBase("standup", "MWF", 0, 1), false);
+    ZoneId london = ZoneId.of("Europe/London");
+
+    List<IEvent> occurrences = series.getOccurrences(LocalDate.of(2025, 3, 4),
+        LocalDate.of(2025, 3, 7), london);
+    assertEquals(2, occurrences.size());
+    assertEquals("2025-03-05T14:00Z[Europe/London]",
+        occurrences.get(0).getStartDateTime().toString());
+    assertEquals("2025-03-07T14:00Z[Europe/London]",
+        occurrences.get(1).getStartDateTime().toString());
+  }
+
+  @Test
+  public void testSubSeries() {
+    EventSeries series = EventSeries.of(createBase("standup", "MWF", 0, 1), false);
+    EventSeries head = series.subSeries(0, 2);
+    EventSeries tail = series.subSeries(3, 6);
+
+    assertEquals(LocalDate.of(2025, 3, 5), head.getLastDate());
+    assertEquals(LocalDate.of(2025, 3, 10), tail.getFirstDate());
+    assertEquals(-1, tail.indexOf(LocalDate.of(2025, 3, 7)));
+    assertTrue(series.subSeries(2, 2).isEmpty());
+    assertEquals(series.getSeriesId(), tail.getSeriesId());
+  }
+
+  @Test
+  public void testWithProperty() {
+    EventSeries series = EventSeries.of(createBase("standup", "MWF", 0, 1), false);
+    EventSeries edited = series.withProperty("location", "Room 1");
+
+    assertEquals("Room 1", edited.getOccurrence(4, zone).getLocation());
+    assertEquals("", series.getOccurrence(4, zone).getLocation());
+
+    try {
+      series.withProperty("startDateTime", "2025-03-03T10:00");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid property: startDateTime", e.getMessage());
+    }
+    try {
+      series.withProperty("repeatNumber", "3");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid property: repeatNumber", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testConflictsWith() {
+    EventSeries standup = EventSeries.of(createBase("standup", "MWF", 0, 1), false);
+    EventSeries review = EventSeries.of(createBase("review", "TR", 0, 1), false);
+    EventSeries lunch = EventSeries.of(createBase("lunch", "MTWRF", 3, 4), false);
+    EventSeries friday = EventSeries.of(createBase("friday", "F", 0, 2), false);
+
+    assertFalse(standup.conflictsWith(review, zone));
+    assertFalse(standup.conflictsWith(lunch, zone));
+    assertTrue(standup.conflictsWith(friday, zone));
+    assertTrue(friday.conflictsWith(standup, zone));
+
+    // the standup series is over before the last Fridays
+    assertFalse(standup.subSeries(0, 2).conflictsWith(friday, zone));
+    assertFalse(standup.conflictsWith(friday.subSeries(2, 6), zone));
+    assertTrue(standup.conflictsWith(friday.subSeries(1, 6), zone));
+  }
+}
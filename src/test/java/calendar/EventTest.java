@@ -14,7 +14,12 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.chrono.ChronoZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import utils.TimeUtils;
 
@@ -1040,4 +1045,73 @@ public class EventTest {
     Set<String> properties = Event.getExcludedProperties();
     assertEquals(2, properties.size());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testFollowTimezone() {
+    ZoneId eastern = ZoneId.of("US/Eastern");
+    ChronoZonedDateTime<LocalDate> start = TimeUtils.parseDateTimeString("2025-03-02T10:00",
+        eastern);
+    IEvent event = new Event.EventBuilder()
+        .subject("test")
+        .startDateTime(start)
+        .endDateTime(start.plus(1, ChronoUnit.HOURS))
+        .build();
+    ZoneReference timezone = new ZoneReference(eastern);
+
+    // following does not move the event until the zone changes
+    event.followTimezone(timezone);
+    assertEquals(start, event.getStartDateTime());
+
+    timezone.setZone(ZoneId.of("Europe/London"));
+    assertEquals("2025-03-02T15:00Z[Europe/London]", event.getStartDateTime().toString());
+    assertEquals("2025-03-02T16:00Z[Europe/London]", event.getEndDateTime().toString());
+
+    // the event keeps its zone once it stops following
+    event.followTimezone(null);
+    timezone.setZone(ZoneId.of("Asia/Tokyo"));
+    assertEquals("2025-03-02T15:00Z[Europe/London]", event.getStartDateTime().toString());
+  }
+
+  @Test
+  public void testFollowTimezoneReadOnManyThreads() throws Exception {
+    ChronoZonedDateTime<LocalDate> start = TimeUtils.parseDateTimeString("2025-03-02T10:00",
+        ZONE_ID);
+    ZoneReference timezone = new ZoneReference(ZONE_ID);
+    List<IEvent> events = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      IEvent event = new Event.EventBuilder()
+          .subject("test")
+          .startDateTime(start.plus(i, ChronoUnit.HOURS))
+          .endDateTime(start.plus(i + 1, ChronoUnit.HOURS))
+          .build();
+      event.followTimezone(timezone);
+      events.add(event);
+    }
+
+    // events that were not read since the change are first read on the pool threads
+    timezone.setZone(ZoneId.of("Asia/Tokyo"));
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        results.add(pool.submit(() -> {
+          for (IEvent event : events) {
+            if (!event.getStartDateTime().getZone().equals(ZoneId.of("Asia/Tokyo"))
+                || !event.getEndDateTime().getZone().equals(ZoneId.of("Asia/Tokyo"))
+                || event.getEndDateTime().toEpochSecond()
+                - event.getStartDateTime().toEpochSecond() != 3600) {
+              return false;
+            }
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get());
+      }
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(start.toEpochSecond(), events.get(0).getStartDateTime().toEpochSecond());
+  }
+}
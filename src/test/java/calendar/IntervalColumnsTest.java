@@ -0,0 +1,136 @@
+package calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A JUnit test class for testing the IntervalColumns class.
+ */
+public class IntervalColumnsTest {
+
+  IntervalColumns<String> columns;
+
+  @Before
+  public void setUp() {
+    columns = new IntervalColumns<>();
+  }
+
+  @Test
+  public void testAddInvalidInterval() {
+    try {
+      columns.add(10, 5, "a");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Interval start must not be after its end", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testFindOverlapping() {
+    columns.add(1, 3, "a");
+    columns.add(5, 8, "b");
+    columns.add(2, 10, "c");
+    columns.add(12, 15, "d");
+
+    assertEquals(List.of("a", "c"), columns.findOverlapping(0, 2));
+    assertEquals(List.of("a", "c", "b"), columns.findOverlapping(3, 5));
+    assertEquals(List.of("c", "d"), columns.findOverlapping(10, 12));
+    assertEquals(List.of(), columns.findOverlapping(16, 20));
+    assertEquals(4, columns.size());
+  }
+
+  @Test
+  public void testSameIntervalKeepsInsertionOrder() {
+    columns.add(1, 3, "a");
+    columns.add(1, 3, "b");
+    columns.add(1, 3, "c");
+
+    assertEquals(List.of("a", "b", "c"), columns.findOverlapping(2, 2));
+  }
+
+  @Test
+  public void testRemove() {
+    String first = new String("a");
+    String second = new String("a");
+    columns.add(1, 3, first);
+    columns.add(1, 3, second);
+    columns.add(4, 6, "b");
+
+    assertTrue(columns.remove(1, 3, second));
+    assertFalse(columns.remove(1, 3, second));
+    assertFalse(columns.remove(4, 7, "b"));
+    assertEquals(2, columns.size());
+
+    List<String> result = columns.findOverlapping(0, 10);
+    assertEquals(2, result.size());
+    assertTrue(result.get(0) == first);
+
+    columns.clear();
+    assertEquals(0, columns.size());
+    assertEquals(List.of(), columns.findOverlapping(0, 10));
+  }
+
+  @Test
+  public void testHasIntervalContaining() {
+    assertFalse(columns.hasIntervalContaining(5));
+
+    columns.add(0, 100, "long");
+    columns.add(10, 20, "a");
+    columns.add(30, 40, "b");
+    columns.add(200, 210, "c");
+
+    assertTrue(columns.hasIntervalContaining(0));
+    assertTrue(columns.hasIntervalContaining(50));
+    assertFalse(columns.hasIntervalContaining(100));
+    assertFalse(columns.hasIntervalContaining(150));
+    assertTrue(columns.hasIntervalContaining(205));
+    assertFalse(columns.hasIntervalContaining(210));
+
+    columns.remove(0, 100, "long");
+    assertTrue(columns.hasIntervalContaining(15));
+    assertFalse(columns.hasIntervalContaining(25));
+    assertFalse(columns.hasIntervalContaining(-1));
+  }
+
+  @Test
+  public void testMatchesIntervalTree() {
+    Random random = new Random(42);
+    IntervalTree<String> tree = new IntervalTree<>();
+    List<long[]> intervals = new ArrayList<>();
+    List<String> values = new ArrayList<>();
+
+    for (int i = 0; i < 2000; i++) {
+      long low = random.nextInt(10000);
+      long high = low + random.nextInt(200);
+      intervals.add(new long[]{low, high});
+      values.add(String.valueOf(i));
+      columns.add(low, high, values.get(i));
+      tree.add(low, high, values.get(i));
+    }
+
+    // removals in the middle must keep the running maximum of the ends correct
+    for (int i = 0; i < 2000; i += 3) {
+      assertTrue(columns.remove(intervals.get(i)[0], intervals.get(i)[1], values.get(i)));
+      tree.remove(intervals.get(i)[0], intervals.get(i)[1], values.get(i));
+    }
+    assertEquals(tree.size(), columns.size());
+
+    for (int query = 0; query < 200; query++) {
+      long low = random.nextInt(10000);
+      long high = low + random.nextInt(500);
+
+      assertEquals(tree.findOverlapping(low, high), columns.findOverlapping(low, high));
+      assertEquals(tree.hasIntervalContaining(low), columns.hasIntervalContaining(low));
+      assertEquals(tree.maxHighStartingAtOrBefore(low), columns.maxHighStartingAtOrBefore(low));
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A JUnit test class for testing the IntervalTree class.
+ */
+public class IntervalTreeTest {
+
+  IntervalTree<String> tree;
+
+  @Before
+  public void setUp() {
+    tree = new IntervalTree<>();
+  }
+
+  @Test
+  public void testAddInvalidInterval() {
+    try {
+      tree.add(10, 5, "a");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Interval start must not be after its end", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testFindOverlapping() {
+    tree.add(1, 3, "a");
+    tree.add(5, 8, "b");
+    tree.add(2, 10, "c");
+    tree.add(12, 15, "d");
+
+    assertEquals(List.of("a", "c"), tree.findOverlapping(0, 2));
+    assertEquals(List.of("a", "c", "b"), tree.findOverlapping(3, 5));
+    assertEquals(List.of("c", "d"), tree.findOverlapping(10, 12));
+    assertEquals(List.of(), tree.findOverlapping(16, 20));
+    assertEquals(4, tree.size());
+  }
+
+  @Test
+  public void testSameIntervalKeepsInsertionOrder() {
+    tree.add(1, 3, "a");
+    tree.add(1, 3, "b");
+    tree.add(1, 3, "c");
+
+    assertEquals(List.of("a", "b", "c"), tree.findOverlapping(2, 2));
+  }
+
+  @Test
+  public void testRemove() {
+    String first = new String("a");
+    String second = new String("a");
+    tree.add(1, 3, first);
+    tree.add(1, 3, second);
+    tree.add(4, 6, "b");
+
+    assertTrue(tree.remove(1, 3, second));
+    assertFalse(tree.remove(1, 3, second));
+    assertFalse(tree.remove(4, 7, "b"));
+    assertEquals(2, tree.size());
+
+    List<String> result = tree.findOverlapping(0, 10);
+    assertEquals(2, result.size());
+    assertTrue(result.get(0) == first);
+
+    tree.clear();
+    assertEquals(0, tree.size());
+    assertEquals(List.of(), tree.findOverlapping(0, 10));
+  }
+
+  @Test
+  public void testHasIntervalContaining() {
+    assertFalse(tree.hasIntervalContaining(5));
+
+    tree.add(0, 100, "long");
+    tree.add(10, 20, "a");
+    tree.add(30, 40, "b");
+    tree.add(200, 210, "c");
+
+    assertTrue(tree.hasIntervalContaining(0));
+    assertTrue(tree.hasIntervalContaining(50));
+    assertFalse(tree.hasIntervalContaining(100));
+    assertFalse(tree.hasIntervalContaining(150));
+    assertTrue(tree.hasIntervalContaining(205));
+    assertFalse(tree.hasIntervalContaining(210));
+
+    tree.remove(0, 100, "long");
+    assertTrue(tree.hasIntervalContaining(15));
+    assertFalse(tree.hasIntervalContaining(25));
+    assertFalse(tree.hasIntervalContaining(-1));
+  }
+
+  @Test
+  public void testMaxHighStartingAtOrBefore() {
+    assertEquals(Long.MIN_VALUE, tree.maxHighStartingAtOrBefore(5));
+
+    tree.add(0, 100, "long");
+    tree.add(10, 20, "a");
+    tree.add(30, 40, "b");
+    tree.add(200, 210, "c");
+
+    assertEquals(Long.MIN_VALUE, tree.maxHighStartingAtOrBefore(-1));
+    assertEquals(100, tree.maxHighStartingAtOrBefore(0));
+    assertEquals(100, tree.maxHighStartingAtOrBefore(150));
+    assertEquals(210, tree.maxHighStartingAtOrBefore(200));
+
+    tree.remove(0, 100, "long");
+    assertEquals(40, tree.maxHighStartingAtOrBefore(150));
+  }
+
+  @Test
+  public void testMatchesLinearScan() {
+    Random random = new Random(42);
+    List<long[]> intervals = new ArrayList<>();
+    List<String> values = new ArrayList<>();
+
+    for (int i = 0; i < 2000; i++) {
+      long low = random.nextInt(10000);
+      long high = low + random.nextInt(200);
+      intervals.add(new long[]{low, high});
+      values.add(String.valueOf(i));
+      tree.add(low, high, values.get(i));
+    }
+
+    // remove every third interval to exercise rebalancing on deletion
+    for (int i = 0; i < 2000; i += 3) {
+      assertTrue(tree.remove(intervals.get(i)[0], intervals.get(i)[1], values.get(i)));
+    }
+
+    for (int query = 0; query < 200; query++) {
+      long low = random.nextInt(10000);
+      long high = low + random.nextInt(500);
+
+      int expected = 0;
+      for (int i = 0; i < 2000; i++) {
+        if (i % 3 != 0 && intervals.get(i)[0] <= high && intervals.get(i)[1] >= low) {
+          expected++;
+        }
+      }
+      assertEquals(expected, tree.findOverlapping(low, high).size());
+
+      boolean contained = false;
+      for (int i = 0; i < 2000; i++) {
+        if (i % 3 != 0 && intervals.get(i)[0] <= low && intervals.get(i)[1] > low) {
+          contained = true;
+        }
+      }
+      assertEquals(contained, tree.hasIntervalContaining(low));
+
+      long maxHigh = Long.MIN_VALUE;
+      for (int i = 0; i < 2000; i++) {
+        if (i % 3 != 0 && intervals.get(i)[0] <= low) {
+          maxHigh = Math.max(maxHigh, intervals.get(i)[1]);
+        }
+      }
+      assertEquals(maxHigh, tree.maxHighStartingAtOrBefore(low));
+    }
+  }
+
+  @Test
+  public void testAddSortedMatchesAdd() {
+    Random random = new Random(7);
+    int count = 1000;
+    long[] lows = new long[count];
+    long[] highs = new long[count];
+    List<String> values = new ArrayList<>();
+    IntervalTree<String> expected = new IntervalTree<>();
+    long low = 0;
+    for (int i = 0; i < count; i++) {
+      // repeat some intervals so that values share nodes
+      if (i == 0 || random.nextInt(4) != 0) {
+        low += 1 + random.nextInt(20);
+        highs[i] = low + random.nextInt(100);
+      } else {
+        highs[i] = highs[i - 1];
+      }
+      lows[i] = low;
+      values.add(String.valueOf(i));
+      expected.add(lows[i], highs[i], values.get(i));
+    }
+
+    tree.addSorted(lows, highs, values);
+    tree.add(50, 60, "extra");
+    expected.add(50, 60, "extra");
+    assertEquals(count + 1, tree.size());
+    for (int query = 0; query < 200; query++) {
+      long queryLow = random.nextInt((int) low + 100);
+      long queryHigh = queryLow + random.nextInt(300);
+      assertEquals(expected.findOverlapping(queryLow, queryHigh),
+          tree.findOverlapping(queryLow, queryHigh));
+      assertEquals(expected.hasIntervalContaining(queryLow),
+          tree.hasIntervalContaining(queryLow));
+    }
+  }
+
+  @Test
+  public void testAddSortedUnsorted() {
+    try {
+      tree.addSorted(new long[]{5, 1}, new long[]{6, 2}, List.of("a", "b"));
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Intervals must be added in sorted order", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,342 @@
+package calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import model.ConflictException;
+import utils.TimeUtils;
+
+/**
+ * A JUnit test class for testing the MappedCalendar class.
+ */
+public class MappedCalendarTest {
+
+  Path directory;
+  MappedCalendar calendar;
+  ZoneId zone;
+  ChronoZonedDateTime<LocalDate> dateTime;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("mapped");
+    // small segments so that the tests cross segment boundaries
+    calendar = new MappedCalendar("archive", "US/Eastern", directory, 4);
+    zone = ZoneId.of("US/Eastern");
+    dateTime = TimeUtils.parseDateTimeString("2025-03-02T10:00", zone);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    calendar.close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private IEvent createEvent(String subject, int startHour, int endHour) {
+    return new Event.EventBuilder()
+        .subject(subject)
+        .startDateTime(dateTime.plus(startHour, ChronoUnit.HOURS))
+        .endDateTime(dateTime.plus(endHour, ChronoUnit.HOURS))
+        .location("Room 1")
+        .build();
+  }
+
+  @Test
+  public void testEventsAreSorted() {
+    calendar.addEvents(List.of(createEvent("c", 48, 49), createEvent("a", 0, 1),
+        createEvent("e", 96, 97), createEvent("b", 24, 25), createEvent("d", 72, 73),
+        createEvent("f", 2, 3)));
+
+    List<String> subjects = new ArrayList<>();
+    for (IEvent event : calendar.getAllEvents()) {
+      subjects.add(event.getSubject());
+    }
+    assertEquals(List.of("a", "f", "b", "c", "d", "e"), subjects);
+    assertEquals(6, calendar.getEvents().size());
+    assertEquals("Room 1", calendar.getEvents().get(5).getLocation());
+  }
+
+  @Test
+  public void testQueries() {
+    calendar.addEvents(List.of(createEvent("short", 0, 1), createEvent("long", 2, 50),
+        createEvent("later", 72, 73)));
+
+    assertEquals(List.of("short", "long"), subjects(calendar.getEventsOnDate(dateTime)));
+    assertEquals(List.of("long"),
+        subjects(calendar.getEventsOnDate(dateTime.plus(1, ChronoUnit.DAYS))));
+    assertEquals(List.of("long", "later"), subjects(calendar.getEventsInRange(
+        dateTime.plus(50, ChronoUnit.HOURS), dateTime.plus(80, ChronoUnit.HOURS))));
+    assertTrue(calendar.isBusy(dateTime.plus(30, ChronoUnit.HOURS)));
+    assertFalse(calendar.isBusy(dateTime.plus(50, ChronoUnit.HOURS)));
+    assertEquals(List.of(true, false, true), calendar.isBusy(List.of(dateTime,
+        dateTime.plus(1, ChronoUnit.HOURS), dateTime.plus(2, ChronoUnit.HOURS))));
+    assertEquals("long", calendar.findEvent("long", dateTime.plus(2, ChronoUnit.HOURS))
+        .getSubject());
+    assertNull(calendar.findEvent("long", dateTime));
+    assertNull(calendar.findEvent("unknown", dateTime));
+  }
+
+  @Test
+  public void testConflictRollsBack() {
+    calendar.addEvents(List.of(createEvent("existing", 0, 2)));
+    try {
+      calendar.addEvents(List.of(createEvent("first", 5, 6), createEvent("second", 1, 3)));
+      fail("Expected a ConflictException");
+    } catch (ConflictException e) {
+      assertEquals("Event conflicts with an existing event", e.getMessage());
+    }
+
+    assertEquals(List.of("existing"), subjects(calendar.getEvents()));
+  }
+
+  @Test
+  public void testConflictWithinBatch() {
+    try {
+      calendar.addEvents(List.of(createEvent("first", 0, 2), createEvent("second", 1, 3)));
+      fail("Expected a ConflictException");
+    } catch (ConflictException e) {
+      assertEquals("Event conflicts with an existing event", e.getMessage());
+    }
+    assertEquals(0, calendar.getEvents().size());
+
+    List<IEvent> skipped = calendar.addEventsSkippingConflicts(List.of(createEvent("second", 1, 3),
+        createEvent("first", 0, 2), createEvent("third", 3, 4)));
+    assertEquals(List.of("second"), subjects(skipped));
+    assertEquals(List.of("first", "third"), subjects(calendar.getEvents()));
+  }
+
+  @Test
+  public void testBatchMergesIntoRecords() {
+    ICalendar expected = new Calendar("archive", "US/Eastern");
+    List<IEvent> existing = new ArrayList<>();
+    for (int hour = 0; hour < 200; hour += 10) {
+      existing.add(createEvent("existing" + hour, hour, hour + 1));
+    }
+    expected.addEvents(existing);
+    calendar.addEvents(existing);
+
+    // a long event before the existing ones raises the latest end of the records after it
+    List<IEvent> batch = new ArrayList<>();
+    batch.add(createEvent("long", -100, -1));
+    for (int hour = 205; hour > 0; hour -= 20) {
+      batch.add(createEvent("new" + hour, hour, hour + 2));
+    }
+    assertEquals(expected.addEventsSkippingConflicts(batch).toString(),
+        calendar.addEventsSkippingConflicts(batch).toString());
+
+    assertEquals(expected.getEvents().toString(), calendar.getEvents().toString());
+    for (int hour = -120; hour < 220; hour += 3) {
+      ChronoZonedDateTime<LocalDate> point = dateTime.plus(hour, ChronoUnit.HOURS);
+      assertEquals(expected.isBusy(point), calendar.isBusy(point));
+      assertEquals(expected.getEventsInRange(point, point.plus(5, ChronoUnit.HOURS)).toString(),
+          calendar.getEventsInRange(point, point.plus(5, ChronoUnit.HOURS)).toString());
+    }
+  }
+
+  @Test
+  public void testRejectedBatchLeavesRecords() throws IOException {
+    calendar.addEvents(List.of(createEvent("existing", 0, 1)));
+    try {
+      calendar.addEvents(List.of(createEvent("first", -5, -4), new Event.EventBuilder()
+          .subject("second")
+          .startDateTime(dateTime.plus(3 * 3600 + 30, ChronoUnit.SECONDS))
+          .endDateTime(dateTime.plus(4, ChronoUnit.HOURS))
+          .build()));
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // nothing moved and the header still counts the old records
+    }
+    calendar.close();
+
+    calendar = MappedCalendar.open(directory, 4);
+    assertEquals(List.of("existing"), subjects(calendar.getEvents()));
+  }
+
+  @Test
+  public void testEditSingleEvent() {
+    calendar.addEvents(List.of(createEvent("a", 0, 1), createEvent("b", 2, 3)));
+
+    calendar.editSingleEvent("endDateTime", "a", "2025-03-02T10:00", "", "2025-03-02T11:30");
+    assertTrue(calendar.isBusy(dateTime.plus(80, ChronoUnit.MINUTES)));
+    calendar.editSingleEvent("startDateTime", "b", "2025-03-02T12:00", "", "2025-03-02T11:30");
+    assertEquals("2025-03-02T11:30-05:00[US/Eastern]",
+        calendar.getEvents().get(1).getStartDateTime().toString());
+    calendar.editSingleEvent("location", "b", "2025-03-02T11:30", "", "Room 2");
+    assertEquals("Room 2", calendar.getEvents().get(1).getLocation());
+
+    try {
+      calendar.editSingleEvent("endDateTime", "a", "2025-03-02T10:00", "", "2025-03-02T12:00");
+      fail("Expected a ConflictException");
+    } catch (ConflictException e) {
+      assertEquals("Event conflicts with an existing event", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testEditEventsBySubject() {
+    calendar.addEvents(List.of(createEvent("a", 0, 1), createEvent("a", 24, 25),
+        createEvent("b", 2, 3)));
+
+    calendar.editEventsFromStartDateTime("private", "a", "2025-03-03T10:00", "true");
+    assertFalse(calendar.getEvents().get(0).isPrivate());
+    assertTrue(calendar.getEvents().get(2).isPrivate());
+
+    calendar.editEventsBySubject("subject", "a", "c");
+    assertEquals(List.of("c", "b", "c"), subjects(calendar.getEvents()));
+    try {
+      calendar.editEventsBySubject("location", "a", "Room 2");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Event not found: a", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testAddSeries() {
+    IRepeatingEvent base = new RepeatingEvent.RepeatingEventBuilder()
+        .subject("series")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .repeatDays(TimeUtils.getDaysOfWeek("MTWRFSU".toCharArray()))
+        .repeatNumber(5)
+        .build();
+    ICalendar expected = new Calendar("archive", "US/Eastern");
+    expected.addSeries(base);
+    calendar.addSeries(base);
+
+    assertEquals(expected.getEvents().size(), calendar.getEvents().size());
+    try {
+      calendar.editEventsBySubject("repeatNumber", "series", "3");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Repeat rules are not stored in a mapped calendar", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testReopen() throws IOException {
+    calendar.addEvents(List.of(createEvent("a", 0, 1), createEvent("b", 30, 31)));
+    calendar.setName("renamed");
+    calendar.setTimezone("Europe/London");
+    calendar.close();
+
+    calendar = MappedCalendar.open(directory, 4);
+    assertEquals("renamed", calendar.getName());
+    assertEquals(ZoneId.of("Europe/London"), calendar.getTimezone());
+    assertEquals("2025-03-02T15:00Z[Europe/London]",
+        calendar.getEvents().get(0).getStartDateTime().toString());
+    calendar.addEvents(List.of(createEvent("a", 2, 3)));
+    assertEquals(List.of("a", "a", "b"), subjects(calendar.getEvents()));
+  }
+
+  @Test
+  public void testStringIndexIsRebuilt() throws IOException {
+    // enough distinct strings to grow the index several times
+    List<IEvent> events = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      events.add(new Event.EventBuilder()
+          .subject("event" + i)
+          .startDateTime(dateTime.plus(i, ChronoUnit.HOURS))
+          .endDateTime(dateTime.plus(i * 60L + 30, ChronoUnit.MINUTES))
+          .description("note " + i)
+          .build());
+    }
+    calendar.addEvents(events);
+    calendar.close();
+
+    Files.delete(directory.resolve("strings.idx"));
+    calendar = MappedCalendar.open(directory, 4);
+    assertEquals("note 9999",
+        calendar.findEvent("event9999", dateTime.plus(9999, ChronoUnit.HOURS)).getDescription());
+    calendar.editEventsBySubject("location", "event5000", "Room 5");
+    assertEquals("Room 5",
+        calendar.findEvent("event5000", dateTime.plus(5000, ChronoUnit.HOURS)).getLocation());
+    assertNull(calendar.findEvent("note 1", dateTime.plus(1, ChronoUnit.HOURS)));
+  }
+
+  @Test
+  public void testIsStoredIn() throws IOException {
+    assertTrue(MappedCalendar.isStoredIn(directory));
+    Path empty = Files.createTempDirectory("empty");
+    assertFalse(MappedCalendar.isStoredIn(empty));
+    Files.delete(empty);
+  }
+
+  @Test
+  public void testDirectoryInUse() {
+    try {
+      new MappedCalendar("other", "US/Eastern", directory);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException | IOException e) {
+      assertEquals("A calendar is already stored in " + directory, e.getMessage());
+    }
+  }
+
+  @Test
+  public void testSetStorage() {
+    calendar.edit("storage", MappedCalendar.MAPPED_STORAGE);
+    try {
+      calendar.edit("storage", Calendar.TREE_STORAGE);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid storage mode for a mapped calendar: tree", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testMatchesCalendar() {
+    ICalendar expected = new Calendar("archive", "US/Eastern");
+    Random random = new Random(7);
+    for (int i = 0; i < 200; i++) {
+      int start = random.nextInt(2000);
+      List<IEvent> event = List.of(createEvent("event" + i, start, start + 1 + random.nextInt(30)));
+      try {
+        expected.addEvents(event);
+        calendar.addEvents(event);
+      } catch (ConflictException e) {
+        // skip events that conflict in both calendars
+      }
+    }
+
+    assertEquals(expected.getEvents().toString(), calendar.getEvents().toString());
+    for (int hour = 0; hour < 2100; hour += 37) {
+      ChronoZonedDateTime<LocalDate> point = dateTime.plus(hour, ChronoUnit.HOURS);
+      assertEquals(expected.isBusy(point), calendar.isBusy(point));
+      assertEquals(expected.getEventsOnDate(point).toString(),
+          calendar.getEventsOnDate(point).toString());
+      assertEquals(expected.getEventsInRange(point, point.plus(50, ChronoUnit.HOURS)).toString(),
+          calendar.getEventsInRange(point, point.plus(50, ChronoUnit.HOURS)).toString());
+    }
+  }
+
+  private List<String> subjects(List<IEvent> events) {
+    List<String> result = new ArrayList<>();
+    for (IEvent event : events) {
+      result.add(event.getSubject());
+    }
+    return result;
+  }
+}
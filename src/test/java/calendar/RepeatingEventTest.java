@@ -1,6 +1,7 @@
 package calendar;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertFalse;
 
@@ -469,6 +470,45 @@ public class RepeatingEventTest {
     assertEquals(5, repeatedEvents.size());
   }
 
+  @Test
+  public void testSeriesId() {
+    ChronoZonedDateTime<LocalDate> startDateTime =
+        TimeUtils.parseDateTimeString("2025-03-03T08:00", ZONE_ID);
+    IRepeatingEvent base = new RepeatingEvent.RepeatingEventBuilder()
+        .subject("1")
+        .startDateTime(startDateTime)
+        .endDateTime(startDateTime.plus(1, ChronoUnit.HOURS))
+        .repeatDays(TimeUtils.getDaysOfWeek(new char[]{'M', 'W'}))
+        .repeatNumber(3)
+        .build();
+    IRepeatingEvent other = new RepeatingEvent.RepeatingEventBuilder()
+        .subject("1")
+        .startDateTime(startDateTime)
+        .endDateTime(startDateTime.plus(1, ChronoUnit.HOURS))
+        .repeatDays(TimeUtils.getDaysOfWeek(new char[]{'M', 'W'}))
+        .repeatNumber(3)
+        .build();
+    assertNotEquals(base.getSeriesId(), other.getSeriesId());
+
+    for (IEvent event : base.repeatNTimes()) {
+      assertEquals(base.getSeriesId(), ((IRepeatingEvent) event).getSeriesId());
+    }
+
+    // a copy starts its own series
+    IRepeatingEvent copy = (IRepeatingEvent) base.copy(60, ZONE_ID);
+    assertNotEquals(base.getSeriesId(), copy.getSeriesId());
+
+    IRepeatingEvent withId = new RepeatingEvent.RepeatingEventBuilder()
+        .subject("1")
+        .startDateTime(startDateTime)
+        .endDateTime(startDateTime.plus(1, ChronoUnit.HOURS))
+        .repeatDays(TimeUtils.getDaysOfWeek(new char[]{'M', 'W'}))
+        .repeatNumber(3)
+        .seriesId(base.getSeriesId())
+        .build();
+    assertEquals(base.getSeriesId(), withId.getSeriesId());
+  }
+
   @Test
   public void testEditRepeat() {
     ChronoZonedDateTime<LocalDate> startDateTime =
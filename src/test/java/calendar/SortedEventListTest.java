@@ -0,0 +1,158 @@
+package calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import utils.TimeUtils;
+
+/**
+ * A JUnit test class for testing the SortedEventList class.
+ */
+public class SortedEventListTest {
+
+  SortedEventList list;
+  ChronoZonedDateTime<LocalDate> dateTime;
+
+  @Before
+  public void setUp() {
+    list = new SortedEventList();
+    dateTime = TimeUtils.parseDateTimeString("2025-03-02T10:00", ZoneId.of("US/Eastern"));
+  }
+
+  private IEvent createEvent(String subject, int startHour, int endHour) {
+    return new Event.EventBuilder()
+        .subject(subject)
+        .startDateTime(dateTime.plus(startHour, ChronoUnit.HOURS))
+        .endDateTime(dateTime.plus(endHour, ChronoUnit.HOURS))
+        .build();
+  }
+
+  @Test
+  public void testInsertKeepsSortOrder() {
+    IEvent event1 = createEvent("1", 0, 1);
+    IEvent event2 = createEvent("2", 2, 3);
+    IEvent event3 = createEvent("3", 2, 4);
+    IEvent event4 = createEvent("4", 5, 6);
+
+    assertEquals(0, list.insert(event4));
+    assertEquals(0, list.insert(event1));
+    assertEquals(1, list.insert(event3));
+    assertEquals(1, list.insert(event2));
+
+    assertEquals(List.of(event1, event2, event3, event4), list);
+  }
+
+  @Test
+  public void testEqualEventsKeepInsertionOrder() {
+    IEvent event1 = createEvent("1", 0, 1);
+    IEvent event2 = createEvent("2", 0, 1);
+
+    list.insert(event1);
+    list.insert(event2);
+
+    assertSame(event1, list.get(0));
+    assertSame(event2, list.get(1));
+    assertEquals(1, list.indexOfIdentity(event2));
+  }
+
+  @Test
+  public void testDelete() {
+    IEvent event1 = createEvent("1", 0, 1);
+    IEvent event2 = createEvent("2", 0, 1);
+    IEvent event3 = createEvent("3", 1, 2);
+    list.insert(event1);
+    list.insert(event2);
+    list.insert(event3);
+
+    assertTrue(list.delete(event2));
+    assertFalse(list.delete(event2));
+    assertEquals(List.of(event1, event3), list);
+    assertEquals(-1, list.indexOfIdentity(event2));
+  }
+
+  @Test
+  public void testLowerBoundStartDateTime() {
+    IEvent event1 = createEvent("1", 0, 1);
+    IEvent event2 = createEvent("2", 2, 3);
+    IEvent event3 = createEvent("3", 2, 4);
+    list.insert(event1);
+    list.insert(event2);
+    list.insert(event3);
+
+    assertEquals(0, list.lowerBound(dateTime.minus(1, ChronoUnit.HOURS)));
+    assertEquals(0, list.lowerBound(dateTime));
+    assertEquals(1, list.lowerBound(dateTime.plus(1, ChronoUnit.HOURS)));
+    assertEquals(1, list.lowerBound(dateTime.plus(2, ChronoUnit.HOURS)));
+    assertEquals(3, list.lowerBound(dateTime.plus(3, ChronoUnit.HOURS)));
+  }
+
+  @Test
+  public void testReadOnly() {
+    IEvent event = createEvent("1", 0, 1);
+    list.insert(event);
+
+    try {
+      list.add(event);
+      fail("Expected an UnsupportedOperationException");
+    } catch (UnsupportedOperationException ignored) {
+      // expected
+    }
+    try {
+      list.remove(0);
+      fail("Expected an UnsupportedOperationException");
+    } catch (UnsupportedOperationException ignored) {
+      // expected
+    }
+    assertEquals(1, list.size());
+  }
+
+  @Test
+  public void testGetOutOfBounds() {
+    try {
+      list.get(0);
+      fail("Expected an IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException e) {
+      assertEquals("Index: 0, Size: 0", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testRandomInsertsAndDeletes() {
+    Random random = new Random(7);
+    List<IEvent> expected = new ArrayList<>();
+
+    for (int i = 0; i < 1000; i++) {
+      int start = random.nextInt(500);
+      IEvent event = createEvent(String.valueOf(i), start, start + 1 + random.nextInt(3));
+      list.insert(event);
+      expected.add(event);
+
+      if (i % 4 == 0) {
+        IEvent removed = expected.remove(random.nextInt(expected.size()));
+        assertTrue(list.delete(removed));
+      }
+    }
+
+    Collections.sort(expected);
+    assertEquals(expected.size(), list.size());
+    for (int i = 1; i < list.size(); i++) {
+      assertTrue(list.get(i - 1).compareTo(list.get(i)) <= 0);
+    }
+    assertTrue(list.containsAll(expected));
+  }
+}
@@ -0,0 +1,53 @@
+package calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * A JUnit test class for testing the StringDictionary class.
+ */
+public class StringDictionaryTest {
+
+  @Test
+  public void testIntern() {
+    StringDictionary strings = new StringDictionary(false);
+    String first = new String("meeting");
+    String second = new String("meeting");
+
+    assertSame(first, strings.intern(first));
+    assertSame(first, strings.intern(second));
+    assertSame(first, strings.intern(first));
+    assertNull(strings.intern(null));
+
+    // the shared instance itself is not counted again
+    assertEquals(2, strings.getLookups());
+    assertEquals(1, strings.getHits());
+    assertEquals(1, strings.size());
+    assertEquals(2.0, strings.getDedupRatio(), 0.001);
+    assertEquals(47, strings.getBytesSaved());
+  }
+
+  @Test
+  public void testEmptyStats() {
+    StringDictionary strings = new StringDictionary(true);
+
+    assertEquals(1.0, strings.getDedupRatio(), 0.001);
+    assertEquals("strings: 0, lookups: 0, duplicates: 0, dedupRatio: 1.00, bytesSaved: 0",
+        strings.toString());
+  }
+
+  @Test
+  public void testWeakIntern() {
+    StringDictionary strings = new StringDictionary(true);
+    String first = new String("lunch");
+
+    assertSame(first, strings.intern(first));
+    assertSame(first, strings.intern(new String("lunch")));
+    assertSame(first, strings.intern(new String("lunch")));
+    assertEquals(1, strings.size());
+    assertEquals(3.0, strings.getDedupRatio(), 0.001);
+  }
+}
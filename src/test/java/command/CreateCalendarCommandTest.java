@@ -3,6 +3,12 @@ package command;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
 import model.IModel;
 import view.View;
 import view.Viewer;
@@ -69,4 +75,32 @@ public class CreateCalendarCommandTest {
     String expected = "Input: name: new test, timezone: America/New_York";
     assertEquals(expected, log.toString());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testArchive() throws Exception {
+    Path directory = Files.createTempDirectory("archive");
+    try {
+      command.execute(model, view, "create calendar --name test --timezone America/New_York"
+          + " --archive \"" + directory + "\"");
+      assertEquals("Input: name: test, timezone: America/New_York", log.toString());
+      assertEquals("Created calendar\n", out.toString());
+
+      // the archive keeps the name and timezone it was created with
+      command.execute(model, view, "create calendar --name other --timezone Europe/London"
+          + " --archive " + directory);
+      assertEquals("Input: name: test, timezone: America/New_York"
+          + "Input: name: test, timezone: America/New_York", log.toString());
+      assertEquals("Created calendar\nOpened archive calendar test\n", out.toString());
+    } finally {
+      deleteDirectory(directory);
+    }
+  }
+
+  private void deleteDirectory(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+}
@@ -2,11 +2,13 @@ package command;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import model.IModel;
@@ -54,4 +56,14 @@ public class ExportCalendarCommandTest {
     String expected = "Exported calendar to " + filepath + System.lineSeparator();
     assertEquals(expected, out.toString());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testExecuteIcs() throws Exception {
+    command.execute(model, view, "export cal export.ics");
+
+    Path filepath = Path.of(System.getProperty("user.home"), "Downloads", "export.ics");
+    String expected = "Exported calendar to " + filepath + System.lineSeparator();
+    assertEquals(expected, out.toString());
+    assertTrue(Files.readString(filepath).startsWith("BEGIN:VCALENDAR\r\n"));
+  }
+}
@@ -1,15 +1,27 @@
 package command;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import calendar.IEvent;
 
 import model.IModel;
+import model.Model;
 import view.View;
 import view.Viewer;
 import mock.MockModel;
@@ -75,4 +87,76 @@ public class ImportCalendarCommandTest {
     String expectedOut = "Finished importing events." + System.lineSeparator();
     assertEquals(expectedOut, out.toString());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testExecuteIcs() throws Exception {
+    Path path = Files.createTempFile("import", ".ics");
+    path.toFile().deleteOnExit();
+    Files.writeString(path, "BEGIN:VCALENDAR\r\nBEGIN:VEVENT\r\nSUMMARY:standup\r\n"
+        + "DTSTART;TZID=US/Eastern:20250407T090000\r\nDTEND;TZID=US/Eastern:20250407T091500\r\n"
+        + "RRULE:FREQ=WEEKLY;BYDAY=MO,TU;COUNT=2\r\nEND:VEVENT\r\nBEGIN:VEVENT\r\n"
+        + "SUMMARY:event\r\nDTSTART:20250408T173200Z\r\nDTEND:20250408T183200Z\r\n"
+        + "END:VEVENT\r\nEND:VCALENDAR\r\n");
+    command.execute(model, view, "import cal " + path);
+
+    // the series is added as a series, the event in a batch at the end
+    String series = log.substring(0, log.indexOf("]Input: ") + 1);
+    assertTrue(series.startsWith("Input: [subject: standup, "
+        + "startDateTime: 2025-04-07T09:00-04:00[US/Eastern], "
+        + "endDateTime: 2025-04-07T09:15-04:00[US/Eastern]"));
+    assertTrue(series.contains("repeatNumber: 1"));
+    assertTrue(series.contains("startDateTime: 2025-04-08T09:00-04:00[US/Eastern]"));
+    String expected = "Input: [subject: event, startDateTime: 2025-04-08T13:32-04:00[US/Eastern], "
+        + "endDateTime: 2025-04-08T14:32-04:00[US/Eastern], description: , location: , "
+        + "isAllDay: false, isPrivate: false]";
+    assertEquals(expected, log.substring(series.length()));
+    assertEquals("Finished importing events." + System.lineSeparator(), out.toString());
+  }
+
+  @Test
+  public void testBadRowInLaterBatch() throws Exception {
+    Path path = Files.createTempFile("import", ".csv");
+    path.toFile().deleteOnExit();
+    // well over the first batch of rows, with a row missing its fields at the end
+    int rows = 20_000;
+    Files.writeString(path, csvRows(rows) + "broken,04/08/2025\n");
+    IModel model = new Model();
+    List<List<IEvent>> batches = new ArrayList<>();
+    command.setAddedEventsSink(batches::add);
+
+    try {
+      command.execute(model, view, "import cal " + path);
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      // the batches before the bad row are kept and counted
+      int added = model.getCurrentCalendar().getEvents().size();
+      assertTrue(added > 0 && added < rows);
+      assertEquals("Import stopped after adding " + added + " events: Expected 9 fields in a "
+          + "row, found 2", e.getMessage());
+    }
+    // each committed batch was handed over as it was added
+    assertFalse(batches.isEmpty());
+    int journaled = 0;
+    for (List<IEvent> batch : batches) {
+      journaled += batch.size();
+    }
+    assertEquals(model.getCurrentCalendar().getEvents().size(), journaled);
+  }
+
+  private static String csvRows(int count) {
+    DateTimeFormatter date = DateTimeFormatter.ofPattern("MM/dd/yyyy", Locale.US);
+    DateTimeFormatter time = DateTimeFormatter.ofPattern("hh:mm a", Locale.US);
+    StringBuilder csv = new StringBuilder("subject,startDate,startTime,endDate,endTime,"
+        + "allDayEvent,description,location,private\n");
+    LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+    for (int i = 0; i < count; i++) {
+      LocalDateTime eventStart = start.plusHours(i);
+      LocalDateTime eventEnd = eventStart.plusMinutes(30);
+      csv.append("event ").append(i).append(',')
+          .append(date.format(eventStart)).append(',').append(time.format(eventStart)).append(',')
+          .append(date.format(eventEnd)).append(',').append(time.format(eventEnd))
+          .append(",False,,,False\n");
+    }
+    return csv.toString();
+  }
+}
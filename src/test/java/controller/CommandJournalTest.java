@@ -0,0 +1,176 @@
+package controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import calendar.CalendarSnapshot;
+import calendar.Event;
+import calendar.IEvent;
+import calendar.StringDictionary;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A JUnit test class for testing the CommandJournal class.
+ */
+public class CommandJournalTest {
+
+  Path path;
+
+  @Before
+  public void setUp() throws IOException {
+    path = Files.createTempFile("journal", ".log");
+    path.toFile().deleteOnExit();
+  }
+
+  @Test
+  public void testAppendAndReopen() throws IOException {
+    try (CommandJournal journal = new CommandJournal(path)) {
+      assertEquals(List.of(), commands(journal));
+      journal.append("create calendar --name work --timezone Europe/London");
+      journal.append("use calendar --name work");
+    }
+
+    try (CommandJournal journal = new CommandJournal(path)) {
+      journal.append("create event café on 2025-03-06");
+    }
+
+    try (CommandJournal journal = new CommandJournal(path)) {
+      assertEquals(List.of("create calendar --name work --timezone Europe/London",
+          "use calendar --name work", "create event café on 2025-03-06"),
+          commands(journal));
+    }
+  }
+
+  @Test
+  public void testTornRecordIsDropped() throws IOException {
+    try (CommandJournal journal = new CommandJournal(path)) {
+      journal.append("use calendar --name first");
+      journal.append("use calendar --name second");
+    }
+    // cut the last record in half, as a crash during a write would
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 5);
+    }
+
+    try (CommandJournal journal = new CommandJournal(path)) {
+      assertEquals(List.of("use calendar --name first"), commands(journal));
+      journal.append("use calendar --name third");
+    }
+    try (CommandJournal journal = new CommandJournal(path)) {
+      assertEquals(List.of("use calendar --name first", "use calendar --name third"),
+          commands(journal));
+    }
+  }
+
+  @Test
+  public void testCorruptRecordIsDropped() throws IOException {
+    try (CommandJournal journal = new CommandJournal(path)) {
+      journal.append("use calendar --name first");
+      journal.append("use calendar --name second");
+    }
+    byte[] bytes = Files.readAllBytes(path);
+    bytes[bytes.length - 1] ^= 1;
+    Files.write(path, bytes);
+
+    try (CommandJournal journal = new CommandJournal(path)) {
+      assertEquals(List.of("use calendar --name first"), commands(journal));
+    }
+  }
+
+  @Test
+  public void testConcurrentAppends() throws Exception {
+    List<Thread> threads = new ArrayList<>();
+    try (CommandJournal journal = new CommandJournal(path)) {
+      for (int t = 0; t < 4; t++) {
+        int thread = t;
+        threads.add(new Thread(() -> {
+          try {
+            for (int i = 0; i < 50; i++) {
+              journal.append("use calendar --name " + thread + "-" + i);
+            }
+          } catch (IOException e) {
+            throw new IllegalStateException(e);
+          }
+        }));
+      }
+      for (Thread thread : threads) {
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    }
+
+    try (CommandJournal journal = new CommandJournal(path)) {
+      Set<String> commands = new HashSet<>(commands(journal));
+      assertEquals(200, commands.size());
+    }
+  }
+
+  @Test
+  public void testAppendAfterClose() throws IOException {
+    CommandJournal journal = new CommandJournal(path);
+    journal.close();
+    try {
+      journal.append("use calendar --name work");
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      assertEquals("The journal is closed", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testRecordKinds() throws IOException {
+    try (CommandJournal journal = new CommandJournal(path)) {
+      journal.append("use calendar --name first");
+      journal.appendFailed("copy events on 2025-03-06 --target work to 2025-03-07");
+      journal.appendEvents(List.of(new Event.EventBuilder()
+          .subject("standup")
+          .startDateTime(ZonedDateTime.of(2025, 3, 6, 9, 0, 0, 0, ZoneId.of("UTC")))
+          .endDateTime(ZonedDateTime.of(2025, 3, 6, 9, 30, 0, 0, ZoneId.of("UTC")))
+          .build()));
+    }
+
+    try (CommandJournal journal = new CommandJournal(path)) {
+      List<CommandJournal.Record> records = journal.getRecords();
+      assertEquals(3, records.size());
+      assertEquals("use calendar --name first", records.get(0).getCommand());
+      assertFalse(records.get(0).isFailed());
+      assertEquals("copy events on 2025-03-06 --target work to 2025-03-07",
+          records.get(1).getCommand());
+      assertTrue(records.get(1).isFailed());
+      assertNull(records.get(2).getCommand());
+      byte[] payload = records.get(2).getEvents();
+      List<IEvent> events = CalendarSnapshot.readEvents(new DataInputStream(
+          new ByteArrayInputStream(payload)), new StringDictionary(true));
+      assertEquals(1, events.size());
+      assertEquals("standup", events.get(0).getSubject());
+    }
+  }
+
+  private List<String> commands(CommandJournal journal) {
+    List<String> commands = new ArrayList<>();
+    for (CommandJournal.Record record : journal.getRecords()) {
+      commands.add(record.getCommand());
+    }
+    return commands;
+  }
+}
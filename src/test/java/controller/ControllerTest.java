@@ -15,12 +15,16 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.chrono.ChronoZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Locale;
 
 import calendar.Calendar;
 import calendar.Event;
@@ -28,6 +32,7 @@ import calendar.ICalendar;
 import calendar.IEvent;
 import calendar.IRepeatingEvent;
 import calendar.RepeatingEvent;
+import mock.MockView;
 import model.IModel;
 import model.Model;
 import utils.TimeUtils;
@@ -723,4 +728,186 @@ public class ControllerTest {
     assertEquals(3, target.getEvents().size());
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testJournalReplay() throws IOException {
+    Path path = Files.createTempFile("journal", ".log");
+    path.toFile().deleteOnExit();
+    String commands = "create calendar --name work --timezone Europe/London\n"
+        + "use calendar --name work\n"
+        + "create event meeting from 2025-03-06T10:00 to 2025-03-06T11:00\n"
+        + "print events on 2025-03-06\n"
+        + "edit event location meeting from 2025-03-06T10:00 to 2025-03-06T11:00 with Room\n"
+        + "create event meeting from 2025-03-06T10:30 to 2025-03-06T11:30";
+
+    try (CommandJournal journal = new CommandJournal(path)) {
+      Controller controller = new Controller(new InputStreamReader(new ByteArrayInputStream(
+          commands.getBytes(StandardCharsets.UTF_8))), model, view);
+      controller.setJournal(journal);
+      controller.listen();
+    }
+
+    IModel restored = new Model();
+    try (CommandJournal journal = new CommandJournal(path)) {
+      // the print command and the conflicting event are not recorded
+      assertEquals(4, journal.getRecords().size());
+      Controller controller = new Controller(new InputStreamReader(new ByteArrayInputStream(
+          new byte[0])), restored, new View(new StringBuilder()));
+      assertEquals(4, controller.setJournal(journal));
+    }
+
+    ICalendar work = restored.getCurrentCalendar();
+    assertEquals("work", work.getName());
+    assertEquals(1, work.getEvents().size());
+    assertEquals("Room", work.getEvents().get(0).getLocation());
+  }
+
+  @Test
+  public void testJournalPartialCopy() throws IOException {
+    Path path = Files.createTempFile("journal", ".log");
+    path.toFile().deleteOnExit();
+    // the copy adds the first event and skips the second, which conflicts with the first
+    String commands = "create calendar --name target --timezone America/New_York\n"
+        + "use calendar --name target\n"
+        + "create event a from 2025-03-06T10:00 to 2025-03-06T11:00\n"
+        + "create event b from 2025-03-06T12:00 to 2025-03-06T13:00\n"
+        + "create calendar --name source --timezone America/New_York\n"
+        + "use calendar --name source\n"
+        + "create event c from 2025-03-06T08:00 to 2025-03-06T09:00\n"
+        + "create event d from 2025-03-06T12:30 to 2025-03-06T13:30\n"
+        + "copy events on 2025-03-06 --target target to 2025-03-06";
+
+    try (CommandJournal journal = new CommandJournal(path)) {
+      Controller controller = new Controller(new InputStreamReader(new ByteArrayInputStream(
+          commands.getBytes(StandardCharsets.UTF_8))), model, view);
+      controller.setJournal(journal);
+      controller.listen();
+    }
+    assertTrue(out.toString().contains("Error: Skipped 1 conflicting event"));
+
+    IModel restored = new Model();
+    StringBuilder restoredOut = new StringBuilder();
+    try (CommandJournal journal = new CommandJournal(path)) {
+      CommandJournal.Record copy = journal.getRecords().get(journal.getRecords().size() - 1);
+      assertTrue(copy.isFailed());
+      Controller controller = new Controller(new InputStreamReader(new ByteArrayInputStream(
+          new byte[0])), restored, new View(restoredOut));
+      assertEquals(9, controller.setJournal(journal));
+    }
+
+    // the failed copy is expected to fail again, so nothing is reported
+    assertEquals("", restoredOut.toString());
+    restored.useCalendar("target");
+    assertEquals(3, restored.getCurrentCalendar().getEvents().size());
+  }
+
+  @Test
+  public void testJournalImportAsEvents() throws IOException {
+    Path csv = Files.createTempFile("import", ".csv");
+    Path path = Files.createTempFile("journal", ".log");
+    path.toFile().deleteOnExit();
+    Files.writeString(csv, "subject,startDate,startTime,endDate,endTime,allDayEvent,"
+        + "description,location,private\n"
+        + "first,04/08/2025,01:30 PM,04/08/2025,02:30 PM,False,notes,Room 1,False\n"
+        + "second,04/09/2025,09:00 AM,04/09/2025,10:00 AM,False,,,True\n");
+    String commands = "create calendar --name work --timezone America/New_York\n"
+        + "use calendar --name work\n"
+        + "import cal " + csv;
+
+    try (CommandJournal journal = new CommandJournal(path)) {
+      Controller controller = new Controller(new InputStreamReader(new ByteArrayInputStream(
+          commands.getBytes(StandardCharsets.UTF_8))), model, view);
+      controller.setJournal(journal);
+      controller.listen();
+    }
+    // the imported events are replayed from the journal, not from the file
+    Files.delete(csv);
+
+    IModel restored = new Model();
+    StringBuilder restoredOut = new StringBuilder();
+    try (CommandJournal journal = new CommandJournal(path)) {
+      assertEquals(3, journal.getRecords().size());
+      assertTrue(journal.getRecords().get(2).getEvents() != null);
+      Controller controller = new Controller(new InputStreamReader(new ByteArrayInputStream(
+          new byte[0])), restored, new View(restoredOut));
+      assertEquals(3, controller.setJournal(journal));
+    }
+
+    assertEquals("", restoredOut.toString());
+    assertEquals(model.getCurrentCalendar().getEvents().toString(),
+        restored.getCurrentCalendar().getEvents().toString());
+    assertEquals("Room 1", restored.getCurrentCalendar().getEvents().get(0).getLocation());
+  }
+
+  @Test
+  public void testJournalPartialImport() throws IOException {
+    Path csv = Files.createTempFile("import", ".csv");
+    Path path = Files.createTempFile("journal", ".log");
+    path.toFile().deleteOnExit();
+    // enough rows for several batches, with an invalid row at the end
+    DateTimeFormatter format = DateTimeFormatter.ofPattern("MM/dd/yyyy,hh:mm a", Locale.US);
+    StringBuilder rows = new StringBuilder("subject,startDate,startTime,endDate,endTime,"
+        + "allDayEvent,description,location,private\n");
+    LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+    for (int i = 0; i < 20_000; i++) {
+      rows.append("event ").append(i).append(',')
+          .append(format.format(start.plusHours(i))).append(',')
+          .append(format.format(start.plusHours(i).plusMinutes(30))).append(",False,,,False\n");
+    }
+    Files.writeString(csv, rows + "broken,04/08/2025\n");
+    String commands = "create calendar --name work --timezone America/New_York\n"
+        + "use calendar --name work\n"
+        + "import cal " + csv;
+
+    try (CommandJournal journal = new CommandJournal(path)) {
+      Controller controller = new Controller(new InputStreamReader(new ByteArrayInputStream(
+          commands.getBytes(StandardCharsets.UTF_8))), model, view);
+      controller.setJournal(journal);
+      controller.listen();
+    }
+    Files.delete(csv);
+    int added = model.getCurrentCalendar().getEvents().size();
+    assertTrue(added > 0 && added < 20_000);
+
+    // the events added before the invalid row are journaled and replayed
+    IModel restored = new Model();
+    try (CommandJournal journal = new CommandJournal(path)) {
+      // two commands, then one record for each batch the import committed
+      int records = journal.getRecords().size();
+      assertTrue(records >= 3);
+      Controller controller = new Controller(new InputStreamReader(new ByteArrayInputStream(
+          new byte[0])), restored, new View(new StringBuilder()));
+      assertEquals(records, controller.setJournal(journal));
+      assertTrue(journal.getRecords().isEmpty());
+    }
+    assertEquals(added, restored.getCurrentCalendar().getEvents().size());
+  }
+
+  @Test
+  public void testJournalReplayFailureIsReported() throws IOException {
+    Path path = Files.createTempFile("journal", ".log");
+    path.toFile().deleteOnExit();
+    try (CommandJournal journal = new CommandJournal(path)) {
+      journal.append("use calendar --name missing");
+      journal.append("create calendar --name work --timezone America/New_York");
+    }
+
+    StringBuilder restoredOut = new StringBuilder();
+    try (CommandJournal journal = new CommandJournal(path)) {
+      Controller controller = new Controller(new InputStreamReader(new ByteArrayInputStream(
+          new byte[0])), new Model(), new View(restoredOut));
+      assertEquals(1, controller.setJournal(journal));
+    }
+    assertEquals("Error: Could not replay use calendar --name missing: Calendar not found\n",
+        restoredOut.toString());
+
+    // failures found before the view is set are shown once it is
+    StringBuilder laterOut = new StringBuilder();
+    try (CommandJournal journal = new CommandJournal(path)) {
+      ViewController controller = new ViewController(new Model());
+      controller.setJournal(journal);
+      controller.setView(new MockView(laterOut));
+    }
+    assertEquals("Could not replay use calendar --name missing: Calendar not found"
+        + System.lineSeparator(), laterOut.toString());
+  }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import calendar.Calendar;
 import calendar.ICalendar;
 import calendar.IEvent;
+import calendar.IRepeatingEvent;
 import model.IModel;
 
 /**
@@ -33,6 +34,19 @@ public class MockModel implements IModel {
     log.append("Input: ").append(newEvents.toString());
   }
 
+  @Override
+  public List<IEvent> addEventsSkippingConflicts(List<IEvent> newEvents) {
+    log.append("Input: ").append(newEvents.toString());
+    return List.of();
+  }
+
+  @Override
+  public void addSeries(IRepeatingEvent baseEvent) {
+    List<IEvent> events = baseEvent.getRepeatNumber() == 0
+        ? baseEvent.repeatUntilEndDate() : baseEvent.repeatNTimes();
+    log.append("Input: ").append(events.toString());
+  }
+
   @Override
   public List<IEvent> getEventsOnDate(ChronoZonedDateTime<LocalDate> date) {
     log.append("Input: ").append(date.toString());
@@ -54,6 +68,12 @@ public class MockModel implements IModel {
     return String.valueOf(uniqueCode);
   }
 
+  @Override
+  public List<String> getStatuses(List<String> dateTimes) {
+    log.append("Input: ").append(dateTimes);
+    return List.of(String.valueOf(uniqueCode));
+  }
+
   @Override
   public void editEventsFromStartDateTime(String property, String subject, String start,
       String newValue) {
@@ -121,4 +141,10 @@ public class MockModel implements IModel {
     log.append("Input: ").append(start).append(" - ").append(newCalendarStart)
         .append(" - ").append(target);
   }
+
+  @Override
+  public long getChangeCount() {
+    // the mock does not change anything
+    return 0;
+  }
 }
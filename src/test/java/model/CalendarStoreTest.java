@@ -0,0 +1,122 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import calendar.Calendar;
+import calendar.Event;
+import calendar.ICalendar;
+import calendar.IEvent;
+import utils.TimeUtils;
+
+/**
+ * A JUnit test class for testing the CalendarStore class.
+ */
+public class CalendarStoreTest {
+
+  private CalendarStore store;
+
+  @Before
+  public void setUp() {
+    store = new CalendarStore();
+    for (String name : List.of("a", "b", "c")) {
+      store.put(name, calendarWithEvents(name, 10));
+    }
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    long size = store.get("b").getEstimatedBytes();
+    store.get("a");
+    store.get("c");
+    // room for two calendars of ten events
+    store.setMemoryBudget(2 * size + size / 2);
+
+    assertTrue(store.isResident("a"));
+    assertFalse(store.isResident("b"));
+    assertTrue(store.isResident("c"));
+  }
+
+  @Test
+  public void testPinnedCalendarStays() {
+    ICalendar pinned = store.get("a");
+    store.pin(pinned);
+    store.get("b");
+    store.get("c");
+    store.setMemoryBudget(0);
+
+    // the pinned and the most recently used calendar are kept
+    assertTrue(store.isResident("a"));
+    assertFalse(store.isResident("b"));
+    assertTrue(store.isResident("c"));
+    assertSame(pinned, store.get("a"));
+  }
+
+  @Test
+  public void testEvictedCalendarIsReadBack() throws Exception {
+    ICalendar calendar = store.get("b");
+    calendar.edit("timezone", "Asia/Kolkata");
+    String events = calendar.getEvents().toString();
+    long size = store.get("a").getEstimatedBytes();
+    store.setMemoryBudget(size + size / 2);
+    assertFalse(store.isResident("b"));
+    byte[] encoded = store.getEncoded("b");
+
+    ICalendar read = store.get("b");
+    assertNotSame(calendar, read);
+    assertEquals(ZoneId.of("Asia/Kolkata"), read.getTimezone());
+    assertEquals(events, read.getEvents().toString());
+    assertEquals(encoded.length, store.getEncoded("b").length);
+  }
+
+  @Test
+  public void testEncodingKeptUntilChanged() throws Exception {
+    byte[] encoded = store.getEncoded("a");
+    assertSame(encoded, store.getEncoded("a"));
+
+    ICalendar calendar = store.get("a");
+    store.changing(calendar);
+    calendar.edit("timezone", "Asia/Kolkata");
+    assertNotSame(encoded, store.getEncoded("a"));
+  }
+
+  @Test
+  public void testNegativeBudget() {
+    try {
+      store.setMemoryBudget(-1);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Memory budget must not be negative", e.getMessage());
+    }
+  }
+
+  private ICalendar calendarWithEvents(String name, int count) {
+    ICalendar calendar = new Calendar(name, "US/Eastern");
+    ChronoZonedDateTime<LocalDate> start =
+        TimeUtils.parseDateTimeString("2025-03-03T10:00", calendar.getTimezone());
+    List<IEvent> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      events.add(new Event.EventBuilder()
+          .subject(name + i)
+          .startDateTime(start.plus(i, ChronoUnit.DAYS))
+          .endDateTime(start.plus(i, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS))
+          .build());
+    }
+    calendar.addEvents(events);
+    return calendar;
+  }
+}
@@ -0,0 +1,203 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+import calendar.Calendar;
+import calendar.Event;
+import calendar.ICalendar;
+import calendar.MappedCalendar;
+import calendar.IRepeatingEvent;
+import calendar.RepeatingEvent;
+import utils.TimeUtils;
+
+/**
+ * A JUnit test class for testing the ModelSnapshot class.
+ */
+public class ModelSnapshotTest {
+
+  private Model model;
+  private Path path;
+  private ChronoZonedDateTime<LocalDate> dateTime;
+
+  @Before
+  public void setUp() throws IOException {
+    model = new Model();
+    model.addCalendar(new Calendar("work", "US/Eastern"));
+    model.addCalendar(new Calendar("travel", "Asia/Kolkata"));
+    model.editCalendar("travel", "recurrence", Calendar.RULE_RECURRENCE);
+    model.useCalendar("work");
+
+    path = Files.createTempFile("model", ".snapshot");
+    path.toFile().deleteOnExit();
+    dateTime = TimeUtils.parseDateTimeString("2025-03-03T10:00", ZoneId.of("US/Eastern"));
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    model.addEvents(List.of(new Event.EventBuilder()
+        .subject("review")
+        .startDateTime(dateTime.plus(1, ChronoUnit.DAYS))
+        .endDateTime(dateTime.plus(1, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS))
+        .description("quarterly, with café")
+        .location("room 1")
+        .isPrivate(true)
+        .build()));
+    model.addSeries(series("standup", dateTime, 10));
+    model.useCalendar("travel");
+    model.addSeries(new RepeatingEvent.RepeatingEventBuilder()
+        .subject("flight")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(2, ChronoUnit.HOURS))
+        .repeatDays(TimeUtils.getDaysOfWeek("SU".toCharArray()))
+        .repeatEndDateTime(dateTime.plus(60, ChronoUnit.DAYS))
+        .build());
+    model.editCalendar("work", "name", "office");
+
+    ModelSnapshot.capture(model, 7).write(path);
+    ModelSnapshot snapshot = ModelSnapshot.read(path);
+    Model loaded = snapshot.load();
+
+    assertEquals(7, snapshot.getJournalPosition());
+    assertEquals("travel", loaded.getCurrentCalendar().getName());
+    assertEquals(Calendar.RULE_RECURRENCE, loaded.getCurrentCalendar().getRecurrence());
+    for (String key : List.of("default", "work", "travel")) {
+      ICalendar expected = model.getCalendar(key);
+      ICalendar actual = loaded.getCalendar(key);
+      assertEquals(expected.getName(), actual.getName());
+      assertEquals(expected.getTimezone(), actual.getTimezone());
+      assertEquals(expected.getEvents().toString(), actual.getEvents().toString());
+    }
+  }
+
+  @Test
+  public void testLoadedSeriesCanBeEdited() throws Exception {
+    model.addSeries(series("standup", dateTime, 4));
+    ModelSnapshot.capture(model, 0).write(path);
+    Model loaded = ModelSnapshot.read(path).load();
+
+    loaded.editEventsFromStartDateTime("location", "standup",
+        dateTime.plus(2, ChronoUnit.DAYS).toLocalDateTime().toString(), "room 2");
+    model.editEventsFromStartDateTime("location", "standup",
+        dateTime.plus(2, ChronoUnit.DAYS).toLocalDateTime().toString(), "room 2");
+    assertEquals(model.getCurrentCalendar().getEvents().toString(),
+        loaded.getCurrentCalendar().getEvents().toString());
+
+    // new series must not reuse the ids of the loaded ones
+    loaded.addSeries(series("retro", dateTime.plus(1, ChronoUnit.HOURS), 1));
+    IRepeatingEvent first = (IRepeatingEvent) loaded.getCurrentCalendar()
+        .findEvent("standup", dateTime);
+    IRepeatingEvent added = (IRepeatingEvent) loaded.getCurrentCalendar()
+        .findEvent("retro", dateTime.plus(1, ChronoUnit.HOURS));
+    assertNotEquals(first.getSeriesId(), added.getSeriesId());
+  }
+
+  @Test
+  public void testCalendarsLoadWhenUsed() throws Exception {
+    model.useCalendar("travel");
+    ModelSnapshot.capture(model, 0).write(path);
+    Model loaded = ModelSnapshot.read(path).load();
+
+    assertTrue(loaded.getCalendars().isResident("travel"));
+    assertFalse(loaded.getCalendars().isResident("work"));
+    loaded.useCalendar("work");
+    assertTrue(loaded.getCalendars().isResident("work"));
+    assertFalse(loaded.getCalendars().isResident("default"));
+
+    // calendars that were never read are copied into the next snapshot as they are
+    ModelSnapshot.capture(loaded, 0).write(path);
+    assertEquals(3, ModelSnapshot.read(path).load().getAllCalendars().size());
+  }
+
+  @Test
+  public void testCaptureSeesChanges() throws Exception {
+    ModelSnapshot.capture(model, 0);
+    model.addEvents(List.of(new Event.EventBuilder()
+        .subject("review")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(1, ChronoUnit.HOURS))
+        .build()));
+    ModelSnapshot.capture(model, 1).write(path);
+
+    Model loaded = ModelSnapshot.read(path).load();
+    assertEquals(1, loaded.getCurrentCalendar().getEvents().size());
+  }
+
+  @Test
+  public void testMappedCalendarIsReferenced() throws Exception {
+    Path directory = Files.createTempDirectory("archive");
+    MappedCalendar archive = new MappedCalendar("archive", "US/Eastern", directory);
+    model.addCalendar(archive);
+    model.useCalendar("archive");
+    model.addSeries(series("standup", dateTime, 30));
+    ModelSnapshot.capture(model, 0).write(path);
+
+    ICalendar loaded = ModelSnapshot.read(path).load().getCurrentCalendar();
+    assertTrue(loaded instanceof MappedCalendar);
+    assertEquals(archive.getEvents().toString(), loaded.getEvents().toString());
+    // only the directory is written, not the events
+    assertTrue(Files.size(path) < 1024);
+    ((MappedCalendar) loaded).close();
+    archive.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  @Test
+  public void testCorruptSnapshot() throws IOException {
+    ModelSnapshot.capture(model, 0).write(path);
+    byte[] bytes = Files.readAllBytes(path);
+    bytes[bytes.length / 2] ^= 1;
+    Files.write(path, bytes);
+
+    try {
+      ModelSnapshot.read(path);
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      assertEquals("Invalid snapshot: " + path, e.getMessage());
+    }
+  }
+
+  @Test
+  public void testWriteInBackground() throws Exception {
+    ModelSnapshot snapshot = ModelSnapshot.capture(model, 3);
+    // changes after the capture are not part of the snapshot
+    model.addCalendar(new Calendar("later", "US/Eastern"));
+    snapshot.writeInBackground(path).get();
+
+    Model loaded = ModelSnapshot.read(path).load();
+    assertEquals(3, loaded.getAllCalendars().size());
+    assertEquals("work", loaded.getCurrentCalendar().getName());
+  }
+
+  private IRepeatingEvent series(String subject, ChronoZonedDateTime<LocalDate> start,
+      int repeatNumber) {
+    return new RepeatingEvent.RepeatingEventBuilder()
+        .subject(subject)
+        .startDateTime(start)
+        .endDateTime(start.plus(30, ChronoUnit.MINUTES))
+        .repeatDays(TimeUtils.getDaysOfWeek("MWF".toCharArray()))
+        .repeatNumber(repeatNumber)
+        .build();
+  }
+}
@@ -1,6 +1,8 @@
 package model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import calendar.IRepeatingEvent;
@@ -11,17 +13,23 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.chrono.ChronoZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 import calendar.Calendar;
 import calendar.Event;
 import calendar.ICalendar;
 import calendar.IEvent;
+import calendar.MappedCalendar;
 import utils.TimeUtils;
 
 /**
@@ -460,6 +468,38 @@ public class ModelTest {
     assertEquals(expected, model.getStatus("2025-01-01T10:00"));
   }
 
+  @Test
+  public void testGetStatuses() {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-01-01T10:00", ZONE_ID);
+
+    IEvent event1 = new Event.EventBuilder()
+        .subject("Meeting")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(5, ChronoUnit.HOURS))
+        .build();
+    IEvent event2 = new Event.EventBuilder()
+        .subject("Next day")
+        .startDateTime(dateTime.plus(1, ChronoUnit.DAYS))
+        .endDateTime(dateTime.plus(1, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS))
+        .build();
+    model.addEvents(List.of(event1, event2));
+
+    List<String> expected = List.of("Available", "Busy", "Busy", "Available", "Busy",
+        "Available");
+    assertEquals(expected, model.getStatuses(List.of("2025-01-01T09:59", "2025-01-01T10:00",
+        "2025-01-01T14:59", "2025-01-01T15:00", "2025-01-02T10:30", "2025-01-02T11:00")));
+    assertEquals(List.of(), model.getStatuses(List.of()));
+
+    try {
+      model.getStatuses(List.of("2025-01-02T10:30", "2025-01-01T10:00"));
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Date times must be sorted in ascending order", e.getMessage());
+    }
+    assertEquals(Status.AVAILABLE.getValue(), model.getStatus("2025-01-01T15:00"));
+  }
+
   @Test
   public void testEditEventLocationForAllEventsWithSameEventName() {
     ChronoZonedDateTime<LocalDate> dateTime =
@@ -1274,6 +1314,30 @@ public class ModelTest {
     assertEquals(3, target.getEvents().size());
   }
 
+  @Test
+  public void testEvictsAfterAddingEvents() {
+    Model model = (Model) this.model;
+    // both calendars are empty, so they fit
+    model.setMemoryBudget(10_000);
+    assertTrue(model.getCalendars().isResident("default"));
+
+    ChronoZonedDateTime<LocalDate> start = TimeUtils.parseDateTimeString("2025-03-03T10:00",
+        ZONE_ID);
+    List<IEvent> events = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      events.add(new Event.EventBuilder()
+          .subject("event " + i)
+          .startDateTime(start.plus(i, ChronoUnit.DAYS))
+          .endDateTime(start.plus(i, ChronoUnit.DAYS).plus(1, ChronoUnit.HOURS))
+          .build());
+    }
+    model.addEventsSkippingConflicts(events);
+
+    // the calendar in use grew over the budget, so the other one is written to disk
+    assertFalse(model.getCalendars().isResident("default"));
+    assertTrue(model.getCalendars().isResident("test"));
+  }
+
   @Test
   public void testGetAllCalendars() {
     List<ICalendar> calendars = model.getAllCalendars();
@@ -1317,4 +1381,28 @@ public class ModelTest {
     System.out.println(repeatedEvents.size());
     assertEquals(3, repeatedEvents.size());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testCloseKeepsArchiveCalendars() throws Exception {
+    Path directory = Files.createTempDirectory("archive");
+    Model archiveModel = new Model();
+    archiveModel.addCalendar(new MappedCalendar("archive", "US/Eastern", directory));
+    archiveModel.useCalendar("archive");
+    archiveModel.addEvents(List.of(new Event.EventBuilder()
+        .subject("kept")
+        .startDateTime(TimeUtils.parseDateTimeString("2025-03-06T10:00", ZONE_ID))
+        .endDateTime(TimeUtils.parseDateTimeString("2025-03-06T11:00", ZONE_ID))
+        .build()));
+    archiveModel.close();
+
+    try (MappedCalendar reopened = MappedCalendar.open(directory)) {
+      assertEquals("archive", reopened.getName());
+      assertEquals("kept", reopened.getEvents().get(0).getSubject());
+    }
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+}
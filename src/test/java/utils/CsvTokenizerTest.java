@@ -0,0 +1,94 @@
+package utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A JUnit test class for testing the CsvTokenizer class.
+ */
+public class CsvTokenizerTest {
+
+  @Test
+  public void testPlainFields() {
+    assertEquals(List.of(List.of("a", "b", "c"), List.of("d", "", "")),
+        records("a,b,c\nd,,\n"));
+  }
+
+  @Test
+  public void testQuotedFields() {
+    assertEquals(List.of(List.of("a, b", "say \"hi\"", ""), List.of("line\nbreak", "x")),
+        records("\"a, b\",\"say \"\"hi\"\"\",\"\"\r\n\"line\nbreak\",x"));
+  }
+
+  @Test
+  public void testLineBreaks() {
+    // CRLF and LF both end a record, and a final line break does not start an empty one
+    assertEquals(List.of(List.of("a"), List.of("b"), List.of("")), records("a\r\nb\n\n"));
+    assertEquals(List.of(), records(""));
+  }
+
+  @Test
+  public void testMultiByteCharacters() {
+    assertEquals(List.of(List.of("café, ☕", "naïve"), List.of("\"日本\"")),
+        records("\"café, ☕\",naïve\n\"\"\"日本\"\"\"\n"));
+  }
+
+  @Test
+  public void testQuoteInsideUnquotedField() {
+    assertEquals(List.of(List.of("5\" screen", "x")), records("5\" screen,x\n"));
+  }
+
+  @Test
+  public void testFieldEquals() {
+    CsvTokenizer tokenizer = tokenizer("True,\"True\",\"Tr\"\"ue\",Truer");
+    assertTrue(tokenizer.nextRecord());
+    assertTrue(tokenizer.fieldEquals(0, "True"));
+    assertTrue(tokenizer.fieldEquals(1, "True"));
+    assertFalse(tokenizer.fieldEquals(2, "True"));
+    assertTrue(tokenizer.fieldEquals(2, "Tr\"ue"));
+    assertFalse(tokenizer.fieldEquals(3, "True"));
+  }
+
+  @Test
+  public void testFindLastRecordEnd() {
+    ByteBuffer text = bytes("a,b\n\"c\nd\",e\n\"f\ng");
+    // the line break inside the quotes does not end a record, the unfinished last record is left
+    assertEquals(12, CsvTokenizer.findLastRecordEnd(text, 0, text.capacity()));
+    assertEquals(4, CsvTokenizer.findLastRecordEnd(text, 0, 8));
+    assertEquals(4, CsvTokenizer.findLastRecordEnd(text, 4, 8));
+
+    ByteBuffer escaped = bytes("\"x\"\"\ny\"\nz");
+    assertEquals(8, CsvTokenizer.findLastRecordEnd(escaped, 0, escaped.capacity()));
+  }
+
+  private ByteBuffer bytes(String text) {
+    return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private CsvTokenizer tokenizer(String text) {
+    ByteBuffer bytes = bytes("#" + text);
+    // start after the first byte to check that the range is respected
+    return new CsvTokenizer(bytes, 1, bytes.capacity());
+  }
+
+  private List<List<String>> records(String text) {
+    CsvTokenizer tokenizer = tokenizer(text);
+    List<List<String>> records = new ArrayList<>();
+    while (tokenizer.nextRecord()) {
+      List<String> fields = new ArrayList<>();
+      for (int i = 0; i < tokenizer.getFieldCount(); i++) {
+        fields.add(tokenizer.getString(i));
+      }
+      records.add(fields);
+    }
+    return records;
+  }
+}
@@ -0,0 +1,64 @@
+package utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+/**
+ * A JUnit test class for testing the CsvWriter class.
+ */
+public class CsvWriterTest {
+
+  @Test
+  public void testQuotedFields() throws IOException {
+    StringWriter out = new StringWriter();
+    try (CsvWriter writer = new CsvWriter(out)) {
+      writer.writeField("plain");
+      writer.writeField("a, b");
+      writer.writeField("say \"hi\"");
+      writer.writeField("line\nbreak");
+      writer.writeField(null);
+      writer.endRecord();
+      writer.writeField("");
+      writer.writeField("x");
+      writer.endRecord();
+    }
+    assertEquals("plain,\"a, b\",\"say \"\"hi\"\"\",\"line\nbreak\",\n,x\n",
+        out.toString());
+  }
+
+  @Test
+  public void testDatesAndTimes() throws IOException {
+    StringWriter out = new StringWriter();
+    try (CsvWriter writer = new CsvWriter(out)) {
+      for (String dateTime : new String[]{"2025-01-02T00:05", "2025-11-30T12:00",
+          "0987-07-04T23:59", "+12025-03-04T09:30"}) {
+        writer.writeDate(LocalDateTime.parse(dateTime));
+        writer.writeTime(LocalDateTime.parse(dateTime));
+        writer.endRecord();
+      }
+    }
+    assertEquals("01/02/2025,12:05 AM\n11/30/2025,12:00 PM\n07/04/0987,11:59 PM\n"
+        + "03/04/+12025,09:30 AM\n", out.toString());
+  }
+
+  @Test
+  public void testRecordsLongerThanBuffer() throws IOException {
+    StringWriter out = new StringWriter();
+    String field = "x".repeat(100_000);
+    StringBuilder expected = new StringBuilder();
+    try (CsvWriter writer = new CsvWriter(out)) {
+      for (int i = 0; i < 3; i++) {
+        writer.writeField(field);
+        writer.writeDate(LocalDateTime.parse("2025-01-02T00:05"));
+        writer.endRecord();
+        expected.append(field).append(",01/02/2025\n");
+      }
+    }
+    assertEquals(expected.toString(), out.toString());
+  }
+}
@@ -0,0 +1,212 @@
+package utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import calendar.IEvent;
+import calendar.IRepeatingEvent;
+import calendar.StringDictionary;
+
+/**
+ * A JUnit test class for testing the IcsReader class.
+ */
+public class IcsReaderTest {
+
+  private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+  @Test
+  public void testEvents() throws IOException {
+    List<IEvent> events = read("BEGIN:VCALENDAR\r\n"
+        + "BEGIN:VTIMEZONE\r\nTZID:Custom\r\nBEGIN:STANDARD\r\nTZOFFSETFROM:-0400\r\n"
+        + "TZOFFSETTO:-0500\r\nDTSTART:19701101T020000\r\nEND:STANDARD\r\nEND:VTIMEZONE\r\n"
+        + "BEGIN:VEVENT\r\n"
+        + "SUMMARY:Review\\, fi\r\n nal\r\n"
+        + "DTSTART:20250303T150000Z\r\n"
+        + "DURATION:PT1H30M\r\n"
+        + "DESCRIPTION:line one\\nline two\\; C:\\\\docs\r\n"
+        + "LOCATION:Room 1\r\n"
+        + "CLASS:CONFIDENTIAL\r\n"
+        + "BEGIN:VALARM\r\nACTION:DISPLAY\r\nDESCRIPTION:reminder\r\nEND:VALARM\r\n"
+        + "END:VEVENT\r\n"
+        + "BEGIN:VEVENT\r\n"
+        + "SUMMARY:Flight\r\n"
+        + "DTSTART;TZID=\"Asia/Kolkata\":20250304T093000\r\n"
+        + "DTEND;TZID=Asia/Kolkata:20250304T113000\r\n"
+        + "END:VEVENT\r\n"
+        + "BEGIN:VEVENT\r\n"
+        + "SUMMARY:Holiday\r\n"
+        + "DTSTART;VALUE=DATE:20250305\r\n"
+        + "DTEND;VALUE=DATE:20250307\r\n"
+        + "END:VEVENT\r\n"
+        + "END:VCALENDAR\r\n");
+
+    assertEquals(3, events.size());
+    IEvent review = events.get(0);
+    assertEquals("Review, final", review.getSubject());
+    assertEquals("2025-03-03T10:00-05:00[America/New_York]",
+        review.getStartDateTime().toString());
+    assertEquals("2025-03-03T11:30-05:00[America/New_York]", review.getEndDateTime().toString());
+    assertEquals("line one\nline two; C:\\docs", review.getDescription());
+    assertEquals("Room 1", review.getLocation());
+    assertTrue(review.isPrivate());
+    assertFalse(review.isRepeating());
+
+    IEvent flight = events.get(1);
+    assertEquals("2025-03-03T23:00-05:00[America/New_York]",
+        flight.getStartDateTime().toString());
+    assertEquals("", flight.getLocation());
+    assertFalse(flight.isPrivate());
+
+    IEvent holiday = events.get(2);
+    assertTrue(holiday.isAllDay());
+    assertEquals("2025-03-05T00:00-05:00[America/New_York]",
+        holiday.getStartDateTime().toString());
+    assertEquals("2025-03-07T00:00-05:00[America/New_York]",
+        holiday.getEndDateTime().toString());
+  }
+
+  @Test
+  public void testSeriesAreNotExpanded() throws IOException {
+    List<IEvent> events = read(event("DTSTART;TZID=America/New_York:20250303T100000\r\n"
+        + "DTEND;TZID=America/New_York:20250303T110000\r\n"
+        + "RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=10\r\n")
+        + event("DTSTART:20250101T130000Z\r\nDTEND:20250101T131500Z\r\n"
+        + "RRULE:FREQ=DAILY;UNTIL=20341231T045959Z\r\n"));
+
+    assertEquals(2, events.size());
+    IRepeatingEvent weekly = (IRepeatingEvent) events.get(0);
+    assertEquals(9, weekly.getRepeatNumber());
+    assertEquals(10, weekly.repeatNTimes().size());
+    assertEquals(TimeUtils.getDaysOfWeek("MWF".toCharArray()), weekly.getRepeatDays());
+
+    IRepeatingEvent daily = (IRepeatingEvent) events.get(1);
+    assertEquals(0, daily.getRepeatNumber());
+    assertEquals("2034-12-30", daily.getRepeatEndDateTime().toLocalDate().toString());
+    assertEquals(3651, daily.repeatUntilEndDate().size());
+  }
+
+  @Test
+  public void testStartOutsideRepeatDays() throws IOException {
+    // a Tuesday start is an event of its own, followed by the series on Mondays and Wednesdays
+    List<IEvent> events = read(event("DTSTART:20250304T100000\r\nDTEND:20250304T110000\r\n"
+        + "RRULE:FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20250312T090000\r\n"));
+
+    assertEquals(2, events.size());
+    assertFalse(events.get(0).isRepeating());
+    assertEquals("2025-03-04T10:00-05:00[America/New_York]",
+        events.get(0).getStartDateTime().toString());
+    IRepeatingEvent series = (IRepeatingEvent) events.get(1);
+    assertEquals("2025-03-05T10:00-05:00[America/New_York]",
+        series.getStartDateTime().toString());
+    // the rule ends before the event on the 12th starts
+    assertEquals(2, series.repeatUntilEndDate().size());
+  }
+
+  @Test
+  public void testUnsupportedRule() throws IOException {
+    for (String rule : List.of("FREQ=MONTHLY;COUNT=3", "FREQ=WEEKLY;INTERVAL=2;COUNT=3",
+        "FREQ=WEEKLY", "FREQ=WEEKLY;BYDAY=1MO;COUNT=3")) {
+      try {
+        read(event("DTSTART:20250303T100000\r\nDTEND:20250303T110000\r\nRRULE:" + rule
+            + "\r\n"));
+        fail("Expected an IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        assertTrue(e.getMessage().endsWith(rule));
+      }
+    }
+  }
+
+  @Test
+  public void testExcludedDatesSplitSeries() throws IOException {
+    // the third and sixth occurrences are excluded, and still count towards COUNT
+    List<IEvent> events = read(event("DTSTART;TZID=America/New_York:20250303T100000\r\n"
+        + "DTEND;TZID=America/New_York:20250303T110000\r\n"
+        + "RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=10\r\n"
+        + "EXDATE;TZID=America/New_York:20250307T100000,20250312T100000\r\n")
+        + event("DTSTART:20250303T150000Z\r\nDTEND:20250303T151500Z\r\n"
+        + "RRULE:FREQ=DAILY;UNTIL=20250310T150000Z\r\n"
+        + "EXDATE:20250305T150000Z\r\nEXDATE:20250401T150000Z\r\n"));
+
+    assertEquals(List.of("2025-03-03", "2025-03-05", "2025-03-10", "2025-03-14", "2025-03-17",
+        "2025-03-19", "2025-03-21", "2025-03-24"), startDates(events.subList(0, 3)));
+    assertEquals(List.of("2025-03-03", "2025-03-04", "2025-03-06", "2025-03-07", "2025-03-08",
+        "2025-03-09", "2025-03-10"), startDates(events.subList(3, events.size())));
+  }
+
+  @Test
+  public void testReplacedOccurrences() throws IOException {
+    // the replacing event comes before its series
+    List<IEvent> events = read("BEGIN:VEVENT\r\nUID:standup\r\nSUMMARY:moved\r\n"
+        + "RECURRENCE-ID:20250305T100000\r\n"
+        + "DTSTART:20250305T140000\r\nDTEND:20250305T143000\r\nEND:VEVENT\r\n"
+        + event("UID:standup\r\nDTSTART:20250303T100000\r\nDTEND:20250303T103000\r\n"
+        + "RRULE:FREQ=DAILY;COUNT=5\r\n")
+        + event("UID:other\r\nDTSTART:20250303T120000\r\nDTEND:20250303T123000\r\n"
+        + "RRULE:FREQ=DAILY;COUNT=3\r\n"));
+
+    assertEquals(4, events.size());
+    assertEquals("moved", events.get(0).getSubject());
+    assertFalse(events.get(0).isRepeating());
+    assertEquals(List.of("2025-03-03", "2025-03-04", "2025-03-06", "2025-03-07"),
+        startDates(events.subList(1, 3)));
+    assertEquals(3, ((IRepeatingEvent) events.get(3)).repeatNTimes().size());
+  }
+
+  @Test
+  public void testUnsupportedRecurrences() throws IOException {
+    for (String properties : List.of("RDATE:20250310T100000\r\n",
+        "UID:a\r\nRECURRENCE-ID;RANGE=THISANDFUTURE:20250304T100000\r\n",
+        "RECURRENCE-ID:20250304T100000\r\n")) {
+      try {
+        read(event("DTSTART:20250303T100000\r\nDTEND:20250303T110000\r\n" + properties));
+        fail("Expected an IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        assertTrue(e.getMessage(), e.getMessage().startsWith("Unsupported")
+            || e.getMessage().startsWith("Missing UID"));
+      }
+    }
+  }
+
+  private List<String> startDates(List<IEvent> runs) {
+    List<String> dates = new ArrayList<>();
+    for (IEvent run : runs) {
+      List<IEvent> occurrences = !run.isRepeating() ? List.of(run)
+          : ((IRepeatingEvent) run).getRepeatNumber() == 0
+              ? ((IRepeatingEvent) run).repeatUntilEndDate()
+              : ((IRepeatingEvent) run).repeatNTimes();
+      for (IEvent occurrence : occurrences) {
+        dates.add(occurrence.getStartDateTime().toLocalDate().toString());
+      }
+    }
+    return dates;
+  }
+
+  private String event(String properties) {
+    return "BEGIN:VEVENT\r\nSUMMARY:event\r\n" + properties + "END:VEVENT\r\n";
+  }
+
+  private List<IEvent> read(String ics) throws IOException {
+    List<IEvent> events = new ArrayList<>();
+    try (IcsReader reader = new IcsReader(new BufferedReader(new StringReader(ics)), ZONE,
+        new StringDictionary(false))) {
+      reader.readReplacedOccurrences(new BufferedReader(new StringReader(ics)));
+      for (IEvent event = reader.next(); event != null; event = reader.next()) {
+        events.add(event);
+      }
+      assertNull(reader.next());
+    }
+    return events;
+  }
+}
@@ -0,0 +1,127 @@
+package utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.chrono.ChronoZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import calendar.Calendar;
+import calendar.Event;
+import calendar.ICalendar;
+import calendar.IEvent;
+import calendar.RepeatingEvent;
+
+/**
+ * A JUnit test class for testing the IcsWriter class.
+ */
+public class IcsWriterTest {
+
+  private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+  @Test
+  public void testLongSeriesIsOneEvent() throws IOException {
+    ICalendar calendar = new Calendar("work", ZONE.getId());
+    calendar.setRecurrence(Calendar.RULE_RECURRENCE);
+    ChronoZonedDateTime<LocalDate> start = TimeUtils.parseDateTimeString("2025-01-01T08:00", ZONE);
+    calendar.addSeries(new RepeatingEvent.RepeatingEventBuilder()
+        .subject("standup")
+        .startDateTime(start)
+        .endDateTime(start.plus(15, ChronoUnit.MINUTES))
+        .repeatDays(TimeUtils.getDaysOfWeek("MTWRFSU".toCharArray()))
+        .repeatEndDateTime(start.plus(10 * 365, ChronoUnit.DAYS))
+        .build());
+
+    String ics = write(calendar.getAllEvents());
+    assertEquals(1, count(ics, "BEGIN:VEVENT"));
+    assertTrue(ics.contains("DTSTART;TZID=America/New_York:20250101T080000\r\n"));
+    assertTrue(ics.contains("DTEND;TZID=America/New_York:20250101T081500\r\n"));
+    // the whole last day in New York, in UTC
+    assertTrue(ics.contains("RRULE:FREQ=DAILY;UNTIL=20341231T045959Z\r\n"));
+    assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+    assertTrue(ics.endsWith("END:VEVENT\r\nEND:VCALENDAR\r\n"));
+  }
+
+  @Test
+  public void testSeriesWithMissingOccurrence() throws IOException {
+    ChronoZonedDateTime<LocalDate> start = TimeUtils.parseDateTimeString("2025-03-03T10:00", ZONE);
+    List<IEvent> events = new ArrayList<>(new RepeatingEvent.RepeatingEventBuilder()
+        .subject("review")
+        .startDateTime(start)
+        .endDateTime(start.plus(1, ChronoUnit.HOURS))
+        .repeatDays(TimeUtils.getDaysOfWeek("MWF".toCharArray()))
+        .repeatNumber(9)
+        .build()
+        .repeatNTimes());
+    IEvent removed = events.remove(4);
+    events.add(4, new Event.EventBuilder()
+        .subject("lunch")
+        .startDateTime(removed.getStartDateTime().plus(3, ChronoUnit.HOURS))
+        .endDateTime(removed.getEndDateTime().plus(3, ChronoUnit.HOURS))
+        .build());
+
+    String ics = write(events);
+    assertEquals(3, count(ics, "BEGIN:VEVENT"));
+    assertEquals(2, count(ics, "RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT="));
+    assertTrue(ics.contains("DTSTART;TZID=America/New_York:20250303T100000\r\n"
+        + "DTEND;TZID=America/New_York:20250303T110000\r\n"
+        + "RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=4\r\n"));
+    assertTrue(ics.contains("DTSTART;TZID=America/New_York:20250314T100000\r\n"
+        + "DTEND;TZID=America/New_York:20250314T110000\r\n"
+        + "RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=5\r\n"));
+  }
+
+  @Test
+  public void testTextIsEscapedAndFolded() throws IOException {
+    ChronoZonedDateTime<LocalDate> start = TimeUtils.parseDateTimeString("2025-03-03T00:00", ZONE);
+    String description = "Notes; agenda, and a path C:\\docs\nsecond line with café "
+        + "x".repeat(100);
+    String ics = write(List.of(new Event.EventBuilder()
+        .subject("offsite")
+        .startDateTime(start)
+        .endDateTime(start.plus(1, ChronoUnit.DAYS))
+        .isAllDay(true)
+        .description(description)
+        .isPrivate(true)
+        .build()));
+
+    for (String line : ics.split("\r\n")) {
+      assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75);
+    }
+    String unfolded = ics.replace("\r\n ", "");
+    assertTrue(unfolded.contains("DESCRIPTION:Notes\\; agenda\\, and a path C:\\\\docs\\nsecond "
+        + "line with café " + "x".repeat(100) + "\r\n"));
+    assertTrue(unfolded.contains("DTSTART;VALUE=DATE:20250303\r\nDTEND;VALUE=DATE:20250304\r\n"));
+    assertTrue(unfolded.contains("CLASS:PRIVATE\r\n"));
+  }
+
+  private String write(Iterable<IEvent> events) throws IOException {
+    StringWriter out = new StringWriter();
+    try (IcsWriter writer = new IcsWriter(out)) {
+      for (IEvent event : events) {
+        writer.write(event);
+      }
+    }
+    return out.toString();
+  }
+
+  private int count(String text, String part) {
+    Matcher matcher = Pattern.compile(Pattern.quote(part)).matcher(text);
+    int count = 0;
+    while (matcher.find()) {
+      count++;
+    }
+    return count;
+  }
+}
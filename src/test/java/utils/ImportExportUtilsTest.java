@@ -3,13 +3,17 @@ package utils;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import calendar.Calendar;
 import calendar.Event;
 import calendar.ICalendar;
 import calendar.IEvent;
+import calendar.IRepeatingEvent;
 import calendar.RepeatingEvent;
+import calendar.StringDictionary;
 import model.IModel;
 import model.Model;
 
@@ -167,6 +171,129 @@ public class ImportExportUtilsTest {
     assertEquals(expected, result);
   }
 
+  @Test
+  public void testExportCalendarQuotedFieldsRoundTrip() throws IOException {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-03-04T12:30", ZONE_ID);
+    IEvent event = new Event.EventBuilder()
+        .subject("Review, final")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(12, ChronoUnit.HOURS))
+        .location("Room \"4\"")
+        .description("agenda\nnotes")
+        .isPrivate(true)
+        .build();
+
+    Path path = Files.createTempFile("export", ".csv");
+    path.toFile().deleteOnExit();
+    ImportExportUtils.exportCalendar(path.toString(), List.of(event));
+
+    String expected = "subject,startDate,startTime,endDate,endTime,allDayEvent,description,location"
+        + ",private\n\"Review, final\",03/04/2025,12:30 PM,03/05/2025,12:30 AM,False,"
+        + "\"agenda\nnotes\",\"Room \"\"4\"\"\",True\n";
+    assertEquals(expected, Files.readString(path));
+    assertEquals(List.of(event).toString(),
+        ImportExportUtils.importCalendar(path.toString(), ZONE_ID).toString());
+  }
+
+  @Test
+  public void testExportCalendarInMonthPartitions() throws IOException {
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-01-20T00:00", ZONE_ID);
+    List<IEvent> events = new ArrayList<>();
+    // a busy January that is cut into several partitions, and a February
+    for (int i = 0; i < 40000; i++) {
+      events.add(new Event.EventBuilder()
+          .subject("event " + i)
+          .startDateTime(dateTime.plus(i, ChronoUnit.MINUTES))
+          .endDateTime(dateTime.plus(i + 1, ChronoUnit.MINUTES))
+          .build());
+    }
+
+    Path path = Files.createTempFile("export", ".csv");
+    path.toFile().deleteOnExit();
+    ImportExportUtils.exportCalendar(path.toString(), events);
+
+    List<String> lines = Files.readAllLines(path);
+    assertEquals(events.size() + 1, lines.size());
+    assertEquals("subject,startDate,startTime,endDate,endTime,allDayEvent,description,location"
+        + ",private", lines.get(0));
+    assertEquals(events.toString(),
+        ImportExportUtils.importCalendar(path.toString(), ZONE_ID).toString());
+  }
+
+  @Test
+  public void testIcsRoundTripKeepsSeries() throws Exception {
+    ICalendar calendar = new Calendar("rules", "US/Eastern");
+    calendar.setRecurrence(Calendar.RULE_RECURRENCE);
+    ChronoZonedDateTime<LocalDate> dateTime =
+        TimeUtils.parseDateTimeString("2025-01-01T08:00", calendar.getTimezone());
+    calendar.addSeries(new RepeatingEvent.RepeatingEventBuilder()
+        .subject("standup")
+        .startDateTime(dateTime)
+        .endDateTime(dateTime.plus(15, ChronoUnit.MINUTES))
+        .repeatDays(TimeUtils.getDaysOfWeek("MTWRFSU".toCharArray()))
+        .repeatEndDateTime(dateTime.plus(10 * 365, ChronoUnit.DAYS))
+        .build());
+    calendar.addSeries(new RepeatingEvent.RepeatingEventBuilder()
+        .subject("review")
+        .startDateTime(dateTime.plus(2, ChronoUnit.HOURS))
+        .endDateTime(dateTime.plus(3, ChronoUnit.HOURS))
+        .location("Room 4, Boston")
+        .repeatDays(TimeUtils.getDaysOfWeek("MW".toCharArray()))
+        .repeatNumber(20)
+        .build());
+    calendar.addEvents(List.of(new Event.EventBuilder()
+        .subject("offsite")
+        .startDateTime(dateTime.minus(1, ChronoUnit.DAYS).minus(8, ChronoUnit.HOURS))
+        .endDateTime(dateTime.minus(8, ChronoUnit.HOURS))
+        .isAllDay(true)
+        .description("plans\nand notes")
+        .build()));
+
+    Path path = Files.createTempFile("export", ".ics");
+    path.toFile().deleteOnExit();
+    ImportExportUtils.exportIcsCalendar(path.toString(), calendar.getAllEvents());
+    String ics = Files.readString(path);
+    assertEquals(3, ics.split("BEGIN:VEVENT", -1).length - 1);
+
+    ICalendar imported = new Calendar("imported", "US/Eastern");
+    imported.setRecurrence(Calendar.RULE_RECURRENCE);
+    List<IEvent> events = new ArrayList<>();
+    long count = ImportExportUtils.importIcsCalendar(path.toString(), imported.getTimezone(),
+        imported.getStringDictionary(), events::add);
+    assertEquals(3, count);
+    for (IEvent event : events) {
+      if (event.isRepeating()) {
+        imported.addSeries((IRepeatingEvent) event);
+      } else {
+        imported.addEvents(List.of(event));
+      }
+    }
+
+    // the series are stored as rules, only the single event is stored as an event
+    assertEquals(1, imported.getEvents().size());
+    assertEquals(describe(calendar.getAllEvents()), describe(imported.getAllEvents()));
+  }
+
+  @Test
+  public void testImportIcsCalendarInvalidRule() throws IOException {
+    Path path = Files.createTempFile("import", ".ics");
+    path.toFile().deleteOnExit();
+    Files.writeString(path, "BEGIN:VCALENDAR\r\nBEGIN:VEVENT\r\nSUMMARY:monthly\r\n"
+        + "DTSTART:20250101T080000\r\nDTEND:20250101T090000\r\n"
+        + "RRULE:FREQ=MONTHLY;COUNT=3\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n");
+
+    try {
+      ImportExportUtils.importIcsCalendar(path.toString(), ZONE_ID, new StringDictionary(false),
+          event -> fail("Expected no events"));
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      assertEquals("Unsupported recurrence rule: FREQ=MONTHLY;COUNT=3",
+          e.getCause().getMessage());
+    }
+  }
+
   @Test(expected = IOException.class)
   public void testExportCalendarBlankFilepath() throws IOException {
     ImportExportUtils.exportCalendar("", new ArrayList<>());
@@ -189,4 +316,141 @@ public class ImportExportUtilsTest {
     assertFalse(event.isAllDay());
     assertFalse(event.isPrivate());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testImportCalendarSharesStrings() throws IOException {
+    Path path = Files.createTempFile("import", ".csv");
+    path.toFile().deleteOnExit();
+    Files.writeString(path, "subject,startDate,startTime,endDate,endTime,allDayEvent,"
+        + "description,location,private\n"
+        + "repeat,01/01/2025,08:00 AM,01/01/2025,10:00 AM,False,Workshop,Boston,False\n"
+        + "repeat,01/08/2025,08:00 AM,01/08/2025,10:00 AM,False,Workshop,Boston,False\n"
+        + "repeat,01/15/2025,08:00 AM,01/15/2025,10:00 AM,False,Workshop,Boston,False\n");
+
+    StringDictionary strings = new StringDictionary(false);
+    List<IEvent> imports = ImportExportUtils.importCalendar(path.toString(),
+        ZoneId.systemDefault(), strings);
+    assertEquals(3, imports.size());
+    assertSame(imports.get(0).getSubject(), imports.get(2).getSubject());
+    assertSame(imports.get(0).getLocation(), imports.get(1).getLocation());
+
+    assertEquals(3, strings.size());
+    assertEquals(9, strings.getLookups());
+    assertEquals(6, strings.getHits());
+    assertEquals(3.0, strings.getDedupRatio(), 0.001);
+  }
+
+  @Test
+  public void testImportCalendarInSortedBatches() throws IOException {
+    Path path = Files.createTempFile("import", ".csv");
+    path.toFile().deleteOnExit();
+    StringBuilder csv = new StringBuilder("subject,startDate,startTime,endDate,endTime,"
+        + "allDayEvent,description,location,private\n");
+    // about 2.5 MB, parsed in chunks of 1 MB
+    int rows = 40000;
+    for (int i = 0; i < rows; i++) {
+      // every batch holds its days in reverse order
+      int day = 28 - i % 28;
+      csv.append(String.format("event %d,02/%02d/2025,08:00 AM,02/%02d/2025,09:00 AM,"
+          + "False,,,False%n", i, day, day));
+    }
+    Files.writeString(path, csv);
+
+    List<List<IEvent>> batches = new ArrayList<>();
+    long count = ImportExportUtils.importCalendar(path.toString(), ZONE_ID,
+        new StringDictionary(false), batches::add);
+
+    assertEquals(rows, count);
+    assertEquals(3, batches.size());
+    int total = 0;
+    int previousLast = -1;
+    for (List<IEvent> batch : batches) {
+      for (int i = 1; i < batch.size(); i++) {
+        assertTrue(batch.get(i - 1).compareTo(batch.get(i)) <= 0);
+      }
+      // batches follow the file, so every row of a batch comes after the previous batch
+      int first = rows;
+      int last = -1;
+      for (IEvent event : batch) {
+        int row = Integer.parseInt(event.getSubject().substring(6));
+        first = Math.min(first, row);
+        last = Math.max(last, row);
+      }
+      assertEquals(previousLast + 1, first);
+      previousLast = last;
+      total += batch.size();
+    }
+    assertEquals(rows, total);
+  }
+
+  @Test
+  public void testImportCalendarRowLongerThanChunk() throws IOException {
+    Path path = Files.createTempFile("import", ".csv");
+    path.toFile().deleteOnExit();
+    String description = "é, ".repeat(1 << 19);
+    Files.writeString(path, "subject,startDate,startTime,endDate,endTime,allDayEvent,"
+        + "description,location,private\n"
+        + "first,01/01/2025,08:00 AM,01/01/2025,09:00 AM,False,,,False\n"
+        + "long,01/02/2025,08:00 AM,01/02/2025,09:00 AM,False,\"" + description + "\",,False\n"
+        + "last,01/03/2025,08:00 AM,01/03/2025,09:00 AM,False,,,False\n");
+
+    List<IEvent> imports = ImportExportUtils.importCalendar(path.toString(), ZONE_ID);
+    assertEquals(3, imports.size());
+    assertEquals(description, imports.get(1).getDescription());
+    assertEquals("last", imports.get(2).getSubject());
+  }
+
+  @Test
+  public void testImportCalendarInvalidRow() throws IOException {
+    Path path = Files.createTempFile("import", ".csv");
+    path.toFile().deleteOnExit();
+    Files.writeString(path, "subject,startDate,startTime,endDate,endTime,allDayEvent,"
+        + "description,location,private\n"
+        + "broken,01/01/2025\n");
+
+    try {
+      ImportExportUtils.importCalendar(path.toString(), ZONE_ID, new StringDictionary(false),
+          batch -> fail("Expected no batch"));
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      assertEquals("Expected 9 fields in a row, found 2", e.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void testImportCalendarQuotedFields() throws IOException {
+    Path path = Files.createTempFile("import", ".csv");
+    path.toFile().deleteOnExit();
+    Files.writeString(path, "subject,startDate,startTime,endDate,endTime,allDayEvent,"
+        + "description,location,private\r\n"
+        + "\"Review, final\",01/01/2025,12:15 AM,01/01/2025,12:45 PM,False,"
+        + "\"Bring the \"\"Q1\"\" deck\nand notes\",\"Room 4, Boston\",True\r\n"
+        + "plain,01/02/2025,09:05 AM,01/02/2025,09:35 AM,True,,,False");
+
+    List<IEvent> imports = ImportExportUtils.importCalendar(path.toString(), ZONE_ID);
+    assertEquals(2, imports.size());
+    IEvent quoted = imports.get(0);
+    assertEquals("Review, final", quoted.getSubject());
+    assertEquals("Bring the \"Q1\" deck\nand notes", quoted.getDescription());
+    assertEquals("Room 4, Boston", quoted.getLocation());
+    assertTrue(quoted.isPrivate());
+    assertEquals("2025-01-01T00:15", quoted.getStartDateTime().toLocalDateTime().toString());
+    assertEquals("2025-01-01T12:45", quoted.getEndDateTime().toLocalDateTime().toString());
+
+    IEvent plain = imports.get(1);
+    assertEquals("2025-01-02T09:05", plain.getStartDateTime().toLocalDateTime().toString());
+    assertTrue(plain.isAllDay());
+    assertEquals("", plain.getLocation());
+  }
+
+  private List<String> describe(Iterable<IEvent> events) {
+    List<String> descriptions = new ArrayList<>();
+    for (IEvent event : events) {
+      descriptions.add(String.join("|", event.getSubject(),
+          event.getStartDateTime().toString(), event.getEndDateTime().toString(),
+          event.getDescription(), event.getLocation(), String.valueOf(event.isAllDay()),
+          String.valueOf(event.isPrivate()), String.valueOf(event.isRepeating())));
+    }
+    return descriptions;
+  }
+}